@@ -14,18 +14,25 @@
 
 package org.codice.ddf.admin.api.config.ldap;
 
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.formatServer;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateAttributeNames;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateBindUserMethod;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateDn;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateEncryptionMethod;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateLdapQuery;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateLdapServers;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateLdapType;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateLdapUseCase;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateLoadBalancing;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateQueryPageCookie;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateQueryPageSize;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateHostName;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateMappingNoWhiteSpace;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validatePort;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateString;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateStringNoWhiteSpace;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -46,6 +53,10 @@ public class LdapConfiguration extends Configuration {
 
     public static final String PORT = "port";
 
+    public static final String FAILOVER_SERVERS = "failoverServers";
+
+    public static final String LOAD_BALANCING = "loadBalancing";
+
     public static final String ENCRYPTION_METHOD = "encryptionMethod";
 
     public static final String BIND_USER = "bindUser";
@@ -67,6 +78,12 @@ public class LdapConfiguration extends Configuration {
 
     public static final String QUERY_BASE = "queryBase";
 
+    public static final String QUERY_PAGE_SIZE = "queryPageSize";
+
+    public static final String QUERY_PAGE_COOKIE = "queryPageCookie";
+
+    public static final String QUERY_ATTRIBUTES = "queryAttributes";
+
     public static final String LDAP_TYPE = "ldapType";
 
     public static final String LDAP_USE_CASE = "ldapUseCase";
@@ -86,6 +103,10 @@ public class LdapConfiguration extends Configuration {
 
     private int port;
 
+    private List<String> failoverServers;
+
+    private String loadBalancing;
+
     private String encryptionMethod;
 
     private String bindUserMethod;
@@ -107,6 +128,12 @@ public class LdapConfiguration extends Configuration {
 
     private String queryBase;
 
+    private Integer queryPageSize;
+
+    private String queryPageCookie;
+
+    private List<String> queryAttributes;
+
     private String ldapType;
 
     private String ldapUseCase;
@@ -129,6 +156,12 @@ public class LdapConfiguration extends Configuration {
                     .put(FACTORY_PID, config -> validateString(config.factoryPid(), FACTORY_PID))
                     .put(HOST_NAME, config -> validateHostName(config.hostName(), HOST_NAME))
                     .put(PORT, config -> validatePort(config.port(), PORT))
+                    .put(FAILOVER_SERVERS,
+                            config -> validateLdapServers(config.failoverServers(),
+                                    FAILOVER_SERVERS))
+                    .put(LOAD_BALANCING,
+                            config -> validateLoadBalancing(config.loadBalancing(),
+                                    LOAD_BALANCING))
                     .put(ENCRYPTION_METHOD,
                             config -> validateEncryptionMethod(config.encryptionMethod(),
                                     ENCRYPTION_METHOD))
@@ -147,6 +180,15 @@ public class LdapConfiguration extends Configuration {
                     .put(BASE_USER_DN, config -> validateDn(config.baseUserDn(), BASE_USER_DN))
                     .put(QUERY, config -> validateLdapQuery(config.query(), QUERY))
                     .put(QUERY_BASE, config -> validateDn(config.queryBase(), QUERY_BASE))
+                    .put(QUERY_PAGE_SIZE,
+                            config -> validateQueryPageSize(config.queryPageSize(),
+                                    QUERY_PAGE_SIZE))
+                    .put(QUERY_PAGE_COOKIE,
+                            config -> validateQueryPageCookie(config.queryPageCookie(),
+                                    QUERY_PAGE_COOKIE))
+                    .put(QUERY_ATTRIBUTES,
+                            config -> validateAttributeNames(config.queryAttributes(),
+                                    QUERY_ATTRIBUTES))
                     .put(LDAP_TYPE, config -> validateLdapType(config.ldapType(), LDAP_TYPE))
                     .put(LDAP_USE_CASE,
                             config -> validateLdapUseCase(config.ldapUseCase(), LDAP_USE_CASE))
@@ -180,6 +222,34 @@ public class LdapConfiguration extends Configuration {
         return port;
     }
 
+    /**
+     * @return the servers to use, in order, when the server given by the host name and port is
+     * unavailable, each as {@code host:port}
+     */
+    public List<String> failoverServers() {
+        return failoverServers;
+    }
+
+    /**
+     * @return how connections are spread across the servers when there are failover servers
+     */
+    public String loadBalancing() {
+        return loadBalancing;
+    }
+
+    /**
+     * @return the server given by the host name and port followed by any failover servers, each
+     * as {@code host:port}, with IPv6 addresses in brackets
+     */
+    public List<String> servers() {
+        List<String> servers = new ArrayList<>();
+        servers.add(formatServer(hostName, port));
+        if (failoverServers != null) {
+            servers.addAll(failoverServers);
+        }
+        return servers;
+    }
+
     public String encryptionMethod() {
         return encryptionMethod;
     }
@@ -223,6 +293,21 @@ public class LdapConfiguration extends Configuration {
         return queryBase;
     }
 
+    public Integer queryPageSize() {
+        return queryPageSize;
+    }
+
+    /**
+     * @return the base64 encoded Simple Paged Results cookie of the page to read
+     */
+    public String queryPageCookie() {
+        return queryPageCookie;
+    }
+
+    public List<String> queryAttributes() {
+        return queryAttributes;
+    }
+
     public String ldapType() {
         return ldapType;
     }
@@ -262,6 +347,16 @@ public class LdapConfiguration extends Configuration {
         return this;
     }
 
+    public LdapConfiguration failoverServers(List<String> failoverServers) {
+        this.failoverServers = failoverServers;
+        return this;
+    }
+
+    public LdapConfiguration loadBalancing(String loadBalancing) {
+        this.loadBalancing = loadBalancing;
+        return this;
+    }
+
     public LdapConfiguration encryptionMethod(String encryptionMethod) {
         this.encryptionMethod = encryptionMethod;
         return this;
@@ -316,6 +411,21 @@ public class LdapConfiguration extends Configuration {
         return this;
     }
 
+    public LdapConfiguration queryPageSize(Integer queryPageSize) {
+        this.queryPageSize = queryPageSize;
+        return this;
+    }
+
+    public LdapConfiguration queryPageCookie(String queryPageCookie) {
+        this.queryPageCookie = queryPageCookie;
+        return this;
+    }
+
+    public LdapConfiguration queryAttributes(List<String> queryAttributes) {
+        this.queryAttributes = queryAttributes;
+        return this;
+    }
+
     public LdapConfiguration ldapType(String ldapType) {
         this.ldapType = ldapType;
         return this;
@@ -362,6 +472,8 @@ public class LdapConfiguration extends Configuration {
         return MoreObjects.toStringHelper(this)
                 .add("hostName", hostName)
                 .add("port", port)
+                .add("failoverServers", failoverServers)
+                .add("loadBalancing", loadBalancing)
                 .add("encryptionMethod", encryptionMethod)
                 .add("bindUserMethod", bindUserMethod)
                 .add("bindUser", bindUser)
@@ -14,11 +14,19 @@
 
 package org.codice.ddf.admin.api.config.sources;
 
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateBenchmarkConcurrency;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateBenchmarkQueries;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateDiscoveryTargets;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateOffset;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateSourcePorts;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateSources;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateSubnet;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateHostName;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validatePort;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateString;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateUrl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -47,6 +55,22 @@ public class SourceConfiguration extends Configuration {
 
     public static final String SOURCE_USER_PASSWORD = "sourceUserPassword";
 
+    public static final String SUBNET = "subnet";
+
+    public static final String SOURCE_PORTS = "sourcePorts";
+
+    public static final String DISCOVERY_JOB_ID = "discoveryJobId";
+
+    public static final String DISCOVERY_OFFSET = "discoveryOffset";
+
+    public static final String DISCOVERY_TARGETS = "discoveryTargets";
+
+    public static final String SOURCES = "sources";
+
+    public static final String BENCHMARK_QUERIES = "benchmarkQueries";
+
+    public static final String BENCHMARK_CONCURRENCY = "benchmarkConcurrency";
+
     private String sourceName;
 
     private String sourceHostName;
@@ -59,6 +83,22 @@ public class SourceConfiguration extends Configuration {
 
     private String sourceUserPassword;
 
+    private String subnet;
+
+    private List<Integer> sourcePorts;
+
+    private String discoveryJobId;
+
+    private int discoveryOffset;
+
+    private List<SourceConfiguration> discoveryTargets;
+
+    private List<SourceConfiguration> sources;
+
+    private Integer benchmarkQueries;
+
+    private Integer benchmarkConcurrency;
+
     public SourceConfiguration() {
 
     }
@@ -71,6 +111,20 @@ public class SourceConfiguration extends Configuration {
         this.sourceUserName = sourceConfiguration.sourceUserName;
         this.sourceUserPassword = sourceConfiguration.sourceUserPassword;
         this.endpointUrl = sourceConfiguration.endpointUrl;
+        this.subnet = sourceConfiguration.subnet;
+        this.sourcePorts = sourceConfiguration.sourcePorts == null ?
+                null :
+                new ArrayList<>(sourceConfiguration.sourcePorts);
+        this.discoveryJobId = sourceConfiguration.discoveryJobId;
+        this.discoveryOffset = sourceConfiguration.discoveryOffset;
+        this.discoveryTargets = sourceConfiguration.discoveryTargets == null ?
+                null :
+                new ArrayList<>(sourceConfiguration.discoveryTargets);
+        this.sources = sourceConfiguration.sources == null ?
+                null :
+                new ArrayList<>(sourceConfiguration.sources);
+        this.benchmarkQueries = sourceConfiguration.benchmarkQueries;
+        this.benchmarkConcurrency = sourceConfiguration.benchmarkConcurrency;
     }
 
     public static <T extends SourceConfiguration> Map<String, Function<T, List<ConfigurationMessage>>> getBaseFieldValidationMap() {
@@ -86,6 +140,22 @@ public class SourceConfiguration extends Configuration {
                         config -> validateString(config.sourceUserPassword(), SOURCE_USER_PASSWORD))
                 .put(ENDPOINT_URL, config -> validateUrl(config.endpointUrl(), ENDPOINT_URL))
                 .put(SERVICE_PID, config -> validateString(config.servicePid(), SERVICE_PID))
+                .put(SUBNET, config -> validateSubnet(config.subnet(), SUBNET))
+                .put(SOURCE_PORTS, config -> validateSourcePorts(config.sourcePorts(), SOURCE_PORTS))
+                .put(DISCOVERY_JOB_ID,
+                        config -> validateString(config.discoveryJobId(), DISCOVERY_JOB_ID))
+                .put(DISCOVERY_OFFSET,
+                        config -> validateOffset(config.discoveryOffset(), DISCOVERY_OFFSET))
+                .put(DISCOVERY_TARGETS,
+                        config -> validateDiscoveryTargets(config.discoveryTargets(),
+                                DISCOVERY_TARGETS))
+                .put(SOURCES, config -> validateSources(config.sources(), SOURCES))
+                .put(BENCHMARK_QUERIES,
+                        config -> validateBenchmarkQueries(config.benchmarkQueries(),
+                                BENCHMARK_QUERIES))
+                .put(BENCHMARK_CONCURRENCY,
+                        config -> validateBenchmarkConcurrency(config.benchmarkConcurrency(),
+                                BENCHMARK_CONCURRENCY))
                 .build();
     }
 
@@ -123,6 +193,38 @@ public class SourceConfiguration extends Configuration {
         return sourceUserName;
     }
 
+    public String subnet() {
+        return subnet;
+    }
+
+    public List<Integer> sourcePorts() {
+        return sourcePorts;
+    }
+
+    public String discoveryJobId() {
+        return discoveryJobId;
+    }
+
+    public int discoveryOffset() {
+        return discoveryOffset;
+    }
+
+    public List<SourceConfiguration> discoveryTargets() {
+        return discoveryTargets;
+    }
+
+    public List<SourceConfiguration> sources() {
+        return sources;
+    }
+
+    public Integer benchmarkQueries() {
+        return benchmarkQueries;
+    }
+
+    public Integer benchmarkConcurrency() {
+        return benchmarkConcurrency;
+    }
+
     //Setters
     public SourceConfiguration sourceName(String sourceName) {
         this.sourceName = sourceName;
@@ -154,6 +256,46 @@ public class SourceConfiguration extends Configuration {
         return this;
     }
 
+    public SourceConfiguration subnet(String subnet) {
+        this.subnet = subnet;
+        return this;
+    }
+
+    public SourceConfiguration sourcePorts(List<Integer> sourcePorts) {
+        this.sourcePorts = sourcePorts;
+        return this;
+    }
+
+    public SourceConfiguration discoveryJobId(String discoveryJobId) {
+        this.discoveryJobId = discoveryJobId;
+        return this;
+    }
+
+    public SourceConfiguration discoveryOffset(int discoveryOffset) {
+        this.discoveryOffset = discoveryOffset;
+        return this;
+    }
+
+    public SourceConfiguration discoveryTargets(List<SourceConfiguration> discoveryTargets) {
+        this.discoveryTargets = discoveryTargets;
+        return this;
+    }
+
+    public SourceConfiguration sources(List<SourceConfiguration> sources) {
+        this.sources = sources;
+        return this;
+    }
+
+    public SourceConfiguration benchmarkQueries(Integer benchmarkQueries) {
+        this.benchmarkQueries = benchmarkQueries;
+        return this;
+    }
+
+    public SourceConfiguration benchmarkConcurrency(Integer benchmarkConcurrency) {
+        this.benchmarkConcurrency = benchmarkConcurrency;
+        return this;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -163,6 +305,8 @@ public class SourceConfiguration extends Configuration {
                 .add("endpointUrl", endpointUrl)
                 .add("sourceUserName", sourceUserName)
                 .add("sourceUserPassword", "********")
+                .add("subnet", subnet)
+                .add("sourcePorts", sourcePorts)
                 .toString();
     }
 }
@@ -48,11 +48,11 @@ public class OperationReport {
         results.put(key, result);
     }
 
-    enum Status {
+    public enum Status {
         COMMIT_PASSED, COMMIT_FAILED, SKIPPED, ROLLBACK_PASSED, ROLLBACK_FAILED;
     }
 
-    static class Result {
+    public static class Result {
         private final Status status;
 
         private final Throwable badOutcome;
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.handler;
+
+import java.util.Map;
+
+import org.codice.ddf.admin.api.config.Configuration;
+import org.codice.ddf.admin.api.handler.report.ConfigurationPage;
+
+/**
+ * <b> This code is experimental. While this interface is functional and tested, it may change or be
+ * removed in a future version of the library. </b>
+ * <p>
+ * A {@link ConfigurationHandler} that can return its {@link Configuration}s one page at a time,
+ * so a client can show the first results without retrieving every configuration.
+ */
+public interface PagedConfigurationHandler<S extends Configuration>
+        extends ConfigurationHandler<S> {
+
+    /**
+     * Returns a page of the {@link Configuration}s matching all of the given filters, in a stable
+     * order. Filters the handler does not support are ignored.
+     *
+     * @param offset  number of matching {@link Configuration}s to skip
+     * @param limit   maximum number of {@link Configuration}s to return
+     * @param filters filter names mapped to the values to match
+     * @return a {@link ConfigurationPage} containing the requested {@link Configuration}s and the total number of matches
+     */
+    ConfigurationPage<S> getConfigurations(int offset, int limit, Map<String, String> filters);
+}
@@ -14,17 +14,27 @@
 
 package org.codice.ddf.admin.api.handler;
 
+import java.util.List;
+
 import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.handler.method.PersistMethod;
 
 /**
  * <b> This code is experimental. While this interface is functional and tested, it may change or be
  * removed in a future version of the library. </b>
  * <p>
- * A marker interface that signifies this {@link ConfigurationHandler} can handle a {@link SourceConfiguration}.
+ * Signifies this {@link ConfigurationHandler} can handle a {@link SourceConfiguration}.
  *
  * @param <S> the {@link org.codice.ddf.admin.api.config.sources.SourceConfiguration} this {@link SourceConfigurationHandler} can handle.
  */
 public interface SourceConfigurationHandler<S extends SourceConfiguration>
         extends ConfigurationHandler<S> {
 
+    /**
+     * Retrieves the persist methods of this handler so that they can be combined into a single
+     * transaction with those of other source handlers.
+     *
+     * @return a {@link List} of {@link PersistMethod}s
+     */
+    List<PersistMethod> getPersistMethods();
 }
@@ -14,19 +14,29 @@
 package org.codice.ddf.admin.api.handler.commons;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.namespace.NamespaceContext;
 
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.network.HappyEyeballsConnector;
+import org.codice.ddf.admin.api.network.ReachabilityCache;
+import org.codice.ddf.admin.api.network.ReachabilityCache.Reachability;
+import org.codice.ddf.admin.api.network.RttEstimator;
+
 public class SourceHandlerCommons {
 
     //Common probe return types
     public static final String DISCOVERED_SOURCES = "discoveredSources";
 
+    public static final String QUERY_BENCHMARK = "queryBenchmark";
+
     //Common probe, persist and test id's
     public static final String DISCOVER_SOURCES_ID = "discover-sources";
 
@@ -34,6 +44,8 @@ public class SourceHandlerCommons {
 
     public static final String VALID_URL_TEST_ID = "valid-url";
 
+    public static final String QUERY_BENCHMARK_ID = "query-benchmark";
+
     //Common success types
     public static final String CONFIG_CREATED = "CONFIG_CREATED";
 
@@ -53,26 +65,172 @@ public class SourceHandlerCommons {
 
     public static final String BAD_CONFIG = "BAD_CONFIG";
 
+    public static final String RESPONSE_TOO_LARGE = "RESPONSE_TOO_LARGE";
+
+    public static final String RESPONSE_TIMED_OUT = "RESPONSE_TIMED_OUT";
+
+    // Connect timeout for hosts whose round trip time has not been measured yet
     public static final int PING_TIMEOUT = 2000;
 
+    // Read timeout for hosts whose response time has not been measured yet
+    public static final int INITIAL_READ_TIMEOUT = 30000;
+
+    public static final String MIN_CONNECT_TIMEOUT_PROPERTY =
+            "org.codice.ddf.admin.sources.minConnectTimeout";
+
+    public static final String MAX_CONNECT_TIMEOUT_PROPERTY =
+            "org.codice.ddf.admin.sources.maxConnectTimeout";
+
+    public static final String MIN_READ_TIMEOUT_PROPERTY =
+            "org.codice.ddf.admin.sources.minReadTimeout";
+
+    public static final String MAX_READ_TIMEOUT_PROPERTY =
+            "org.codice.ddf.admin.sources.maxReadTimeout";
+
+    public static final long REACHABLE_CACHE_TTL = TimeUnit.SECONDS.toMillis(30);
+
+    public static final long UNREACHABLE_CACHE_TTL = TimeUnit.SECONDS.toMillis(10);
+
+    private static final ReachabilityCache REACHABILITY_CACHE = new ReachabilityCache(
+            REACHABLE_CACHE_TTL,
+            UNREACHABLE_CACHE_TTL);
+
+    private static final RttEstimator CONNECT_RTT = new RttEstimator(PING_TIMEOUT,
+            Long.getLong(MIN_CONNECT_TIMEOUT_PROPERTY, 250),
+            Long.getLong(MAX_CONNECT_TIMEOUT_PROPERTY, 10000));
+
+    private static final RttEstimator RESPONSE_RTT = new RttEstimator(INITIAL_READ_TIMEOUT,
+            Long.getLong(MIN_READ_TIMEOUT_PROPERTY, 2000),
+            Long.getLong(MAX_READ_TIMEOUT_PROPERTY, 60000));
+
     public static String endpointIsReachable(String hostname, int port) {
-        try (Socket connection = new Socket()) {
-            connection.connect(new InetSocketAddress(hostname, port), PING_TIMEOUT);
-            connection.close();
-            return REACHED_URL;
+        return checkEndpointReachable(hostname, port).isReachable() ? REACHED_URL : CANNOT_CONNECT;
+    }
+
+    /**
+     * Checks whether a connection can be opened to the hostname and port. Recent results are
+     * cached for {@link #REACHABLE_CACHE_TTL} or {@link #UNREACHABLE_CACHE_TTL} and concurrent
+     * checks of the same endpoint share one connect attempt.
+     */
+    public static Reachability checkEndpointReachable(String hostname, int port) {
+        return REACHABILITY_CACHE.check(hostname, port, SourceHandlerCommons::connect);
+    }
+
+    /**
+     * Records a reachability result found by another check, such as a subnet sweep, so later
+     * probes of the endpoint do not connect again.
+     */
+    public static void recordEndpointReachable(String hostname, int port, boolean reachable) {
+        REACHABILITY_CACHE.record(hostname, port, reachable);
+    }
+
+    /**
+     * Builds the {@link ConfigurationMessage} for a reachability check of the hostname and port,
+     * noting in the message when the result was served from the cache.
+     */
+    public static ConfigurationMessage buildReachabilityMessage(Map<String, String> successTypes,
+            Map<String, String> failureTypes, Map<String, String> warningTypes, String hostname,
+            int port) {
+        Reachability reachability = checkEndpointReachable(hostname, port);
+        ConfigurationMessage message = ConfigurationMessage.buildMessage(successTypes,
+                failureTypes,
+                warningTypes,
+                reachability.isReachable() ? REACHED_URL : CANNOT_CONNECT);
+        if (message == null || !reachability.isCached() && !reachability.isShared()) {
+            return message;
+        }
+
+        String cacheNote = reachability.isCached() ?
+                String.format(" (Cached result from a check %d seconds ago.)",
+                        TimeUnit.MILLISECONDS.toSeconds(reachability.ageMillis())) :
+                " (Shared result from a concurrent check.)";
+        return new ConfigurationMessage(message.type(),
+                message.subtype(),
+                message.message() + cacheNote,
+                message.configFieldId());
+    }
 
+    /**
+     * @return the connect timeout in milliseconds for the host, learned from the connect times
+     * of earlier probes. The bounds can be set with the {@value #MIN_CONNECT_TIMEOUT_PROPERTY}
+     * and {@value #MAX_CONNECT_TIMEOUT_PROPERTY} system properties.
+     */
+    public static int connectTimeout(String hostname) {
+        return (int) CONNECT_RTT.timeoutMillis(hostname);
+    }
+
+    /**
+     * @return the timeout in milliseconds to wait for the host to respond to a request, learned
+     * from the response times of earlier probes. The bounds can be set with the
+     * {@value #MIN_READ_TIMEOUT_PROPERTY} and {@value #MAX_READ_TIMEOUT_PROPERTY} system
+     * properties.
+     */
+    public static int readTimeout(String hostname) {
+        return (int) RESPONSE_RTT.timeoutMillis(hostname);
+    }
+
+    /**
+     * Records the time taken to open a TCP connection to the host.
+     */
+    public static void recordConnectTime(String hostname, long millis) {
+        CONNECT_RTT.recordSample(hostname, millis);
+    }
+
+    public static void recordConnectTimeout(String hostname) {
+        CONNECT_RTT.recordTimeout(hostname);
+    }
+
+    /**
+     * Records the time the host took to answer a request on an open connection.
+     */
+    public static void recordResponseTime(String hostname, long millis) {
+        RESPONSE_RTT.recordSample(hostname, millis);
+    }
+
+    public static void recordReadTimeout(String hostname) {
+        RESPONSE_RTT.recordTimeout(hostname);
+    }
+
+    /**
+     * Connects by racing the host's IPv6 and IPv4 addresses, so a broken route for one family
+     * does not hold up the check. The race's elapsed time is recorded as the host's connect
+     * time; once a family has won, later races try it first and the two agree closely.
+     */
+    private static boolean connect(String hostname, int port) {
+        long start = System.nanoTime();
+        try (Socket connection = HappyEyeballsConnector.getInstance()
+                .connect(hostname, port, connectTimeout(hostname))) {
+            recordConnectTime(hostname,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (SocketTimeoutException e) {
+            recordConnectTimeout(hostname);
+            return false;
         } catch (IOException e) {
-            return CANNOT_CONNECT;
+            return false;
         }
     }
 
+    /**
+     * Checks whether a connection can be opened to the host and port of the URL, using the
+     * scheme's default port if the URL has none. The check is shared with
+     * {@link #checkEndpointReachable(String, int)}.
+     * <p>
+     * Only a TCP connection is opened: an https URL is reached without a TLS handshake, and the
+     * JVM's proxy settings are not consulted. Trust problems are instead reported by the fetch
+     * that follows the check, and the source clients connect directly as well, so a host that
+     * is only reachable through a proxy could not be probed either way.
+     */
     public static String endpointIsReachable(String url) {
         try {
-            URLConnection urlConnection = (new URL(url).openConnection());
-            urlConnection.setConnectTimeout(PING_TIMEOUT);
-            urlConnection.connect();
-            return REACHED_URL;
-        } catch (Exception e) {
+            URL endpoint = new URL(url);
+            int port = endpoint.getPort() == -1 ? endpoint.getDefaultPort() : endpoint.getPort();
+            if (endpoint.getHost()
+                    .isEmpty() || port == -1) {
+                return CANNOT_CONNECT;
+            }
+            return endpointIsReachable(endpoint.getHost(), port);
+        } catch (MalformedURLException e) {
             return CANNOT_CONNECT;
         }
     }
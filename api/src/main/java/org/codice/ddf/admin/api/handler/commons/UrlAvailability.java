@@ -28,6 +28,8 @@ public class UrlAvailability {
 
     private boolean certError;
 
+    private String responseLimitError;
+
     public UrlAvailability(String url) {
         this.url = url;
         available = false;
@@ -72,9 +74,25 @@ public class UrlAvailability {
         return this;
     }
 
+    public boolean isResponseLimitError() {
+        return responseLimitError != null;
+    }
+
+    /**
+     * @param failureType {@link SourceHandlerCommons#RESPONSE_TOO_LARGE} or
+     *                    {@link SourceHandlerCommons#RESPONSE_TIMED_OUT} if the endpoint's response
+     *                    exceeded a limit, otherwise null
+     */
+    public UrlAvailability responseLimitError(String failureType) {
+        this.responseLimitError = failureType;
+        return this;
+    }
+
     public String getAvailabilityResult() {
         if (certError) {
             return CERT_ERROR;
+        } else if (responseLimitError != null) {
+            return responseLimitError;
         } else if (!trustedCertAuthority) {
             return UNTRUSTED_CA;
         } else if (!available) {
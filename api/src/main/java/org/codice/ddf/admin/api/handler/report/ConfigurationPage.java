@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.handler.report;
+
+import java.util.List;
+
+import org.codice.ddf.admin.api.config.Configuration;
+
+/**
+ * A page of the {@link Configuration}s returned by a
+ * {@link org.codice.ddf.admin.api.handler.PagedConfigurationHandler}.
+ */
+public class ConfigurationPage<S extends Configuration> {
+
+    private int offset;
+
+    private int limit;
+
+    private int total;
+
+    private List<S> configurations;
+
+    /**
+     * Creates a new {@link ConfigurationPage}.
+     *
+     * @param offset         number of matching {@link Configuration}s skipped before this page
+     * @param limit          maximum number of {@link Configuration}s that were requested
+     * @param total          number of {@link Configuration}s matching the request across all pages
+     * @param configurations the {@link Configuration}s on this page
+     */
+    public ConfigurationPage(int offset, int limit, int total, List<S> configurations) {
+        this.offset = offset;
+        this.limit = limit;
+        this.total = total;
+        this.configurations = configurations;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<S> getConfigurations() {
+        return configurations;
+    }
+}
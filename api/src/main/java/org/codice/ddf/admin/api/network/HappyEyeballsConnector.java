@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Opens TCP connections to dual-stack hosts by racing their IPv6 and IPv4 addresses, as
+ * described by RFC 8305 (Happy Eyeballs v2). Addresses are tried in an order that alternates
+ * between families. Each attempt starts {@link #CONNECTION_ATTEMPT_DELAY} ms after the previous
+ * one, or at once if the previous one fails. The first connection established is used and the
+ * rest are closed, so a broken route for one family costs at most the attempt delay rather
+ * than the whole connect timeout.
+ * <p>
+ * The family of each host's winning address is remembered for {@link #PREFERENCE_TTL} ms and
+ * tried first on later connects. Hosts without a remembered family try IPv6 first.
+ */
+public class HappyEyeballsConnector {
+
+    public static final long CONNECTION_ATTEMPT_DELAY = 250;
+
+    public static final long PREFERENCE_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final HappyEyeballsConnector INSTANCE = new HappyEyeballsConnector(
+            CONNECTION_ATTEMPT_DELAY,
+            PREFERENCE_TTL);
+
+    private final long attemptDelayMillis;
+
+    private final long preferenceTtlNanos;
+
+    private final Map<String, Preference> preferences = new ConcurrentHashMap<>();
+
+    private final ExecutorService attemptExecutor =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(
+                    "happy-eyeballs-%d")
+                    .setDaemon(true)
+                    .build());
+
+    public HappyEyeballsConnector(long attemptDelayMillis, long preferenceTtlMillis) {
+        this.attemptDelayMillis = attemptDelayMillis;
+        this.preferenceTtlNanos = TimeUnit.MILLISECONDS.toNanos(preferenceTtlMillis);
+    }
+
+    public static HappyEyeballsConnector getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Resolves the host and orders its addresses with {@link #sortAddresses}.
+     */
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+        return sortAddresses(host, Arrays.asList(InetAddress.getAllByName(host)));
+    }
+
+    /**
+     * Orders addresses so the host's preferred family comes first and the families alternate
+     * after that. The resolver's order is kept within each family.
+     */
+    public List<InetAddress> sortAddresses(String host, List<InetAddress> addresses) {
+        boolean preferIpv6 = preferredFamily(host).map(Inet6Address.class::equals)
+                .orElse(true);
+
+        LinkedList<InetAddress> preferred = new LinkedList<>();
+        LinkedList<InetAddress> other = new LinkedList<>();
+        for (InetAddress address : addresses) {
+            if ((address instanceof Inet6Address) == preferIpv6) {
+                preferred.add(address);
+            } else {
+                other.add(address);
+            }
+        }
+
+        List<InetAddress> sorted = new ArrayList<>(addresses.size());
+        while (!preferred.isEmpty() || !other.isEmpty()) {
+            if (!preferred.isEmpty()) {
+                sorted.add(preferred.removeFirst());
+            }
+            if (!other.isEmpty()) {
+                sorted.add(other.removeFirst());
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Resolves the host and races connections to its addresses.
+     */
+    public Socket connect(String host, int port, int timeoutMillis) throws IOException {
+        return connect(host, resolve(host), port, timeoutMillis);
+    }
+
+    /**
+     * Races connections to the candidate addresses of the host in the given order, returning the
+     * first connected socket.
+     *
+     * @param timeoutMillis the time allowed for the whole race
+     * @throws SocketTimeoutException if no attempt connects within the timeout
+     * @throws IOException            the failure of the last attempt if every attempt fails
+     */
+    public Socket connect(String host, List<InetAddress> candidates, int port,
+            int timeoutMillis) throws IOException {
+        if (candidates.isEmpty()) {
+            throw new UnknownHostException(host);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        CompletionService<Socket> race = new ExecutorCompletionService<>(attemptExecutor);
+        List<Socket> attempts = new ArrayList<>();
+        Iterator<InetAddress> pending = candidates.iterator();
+        int inFlight = 0;
+        IOException lastFailure = null;
+        Socket winner = null;
+
+        try {
+            startAttempt(race, attempts, pending.next(), port, deadline);
+            inFlight++;
+            while (inFlight > 0 || pending.hasNext()) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+
+                Future<Socket> finished = inFlight == 0 ?
+                        null :
+                        race.poll(pending.hasNext() ?
+                                Math.min(attemptDelayMillis, remaining) :
+                                remaining, TimeUnit.MILLISECONDS);
+                if (finished == null) {
+                    if (pending.hasNext()) {
+                        startAttempt(race, attempts, pending.next(), port, deadline);
+                        inFlight++;
+                    }
+                    continue;
+                }
+
+                inFlight--;
+                try {
+                    winner = finished.get();
+                    remember(host, winner.getInetAddress());
+                    return winner;
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause() instanceof IOException ?
+                            (IOException) e.getCause() :
+                            new IOException(e.getCause());
+                    if (pending.hasNext()) {
+                        startAttempt(race, attempts, pending.next(), port, deadline);
+                        inFlight++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new InterruptedIOException("Interrupted while connecting to " + host);
+        } finally {
+            for (Socket attempt : attempts) {
+                if (attempt != winner) {
+                    closeQuietly(attempt);
+                }
+            }
+        }
+
+        if (lastFailure != null && inFlight == 0 && !pending.hasNext()) {
+            throw lastFailure;
+        }
+        throw new SocketTimeoutException("Connect to " + host + ":" + port + " timed out");
+    }
+
+    /**
+     * @return the address family that most recently won a race to the host, if still remembered
+     */
+    public Optional<Class<? extends InetAddress>> preferredFamily(String host) {
+        Preference preference = host == null ? null : preferences.get(key(host));
+        if (preference == null || preference.isExpired()) {
+            return Optional.empty();
+        }
+        return Optional.of(preference.family);
+    }
+
+    public void clear() {
+        preferences.clear();
+    }
+
+    private void startAttempt(CompletionService<Socket> race, List<Socket> attempts,
+            InetAddress address, int port, long deadline) {
+        // Sockets are created here so every attempt can be closed once the race is decided
+        Socket socket = new Socket();
+        attempts.add(socket);
+        race.submit(() -> {
+            int timeout = (int) Math.max(1,
+                    TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            socket.connect(new InetSocketAddress(address, port), timeout);
+            return socket;
+        });
+    }
+
+    private void remember(String host, InetAddress address) {
+        if (preferences.size() >= MAX_ENTRIES) {
+            preferences.values()
+                    .removeIf(Preference::isExpired);
+            if (preferences.size() >= MAX_ENTRIES) {
+                preferences.clear();
+            }
+        }
+        preferences.put(key(host), new Preference(address.getClass()));
+    }
+
+    private static String key(String host) {
+        return host.toLowerCase(Locale.ROOT);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing further to release
+        }
+    }
+
+    private class Preference {
+
+        private final Class<? extends InetAddress> family;
+
+        private final long created = System.nanoTime();
+
+        private Preference(Class<? extends InetAddress> family) {
+            this.family = family;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - created > preferenceTtlNanos;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+import com.google.common.net.InetAddresses;
+
+/**
+ * Short lived cache of connect results keyed by {@code host:port}. Successes and failures are
+ * kept for separate TTLs, and concurrent checks of the same endpoint share a single connect
+ * attempt.
+ */
+public class ReachabilityCache {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private final long successTtlNanos;
+
+    private final long failureTtlNanos;
+
+    private final Map<String, Entry> results = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public ReachabilityCache(long successTtlMillis, long failureTtlMillis) {
+        this.successTtlNanos = TimeUnit.MILLISECONDS.toNanos(successTtlMillis);
+        this.failureTtlNanos = TimeUnit.MILLISECONDS.toNanos(failureTtlMillis);
+    }
+
+    /**
+     * Returns the cached result for the endpoint, joins a check already in progress, or runs
+     * {@code connector} and caches its result.
+     *
+     * @param connector returns true if a connection to the host and port could be established
+     */
+    public Reachability check(String host, int port, BiPredicate<String, Integer> connector) {
+        String key = key(host, port);
+
+        Entry cached = liveResult(key);
+        if (cached != null) {
+            return new Reachability(cached.reachable, true, false, cached.ageMillis());
+        }
+
+        CompletableFuture<Boolean> started = new CompletableFuture<>();
+        Entry[] finished = new Entry[1];
+        CompletableFuture<Boolean> attempt = inFlight.computeIfAbsent(key, k -> {
+            // A check may have completed since the lookup above; its result is stored before it
+            // leaves the in-flight map
+            finished[0] = liveResult(k);
+            return finished[0] == null ? started : null;
+        });
+        if (attempt == null) {
+            return new Reachability(finished[0].reachable, true, false, finished[0].ageMillis());
+        }
+        if (attempt != started) {
+            try {
+                return new Reachability(attempt.join(), false, true, 0);
+            } catch (CompletionException e) {
+                return new Reachability(false, false, true, 0);
+            }
+        }
+
+        try {
+            boolean reachable = connector.test(host, port);
+            prune();
+            results.put(key, new Entry(reachable));
+            started.complete(reachable);
+            return new Reachability(reachable, false, false, 0);
+        } catch (RuntimeException e) {
+            started.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, started);
+        }
+    }
+
+    /**
+     * Stores a result obtained elsewhere, such as by a {@link ReachabilityScanner} sweep, so later
+     * checks of the endpoint are answered from the cache.
+     */
+    public void record(String host, int port, boolean reachable) {
+        prune();
+        results.put(key(host, port), new Entry(reachable));
+    }
+
+    public void invalidate(String host, int port) {
+        results.remove(key(host, port));
+    }
+
+    public void clear() {
+        results.clear();
+    }
+
+    private Entry liveResult(String key) {
+        Entry entry = results.get(key);
+        if (entry != null && entry.isExpired()) {
+            results.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Keys IP literals by their canonical form, with or without URL brackets, so that
+     * {@code [::1]}, {@code ::1} and {@code 0:0:0:0:0:0:0:1} share a result.
+     */
+    private static String key(String host, int port) {
+        String address = host.startsWith("[") && host.endsWith("]") ?
+                host.substring(1, host.length() - 1) :
+                host;
+        if (InetAddresses.isInetAddress(address)) {
+            return InetAddresses.toUriString(InetAddresses.forString(address)) + ":" + port;
+        }
+        return host.toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    private void prune() {
+        if (results.size() < MAX_ENTRIES) {
+            return;
+        }
+        results.values()
+                .removeIf(Entry::isExpired);
+        if (results.size() >= MAX_ENTRIES) {
+            results.clear();
+        }
+    }
+
+    private class Entry {
+
+        private final boolean reachable;
+
+        private final long created = System.nanoTime();
+
+        private Entry(boolean reachable) {
+            this.reachable = reachable;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - created > (reachable ? successTtlNanos : failureTtlNanos);
+        }
+
+        private long ageMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - created);
+        }
+    }
+
+    /**
+     * Outcome of a reachability check and whether it was answered from the cache or by joining a
+     * check already in progress, rather than by a new connect attempt.
+     */
+    public static class Reachability {
+
+        private final boolean reachable;
+
+        private final boolean cached;
+
+        private final boolean shared;
+
+        private final long ageMillis;
+
+        public Reachability(boolean reachable, boolean cached, boolean shared, long ageMillis) {
+            this.reachable = reachable;
+            this.cached = cached;
+            this.shared = shared;
+            this.ageMillis = ageMillis;
+        }
+
+        public boolean isReachable() {
+            return reachable;
+        }
+
+        /**
+         * @return true if the result was stored by an earlier check of the same endpoint
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        /**
+         * @return true if the result came from a check of the same endpoint that was already in
+         * progress
+         */
+        public boolean isShared() {
+            return shared;
+        }
+
+        /**
+         * @return the age of a cached result in milliseconds, or 0 if the result is not cached
+         */
+        public long ageMillis() {
+            return ageMillis;
+        }
+    }
+}
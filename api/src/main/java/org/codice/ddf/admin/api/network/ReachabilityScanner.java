@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Checks whether TCP connections can be opened to many {@code host:port} targets at once using
+ * non-blocking {@link SocketChannel} connects multiplexed on a single {@link Selector}. Results
+ * are delivered to a listener as each target completes, in completion order.
+ * <p>
+ * Hostnames are resolved on the scanning thread as targets are started, so large scans should
+ * use IP address targets.
+ * <p>
+ * A scanner holds no per-scan state and may be shared between threads; every scan opens its own
+ * selector on the calling thread.
+ */
+public class ReachabilityScanner {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+    private final int maxInFlight;
+
+    public ReachabilityScanner() {
+        this(DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlight the maximum number of connects pending at once, bounding the number of
+     *                    open sockets used by a scan
+     */
+    public ReachabilityScanner(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1.");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Scans the targets and returns their results in completion order.
+     */
+    public List<ScanResult> scan(Iterable<ScanTarget> targets) throws IOException {
+        List<ScanResult> results = new ArrayList<>();
+        scan(targets, results::add);
+        return results;
+    }
+
+    /**
+     * Scans the targets, passing each result to {@code listener} on the calling thread as soon
+     * as it is known. Targets are pulled from the iterable lazily, so it may be a generated
+     * sequence. Returns once every target has a result.
+     */
+    public void scan(Iterable<ScanTarget> targets, Consumer<ScanResult> listener)
+            throws IOException {
+        Iterator<ScanTarget> pending = targets.iterator();
+        PriorityQueue<Attempt> deadlines =
+                new PriorityQueue<>(Comparator.comparingLong(attempt -> attempt.deadline));
+        int inFlight = 0;
+
+        try (Selector selector = Selector.open()) {
+            while (pending.hasNext() || inFlight > 0) {
+                while (inFlight < maxInFlight && pending.hasNext()) {
+                    Attempt attempt = start(pending.next(), selector, listener);
+                    if (attempt != null) {
+                        deadlines.add(attempt);
+                        inFlight++;
+                    }
+                }
+                if (inFlight == 0) {
+                    continue;
+                }
+
+                long waitMillis = TimeUnit.NANOSECONDS.toMillis(
+                        deadlines.peek().deadline - System.nanoTime());
+                selector.select(Math.max(1, waitMillis));
+
+                Iterator<SelectionKey> selected = selector.selectedKeys()
+                        .iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    Attempt attempt = (Attempt) key.attachment();
+                    attempt.complete(finishConnect(attempt), listener);
+                    inFlight--;
+                }
+
+                long now = System.nanoTime();
+                while (!deadlines.isEmpty() && (deadlines.peek().done
+                        || deadlines.peek().deadline - now <= 0)) {
+                    Attempt attempt = deadlines.poll();
+                    if (!attempt.done) {
+                        attempt.complete(Status.TIMED_OUT, listener);
+                        inFlight--;
+                    }
+                }
+            }
+        } finally {
+            deadlines.stream()
+                    .filter(attempt -> !attempt.done)
+                    .forEach(Attempt::close);
+        }
+    }
+
+    private Attempt start(ScanTarget target, Selector selector, Consumer<ScanResult> listener) {
+        long started = System.nanoTime();
+        InetSocketAddress address = new InetSocketAddress(target.host(), target.port());
+        if (address.isUnresolved()) {
+            listener.accept(new ScanResult(target, Status.UNRESOLVED, 0));
+            return null;
+        }
+
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            Attempt attempt = new Attempt(target, channel, started);
+            if (channel.connect(address)) {
+                attempt.complete(Status.REACHABLE, listener);
+                return null;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT, attempt);
+            return attempt;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            listener.accept(new ScanResult(target,
+                    Status.UNREACHABLE,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+            return null;
+        }
+    }
+
+    private static Status finishConnect(Attempt attempt) {
+        try {
+            return attempt.channel.finishConnect() ? Status.REACHABLE : Status.UNREACHABLE;
+        } catch (IOException e) {
+            return Status.UNREACHABLE;
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing further to release
+            }
+        }
+    }
+
+    private static class Attempt {
+
+        private final ScanTarget target;
+
+        private final SocketChannel channel;
+
+        private final long started;
+
+        private final long deadline;
+
+        private boolean done;
+
+        private Attempt(ScanTarget target, SocketChannel channel, long started) {
+            this.target = target;
+            this.channel = channel;
+            this.started = started;
+            this.deadline = started + TimeUnit.MILLISECONDS.toNanos(target.timeoutMillis());
+        }
+
+        private void complete(Status status, Consumer<ScanResult> listener) {
+            done = true;
+            close();
+            listener.accept(new ScanResult(target,
+                    status,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+        }
+
+        private void close() {
+            closeQuietly(channel);
+        }
+    }
+
+    public enum Status {
+        REACHABLE, UNREACHABLE, TIMED_OUT, UNRESOLVED
+    }
+
+    /**
+     * A host and port to scan, with the time allowed for its connect to complete.
+     */
+    public static class ScanTarget {
+
+        private final String host;
+
+        private final int port;
+
+        private final long timeoutMillis;
+
+        public ScanTarget(String host, int port, long timeoutMillis) {
+            this.host = host;
+            this.port = port;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public String host() {
+            return host;
+        }
+
+        public int port() {
+            return port;
+        }
+
+        public long timeoutMillis() {
+            return timeoutMillis;
+        }
+
+        @Override
+        public String toString() {
+            return host + ":" + port;
+        }
+    }
+
+    public static class ScanResult {
+
+        private final ScanTarget target;
+
+        private final Status status;
+
+        private final long elapsedMillis;
+
+        public ScanResult(ScanTarget target, Status status, long elapsedMillis) {
+            this.target = target;
+            this.status = status;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public ScanTarget target() {
+            return target;
+        }
+
+        public Status status() {
+            return status;
+        }
+
+        public boolean isReachable() {
+            return status == Status.REACHABLE;
+        }
+
+        public long elapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
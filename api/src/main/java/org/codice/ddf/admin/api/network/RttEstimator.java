@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Learns round trip times per host and derives timeouts from them the way TCP computes its
+ * retransmission timeout (RFC 6298). Each host keeps a smoothed RTT and RTT variance, and its
+ * timeout is {@code SRTT + max(G, 4 * RTTVAR)} clamped to the configured bounds. Hosts without
+ * samples use the initial timeout. Each timeout doubles the host's timeout until the next
+ * sample arrives.
+ */
+public class RttEstimator {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final long IDLE_EXPIRY = TimeUnit.HOURS.toNanos(1);
+
+    private static final double ALPHA = 1.0 / 8;
+
+    private static final double BETA = 1.0 / 4;
+
+    private static final int K = 4;
+
+    private static final long CLOCK_GRANULARITY = 10;
+
+    private static final int MAX_BACKOFF = 16;
+
+    private final long initialTimeoutMillis;
+
+    private final long minTimeoutMillis;
+
+    private final long maxTimeoutMillis;
+
+    private final Map<String, HostRtt> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param initialTimeoutMillis the timeout used for a host before any of its round trips
+     *                             have been measured
+     * @param minTimeoutMillis     the smallest timeout returned
+     * @param maxTimeoutMillis     the largest timeout returned
+     */
+    public RttEstimator(long initialTimeoutMillis, long minTimeoutMillis, long maxTimeoutMillis) {
+        if (minTimeoutMillis < 1 || maxTimeoutMillis < minTimeoutMillis) {
+            throw new IllegalArgumentException(
+                    "Timeout bounds must satisfy 1 <= minimum <= maximum.");
+        }
+        this.minTimeoutMillis = minTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.initialTimeoutMillis = clamp(initialTimeoutMillis);
+    }
+
+    /**
+     * Adds a measured round trip to the host's estimate and clears any timeout backoff.
+     */
+    public void recordSample(String host, long rttMillis) {
+        if (host == null || rttMillis < 0) {
+            return;
+        }
+        hostRtt(host).sample(rttMillis);
+    }
+
+    /**
+     * Notes that an operation on the host timed out, doubling its timeout until the next sample.
+     */
+    public void recordTimeout(String host) {
+        if (host != null) {
+            hostRtt(host).backOff();
+        }
+    }
+
+    /**
+     * @return the timeout in milliseconds to use for the next operation on the host
+     */
+    public long timeoutMillis(String host) {
+        HostRtt rtt = host == null ? null : hosts.get(key(host));
+        return rtt == null ? initialTimeoutMillis : clamp(rtt.timeoutMillis(initialTimeoutMillis));
+    }
+
+    /**
+     * @return the smoothed round trip time of the host in milliseconds, or -1 if it has not been
+     * measured
+     */
+    public long smoothedRttMillis(String host) {
+        HostRtt rtt = host == null ? null : hosts.get(key(host));
+        return rtt == null ? -1 : rtt.smoothedRttMillis();
+    }
+
+    public void clear() {
+        hosts.clear();
+    }
+
+    private HostRtt hostRtt(String host) {
+        String key = key(host);
+        HostRtt rtt = hosts.get(key);
+        if (rtt == null) {
+            prune();
+            rtt = hosts.computeIfAbsent(key, k -> new HostRtt());
+        }
+        return rtt;
+    }
+
+    private void prune() {
+        if (hosts.size() < MAX_ENTRIES) {
+            return;
+        }
+        hosts.values()
+                .removeIf(HostRtt::isIdle);
+        if (hosts.size() >= MAX_ENTRIES) {
+            hosts.clear();
+        }
+    }
+
+    private long clamp(long timeoutMillis) {
+        return Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, timeoutMillis));
+    }
+
+    // IPv6 literals from URIs are bracketed, while scanned addresses are not
+    private static String key(String host) {
+        String key = host.toLowerCase(Locale.ROOT);
+        if (key.startsWith("[") && key.endsWith("]")) {
+            key = key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+
+    private static class HostRtt {
+
+        private boolean measured;
+
+        private double smoothedRtt;
+
+        private double rttVariance;
+
+        private int backoff;
+
+        private volatile long lastUpdated = System.nanoTime();
+
+        private synchronized void sample(long rttMillis) {
+            if (!measured) {
+                smoothedRtt = rttMillis;
+                rttVariance = rttMillis / 2.0;
+                measured = true;
+            } else {
+                rttVariance = (1 - BETA) * rttVariance + BETA * Math.abs(smoothedRtt - rttMillis);
+                smoothedRtt = (1 - ALPHA) * smoothedRtt + ALPHA * rttMillis;
+            }
+            backoff = 0;
+            lastUpdated = System.nanoTime();
+        }
+
+        private synchronized void backOff() {
+            backoff = Math.min(MAX_BACKOFF, backoff + 1);
+            lastUpdated = System.nanoTime();
+        }
+
+        private synchronized long timeoutMillis(long initialTimeoutMillis) {
+            long timeout = measured ?
+                    (long) Math.ceil(smoothedRtt + Math.max(CLOCK_GRANULARITY, K * rttVariance)) :
+                    initialTimeoutMillis;
+            return timeout << backoff;
+        }
+
+        private synchronized long smoothedRttMillis() {
+            return measured ? Math.round(smoothedRtt) : -1;
+        }
+
+        private boolean isIdle() {
+            return System.nanoTime() - lastUpdated > IDLE_EXPIRY;
+        }
+    }
+}
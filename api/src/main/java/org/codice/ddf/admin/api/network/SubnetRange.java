@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.math.BigInteger;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.common.net.InetAddresses;
+
+/**
+ * The host addresses of an IPv4 or IPv6 CIDR block such as {@code 192.168.1.0/24}. For IPv4
+ * blocks larger than /31 the network and broadcast addresses are excluded. Addresses are generated
+ * lazily, so iterating a range does not hold it in memory.
+ */
+public class SubnetRange implements Iterable<InetAddress> {
+
+    private final BigInteger first;
+
+    private final long size;
+
+    private final int addressLength;
+
+    private final String cidr;
+
+    private SubnetRange(String cidr, BigInteger first, long size, int addressLength) {
+        this.cidr = cidr;
+        this.first = first;
+        this.size = size;
+        this.addressLength = addressLength;
+    }
+
+    /**
+     * Parses a CIDR block. An address without a prefix length is treated as a single host. Only
+     * address literals are accepted; hostnames are never resolved.
+     *
+     * @throws IllegalArgumentException if {@code cidr} is not a valid CIDR block
+     */
+    public static SubnetRange parse(String cidr) {
+        if (cidr == null) {
+            throw new IllegalArgumentException("CIDR block must not be null.");
+        }
+
+        String[] parts = cidr.trim()
+                .split("/", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+
+        InetAddress address = InetAddresses.forString(parts[0]);
+        int addressBits = address.getAddress().length * 8;
+        int prefixLength;
+        try {
+            prefixLength = parts.length == 2 ? Integer.parseInt(parts[1]) : addressBits;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CIDR prefix length: " + cidr, e);
+        }
+        if (prefixLength < 0 || prefixLength > addressBits) {
+            throw new IllegalArgumentException("Invalid CIDR prefix length: " + cidr);
+        }
+
+        int hostBits = addressBits - prefixLength;
+        BigInteger network = new BigInteger(1, address.getAddress()).shiftRight(hostBits)
+                .shiftLeft(hostBits);
+        long size = hostBits >= Long.SIZE - 1 ? Long.MAX_VALUE : 1L << hostBits;
+        if (address instanceof Inet4Address && hostBits >= 2) {
+            network = network.add(BigInteger.ONE);
+            size -= 2;
+        }
+        return new SubnetRange(cidr.trim(), network, size, address.getAddress().length);
+    }
+
+    /**
+     * @return the number of host addresses in the range, or {@link Long#MAX_VALUE} if the range
+     * is too large to count
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<InetAddress> iterator() {
+        return new Iterator<InetAddress>() {
+            private long next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public InetAddress next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return toAddress(first.add(BigInteger.valueOf(next++)));
+            }
+        };
+    }
+
+    private InetAddress toAddress(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] bytes = new byte[addressLength];
+        int copyLength = Math.min(raw.length, addressLength);
+        System.arraycopy(raw, raw.length - copyLength, bytes, addressLength - copyLength, copyLength);
+        try {
+            return InetAddress.getByAddress(bytes);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Invalid address length " + Arrays.toString(bytes), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return cidr;
+    }
+}
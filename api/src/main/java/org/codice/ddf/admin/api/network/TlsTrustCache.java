@@ -0,0 +1,496 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * Bounded, time limited cache of TLS trust verdicts keyed by {@code host:port}.
+ * <p>
+ * Each cached endpoint also owns the {@link SSLContext} used to reach it, so repeat connections
+ * within the TTL resume the cached TLS session instead of performing a full handshake. Sessions
+ * never outlive the endpoint's verdict since both are dropped together when the entry expires or
+ * is evicted.
+ * <p>
+ * Chains are validated against the JVM's default trust store, which is reloaded once the TTL has
+ * passed or its file has been modified. Every verdict is dropped when a reload changes the
+ * trusted certificate authorities, so importing a CA takes effect on the next probe.
+ * <p>
+ * Each verdict is also stored in the TLS session of the handshake that produced it. Pooled
+ * connections outlive evicted or cleared entries without a new handshake, so requests on them
+ * restore their endpoint's verdict through {@link #recordSessionVerdict}.
+ */
+public class TlsTrustCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    public static final long DEFAULT_TRUST_STORE_CHECK_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final String SESSION_VERDICT = TlsTrustCache.class.getName() + ".verdict";
+
+    // The authentication type the JDK validates TLS 1.3 chains with
+    private static final String UNKNOWN_AUTH_TYPE = "UNKNOWN";
+
+    private static final TlsTrustCache INSTANCE = new TlsTrustCache(DEFAULT_MAX_ENTRIES,
+            DEFAULT_TTL_MILLIS);
+
+    public enum TrustVerdict {
+        TRUSTED, UNTRUSTED_CA, CERT_ERROR
+    }
+
+    private final long ttlNanos;
+
+    private final long trustStoreCheckNanos;
+
+    private final Map<String, Entry> entries;
+
+    private final X509TrustManager trustStore = new CurrentTrustManager();
+
+    private final Object trustStoreLock = new Object();
+
+    private X509TrustManager trustManager;
+
+    private long trustManagerLoaded;
+
+    private long trustStoreModified;
+
+    private long trustStoreChecked;
+
+    private volatile int trustStoreGeneration;
+
+    public TlsTrustCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, DEFAULT_TRUST_STORE_CHECK_MILLIS);
+    }
+
+    /**
+     * @param trustStoreCheckMillis how often the trust store file is checked for changes
+     */
+    public TlsTrustCache(int maxEntries, long ttlMillis, long trustStoreCheckMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.trustStoreCheckNanos = TimeUnit.MILLISECONDS.toNanos(trustStoreCheckMillis);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cache shared by all source and LDAP probes
+     */
+    public static TlsTrustCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the last verdict recorded for the endpoint, or empty if none has been recorded
+     * within the TTL
+     */
+    public Optional<TrustVerdict> getVerdict(String host, int port) {
+        currentTrustManager();
+        synchronized (entries) {
+            Entry entry = liveEntry(key(host, port));
+            return entry == null ? Optional.empty() : Optional.ofNullable(entry.verdict);
+        }
+    }
+
+    public void recordVerdict(String host, int port, TrustVerdict verdict) {
+        recordVerdict(key(host, port), verdict);
+    }
+
+    /**
+     * Records the verdict of the handshake that established {@code session} against the session's
+     * peer. The verdict stored in the session is used unless the trusted certificate authorities
+     * have changed since, in which case the peer's chain is validated again.
+     *
+     * @return the verdict, or empty if the session has no peer or presented no chain
+     */
+    public Optional<TrustVerdict> recordSessionVerdict(SSLSession session) {
+        X509TrustManager currentTrustManager = currentTrustManager();
+        if (session == null || session.getPeerHost() == null || session.getPeerPort() <= 0) {
+            return Optional.empty();
+        }
+
+        Object value = session.getValue(SESSION_VERDICT);
+        SessionVerdict sessionVerdict = value instanceof SessionVerdict ?
+                (SessionVerdict) value :
+                null;
+        int generation = trustStoreGeneration;
+        if (sessionVerdict == null || sessionVerdict.generation != generation) {
+            // Resumed TLS 1.3 sessions do not carry the values bound to the original session
+            X509Certificate[] chain;
+            try {
+                chain = Arrays.stream(session.getPeerCertificates())
+                        .filter(X509Certificate.class::isInstance)
+                        .map(X509Certificate.class::cast)
+                        .toArray(X509Certificate[]::new);
+            } catch (SSLPeerUnverifiedException e) {
+                return Optional.empty();
+            }
+            String authType = sessionVerdict == null ? UNKNOWN_AUTH_TYPE : sessionVerdict.authType;
+            sessionVerdict = new SessionVerdict(authType,
+                    verdictOf(currentTrustManager, chain, authType),
+                    generation);
+            session.putValue(SESSION_VERDICT, sessionVerdict);
+        }
+
+        recordVerdict(key(session.getPeerHost(), session.getPeerPort()), sessionVerdict.verdict);
+        return Optional.of(sessionVerdict.verdict);
+    }
+
+    /**
+     * Returns the endpoint's {@link SSLContext}, creating it if necessary. Handshakes made through
+     * the context record their verdict in this cache.
+     *
+     * @param enforceTrust if false, chains from untrusted authorities are recorded and accepted;
+     *                     if true, they are recorded and then rejected, and the context also
+     *                     presents the JVM's configured client key store
+     */
+    public SSLContext getSslContext(String host, int port, boolean enforceTrust)
+            throws GeneralSecurityException {
+        Entry entry;
+        synchronized (entries) {
+            entry = entryFor(key(host, port));
+        }
+        return entry.sslContext(enforceTrust);
+    }
+
+    public void invalidate(String host, int port) {
+        synchronized (entries) {
+            entries.remove(key(host, port));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Loads the trust manager of the JVM's default trust store.
+     */
+    protected X509TrustManager loadTrustManager() throws GeneralSecurityException {
+        TrustManagerFactory factory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init((KeyStore) null);
+        return Arrays.stream(factory.getTrustManagers())
+                .filter(X509TrustManager.class::isInstance)
+                .map(X509TrustManager.class::cast)
+                .findFirst()
+                .orElseThrow(() -> new KeyStoreException(
+                        "No default X509 trust manager available."));
+    }
+
+    /**
+     * @return the modification time of the file holding the JVM's default trust store, or 0 if
+     * it is not read from a file
+     */
+    protected long trustStoreModified() {
+        String path = System.getProperty("javax.net.ssl.trustStore");
+        if ("NONE".equals(path)) {
+            return 0;
+        }
+        if (path != null && !path.isEmpty()) {
+            return new File(path).lastModified();
+        }
+        File securityDir = new File(System.getProperty("java.home"), "lib" + File.separator
+                + "security");
+        File jsseCacerts = new File(securityDir, "jssecacerts");
+        return jsseCacerts.isFile() ?
+                jsseCacerts.lastModified() :
+                new File(securityDir, "cacerts").lastModified();
+    }
+
+    /**
+     * Returns the trust manager for the default trust store, reloading it once the TTL has passed
+     * or when its file has changed. The file is checked at most once per check interval.
+     */
+    private X509TrustManager currentTrustManager() {
+        synchronized (trustStoreLock) {
+            long now = System.nanoTime();
+            if (trustManager == null || now - trustManagerLoaded > ttlNanos) {
+                reloadTrustManager(now, trustStoreModified());
+            } else if (now - trustStoreChecked >= trustStoreCheckNanos) {
+                trustStoreChecked = now;
+                long modified = trustStoreModified();
+                if (modified != trustStoreModified) {
+                    reloadTrustManager(now, modified);
+                }
+            }
+            return trustManager;
+        }
+    }
+
+    // Called holding the trust store lock
+    private void reloadTrustManager(long now, long modified) {
+        X509TrustManager reloaded;
+        try {
+            reloaded = loadTrustManager();
+        } catch (GeneralSecurityException e) {
+            if (trustManager == null) {
+                throw new IllegalStateException("Unable to load the default trust store.", e);
+            }
+            // Keep validating with the trust store that was last read
+            reloaded = trustManager;
+        }
+        if (trustManager != null && !acceptedIssuers(trustManager).equals(acceptedIssuers(
+                reloaded))) {
+            // Verdicts and resumable sessions were decided against the old trust store
+            clear();
+            trustStoreGeneration++;
+        }
+        trustManager = reloaded;
+        trustManagerLoaded = now;
+        trustStoreModified = modified;
+        trustStoreChecked = now;
+    }
+
+    private static TrustVerdict verdictOf(X509TrustManager trustManager, X509Certificate[] chain,
+            String authType) {
+        try {
+            trustManager.checkServerTrusted(chain, authType);
+            return TrustVerdict.TRUSTED;
+        } catch (CertificateException | RuntimeException e) {
+            return TrustVerdict.UNTRUSTED_CA;
+        }
+    }
+
+    private static HashSet<X509Certificate> acceptedIssuers(X509TrustManager trustManager) {
+        return new HashSet<>(Arrays.asList(trustManager.getAcceptedIssuers()));
+    }
+
+    private void recordVerdict(String key, TrustVerdict verdict) {
+        synchronized (entries) {
+            entryFor(key).verdict = verdict;
+        }
+    }
+
+    private Entry liveEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.created > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private Entry entryFor(String key) {
+        Entry entry = liveEntry(key);
+        if (entry == null) {
+            entry = new Entry(key);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static String key(String host, int port) {
+        return host.toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    private class Entry {
+
+        private final String key;
+
+        private final long created = System.nanoTime();
+
+        private volatile TrustVerdict verdict;
+
+        private SSLContext lenientContext;
+
+        private SSLContext enforcingContext;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        private synchronized SSLContext sslContext(boolean enforceTrust)
+                throws GeneralSecurityException {
+            if (enforceTrust) {
+                if (enforcingContext == null) {
+                    enforcingContext = createSslContext(SystemKeyManagersHolder.get(), true);
+                }
+                return enforcingContext;
+            }
+            if (lenientContext == null) {
+                lenientContext = createSslContext(null, false);
+            }
+            return lenientContext;
+        }
+
+        private SSLContext createSslContext(KeyManager[] keyManagers, boolean enforceTrust)
+                throws GeneralSecurityException {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagers,
+                    new TrustManager[] {new EndpointTrustManager(key, enforceTrust)},
+                    null);
+            sslContext.getClientSessionContext()
+                    .setSessionTimeout((int) TimeUnit.NANOSECONDS.toSeconds(ttlNanos));
+            return sslContext;
+        }
+    }
+
+    private class EndpointTrustManager extends TrustRecordingTrustManager {
+
+        private final String boundKey;
+
+        private final boolean enforceTrust;
+
+        private EndpointTrustManager(String boundKey, boolean enforceTrust) {
+            super(trustStore);
+            this.boundKey = boundKey;
+            this.enforceTrust = enforceTrust;
+        }
+
+        @Override
+        protected void record(X509Certificate[] chain, String authType,
+                SSLSession handshakeSession) throws CertificateException {
+            // Handshakes to the same endpoint can run concurrently, so the outcome is kept local
+            // rather than read back from the recorded state.
+            int generation = trustStoreGeneration;
+            CertificateException failure = validate(chain, authType);
+            TrustVerdict verdict = failure == null ?
+                    TrustVerdict.TRUSTED :
+                    TrustVerdict.UNTRUSTED_CA;
+
+            // Prefer the peer named by the handshake so redirects are recorded against the host
+            // actually contacted. Some providers create engines without peer information.
+            String key = boundKey;
+            if (handshakeSession != null && handshakeSession.getPeerHost() != null
+                    && handshakeSession.getPeerPort() > 0) {
+                key = key(handshakeSession.getPeerHost(), handshakeSession.getPeerPort());
+            }
+            recordVerdict(key, verdict);
+            if (handshakeSession != null) {
+                handshakeSession.putValue(SESSION_VERDICT,
+                        new SessionVerdict(authType, verdict, generation));
+            }
+
+            if (enforceTrust && failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static class SessionVerdict {
+
+        private final String authType;
+
+        private final TrustVerdict verdict;
+
+        private final int generation;
+
+        private SessionVerdict(String authType, TrustVerdict verdict, int generation) {
+            this.authType = authType;
+            this.verdict = verdict;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Validates against the current trust store, so that contexts created before a reload use
+     * the reloaded one.
+     */
+    private class CurrentTrustManager implements X509TrustManager {
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType)
+                throws CertificateException {
+            currentTrustManager().checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType)
+                throws CertificateException {
+            currentTrustManager().checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return currentTrustManager().getAcceptedIssuers();
+        }
+    }
+
+    /**
+     * Loads the key managers described by the standard {@code javax.net.ssl.keyStore} properties
+     * so enforcing contexts present the same client certificate as {@link SSLContext#getDefault()}.
+     */
+    private static class SystemKeyManagersHolder {
+
+        private static KeyManager[] keyManagers;
+
+        private static synchronized KeyManager[] get() throws GeneralSecurityException {
+            if (keyManagers == null) {
+                keyManagers = load();
+            }
+            return keyManagers.length == 0 ? null : keyManagers;
+        }
+
+        private static KeyManager[] load() throws GeneralSecurityException {
+            String path = System.getProperty("javax.net.ssl.keyStore");
+            if (path == null || path.isEmpty() || "NONE".equals(path)) {
+                return new KeyManager[0];
+            }
+
+            String password = System.getProperty("javax.net.ssl.keyStorePassword");
+            char[] passwordChars = password == null ? null : password.toCharArray();
+            KeyStore keyStore = KeyStore.getInstance(System.getProperty(
+                    "javax.net.ssl.keyStoreType",
+                    KeyStore.getDefaultType()));
+            try (InputStream inputStream = new FileInputStream(path)) {
+                keyStore.load(inputStream, passwordChars);
+            } catch (IOException e) {
+                throw new KeyStoreException("Unable to read key store " + path, e);
+            }
+
+            KeyManagerFactory factory =
+                    KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            factory.init(keyStore, passwordChars);
+            return factory.getKeyManagers();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.api.network;
+
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * Trust manager that accepts any server chain but records whether the chain would have been
+ * accepted by the default trust store. This lets a probe classify an endpoint's certificate
+ * authority from a single handshake instead of failing and retrying with a trust-all client.
+ * <p>
+ * Hostname verification is not affected and must still be performed by the caller.
+ * <p>
+ * The recorded state reflects the most recent handshake, so instances should not be shared
+ * between probes unless a subclass records its verdicts per endpoint, as {@link TlsTrustCache}
+ * does.
+ */
+public class TrustRecordingTrustManager extends X509ExtendedTrustManager {
+
+    private final X509TrustManager delegate;
+
+    private volatile boolean checked;
+
+    private volatile boolean trusted = true;
+
+    private volatile CertificateException failure;
+
+    public TrustRecordingTrustManager() {
+        this(DefaultTrustManagerHolder.INSTANCE);
+    }
+
+    public TrustRecordingTrustManager(X509TrustManager delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return false if a server chain was presented and failed validation against the default
+     * trust store, otherwise true
+     */
+    public boolean isTrusted() {
+        return trusted;
+    }
+
+    /**
+     * @return true if a server chain was presented during a handshake
+     */
+    public boolean isChecked() {
+        return checked;
+    }
+
+    /**
+     * @return the validation failure of the last untrusted chain, or null
+     */
+    public CertificateException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Creates a TLS {@link SSLContext} that uses this trust manager.
+     */
+    public SSLContext createSslContext() throws GeneralSecurityException {
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, new TrustManager[] {this}, new SecureRandom());
+        return sslContext;
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType)
+            throws CertificateException {
+        record(chain, authType, null);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        record(chain,
+                authType,
+                socket instanceof SSLSocket ? ((SSLSocket) socket).getHandshakeSession() : null);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        record(chain, authType, engine != null ? engine.getHandshakeSession() : null);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    /**
+     * Validates the chain against the delegate and records the outcome. Subclasses may throw to
+     * reject the chain after it has been recorded.
+     *
+     * @param handshakeSession the in-progress session, or null if the caller did not supply one
+     */
+    protected void record(X509Certificate[] chain, String authType, SSLSession handshakeSession)
+            throws CertificateException {
+        CertificateException validationFailure = validate(chain, authType);
+        checked = true;
+        trusted = validationFailure == null;
+        failure = validationFailure;
+    }
+
+    /**
+     * @return the reason the chain is not trusted by the delegate, or null if it is trusted
+     */
+    protected CertificateException validate(X509Certificate[] chain, String authType) {
+        try {
+            delegate.checkServerTrusted(chain, authType);
+            return null;
+        } catch (CertificateException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Resolves the JVM's default X509 trust manager once, on first use.
+     */
+    public static X509TrustManager getDefaultTrustManager() {
+        return DefaultTrustManagerHolder.INSTANCE;
+    }
+
+    private static class DefaultTrustManagerHolder {
+
+        private static final X509TrustManager INSTANCE = loadDefaultTrustManager();
+
+        private static X509TrustManager loadDefaultTrustManager() {
+            try {
+                TrustManagerFactory factory =
+                        TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                factory.init((KeyStore) null);
+                return Arrays.stream(factory.getTrustManagers())
+                        .filter(X509TrustManager.class::isInstance)
+                        .map(X509TrustManager.class::cast)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException(
+                                "No default X509 trust manager available."));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to load the default trust store.", e);
+            }
+        }
+    }
+}
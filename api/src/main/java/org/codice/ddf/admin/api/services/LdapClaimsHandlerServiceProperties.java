@@ -13,14 +13,13 @@
  */
 package org.codice.ddf.admin.api.services;
 
-import static org.codice.ddf.admin.api.services.LdapLoginServiceProperties.getLdapUrl;
-import static org.codice.ddf.admin.api.services.LdapLoginServiceProperties.getUriFromProperty;
 import static org.codice.ddf.admin.api.services.LdapLoginServiceProperties.isStartTls;
+import static org.codice.ddf.admin.api.services.LdapLoginServiceProperties.mapServers;
 import static org.codice.ddf.admin.api.services.LdapLoginServiceProperties.mapStringValue;
+import static org.codice.ddf.admin.api.services.LdapLoginServiceProperties.putServers;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.ATTRIBUTE_STORE;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.SERVICE_PID_KEY;
 
-import java.net.URI;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
@@ -41,6 +40,8 @@ public class LdapClaimsHandlerServiceProperties {
 
     public static final String START_TLS = "startTls";
 
+    public static final String LOAD_BALANCING = "loadBalancing";
+
     public static final String LDAP_BIND_USER_DN = "ldapBindUserDn";
 
     public static final String PASSWORD = "password";
@@ -68,12 +69,7 @@ public class LdapClaimsHandlerServiceProperties {
         config.servicePid(
                 props.get(SERVICE_PID_KEY) == null ? null : (String) props.get(SERVICE_PID_KEY));
 
-        URI ldapUri = getUriFromProperty((String) props.get(URL));
-        if (ldapUri != null) {
-            config.encryptionMethod(ldapUri.getScheme());
-            config.hostName(ldapUri.getHost());
-            config.port(ldapUri.getPort());
-        }
+        mapServers(props.get(URL), mapStringValue(LOAD_BALANCING, props), config);
 
         if ((Boolean) props.get(START_TLS)) {
             config.encryptionMethod(START_TLS);
@@ -105,9 +101,8 @@ public class LdapClaimsHandlerServiceProperties {
         Map<String, Object> props = new HashMap<>();
 
         if (config != null) {
-            String ldapUrl = getLdapUrl(config);
             boolean startTls = isStartTls(config);
-            props.put(URL, ldapUrl + config.hostName() + ":" + config.port());
+            putServers(URL, config, props);
             props.put(START_TLS, startTls);
             props.put(LDAP_BIND_USER_DN, config.bindUser());
             props.put(PASSWORD, config.bindUserPassword());
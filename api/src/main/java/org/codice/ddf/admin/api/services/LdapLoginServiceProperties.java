@@ -14,19 +14,29 @@
 package org.codice.ddf.admin.api.services;
 
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.AUTHENTICATION;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.FAILOVER;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.LDAPS;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.formatServer;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.parseServer;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.serverHost;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.FACTORY_PID_KEY;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.SERVICE_PID_KEY;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
 import org.codice.ddf.configuration.PropertyResolver;
 
+import com.google.common.collect.ImmutableList;
+
 public class LdapLoginServiceProperties {
     public static final Pattern URI_MATCHER = Pattern.compile("\\w*://.*");
 
@@ -53,6 +63,8 @@ public class LdapLoginServiceProperties {
     public static final String LDAP_URL = "ldapUrl";
 
     public static final String START_TLS = "startTls";
+
+    public static final String LOAD_BALANCING = "loadBalancing";
     // ---
 
     public static LdapConfiguration ldapLoginServiceToLdapConfiguration(Map<String, Object> props) {
@@ -68,13 +80,7 @@ public class LdapLoginServiceProperties {
         ldapConfiguration.userNameAttribute(mapStringValue(USER_NAME_ATTRIBUTE, props));
         ldapConfiguration.baseUserDn(mapStringValue(USER_BASE_DN, props));
         ldapConfiguration.baseGroupDn(mapStringValue(GROUP_BASE_DN, props));
-        URI ldapUri = getUriFromProperty(mapStringValue(LDAP_URL, props));
-
-        if (ldapUri != null) {
-            ldapConfiguration.encryptionMethod(ldapUri.getScheme());
-            ldapConfiguration.hostName(ldapUri.getHost());
-            ldapConfiguration.port(ldapUri.getPort());
-        }
+        mapServers(props.get(LDAP_URL), mapStringValue(LOAD_BALANCING, props), ldapConfiguration);
 
         if ((Boolean) props.get(START_TLS)) {
             ldapConfiguration.encryptionMethod(START_TLS);
@@ -88,10 +94,9 @@ public class LdapLoginServiceProperties {
         Map<String, Object> ldapStsConfig = new HashMap<>();
 
         if (config != null) {
-            String ldapUrl = getLdapUrl(config);
             boolean startTls = isStartTls(config);
 
-            ldapStsConfig.put(LDAP_URL, ldapUrl + config.hostName() + ":" + config.port());
+            putServers(LDAP_URL, config, ldapStsConfig);
             ldapStsConfig.put(START_TLS, Boolean.toString(startTls));
             ldapStsConfig.put(LDAP_BIND_USER_DN, config.bindUser());
             ldapStsConfig.put(LDAP_BIND_USER_PASS, config.bindUserPassword());
@@ -106,6 +111,73 @@ public class LdapLoginServiceProperties {
         return ldapStsConfig;
     }
 
+    /**
+     * Sets the servers of the configuration from a URL property. The services accept either a
+     * single URL or, for failover between servers, an ordered array of URLs.
+     */
+    public static void mapServers(Object urlProperty, String loadBalancing,
+            LdapConfiguration config) {
+        List<URI> ldapUris;
+        if (urlProperty instanceof String[]) {
+            ldapUris = Arrays.stream((String[]) urlProperty)
+                    .map(LdapLoginServiceProperties::getUriFromProperty)
+                    .filter(uri -> uri != null)
+                    .collect(Collectors.toList());
+        } else {
+            URI ldapUri = getUriFromProperty((String) urlProperty);
+            ldapUris = ldapUri == null ? ImmutableList.of() : ImmutableList.of(ldapUri);
+        }
+
+        if (!ldapUris.isEmpty()) {
+            config.encryptionMethod(ldapUris.get(0)
+                    .getScheme());
+            config.hostName(serverHost(ldapUris.get(0)));
+            config.port(ldapUris.get(0)
+                    .getPort());
+        }
+        if (ldapUris.size() > 1) {
+            config.failoverServers(ldapUris.subList(1, ldapUris.size())
+                    .stream()
+                    .map(URI::getAuthority)
+                    .collect(Collectors.toList()));
+            config.loadBalancing(loadBalancing);
+        }
+    }
+
+    /**
+     * Writes the URL of a configuration with a single server as a string, as before failover
+     * servers were supported. With failover servers, writes the ordered array of URLs and how to
+     * balance connections across them.
+     */
+    public static void putServers(String urlKey, LdapConfiguration config,
+            Map<String, Object> props) {
+        String ldapUrl = getLdapUrl(config);
+        String primaryUrl = ldapUrl + formatServer(config.hostName(), config.port());
+        if (config.failoverServers() == null || config.failoverServers()
+                .isEmpty()) {
+            props.put(urlKey, primaryUrl);
+            return;
+        }
+        props.put(urlKey,
+                Stream.concat(Stream.of(primaryUrl),
+                        config.failoverServers()
+                                .stream()
+                                .map(server -> ldapUrl + formatFailoverServer(server)))
+                        .toArray(String[]::new));
+        props.put(LOAD_BALANCING,
+                config.loadBalancing() == null ? FAILOVER : config.loadBalancing());
+    }
+
+    /**
+     * Normalizes a failover server from the parsed {@code host:port}, so surrounding whitespace
+     * is dropped and IPv6 addresses are bracketed the same way as the primary server.
+     */
+    private static String formatFailoverServer(String server) {
+        URI serverUri = parseServer(server);
+        return serverUri == null ? server.trim() : formatServer(serverHost(serverUri),
+                serverUri.getPort());
+    }
+
     public static boolean isStartTls(LdapConfiguration config) {
         return config.encryptionMethod()
                 .equalsIgnoreCase(START_TLS);
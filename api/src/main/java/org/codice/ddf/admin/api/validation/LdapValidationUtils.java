@@ -15,9 +15,15 @@ package org.codice.ddf.admin.api.validation;
 
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_REALM;
 import static org.codice.ddf.admin.api.handler.ConfigurationMessage.createInvalidFieldMsg;
+import static org.codice.ddf.admin.api.validation.ValidationUtils.validateHostName;
+import static org.codice.ddf.admin.api.validation.ValidationUtils.validatePort;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateString;
+import static org.codice.ddf.admin.api.validation.ValidationUtils.validateStringNoWhiteSpace;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,6 +34,7 @@ import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.Filter;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.net.InetAddresses;
 
 public class LdapValidationUtils {
     // TODO RAP 26 Jan 17: Shouldn't be public/used elsewhere
@@ -51,6 +58,12 @@ public class LdapValidationUtils {
     public static final String AUTHENTICATION_AND_ATTRIBUTE_STORE =
             "authenticationAndAttributeStore";
 
+    public static final String FAILOVER = "failover";
+
+    public static final String ROUND_ROBIN = "roundRobin";
+
+    public static final int MAX_QUERY_PAGE_SIZE = 500;
+
     static final String NONE = "none";
 
     private static final List<String> BIND_METHODS = ImmutableList.of(SIMPLE, DIGEST_MD5_SASL);
@@ -59,6 +72,9 @@ public class LdapValidationUtils {
             START_TLS,
             NONE);
 
+    private static final ImmutableList<String> LOAD_BALANCING_METHODS = ImmutableList.of(FAILOVER,
+            ROUND_ROBIN);
+
     private static final ImmutableList<String> LDAP_USE_CASES = ImmutableList.of(AUTHENTICATION,
             ATTRIBUTE_STORE,
             AUTHENTICATION_AND_ATTRIBUTE_STORE);
@@ -168,4 +184,122 @@ public class LdapValidationUtils {
         }
         return errors;
     }
+
+    public static List<ConfigurationMessage> validateQueryPageSize(Integer pageSize,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (pageSize == null || pageSize < 1 || pageSize > MAX_QUERY_PAGE_SIZE) {
+            errors.add(createInvalidFieldMsg(String.format(
+                    "Page size must be between 1 and %d.",
+                    MAX_QUERY_PAGE_SIZE), configId));
+        }
+        return errors;
+    }
+
+    public static List<ConfigurationMessage> validateQueryPageCookie(String cookie,
+            String configId) {
+        List<ConfigurationMessage> errors = validateString(cookie, configId);
+        if (errors.isEmpty()) {
+            try {
+                Base64.getDecoder()
+                        .decode(cookie);
+            } catch (IllegalArgumentException e) {
+                errors.add(createInvalidFieldMsg("Page cookie is not valid base64.", configId));
+            }
+        }
+        return errors;
+    }
+
+    public static List<ConfigurationMessage> validateAttributeNames(List<String> attributes,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (attributes == null || attributes.isEmpty()) {
+            errors.add(createInvalidFieldMsg("At least one attribute must be given.", configId));
+            return errors;
+        }
+        attributes.forEach(attribute -> errors.addAll(validateStringNoWhiteSpace(attribute,
+                configId)));
+        return errors;
+    }
+
+    public static List<ConfigurationMessage> validateLdapServers(List<String> servers,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (servers == null || servers.isEmpty()) {
+            errors.add(createInvalidFieldMsg("At least one server must be given.", configId));
+            return errors;
+        }
+        for (String server : servers) {
+            URI serverUri = parseServer(server);
+            if (serverUri == null) {
+                errors.add(createInvalidFieldMsg(String.format(
+                        "Server [%s] must be given as host:port.",
+                        server), configId));
+            } else {
+                String host = serverHost(serverUri);
+                if (host.contains(":")) {
+                    if (!InetAddresses.isInetAddress(host)) {
+                        errors.add(createInvalidFieldMsg(String.format(
+                                "Server [%s] is not a valid IPv6 address.",
+                                server), configId));
+                    }
+                } else {
+                    errors.addAll(validateHostName(host, configId));
+                }
+                errors.addAll(validatePort(serverUri.getPort(), configId));
+            }
+        }
+        return errors;
+    }
+
+    public static List<ConfigurationMessage> validateLoadBalancing(String loadBalancing,
+            String configId) {
+        List<ConfigurationMessage> errors = validateString(loadBalancing, configId);
+        if (errors.isEmpty() && LOAD_BALANCING_METHODS.stream()
+                .noneMatch(loadBalancing::equals)) {
+            errors.add(createInvalidFieldMsg(String.format(
+                    "Unknown load balancing method [%s]. Load balancing must be one of: [%s]",
+                    loadBalancing,
+                    String.join(",", LOAD_BALANCING_METHODS)), configId));
+        }
+        return errors;
+    }
+
+    /**
+     * @return the server as {@code host:port}, with an IPv6 address enclosed in brackets as in
+     * {@code [::1]:389}
+     */
+    public static String formatServer(String host, int port) {
+        boolean ipv6 = host != null && host.contains(":") && !host.startsWith("[");
+        return (ipv6 ? "[" + host + "]" : host) + ":" + port;
+    }
+
+    /**
+     * @return the host of a server parsed by {@link #parseServer}, without the brackets around an
+     * IPv6 address
+     */
+    public static String serverHost(URI serverUri) {
+        String host = serverUri.getHost();
+        return host.startsWith("[") && host.endsWith("]") ?
+                host.substring(1, host.length() - 1) :
+                host;
+    }
+
+    /**
+     * @return the server as an LDAP URI, or null if it is not given as {@code host:port}
+     */
+    public static URI parseServer(String server) {
+        if (server == null) {
+            return null;
+        }
+        try {
+            URI serverUri = new URI("ldap://" + server.trim());
+            boolean hostAndPortOnly = serverUri.getHost() != null && serverUri.getPort() != -1
+                    && serverUri.getUserInfo() == null && serverUri.getRawAuthority()
+                    .equals(server.trim());
+            return hostAndPortOnly ? serverUri : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
 }
@@ -13,12 +13,16 @@
  */
 package org.codice.ddf.admin.api.validation;
 
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.PORT;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_HOSTNAME;
 import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USERNAME;
 import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USER_PASSWORD;
 import static org.codice.ddf.admin.api.handler.ConfigurationMessage.createInvalidFieldMsg;
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.createMissingRequiredFieldMsg;
 import static org.codice.ddf.admin.api.services.CswServiceProperties.CSW_FACTORY_PIDS;
 import static org.codice.ddf.admin.api.services.OpenSearchServiceProperties.OPENSEARCH_FACTORY_PID;
 import static org.codice.ddf.admin.api.services.WfsServiceProperties.WFS_FACTORY_PIDS;
+import static org.codice.ddf.admin.api.validation.ValidationUtils.validatePort;
 import static org.codice.ddf.admin.api.validation.ValidationUtils.validateString;
 
 import java.util.ArrayList;
@@ -27,9 +31,22 @@ import java.util.List;
 
 import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.network.SubnetRange;
 
 public class SourceValidationUtils {
 
+    public static final int MAX_SUBNET_HOSTS = 4096;
+
+    public static final int MAX_SOURCE_PORTS = 16;
+
+    public static final int MAX_DISCOVERY_TARGETS = 1000;
+
+    public static final int MAX_BULK_SOURCES = 1000;
+
+    public static final int MAX_BENCHMARK_QUERIES = 1000;
+
+    public static final int MAX_BENCHMARK_CONCURRENCY = 8;
+
     public static List<ConfigurationMessage> validateWfsFactoryPid(String factoryPid,
             String configId) {
         List<ConfigurationMessage> errors = validateString(factoryPid, configId);
@@ -71,4 +88,137 @@ public class SourceValidationUtils {
         }
         return validationResults;
     }
+
+    public static List<ConfigurationMessage> validateSubnet(String subnet, String configId) {
+        List<ConfigurationMessage> errors = validateString(subnet, configId);
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        try {
+            if (SubnetRange.parse(subnet)
+                    .size() > MAX_SUBNET_HOSTS) {
+                errors.add(createInvalidFieldMsg(
+                        "Subnet must contain at most " + MAX_SUBNET_HOSTS + " hosts.",
+                        configId));
+            }
+        } catch (IllegalArgumentException e) {
+            errors.add(createInvalidFieldMsg(
+                    "Subnet must be an IP address or CIDR block such as 192.168.1.0/24.",
+                    configId));
+        }
+        return errors;
+    }
+
+    public static List<ConfigurationMessage> validateSourcePorts(List<Integer> ports,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (ports == null || ports.isEmpty()) {
+            errors.add(createMissingRequiredFieldMsg(configId));
+        } else if (ports.size() > MAX_SOURCE_PORTS) {
+            errors.add(createInvalidFieldMsg("At most " + MAX_SOURCE_PORTS
+                    + " ports may be scanned at once.", configId));
+        } else if (ports.contains(null)) {
+            errors.add(createInvalidFieldMsg("Port is not in valid range.", configId));
+        } else {
+            ports.stream()
+                    .distinct()
+                    .map(port -> validatePort(port, configId))
+                    .forEach(errors::addAll);
+        }
+        return errors;
+    }
+
+    public static List<ConfigurationMessage> validateOffset(int offset, String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (offset < 0) {
+            errors.add(createInvalidFieldMsg("Offset must not be negative.", configId));
+        }
+        return errors;
+    }
+
+    /**
+     * Checks the number of benchmark queries. Leave the field unset to use the probe's default.
+     */
+    public static List<ConfigurationMessage> validateBenchmarkQueries(Integer queries,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (queries == null || queries < 1 || queries > MAX_BENCHMARK_QUERIES) {
+            errors.add(createInvalidFieldMsg("Number of benchmark queries must be between 1 and "
+                    + MAX_BENCHMARK_QUERIES + ".", configId));
+        }
+        return errors;
+    }
+
+    /**
+     * Checks the number of benchmark queries run at once. Leave the field unset to use the
+     * probe's default. The limit matches the connections the source probes may hold open to a
+     * single endpoint.
+     */
+    public static List<ConfigurationMessage> validateBenchmarkConcurrency(Integer concurrency,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (concurrency == null || concurrency < 1 || concurrency > MAX_BENCHMARK_CONCURRENCY) {
+            errors.add(createInvalidFieldMsg("Benchmark concurrency must be between 1 and "
+                    + MAX_BENCHMARK_CONCURRENCY + ".", configId));
+        }
+        return errors;
+    }
+
+    /**
+     * Validates the hostname, port and optional credentials of each target. The field id of each
+     * failure names the target's position, such as {@code discoveryTargets[2].sourcePort}.
+     */
+    public static List<ConfigurationMessage> validateDiscoveryTargets(
+            List<SourceConfiguration> targets, String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (targets == null || targets.isEmpty()) {
+            errors.add(createMissingRequiredFieldMsg(configId));
+            return errors;
+        } else if (targets.size() > MAX_DISCOVERY_TARGETS) {
+            errors.add(createInvalidFieldMsg("At most " + MAX_DISCOVERY_TARGETS
+                    + " targets may be discovered at once.", configId));
+            return errors;
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            SourceConfiguration target = targets.get(i);
+            String targetId = configId + "[" + i + "]";
+            if (target == null) {
+                errors.add(createMissingRequiredFieldMsg(targetId));
+                continue;
+            }
+
+            List<ConfigurationMessage> targetErrors = new ArrayList<>(target.validate(Arrays.asList(
+                    SOURCE_HOSTNAME,
+                    PORT)));
+            targetErrors.addAll(validateOptionalUsernameAndPassword(target));
+            targetErrors.forEach(error -> error.configFieldId(
+                    targetId + "." + error.configFieldId()));
+            errors.addAll(targetErrors);
+        }
+        return errors;
+    }
+
+    /**
+     * Checks that the list is present and within {@link #MAX_BULK_SOURCES}. Each source is
+     * validated by the persist method of its own type.
+     */
+    public static List<ConfigurationMessage> validateSources(List<SourceConfiguration> sources,
+            String configId) {
+        List<ConfigurationMessage> errors = new ArrayList<>();
+        if (sources == null || sources.isEmpty()) {
+            errors.add(createMissingRequiredFieldMsg(configId));
+        } else if (sources.size() > MAX_BULK_SOURCES) {
+            errors.add(createInvalidFieldMsg("At most " + MAX_BULK_SOURCES
+                    + " sources may be persisted at once.", configId));
+        } else {
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i) == null) {
+                    errors.add(createMissingRequiredFieldMsg(configId + "[" + i + "]"));
+                }
+            }
+        }
+        return errors;
+    }
 }
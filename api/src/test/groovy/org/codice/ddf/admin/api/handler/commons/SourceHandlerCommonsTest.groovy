@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.handler.commons
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CANNOT_CONNECT
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.REACHED_URL
+
+class SourceHandlerCommonsTest extends Specification {
+
+    def 'test an https url is reached without a tls handshake'() {
+        setup:
+        def server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+
+        expect:
+        SourceHandlerCommons.endpointIsReachable("https://127.0.0.1:${server.localPort}/csw") == REACHED_URL
+
+        cleanup:
+        server.close()
+    }
+
+    def 'test the proxy settings are not consulted'() {
+        setup:
+        def server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+        def defaultSelector = ProxySelector.getDefault()
+        def unreachableProxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress('127.0.0.1', 1))
+        ProxySelector.setDefault([select       : { URI uri -> [unreachableProxy] },
+                                  connectFailed: { URI uri, SocketAddress address, IOException e -> }] as ProxySelector)
+
+        expect:
+        SourceHandlerCommons.endpointIsReachable("http://127.0.0.1:${server.localPort}/wfs") == REACHED_URL
+
+        cleanup:
+        ProxySelector.setDefault(defaultSelector)
+        server.close()
+    }
+
+    def 'test a closed port cannot be connected to'() {
+        setup:
+        def server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+        def port = server.localPort
+        server.close()
+
+        expect:
+        SourceHandlerCommons.endpointIsReachable("https://127.0.0.1:${port}/csw") == CANNOT_CONNECT
+    }
+
+    @Unroll
+    def 'test #url cannot be connected to'() {
+        expect:
+        SourceHandlerCommons.endpointIsReachable(url) == CANNOT_CONNECT
+
+        where:
+        url << ['not a url', 'unknown://127.0.0.1:8993/csw', 'https:///csw']
+    }
+}
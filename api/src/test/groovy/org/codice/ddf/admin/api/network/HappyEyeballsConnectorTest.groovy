@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import spock.lang.Specification
+
+class HappyEyeballsConnectorTest extends Specification {
+
+    def connector = new HappyEyeballsConnector(100, 60000)
+
+    def server = new ServerSocket(0, 50, InetAddress.getByName('127.0.0.1'))
+
+    def cleanup() {
+        server.close()
+    }
+
+    def 'test families alternate starting with ipv6 for unknown hosts'() {
+        when:
+        def sorted = connector.sortAddresses('host', addresses('10.0.0.1', '10.0.0.2', 'fe80::1', 'fe80::2', 'fe80::3'))
+
+        then:
+        sorted*.hostAddress == ['fe80:0:0:0:0:0:0:1', '10.0.0.1', 'fe80:0:0:0:0:0:0:2', '10.0.0.2', 'fe80:0:0:0:0:0:0:3']
+    }
+
+    def 'test the winning family is remembered per host'() {
+        when:
+        def socket = connector.connect('Host', addresses('127.0.0.1'), server.localPort, 1000)
+        socket.close()
+
+        then:
+        connector.preferredFamily('host').get() == Inet4Address
+        !connector.preferredFamily('other').isPresent()
+        connector.sortAddresses('host', addresses('fe80::1', '10.0.0.1', '10.0.0.2'))*.hostAddress ==
+                ['10.0.0.1', 'fe80:0:0:0:0:0:0:1', '10.0.0.2']
+    }
+
+    def 'test a failed candidate falls through to the next one'() {
+        when:
+        def socket = connector.connect('host', addresses('127.0.0.2', '127.0.0.1'), server.localPort, 2000)
+
+        then:
+        socket.connected
+        socket.inetAddress.hostAddress == '127.0.0.1'
+
+        cleanup:
+        socket?.close()
+    }
+
+    def 'test the last failure is thrown when every candidate fails'() {
+        setup:
+        def port = server.localPort
+        server.close()
+
+        when:
+        connector.connect('host', addresses('127.0.0.1'), port, 1000)
+
+        then:
+        thrown(ConnectException)
+        !connector.preferredFamily('host').isPresent()
+    }
+
+    def 'test a host without addresses cannot be connected'() {
+        when:
+        connector.connect('host', [], 80, 1000)
+
+        then:
+        thrown(UnknownHostException)
+    }
+
+    def addresses(String... literals) {
+        literals.collect { InetAddress.getByName(it) }
+    }
+}
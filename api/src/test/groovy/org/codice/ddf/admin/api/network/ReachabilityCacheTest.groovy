@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.BiPredicate
+
+class ReachabilityCacheTest extends Specification {
+
+    def attempts = new AtomicInteger()
+
+    def 'test repeat checks are served from the cache'() {
+        setup:
+        def cache = new ReachabilityCache(60000, 60000)
+        def connector = { host, port -> attempts.incrementAndGet(); false } as BiPredicate
+
+        when:
+        def first = cache.check('localhost', 1, connector)
+        def second = cache.check('LOCALHOST', 1, connector)
+
+        then:
+        attempts.get() == 1
+        !first.isCached()
+        second.isCached()
+        !second.isShared()
+        !second.isReachable()
+    }
+
+    def 'test ip literals share a result whatever their form'() {
+        setup:
+        def cache = new ReachabilityCache(60000, 60000)
+        def connector = { host, port -> attempts.incrementAndGet(); false } as BiPredicate
+
+        when:
+        cache.record('0:0:0:0:0:0:0:1', 80, true)
+        def bracketed = cache.check('[::1]', 80, connector)
+        def compressed = cache.check('::1', 80, connector)
+
+        then:
+        attempts.get() == 0
+        bracketed.isCached()
+        bracketed.isReachable()
+        compressed.isCached()
+    }
+
+    def 'test failures expire independently of successes'() {
+        setup:
+        def cache = new ReachabilityCache(60000, 1)
+        def connector = { host, port -> attempts.incrementAndGet(); port == 2 } as BiPredicate
+
+        when:
+        cache.check('localhost', 1, connector)
+        cache.check('localhost', 2, connector)
+        sleep(20)
+        def failure = cache.check('localhost', 1, connector)
+        def success = cache.check('localhost', 2, connector)
+
+        then:
+        attempts.get() == 3
+        !failure.isCached()
+        success.isCached()
+    }
+
+    def 'test concurrent checks share one connect attempt'() {
+        setup:
+        def cache = new ReachabilityCache(0, 0)
+        def release = new CountDownLatch(1)
+        def connector = { host, port ->
+            attempts.incrementAndGet()
+            release.await()
+            true
+        } as BiPredicate
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        def futures = (1..4).collect {
+            executor.submit({ cache.check('localhost', 1, connector) } as Callable)
+        }
+        sleep(200)
+        release.countDown()
+        def results = futures*.get()
+
+        then:
+        attempts.get() == 1
+        results.every { it.isReachable() }
+        results.count { it.isShared() } == 3
+        results.every { !it.isCached() }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def 'test a check finishing during a lookup is not repeated'() {
+        setup:
+        def cache = new ReachabilityCache(60000, 60000)
+        def connector = { host, port -> attempts.incrementAndGet(); true } as BiPredicate
+        def executor = Executors.newFixedThreadPool(8)
+        def start = new CountDownLatch(1)
+
+        when:
+        def futures = (1..8).collect {
+            executor.submit({
+                start.await()
+                (1..500).collect { port -> cache.check('localhost', port, connector) }
+            } as Callable)
+        }
+        start.countDown()
+        def results = futures*.get().flatten()
+
+        then:
+        attempts.get() == 500
+        results.count { !it.isCached() && !it.isShared() } == 500
+
+        cleanup:
+        executor.shutdownNow()
+    }
+}
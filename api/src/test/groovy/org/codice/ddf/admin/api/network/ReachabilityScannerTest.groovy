@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import org.codice.ddf.admin.api.network.ReachabilityScanner.ScanTarget
+import spock.lang.Specification
+
+import static org.codice.ddf.admin.api.network.ReachabilityScanner.Status.REACHABLE
+import static org.codice.ddf.admin.api.network.ReachabilityScanner.Status.UNREACHABLE
+import static org.codice.ddf.admin.api.network.ReachabilityScanner.Status.UNRESOLVED
+
+class ReachabilityScannerTest extends Specification {
+
+    def openSocket = new ServerSocket(0, 500, InetAddress.getLoopbackAddress())
+
+    def closedPort
+
+    def setup() {
+        def socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())
+        closedPort = socket.getLocalPort()
+        socket.close()
+    }
+
+    def cleanup() {
+        openSocket.close()
+    }
+
+    def 'test open and closed loopback ports'() {
+        when:
+        def results = new ReachabilityScanner().scan([
+                new ScanTarget('127.0.0.1', openSocket.getLocalPort(), 2000),
+                new ScanTarget('127.0.0.1', closedPort, 2000)])
+
+        then:
+        results.size() == 2
+        results.find { it.target().port() == openSocket.getLocalPort() }.status() == REACHABLE
+        results.find { it.target().port() == closedPort }.status() == UNREACHABLE
+    }
+
+    def 'test unresolvable host'() {
+        when:
+        def results = new ReachabilityScanner().scan([new ScanTarget('unknown.host.invalid', 80, 500)])
+
+        then:
+        results*.status() == [UNRESOLVED]
+    }
+
+    def 'test more targets than the in flight limit all complete'() {
+        setup:
+        def targets = (1..400).collect {
+            new ScanTarget('127.0.0.1', it % 2 ? openSocket.getLocalPort() : closedPort, 2000)
+        }
+        def streamed = []
+
+        when:
+        new ReachabilityScanner(16).scan(targets, { streamed << it })
+
+        then:
+        streamed.size() == 400
+        streamed.count { it.isReachable() } == 200
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import spock.lang.Specification
+
+class RttEstimatorTest extends Specification {
+
+    def estimator = new RttEstimator(2000, 100, 10000)
+
+    def 'test hosts without samples use the initial timeout'() {
+        expect:
+        estimator.timeoutMillis('unmeasured') == 2000
+        estimator.smoothedRttMillis('unmeasured') == -1
+    }
+
+    def 'test timeouts follow the smoothed rtt and variance'() {
+        when:
+        estimator.recordSample('host', 100)
+
+        then:
+        estimator.smoothedRttMillis('host') == 100
+        estimator.timeoutMillis('host') == 300
+
+        when:
+        estimator.recordSample('host', 100)
+
+        then:
+        estimator.timeoutMillis('host') == 250
+    }
+
+    def 'test timeouts back off until the next sample'() {
+        setup:
+        estimator.recordSample('host', 100)
+        estimator.recordSample('host', 100)
+
+        when:
+        estimator.recordTimeout('host')
+        estimator.recordTimeout('host')
+
+        then:
+        estimator.timeoutMillis('host') == 1000
+
+        when:
+        estimator.recordSample('host', 100)
+
+        then:
+        estimator.timeoutMillis('host') == 213
+    }
+
+    def 'test unmeasured hosts back off from the initial timeout'() {
+        when:
+        estimator.recordTimeout('host')
+
+        then:
+        estimator.timeoutMillis('host') == 4000
+
+        when:
+        (1..20).each { estimator.recordTimeout('host') }
+
+        then:
+        estimator.timeoutMillis('host') == 10000
+    }
+
+    def 'test timeouts are kept within bounds'() {
+        when:
+        estimator.recordSample('lan', 1)
+        estimator.recordSample('wan', 5000)
+
+        then:
+        estimator.timeoutMillis('lan') == 100
+        estimator.timeoutMillis('wan') == 10000
+        new RttEstimator(50000, 100, 10000).timeoutMillis('host') == 10000
+    }
+
+    def 'test hosts are matched regardless of case and brackets'() {
+        when:
+        estimator.recordSample('[FE80::1]', 100)
+
+        then:
+        estimator.smoothedRttMillis('fe80::1') == 100
+        estimator.timeoutMillis('fe80::1') == 300
+    }
+
+    def 'test invalid bounds are rejected'() {
+        when:
+        new RttEstimator(2000, 5000, 1000)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SubnetRangeTest extends Specification {
+
+    @Unroll
+    def 'test #cidr contains #size hosts starting at #first'() {
+        when:
+        def range = SubnetRange.parse(cidr)
+
+        then:
+        range.size() == size
+        range.iterator().next().getHostAddress() == first
+        range.collect().size() == size
+
+        where:
+        cidr               | size | first
+        '127.0.0.1'        | 1    | '127.0.0.1'
+        '192.168.1.77/24'  | 254  | '192.168.1.1'
+        '10.0.0.0/30'      | 2    | '10.0.0.1'
+        '10.0.0.7/31'      | 2    | '10.0.0.6'
+        'fe80::/126'       | 4    | 'fe80:0:0:0:0:0:0:0'
+    }
+
+    @Unroll
+    def 'test #cidr is rejected'() {
+        when:
+        SubnetRange.parse(cidr)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        cidr << [null, '10.0.0.0/33', '10.0.0.0/-1', 'host.example/24', '1.2.3.4/x', '1/2/3']
+    }
+
+    def 'test large ranges are not materialized'() {
+        expect:
+        SubnetRange.parse('10.0.0.0/8').size() == 16777214
+        SubnetRange.parse('::/0').size() == Long.MAX_VALUE
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import spock.lang.Specification
+
+import javax.net.ssl.SSLSession
+import javax.net.ssl.X509TrustManager
+import java.security.cert.Certificate
+import java.security.cert.CertificateException
+import java.security.cert.X509Certificate
+
+import static org.codice.ddf.admin.api.network.TlsTrustCache.TrustVerdict.CERT_ERROR
+import static org.codice.ddf.admin.api.network.TlsTrustCache.TrustVerdict.TRUSTED
+import static org.codice.ddf.admin.api.network.TlsTrustCache.TrustVerdict.UNTRUSTED_CA
+
+class TlsTrustCacheTest extends Specification {
+
+    def 'test recorded verdict is returned case insensitively'() {
+        setup:
+        def cache = new TlsTrustCache(10, 60000)
+
+        when:
+        cache.recordVerdict('Example.com', 443, CERT_ERROR)
+
+        then:
+        cache.getVerdict('example.com', 443).get() == CERT_ERROR
+        !cache.getVerdict('example.com', 8993).isPresent()
+    }
+
+    def 'test verdicts expire after ttl'() {
+        setup:
+        def cache = new TlsTrustCache(10, 1)
+
+        when:
+        cache.recordVerdict('example.com', 443, UNTRUSTED_CA)
+        sleep(20)
+
+        then:
+        !cache.getVerdict('example.com', 443).isPresent()
+    }
+
+    def 'test least recently used endpoint is evicted'() {
+        setup:
+        def cache = new TlsTrustCache(2, 60000)
+
+        when:
+        cache.recordVerdict('a', 443, UNTRUSTED_CA)
+        cache.recordVerdict('b', 443, UNTRUSTED_CA)
+        cache.getVerdict('a', 443)
+        cache.recordVerdict('c', 443, UNTRUSTED_CA)
+
+        then:
+        cache.size() == 2
+        cache.getVerdict('a', 443).isPresent()
+        !cache.getVerdict('b', 443).isPresent()
+    }
+
+    def 'test ssl context is reused per endpoint'() {
+        setup:
+        def cache = new TlsTrustCache(10, 60000)
+
+        expect:
+        cache.getSslContext('a', 443, false).is(cache.getSslContext('a', 443, false))
+        !cache.getSslContext('a', 443, false).is(cache.getSslContext('b', 443, false))
+    }
+
+    def 'test verdicts are dropped when the trust store gains a certificate authority'() {
+        setup:
+        def issuers = [Mock(X509Certificate)]
+        def modified = 1L
+        def loads = 0
+        def cache = Spy(TlsTrustCache, constructorArgs: [10, 60000, 0])
+        cache.loadTrustManager() >> {
+            loads++
+            trustManager(issuers)
+        }
+        cache.trustStoreModified() >> { modified }
+        cache.recordVerdict('example.com', 443, UNTRUSTED_CA)
+
+        when: 'the trust store is unchanged'
+        def verdict = cache.getVerdict('example.com', 443)
+
+        then:
+        loads == 1
+        verdict.get() == UNTRUSTED_CA
+
+        when: 'the file is rewritten with the same certificates'
+        modified = 2L
+        verdict = cache.getVerdict('example.com', 443)
+
+        then:
+        loads == 2
+        verdict.get() == UNTRUSTED_CA
+
+        when: 'a certificate authority is imported'
+        issuers = issuers + Mock(X509Certificate)
+        modified = 3L
+        verdict = cache.getVerdict('example.com', 443)
+
+        then:
+        loads == 3
+        !verdict.isPresent()
+    }
+
+    def 'test trust store is reloaded after the ttl'() {
+        setup:
+        def loads = 0
+        def cache = Spy(TlsTrustCache, constructorArgs: [10, 1, 60000])
+        cache.loadTrustManager() >> {
+            loads++
+            trustManager([])
+        }
+        cache.trustStoreModified() >> 0L
+
+        when:
+        cache.getVerdict('example.com', 443)
+        sleep(20)
+        cache.getVerdict('example.com', 443)
+
+        then:
+        loads == 2
+    }
+
+    def 'test a session restores the verdict of its endpoint after eviction'() {
+        setup:
+        def serverCertificate = Mock(X509Certificate)
+        def issuers = [Mock(X509Certificate)]
+        def modified = 1L
+        def validations = 0
+        def cache = Spy(TlsTrustCache, constructorArgs: [1, 60000, 0])
+        cache.loadTrustManager() >> {
+            trustManager(issuers, { X509Certificate[] chain ->
+                validations++
+                if (issuers.size() == 1) {
+                    throw new CertificateException('Untrusted authority')
+                }
+            })
+        }
+        cache.trustStoreModified() >> { modified }
+        def session = session('example.com', 443, serverCertificate)
+
+        when: 'the session has no stored verdict'
+        def verdict = cache.recordSessionVerdict(session)
+
+        then:
+        validations == 1
+        verdict.get() == UNTRUSTED_CA
+        cache.getVerdict('example.com', 443).get() == UNTRUSTED_CA
+
+        when: 'the entry is evicted by another endpoint'
+        cache.recordVerdict('other.example.com', 443, TRUSTED)
+        verdict = cache.recordSessionVerdict(session)
+
+        then: 'the verdict stored in the session is recorded again'
+        validations == 1
+        verdict.get() == UNTRUSTED_CA
+        cache.getVerdict('example.com', 443).get() == UNTRUSTED_CA
+
+        when: 'the certificate authority is imported'
+        issuers = issuers + Mock(X509Certificate)
+        modified = 2L
+        verdict = cache.recordSessionVerdict(session)
+
+        then: 'the chain is validated again'
+        validations == 2
+        verdict.get() == TRUSTED
+        cache.getVerdict('example.com', 443).get() == TRUSTED
+    }
+
+    def 'test a session without a peer records nothing'() {
+        setup:
+        def cache = new TlsTrustCache(10, 60000)
+
+        expect:
+        !cache.recordSessionVerdict(null).isPresent()
+        !cache.recordSessionVerdict(session(null, -1, Mock(X509Certificate))).isPresent()
+        cache.size() == 0
+    }
+
+    private static SSLSession session(String host, int port, X509Certificate certificate) {
+        def values = [:]
+        [getPeerHost        : { host },
+         getPeerPort        : { port },
+         getPeerCertificates: { [certificate] as Certificate[] },
+         getValue           : { String name -> values[name] },
+         putValue           : { String name, Object value -> values[name] = value }] as SSLSession
+    }
+
+    private static X509TrustManager trustManager(List<X509Certificate> issuers,
+            Closure validation = {}) {
+        [getAcceptedIssuers: { issuers as X509Certificate[] },
+         checkServerTrusted: { X509Certificate[] chain, String authType -> validation(chain) }] as X509TrustManager
+    }
+}
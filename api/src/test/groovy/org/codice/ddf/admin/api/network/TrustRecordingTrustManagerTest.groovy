@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.network
+
+import spock.lang.Specification
+
+import javax.net.ssl.X509TrustManager
+import java.security.cert.CertificateException
+import java.security.cert.X509Certificate
+
+class TrustRecordingTrustManagerTest extends Specification {
+
+    def delegate = Mock(X509TrustManager)
+
+    def chain = [] as X509Certificate[]
+
+    def 'test trusted when no chain was presented'() {
+        when:
+        def trustManager = new TrustRecordingTrustManager(delegate)
+
+        then:
+        trustManager.isTrusted()
+        !trustManager.isChecked()
+    }
+
+    def 'test trusted chain is recorded'() {
+        setup:
+        def trustManager = new TrustRecordingTrustManager(delegate)
+
+        when:
+        trustManager.checkServerTrusted(chain, 'RSA')
+
+        then:
+        1 * delegate.checkServerTrusted(chain, 'RSA')
+        trustManager.isTrusted()
+        trustManager.isChecked()
+    }
+
+    def 'test untrusted chain is recorded without failing the handshake'() {
+        setup:
+        def trustManager = new TrustRecordingTrustManager(delegate)
+        def failure = new CertificateException('unknown issuer')
+
+        when:
+        trustManager.checkServerTrusted(chain, 'RSA')
+
+        then:
+        noExceptionThrown()
+        1 * delegate.checkServerTrusted(chain, 'RSA') >> { throw failure }
+        !trustManager.isTrusted()
+        trustManager.getFailure() == failure
+    }
+}
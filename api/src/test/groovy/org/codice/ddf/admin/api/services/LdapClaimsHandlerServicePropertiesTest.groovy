@@ -186,6 +186,30 @@ class LdapClaimsHandlerServicePropertiesTest extends Specification {
         result.get(LdapClaimsHandlerServiceProperties.PROPERTY_FILE_LOCATION) == TEST_PROPERTY_FILE_LOCATION
     }
 
+    def 'test ldapClaimsHandlerService round trip with failover servers'() {
+        setup:
+        def config = new LdapConfiguration().encryptionMethod(LdapValidationUtils.LDAPS)
+                .hostName(TEST_HOST_NAME)
+                .port(636)
+                .failoverServers(["ds2.example.com:636"])
+                .loadBalancing(LdapValidationUtils.FAILOVER)
+
+        when:
+        Map props = ldapClaimsHandlerServiceProperties.ldapConfigToLdapClaimsHandlerService(config)
+
+        then:
+        props.get(LdapClaimsHandlerServiceProperties.URL) == ["ldaps://ds.example.com:636", "ldaps://ds2.example.com:636"] as String[]
+        props.get(LdapClaimsHandlerServiceProperties.LOAD_BALANCING) == LdapValidationUtils.FAILOVER
+
+        when:
+        LdapConfiguration readBack = ldapClaimsHandlerServiceProperties.ldapClaimsHandlerServiceToLdapConfig(props)
+
+        then:
+        readBack.servers() == ["ds.example.com:636", "ds2.example.com:636"]
+        readBack.encryptionMethod() == LdapValidationUtils.LDAPS
+        readBack.loadBalancing() == LdapValidationUtils.FAILOVER
+    }
+
     def 'test ldapConfigToLdapClaimsHandlerService(LdapConfiguration) null LdapConfiguration'() {
         when:
         Map result = ldapClaimsHandlerServiceProperties.ldapConfigToLdapClaimsHandlerService(null)
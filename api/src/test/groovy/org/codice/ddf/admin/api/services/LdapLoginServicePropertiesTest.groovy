@@ -199,6 +199,80 @@ class LdapLoginServicePropertiesTest extends Specification {
         result.get(LdapLoginServiceProperties.GROUP_BASE_DN) == TEST_BIND_METHOD
     }
 
+    def 'test ldapLoginServiceToLdapConfiguration(Map<String, Objects>) with failover servers'() {
+        setup:
+        def properties = [LdapLoginServiceProperties.LDAP_URL, [TEST_LDAP_URL, "ldap://ds2.example.com:1389", "ds3.example.com:389"] as String[],
+                          LdapLoginServiceProperties.LOAD_BALANCING, LdapValidationUtils.ROUND_ROBIN,
+                          LdapLoginServiceProperties.START_TLS, false]
+                .toSpreadMap()
+
+        when:
+        def ldapConfiguration = ldapLoginServiceProperties.ldapLoginServiceToLdapConfiguration(properties)
+
+        then:
+        ldapConfiguration.hostName() == TEST_HOST_NAME
+        ldapConfiguration.port() == TEST_PORT
+        ldapConfiguration.encryptionMethod() == "ldap"
+        ldapConfiguration.failoverServers() == ["ds2.example.com:1389", "ds3.example.com:389"]
+        ldapConfiguration.loadBalancing() == LdapValidationUtils.ROUND_ROBIN
+        ldapConfiguration.servers() == [TEST_HOST_AND_PORT, "ds2.example.com:1389", "ds3.example.com:389"]
+    }
+
+    def 'test IPv6 servers are written in brackets and read back without them'() {
+        setup:
+        def ldapConfiguration = new LdapConfiguration().encryptionMethod(LdapValidationUtils.LDAPS)
+                .hostName("2001:db8::1")
+                .port(636)
+                .failoverServers(["[2001:db8::2]:636"])
+
+        when:
+        Map result = ldapLoginServiceProperties.ldapConfigurationToLdapLoginService(ldapConfiguration)
+        def readBack = ldapLoginServiceProperties.ldapLoginServiceToLdapConfiguration(result)
+
+        then:
+        ldapConfiguration.servers() == ["[2001:db8::1]:636", "[2001:db8::2]:636"]
+        result.get(LdapLoginServiceProperties.LDAP_URL) == ["ldaps://[2001:db8::1]:636", "ldaps://[2001:db8::2]:636"] as String[]
+        readBack.hostName() == "2001:db8::1"
+        readBack.servers() == ldapConfiguration.servers()
+    }
+
+    def 'test failover servers are written from their parsed host and port'() {
+        setup:
+        def ldapConfiguration = new LdapConfiguration().encryptionMethod(LdapValidationUtils.LDAPS)
+                .hostName(TEST_HOST_NAME)
+                .port(636)
+                .failoverServers([" ds2.example.com:389 ", "[2001:db8::2]:636"])
+
+        when:
+        Map result = ldapLoginServiceProperties.ldapConfigurationToLdapLoginService(ldapConfiguration)
+        def readBack = ldapLoginServiceProperties.ldapLoginServiceToLdapConfiguration(result)
+
+        then:
+        result.get(LdapLoginServiceProperties.LDAP_URL) == ["ldaps://${TEST_HOST_NAME}:636", "ldaps://ds2.example.com:389", "ldaps://[2001:db8::2]:636"] as String[]
+        readBack.failoverServers() == ["ds2.example.com:389", "[2001:db8::2]:636"]
+    }
+
+    def 'test ldapConfigurationToLdapLoginService(LdapConfiguration) with failover servers'() {
+        setup:
+        def ldapConfiguration = new LdapConfiguration().encryptionMethod(LdapLoginServiceProperties.START_TLS)
+                .hostName(TEST_HOST_NAME)
+                .port(TEST_PORT)
+                .failoverServers(["ds2.example.com:389"])
+                .loadBalancing(loadBalancing)
+
+        when:
+        Map result = ldapLoginServiceProperties.ldapConfigurationToLdapLoginService(ldapConfiguration)
+
+        then:
+        result.get(LdapLoginServiceProperties.LDAP_URL) == [TEST_LDAP_URL, "ldap://ds2.example.com:389"] as String[]
+        result.get(LdapLoginServiceProperties.LOAD_BALANCING) == persistedLoadBalancing
+
+        where:
+        loadBalancing                   | persistedLoadBalancing
+        null                            | LdapValidationUtils.FAILOVER
+        LdapValidationUtils.ROUND_ROBIN | LdapValidationUtils.ROUND_ROBIN
+    }
+
     def 'test ldapConfigToLdapClaimsHandlerService(LdapConfiguration) null LdapConfiguration'() {
         when:
         Map result = ldapLoginServiceProperties.ldapConfigurationToLdapLoginService(null)
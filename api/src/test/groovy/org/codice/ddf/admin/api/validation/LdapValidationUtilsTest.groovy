@@ -186,4 +186,47 @@ class LdapValidationUtilsTest extends Specification {
         UNKNOWN.toLowerCase()          | []
         UNKNOWN.toUpperCase()          | []
     }
+
+    @Unroll
+    def 'test validate ldap servers'() {
+        when:
+        def errors = validateLdapServers(input, configFieldId)
+
+        then:
+        errors*.subtype() == errorSubtype
+        errors.every { it.configFieldId() == configFieldId }
+
+        where:
+        input                                        | errorSubtype
+        null                                         | [INVALID_FIELD]
+        []                                           | [INVALID_FIELD]
+        ['ds1.example.com']                          | [INVALID_FIELD]
+        ['ds1.example.com:0']                        | [INVALID_FIELD]
+        ['ldap://ds1.example.com:389']               | [INVALID_FIELD]
+        ['admin@ds1.example.com:389']                | [INVALID_FIELD]
+        ['ds1.example.com:389/ou=users']             | [INVALID_FIELD]
+        ['ds1.example.com:389', 'ds2']               | [INVALID_FIELD]
+        ['ds1.example.com:389']                      | []
+        ['ds1.example.com:389', '10.0.0.2:636']      | []
+        ['::1:389']                                  | [INVALID_FIELD]
+        ['[::1]']                                    | [INVALID_FIELD]
+        ['[::1]:389']                                | []
+        ['[2001:db8::2]:636', 'ds1.example.com:389'] | []
+    }
+
+    @Unroll
+    def 'test validate load balancing'() {
+        when:
+        def errors = validateLoadBalancing(input, configFieldId)
+
+        then:
+        errors*.subtype() == errorSubtype
+
+        where:
+        input       | errorSubtype
+        null        | [MISSING_REQUIRED_FIELD]
+        'random'    | [INVALID_FIELD]
+        FAILOVER    | []
+        ROUND_ROBIN | []
+    }
 }
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.api.validation
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.INVALID_FIELD
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.*
+
+class SourceValidationUtilsTest extends Specification {
+    def configFieldId = 'testField'
+
+    @Unroll
+    def 'test validate benchmark queries'() {
+        when:
+        def errors = validateBenchmarkQueries(input, configFieldId)
+
+        then:
+        errors*.subtype() == errorSubtype
+        errors*.configFieldId().every { it == configFieldId }
+
+        where:
+        input                     | errorSubtype
+        null                      | [INVALID_FIELD]
+        -1                        | [INVALID_FIELD]
+        0                         | [INVALID_FIELD]
+        1                         | []
+        MAX_BENCHMARK_QUERIES     | []
+        MAX_BENCHMARK_QUERIES + 1 | [INVALID_FIELD]
+    }
+
+    @Unroll
+    def 'test validate benchmark concurrency'() {
+        when:
+        def errors = validateBenchmarkConcurrency(input, configFieldId)
+
+        then:
+        errors*.subtype() == errorSubtype
+        errors*.configFieldId().every { it == configFieldId }
+
+        where:
+        input                         | errorSubtype
+        null                          | [INVALID_FIELD]
+        -1                            | [INVALID_FIELD]
+        0                             | [INVALID_FIELD]
+        1                             | []
+        MAX_BENCHMARK_CONCURRENCY     | []
+        MAX_BENCHMARK_CONCURRENCY + 1 | [INVALID_FIELD]
+    }
+}
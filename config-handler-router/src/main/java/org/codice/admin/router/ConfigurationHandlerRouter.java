@@ -20,6 +20,10 @@ import static spark.Spark.exception;
 import static spark.Spark.get;
 import static spark.Spark.post;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +32,7 @@ import java.util.stream.Collectors;
 
 import org.codice.ddf.admin.api.config.Configuration;
 import org.codice.ddf.admin.api.handler.ConfigurationHandler;
+import org.codice.ddf.admin.api.handler.PagedConfigurationHandler;
 import org.codice.ddf.admin.api.handler.report.ProbeReport;
 import org.codice.ddf.admin.api.handler.report.Report;
 import org.slf4j.Logger;
@@ -36,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import spark.Response;
 import spark.servlet.SparkApplication;
 
 public class ConfigurationHandlerRouter implements SparkApplication {
@@ -44,6 +50,14 @@ public class ConfigurationHandlerRouter implements SparkApplication {
 
     public static final String APPLICATION_JSON = "application/json";
 
+    public static final String OFFSET_PARAM = "offset";
+
+    public static final String LIMIT_PARAM = "limit";
+
+    public static final int DEFAULT_PAGE_LIMIT = 50;
+
+    public static final int MAX_PAGE_LIMIT = 500;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationHandlerRouter.class);
 
     private List<ConfigurationHandler> handlers = new ArrayList<>();
@@ -95,6 +109,8 @@ public class ConfigurationHandlerRouter implements SparkApplication {
             return persistReport;
         }, this::toJson);
 
+        // Probe reports can carry large results, such as a page of LDAP entries, so they are
+        // serialized straight to the response rather than built up as a string first
         post("/probe/:configHandlerId/:probeId", (req, res) -> {
             ProbeReport probeReport = new ProbeReport();
             String configHandlerId = req.params("configHandlerId");
@@ -103,9 +119,11 @@ public class ConfigurationHandlerRouter implements SparkApplication {
 
             if (configHandler == null) {
                 res.status(400);
-                return probeReport.addMessage(createInvalidFieldMsg(
-                        "No configuration handler with id of \"" + configHandlerId + "\" found.",
-                        CONFIGURATION_TYPE_FIELD));
+                return streamJson(res,
+                        probeReport.addMessage(createInvalidFieldMsg(
+                                "No configuration handler with id of \"" + configHandlerId
+                                        + "\" found.",
+                                CONFIGURATION_TYPE_FIELD)));
             }
 
             Configuration config = getGsonParser().fromJson(req.body(), Configuration.class);
@@ -115,8 +133,8 @@ public class ConfigurationHandlerRouter implements SparkApplication {
                 res.status(400);
             }
 
-            return probeReport;
-        }, this::toJson);
+            return streamJson(res, probeReport);
+        });
 
         get("/configurations/:configHandlerId", (req, res) -> {
             String configHandlerId = req.params("configHandlerId");
@@ -130,6 +148,40 @@ public class ConfigurationHandlerRouter implements SparkApplication {
             return configHandler.getConfigurations();
         }, this::toJson);
 
+        get("/configurations/:configHandlerId/page", (req, res) -> {
+            String configHandlerId = req.params("configHandlerId");
+            ConfigurationHandler configHandler = getConfigurationHandler(configHandlerId);
+            if (!(configHandler instanceof PagedConfigurationHandler)) {
+                res.status(400);
+                return new Report(createInvalidFieldMsg(
+                        "No paged configuration handler with id of \"" + configHandlerId
+                                + "\" found.",
+                        CONFIGURATION_TYPE_FIELD));
+            }
+
+            Integer offset = getIntQueryParam(req.queryParams(OFFSET_PARAM), 0);
+            if (offset == null || offset < 0) {
+                res.status(400);
+                return new Report(createInvalidFieldMsg("Offset must be a non-negative integer.",
+                        OFFSET_PARAM));
+            }
+            Integer limit = getIntQueryParam(req.queryParams(LIMIT_PARAM), DEFAULT_PAGE_LIMIT);
+            if (limit == null || limit < 1 || limit > MAX_PAGE_LIMIT) {
+                res.status(400);
+                return new Report(createInvalidFieldMsg(
+                        "Limit must be an integer between 1 and " + MAX_PAGE_LIMIT + ".",
+                        LIMIT_PARAM));
+            }
+
+            Map<String, String> filters = req.queryParams()
+                    .stream()
+                    .filter(param -> !OFFSET_PARAM.equals(param) && !LIMIT_PARAM.equals(param))
+                    .collect(Collectors.toMap(param -> param, req::queryParams));
+            return ((PagedConfigurationHandler) configHandler).getConfigurations(offset,
+                    limit,
+                    filters);
+        }, this::toJson);
+
         get("/capabilities",
                 (req, res) -> handlers.stream()
                         .map(handler -> handler.getCapabilities())
@@ -165,6 +217,17 @@ public class ConfigurationHandlerRouter implements SparkApplication {
         return new Gson().toJson(e);
     }
 
+    private Integer getIntQueryParam(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     public ConfigurationHandler getConfigurationHandler(String configurationId) {
         return handlers.stream()
                 .filter(handler -> handler.getConfigurationHandlerId()
@@ -189,6 +252,20 @@ public class ConfigurationHandlerRouter implements SparkApplication {
         return getGsonParser().toJson(body);
     }
 
+    /**
+     * Writes the body as JSON directly to the response's output stream.
+     *
+     * @return an empty body for Spark to append, since the response has already been written
+     */
+    private String streamJson(Response res, Object body) throws IOException {
+        res.type(APPLICATION_JSON);
+        Writer writer = new OutputStreamWriter(res.raw()
+                .getOutputStream(), StandardCharsets.UTF_8);
+        getGsonParser().toJson(body, writer);
+        writer.flush();
+        return "";
+    }
+
     private String toFilteredJson(Object body) {
         return new GsonBuilder().excludeFieldsWithoutExposeAnnotation()
                 .create()
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TIMED_OUT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream over a response body that fails with a {@link ResponseLimitExceededException} once more
+ * than a maximum number of bytes has been read or a deadline has passed, so an oversized or
+ * endless response can't exhaust the heap or hold a probe thread. The deadline is checked around
+ * each read; a single blocking read is still bounded by the socket timeout.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+
+    private final long timeoutMillis;
+
+    private final long deadline;
+
+    private long count;
+
+    public BoundedInputStream(InputStream in, long maxBytes, long timeoutMillis) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.timeoutMillis = timeoutMillis;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        int b = in.read();
+        if (b != -1) {
+            count(1);
+        }
+        checkDeadline();
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkDeadline();
+        // Read at most one byte past the limit, which is enough to tell that it was exceeded
+        long remaining = maxBytes - count;
+        int read = in.read(b, off, remaining < len ? (int) remaining + 1 : len);
+        if (read > 0) {
+            count(read);
+        }
+        checkDeadline();
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkDeadline();
+        long remaining = maxBytes - count;
+        long skipped = in.skip(remaining < n ? remaining + 1 : n);
+        count(skipped);
+        checkDeadline();
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * @return the number of bytes read so far
+     */
+    public long count() {
+        return count;
+    }
+
+    private void count(long read) throws ResponseLimitExceededException {
+        count += read;
+        if (count > maxBytes) {
+            throw new ResponseLimitExceededException(RESPONSE_TOO_LARGE,
+                    String.format("Response exceeded the limit of %d bytes.", maxBytes));
+        }
+    }
+
+    private void checkDeadline() throws ResponseLimitExceededException {
+        if (System.nanoTime() - deadline > 0) {
+            throw new ResponseLimitExceededException(RESPONSE_TIMED_OUT,
+                    String.format("Response was not received within %d ms.", timeoutMillis));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import static org.codice.ddf.admin.sources.SourcesCommons.boundedContent;
+import static org.codice.ddf.admin.sources.SourcesCommons.closeClientAndResponse;
+import static org.codice.ddf.admin.sources.SourcesCommons.getCloseableHttpClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Fetches capabilities documents, keeping each successful response that carries an
+ * {@code ETag} or {@code Last-Modified} validator. Repeat fetches of a cached document are
+ * conditional, so an unchanged document costs a 304 rather than a full download.
+ * <p>
+ * The shared clients from {@link SourcesCommons} request gzip or deflate encoding and decode
+ * responses transparently, so cached documents are stored decoded. Entries are keyed by URL and
+ * credentials, so one user's document is never served for another's request.
+ */
+public class CapabilitiesCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 128;
+
+    public static final int MAX_CACHED_LENGTH = 4 * 1024 * 1024;
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final CapabilitiesCache INSTANCE = new CapabilitiesCache(DEFAULT_MAX_ENTRIES,
+            DEFAULT_TTL_MILLIS);
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttlMillis how long an entry is kept after it was last fetched or revalidated
+     */
+    public CapabilitiesCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public static CapabilitiesCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * GETs the document at {@code url}, sending basic authentication for HTTPS URLs when
+     * credentials are given. If a copy is cached the request is conditional and a 304 response
+     * returns the cached copy.
+     *
+     * @throws IOException if the request fails, including
+     *                     {@link javax.net.ssl.SSLPeerUnverifiedException} for a certificate that
+     *                     does not match the host and {@link ResponseLimitExceededException} for a
+     *                     response over the limits of {@link SourcesCommons#boundedContent}
+     */
+    public Capabilities fetch(String url, String username, String password) throws IOException {
+        HttpGet request = new HttpGet(url);
+        boolean authenticated = url.startsWith("https") && username != null && password != null;
+        if (authenticated) {
+            byte[] auth = Base64.encodeBase64((username + ":" + password).getBytes());
+            request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
+        }
+
+        String key = authenticated ? url + "|" + Hashing.sha256()
+                .hashString(username + ":" + password, StandardCharsets.UTF_8) : url;
+        Entry cached = entries.get(key);
+        if (cached != null && cached.isExpired()) {
+            entries.remove(key, cached);
+            cached = null;
+        }
+        if (cached != null) {
+            if (cached.eTag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.eTag);
+            }
+            if (cached.lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        }
+
+        CloseableHttpClient client = null;
+        CloseableHttpResponse response = null;
+        try {
+            client = getCloseableHttpClient(request.getURI());
+            response = execute(client, request);
+            int status = response.getStatusLine()
+                    .getStatusCode();
+            if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                cached.revalidated();
+                return cached.capabilities(true);
+            }
+
+            HttpEntity entity = response.getEntity();
+            String contentType = entity == null || entity.getContentType() == null ?
+                    null :
+                    entity.getContentType()
+                            .getValue();
+            if (status != HttpStatus.SC_OK) {
+                return new Capabilities(status, contentType, new byte[0], false);
+            }
+
+            byte[] content;
+            try (InputStream in = boundedContent(entity)) {
+                content = ByteStreams.toByteArray(in);
+            }
+            String eTag = headerValue(response.getFirstHeader(HttpHeaders.ETAG));
+            String lastModified = headerValue(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+            if ((eTag != null || lastModified != null) && content.length <= MAX_CACHED_LENGTH) {
+                prune();
+                entries.put(key, new Entry(contentType, content, eTag, lastModified));
+            } else {
+                entries.remove(key);
+            }
+            return new Capabilities(status, contentType, content, false);
+        } finally {
+            closeClientAndResponse(client, response);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void prune() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values()
+                .removeIf(Entry::isExpired);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Retries once if a pooled connection was closed by the server while idle. Automatic retries
+     * are disabled on the shared clients, but a capabilities GET is always safe to repeat.
+     */
+    private static CloseableHttpResponse execute(CloseableHttpClient client, HttpGet request)
+            throws IOException {
+        try {
+            return client.execute(request);
+        } catch (NoHttpResponseException e) {
+            return client.execute(request);
+        }
+    }
+
+    private static String headerValue(Header header) {
+        return header == null ? null : header.getValue();
+    }
+
+    private class Entry {
+
+        private final String contentType;
+
+        private final byte[] content;
+
+        private final String eTag;
+
+        private final String lastModified;
+
+        private volatile long validated = System.nanoTime();
+
+        private Entry(String contentType, byte[] content, String eTag, String lastModified) {
+            this.contentType = contentType;
+            this.content = content;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        private void revalidated() {
+            validated = System.nanoTime();
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - validated > ttlNanos;
+        }
+
+        private Capabilities capabilities(boolean notModified) {
+            return new Capabilities(HttpStatus.SC_OK, contentType, content, notModified);
+        }
+    }
+
+    /**
+     * A fetched capabilities document. Only successful responses carry content.
+     */
+    public static class Capabilities {
+
+        private final int status;
+
+        private final String contentType;
+
+        private final byte[] content;
+
+        private final boolean notModified;
+
+        Capabilities(int status, String contentType, byte[] content, boolean notModified) {
+            this.status = status;
+            this.contentType = contentType;
+            this.content = content;
+            this.notModified = notModified;
+        }
+
+        /**
+         * @return the response status, which is 200 when a cached copy was returned for a 304
+         */
+        public int status() {
+            return status;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public InputStream content() {
+            return new ByteArrayInputStream(content);
+        }
+
+        /**
+         * @return true if the server reported the cached copy as unchanged
+         */
+        public boolean isNotModified() {
+            return notModified;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.connectTimeout;
+import static org.codice.ddf.admin.sources.SourcesCommons.boundedContent;
+import static org.codice.ddf.admin.sources.SourcesCommons.closeClientAndResponse;
+import static org.codice.ddf.admin.sources.SourcesCommons.getCloseableHttpClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Times a number of identical queries against a source, running a fixed number of them at once,
+ * and summarizes their latency, throughput and failures. A query's latency covers waiting for a
+ * pooled connection, the request and reading the whole response.
+ */
+public class QueryBenchmark {
+
+    public static final int DEFAULT_QUERIES = 20;
+
+    public static final int DEFAULT_CONCURRENCY = 2;
+
+    // Fixed rather than learned, so a slow query is measured instead of cut off
+    public static final int QUERY_TIMEOUT = 30000;
+
+    public static final long BENCHMARK_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String TIMED_OUT = "Did not finish within the benchmark time limit";
+
+    private QueryBenchmark() {
+    }
+
+    /**
+     * Benchmarks GET requests of {@code url}, sending basic authentication for HTTPS URLs when
+     * credentials are given. Only a 200 response counts as a successful query.
+     */
+    public static Result run(String url, String username, String password, int queries,
+            int concurrency) {
+        return run(() -> query(url, username, password), queries, concurrency);
+    }
+
+    /**
+     * Calls {@code query} {@code queries} times, at most {@code concurrency} at once, waiting at
+     * most {@link #BENCHMARK_TIMEOUT} in total. A query fails if it throws; its exception message
+     * is counted as the reason for the failure.
+     */
+    public static Result run(Callable<?> query, int queries, int concurrency) {
+        List<Callable<Long>> tasks = Collections.nCopies(queries, () -> {
+            long start = System.nanoTime();
+            query.call();
+            return System.nanoTime() - start;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                new ThreadFactoryBuilder().setNameFormat("query-benchmark-%d")
+                        .setDaemon(true)
+                        .build());
+        long start = System.nanoTime();
+        List<Future<Long>> futures;
+        try {
+            futures = executor.invokeAll(tasks, BENCHMARK_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            futures = ImmutableList.of();
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<Long> latencies = new ArrayList<>();
+        Map<String, Integer> failureReasons = new TreeMap<>();
+        for (int i = 0; i < queries; i++) {
+            try {
+                if (i >= futures.size()) {
+                    throw new CancellationException();
+                }
+                latencies.add(TimeUnit.NANOSECONDS.toMillis(futures.get(i)
+                        .get()));
+            } catch (CancellationException e) {
+                failureReasons.merge(TIMED_OUT, 1, Integer::sum);
+            } catch (ExecutionException e) {
+                failureReasons.merge(describe(e.getCause()), 1, Integer::sum);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                failureReasons.merge(TIMED_OUT, 1, Integer::sum);
+            }
+        }
+        return new Result(queries, concurrency, latencies, failureReasons, elapsedNanos);
+    }
+
+    private static Object query(String url, String username, String password)
+            throws IOException {
+        HttpGet request = new HttpGet(url);
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(connectTimeout(request.getURI()
+                        .getHost()))
+                .setConnectionRequestTimeout(QUERY_TIMEOUT)
+                .setSocketTimeout(QUERY_TIMEOUT)
+                .build());
+        if (url.startsWith("https") && username != null && password != null) {
+            byte[] auth = Base64.encodeBase64((username + ":" + password).getBytes());
+            request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
+        }
+
+        CloseableHttpClient client = null;
+        CloseableHttpResponse response = null;
+        try {
+            client = getCloseableHttpClient(request.getURI());
+            response = client.execute(request);
+            int status = response.getStatusLine()
+                    .getStatusCode();
+            try (InputStream in = boundedContent(response.getEntity())) {
+                ByteStreams.copy(in, ByteStreams.nullOutputStream());
+            }
+            if (status != HttpStatus.SC_OK) {
+                throw new IOException("HTTP status " + status);
+            }
+            return status;
+        } finally {
+            closeClientAndResponse(client, response);
+        }
+    }
+
+    private static String describe(Throwable cause) {
+        if (cause instanceof ResponseLimitExceededException) {
+            return ((ResponseLimitExceededException) cause).failureType();
+        }
+        if (cause instanceof IOException && cause.getMessage() != null
+                && cause.getMessage()
+                .startsWith("HTTP status")) {
+            return cause.getMessage();
+        }
+        return cause.getClass()
+                .getSimpleName();
+    }
+
+    /**
+     * Summary of a benchmark run. Latency percentiles are nearest-rank values over the successful
+     * queries, or -1 if every query failed.
+     */
+    public static class Result {
+
+        private final int queries;
+
+        private final int concurrency;
+
+        private final int failedQueries;
+
+        private final double errorRate;
+
+        private final long elapsedMillis;
+
+        private final double queriesPerSecond;
+
+        private final long minLatencyMillis;
+
+        private final long meanLatencyMillis;
+
+        private final long p50LatencyMillis;
+
+        private final long p95LatencyMillis;
+
+        private final long p99LatencyMillis;
+
+        private final long maxLatencyMillis;
+
+        private final Map<String, Integer> failureReasons;
+
+        Result(int queries, int concurrency, List<Long> latencies,
+                Map<String, Integer> failureReasons, long elapsedNanos) {
+            long[] sorted = latencies.stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+
+            this.queries = queries;
+            this.concurrency = concurrency;
+            this.failedQueries = queries - sorted.length;
+            this.errorRate = queries == 0 ? 0 : (double) failedQueries / queries;
+            this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            this.queriesPerSecond = elapsedNanos <= 0 ?
+                    0 :
+                    sorted.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+            this.minLatencyMillis = sorted.length == 0 ? -1 : sorted[0];
+            this.meanLatencyMillis = sorted.length == 0 ?
+                    -1 :
+                    Math.round(Arrays.stream(sorted)
+                            .average()
+                            .getAsDouble());
+            this.p50LatencyMillis = percentile(sorted, 0.50);
+            this.p95LatencyMillis = percentile(sorted, 0.95);
+            this.p99LatencyMillis = percentile(sorted, 0.99);
+            this.maxLatencyMillis = sorted.length == 0 ? -1 : sorted[sorted.length - 1];
+            this.failureReasons = Collections.unmodifiableMap(failureReasons);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return -1;
+            }
+            return sorted[Math.max(0, (int) Math.ceil(sorted.length * percentile) - 1)];
+        }
+
+        public int getQueries() {
+            return queries;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public int getFailedQueries() {
+            return failedQueries;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return successful queries completed per second of the whole run
+         */
+        public double getQueriesPerSecond() {
+            return queriesPerSecond;
+        }
+
+        public long getMinLatencyMillis() {
+            return minLatencyMillis;
+        }
+
+        public long getMeanLatencyMillis() {
+            return meanLatencyMillis;
+        }
+
+        public long getP50LatencyMillis() {
+            return p50LatencyMillis;
+        }
+
+        public long getP95LatencyMillis() {
+            return p95LatencyMillis;
+        }
+
+        public long getP99LatencyMillis() {
+            return p99LatencyMillis;
+        }
+
+        public long getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        /**
+         * @return the number of failed queries for each failure reason, such as an HTTP status
+         * or exception type
+         */
+        public Map<String, Integer> getFailureReasons() {
+            return failureReasons;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.BENCHMARK_CONCURRENCY;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.BENCHMARK_QUERIES;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.ENDPOINT_URL;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USERNAME;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USER_PASSWORD;
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.buildMessage;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CANNOT_CONNECT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CERT_ERROR;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.QUERY_BENCHMARK;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.QUERY_BENCHMARK_ID;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.REACHED_URL;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNKNOWN_ENDPOINT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.endpointIsReachable;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateOptionalUsernameAndPassword;
+import static org.codice.ddf.admin.sources.SourcesCommons.hasCachedCertError;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.handler.method.ProbeMethod;
+import org.codice.ddf.admin.api.handler.report.ProbeReport;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Runs a {@link QueryBenchmark} of a lightweight query against a source so its latency can be
+ * measured before it is used for federation. Subclasses supply the query for their source type.
+ *
+ * @param <S> the {@link SourceConfiguration} type benchmarked
+ */
+public abstract class QueryBenchmarkProbeMethod<S extends SourceConfiguration>
+        extends ProbeMethod<S> {
+
+    public static final String BENCHMARK_COMPLETE = "BENCHMARK_COMPLETE";
+
+    public static final String BENCHMARK_FAILED = "BENCHMARK_FAILED";
+
+    public static final String QUERIES_FAILED = "QUERIES_FAILED";
+
+    public static final List<String> REQUIRED_FIELDS = ImmutableList.of(ENDPOINT_URL);
+
+    public static final List<String> OPTIONAL_FIELDS = ImmutableList.of(SOURCE_USERNAME,
+            SOURCE_USER_PASSWORD,
+            BENCHMARK_QUERIES,
+            BENCHMARK_CONCURRENCY);
+
+    public static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(REACHED_URL,
+            "Successfully connected to URL.",
+            BENCHMARK_COMPLETE,
+            "Completed the benchmark queries.");
+
+    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.of(CANNOT_CONNECT,
+            "The URL provided could not be reached.",
+            CERT_ERROR,
+            "The URL provided has improperly configured SSL Certificates and is insecure.",
+            UNKNOWN_ENDPOINT,
+            "A benchmark query could not be created for the endpoint.",
+            BENCHMARK_FAILED,
+            "Every benchmark query failed.");
+
+    public static final Map<String, String> WARNING_TYPES = ImmutableMap.of(QUERIES_FAILED,
+            "Some of the benchmark queries failed.");
+
+    public static final List<String> RETURN_TYPES = ImmutableList.of(QUERY_BENCHMARK);
+
+    public QueryBenchmarkProbeMethod(String description) {
+        super(QUERY_BENCHMARK_ID,
+                description,
+                REQUIRED_FIELDS,
+                OPTIONAL_FIELDS,
+                SUCCESS_TYPES,
+                FAILURE_TYPES,
+                WARNING_TYPES,
+                RETURN_TYPES);
+    }
+
+    /**
+     * @return the full URL of the query to benchmark, or empty if one could not be created for
+     * the endpoint
+     */
+    protected abstract Optional<String> getQueryUrl(S configuration);
+
+    @Override
+    public ProbeReport probe(S configuration) {
+        ProbeReport report = ProbeReport.createProbeReport(SUCCESS_TYPES,
+                FAILURE_TYPES,
+                WARNING_TYPES,
+                endpointIsReachable(configuration.endpointUrl()));
+        if (report.containsFailureMessages()) {
+            return report;
+        }
+        if (hasCachedCertError(URI.create(configuration.endpointUrl()))) {
+            return report.addMessage(buildMessage(SUCCESS_TYPES,
+                    FAILURE_TYPES,
+                    WARNING_TYPES,
+                    CERT_ERROR));
+        }
+
+        Optional<String> queryUrl = getQueryUrl(configuration);
+        if (!queryUrl.isPresent()) {
+            return report.addMessage(buildMessage(SUCCESS_TYPES,
+                    FAILURE_TYPES,
+                    WARNING_TYPES,
+                    UNKNOWN_ENDPOINT));
+        }
+
+        QueryBenchmark.Result result = QueryBenchmark.run(queryUrl.get(),
+                configuration.sourceUserName(),
+                configuration.sourceUserPassword(),
+                configuration.benchmarkQueries() == null ?
+                        QueryBenchmark.DEFAULT_QUERIES :
+                        configuration.benchmarkQueries(),
+                configuration.benchmarkConcurrency() == null ?
+                        QueryBenchmark.DEFAULT_CONCURRENCY :
+                        configuration.benchmarkConcurrency());
+
+        String resultType;
+        if (result.getFailedQueries() == result.getQueries()) {
+            resultType = BENCHMARK_FAILED;
+        } else if (result.getFailedQueries() > 0) {
+            resultType = QUERIES_FAILED;
+        } else {
+            resultType = BENCHMARK_COMPLETE;
+        }
+        return report.addMessage(buildMessage(SUCCESS_TYPES,
+                FAILURE_TYPES,
+                WARNING_TYPES,
+                resultType))
+                .probeResult(QUERY_BENCHMARK, result);
+    }
+
+    @Override
+    public List<ConfigurationMessage> validateOptionalFields(S configuration) {
+        List<ConfigurationMessage> errors = new ArrayList<>(validateOptionalUsernameAndPassword(
+                configuration));
+        List<String> givenBenchmarkFields = new ArrayList<>();
+        if (configuration.benchmarkQueries() != null) {
+            givenBenchmarkFields.add(BENCHMARK_QUERIES);
+        }
+        if (configuration.benchmarkConcurrency() != null) {
+            givenBenchmarkFields.add(BENCHMARK_CONCURRENCY);
+        }
+        errors.addAll(configuration.validate(givenBenchmarkFields));
+        return errors;
+    }
+}
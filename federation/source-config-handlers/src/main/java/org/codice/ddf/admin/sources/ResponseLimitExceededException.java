@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a response body is larger or slower than a probe allows.
+ */
+public class ResponseLimitExceededException extends IOException {
+
+    private final String failureType;
+
+    public ResponseLimitExceededException(String failureType, String message) {
+        super(message);
+        this.failureType = failureType;
+    }
+
+    /**
+     * @return {@link org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons#RESPONSE_TOO_LARGE}
+     * or {@link org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons#RESPONSE_TIMED_OUT}
+     */
+    public String failureType() {
+        return failureType;
+    }
+}
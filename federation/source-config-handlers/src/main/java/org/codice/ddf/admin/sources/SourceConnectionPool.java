@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Owns the persistent connections shared by the clients from
+ * {@link SourcesCommons#getCloseableHttpClient}, and the thread that closes those left idle. The
+ * source configuration handler starts the pool with the bundle and shuts it down when the bundle
+ * stops.
+ */
+public class SourceConnectionPool {
+
+    private static final long MAX_IDLE_TIME = TimeUnit.SECONDS.toMillis(30);
+
+    private static final SourceConnectionPool INSTANCE = new SourceConnectionPool();
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private IdleConnectionEvictor evictor;
+
+    public static SourceConnectionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the shared connection manager, created on first use if the pool has not been
+     * started
+     */
+    public synchronized PoolingHttpClientConnectionManager connectionManager() {
+        if (connectionManager == null) {
+            connectionManager = SourcesCommons.createConnectionManager();
+        }
+        return connectionManager;
+    }
+
+    /**
+     * Starts closing idle connections in the background.
+     */
+    public synchronized void init() {
+        if (evictor == null) {
+            evictor = new IdleConnectionEvictor(connectionManager(),
+                    MAX_IDLE_TIME,
+                    TimeUnit.MILLISECONDS);
+            evictor.start();
+        }
+    }
+
+    /**
+     * Stops the evictor and closes every pooled connection. Clients created afterwards get a new
+     * connection manager.
+     */
+    public void destroy() {
+        IdleConnectionEvictor stoppedEvictor;
+        PoolingHttpClientConnectionManager closedManager;
+        synchronized (this) {
+            stoppedEvictor = evictor;
+            closedManager = connectionManager;
+            evictor = null;
+            connectionManager = null;
+        }
+        if (stoppedEvictor != null) {
+            stoppedEvictor.shutdown();
+        }
+        if (closedManager != null) {
+            closedManager.shutdown();
+        }
+    }
+}
@@ -1,33 +1,184 @@
 package org.codice.ddf.admin.sources;
 
-import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.PING_TIMEOUT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.connectTimeout;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.readTimeout;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.recordConnectTime;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.recordConnectTimeout;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.recordReadTimeout;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.recordResponseTime;
 
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.security.GeneralSecurityException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import javax.net.ssl.SSLSession;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.ssl.SSLContexts;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.util.EntityUtils;
+import org.codice.ddf.admin.api.network.HappyEyeballsConnector;
+import org.codice.ddf.admin.api.network.TlsTrustCache;
+import org.codice.ddf.admin.api.network.TlsTrustCache.TrustVerdict;
 
 public class SourcesCommons {
 
-    public static CloseableHttpClient getCloseableHttpClient(boolean trustAnyCA)
-            throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
-        HttpClientBuilder builder = HttpClientBuilder.create().disableAutomaticRetries().setDefaultRequestConfig(
-                RequestConfig.custom().setConnectTimeout(PING_TIMEOUT).build());
-        if (trustAnyCA) {
-            builder.setSSLSocketFactory(new SSLConnectionSocketFactory(SSLContexts.custom()
-                    .loadTrustMaterial(null, (chain, authType) -> true)
-                    .build()));
+    public static final String MAX_RESPONSE_BYTES_PROPERTY =
+            "org.codice.ddf.admin.sources.maxResponseBytes";
+
+    public static final String MAX_RESPONSE_TIME_PROPERTY =
+            "org.codice.ddf.admin.sources.maxResponseTime";
+
+    private static final String HTTP = "http";
+
+    private static final String HTTPS = "https";
+
+    private static final int DEFAULT_HTTPS_PORT = 443;
+
+    private static final int MAX_CONNECTIONS = 64;
+
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 8;
+
+    private static final long CONNECTION_TTL = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int CONNECTION_REQUEST_TIMEOUT = 10000;
+
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+
+    private static final long MAX_DRAINED_RESPONSE_LENGTH = 64 * 1024;
+
+    private static final long MAX_RESPONSE_BYTES = Long.getLong(MAX_RESPONSE_BYTES_PROPERTY,
+            16 * 1024 * 1024);
+
+    private static final long MAX_RESPONSE_TIME = Long.getLong(MAX_RESPONSE_TIME_PROPERTY,
+            TimeUnit.MINUTES.toMillis(1));
+
+    private static final HttpRequestExecutor REQUEST_EXECUTOR = new TimedRequestExecutor();
+
+    /**
+     * Creates a client for requests to the endpoint named by {@code uri}. HTTPS connections
+     * complete the handshake regardless of the server's certificate authority and record whether
+     * the chain was trusted in the shared {@link TlsTrustCache}, resuming cached sessions when
+     * possible. Hostname verification still applies and fails with an
+     * {@link javax.net.ssl.SSLPeerUnverifiedException}.
+     * <p>
+     * Clients share the pool of persistent connections of the {@link SourceConnectionPool}, so
+     * closing a client leaves its connections available to later probes of the same endpoint.
+     * <p>
+     * The connect and read timeouts are learned from earlier round trips to the host. Every
+     * connection opened and response received through these clients adds to that history.
+     * New connections race the host's IPv6 and IPv4 addresses with a
+     * {@link HappyEyeballsConnector}.
+     */
+    public static CloseableHttpClient getCloseableHttpClient(URI uri) {
+        return HttpClientBuilder.create()
+                .disableAutomaticRetries()
+                .setConnectionManager(SourceConnectionPool.getInstance()
+                        .connectionManager())
+                .setConnectionManagerShared(true)
+                .setRequestExecutor(REQUEST_EXECUTOR)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeout(uri.getHost()))
+                        .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT)
+                        .setSocketTimeout(readTimeout(uri.getHost()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * @return true if a previous probe found that the endpoint's certificate does not match its
+     * hostname
+     */
+    public static boolean hasCachedCertError(URI uri) {
+        return getCachedTrustVerdict(uri).filter(TrustVerdict.CERT_ERROR::equals)
+                .isPresent();
+    }
+
+    /**
+     * @return false if the endpoint's most recent handshake presented a chain from an untrusted
+     * certificate authority, otherwise true. Requests on pooled connections record the verdict of
+     * the handshake that opened the connection again, so it is known after any request that
+     * reached the endpoint even if the cache entry was evicted meanwhile.
+     */
+    public static boolean isTrustedEndpoint(URI uri) {
+        return !getCachedTrustVerdict(uri).filter(TrustVerdict.UNTRUSTED_CA::equals)
+                .isPresent();
+    }
+
+    public static void recordCertError(URI uri) {
+        if (isHttps(uri)) {
+            TlsTrustCache.getInstance()
+                    .recordVerdict(uri.getHost(), getPort(uri), TrustVerdict.CERT_ERROR);
         }
-        return builder.build();
     }
 
+    private static Optional<TrustVerdict> getCachedTrustVerdict(URI uri) {
+        return isHttps(uri) ?
+                TlsTrustCache.getInstance()
+                        .getVerdict(uri.getHost(), getPort(uri)) :
+                Optional.empty();
+    }
+
+    private static boolean isHttps(URI uri) {
+        return HTTPS.equalsIgnoreCase(uri.getScheme()) && uri.getHost() != null;
+    }
+
+    private static int getPort(URI uri) {
+        return uri.getPort() == -1 ? DEFAULT_HTTPS_PORT : uri.getPort();
+    }
 
+    /**
+     * Opens the entity's content through a {@link BoundedInputStream}, so reading it fails with a
+     * {@link ResponseLimitExceededException} after {@value #MAX_RESPONSE_BYTES_PROPERTY} bytes
+     * (16 MB by default) or once {@value #MAX_RESPONSE_TIME_PROPERTY} milliseconds (one minute
+     * by default) have passed. A declared {@code Content-Length} over the limit fails before
+     * anything is read.
+     */
+    public static InputStream boundedContent(HttpEntity entity) throws IOException {
+        if (entity == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (entity.getContentLength() > MAX_RESPONSE_BYTES) {
+            throw new ResponseLimitExceededException(RESPONSE_TOO_LARGE,
+                    String.format("Response of %d bytes exceeds the limit of %d bytes.",
+                            entity.getContentLength(),
+                            MAX_RESPONSE_BYTES));
+        }
+        return new BoundedInputStream(entity.getContent(), MAX_RESPONSE_BYTES, MAX_RESPONSE_TIME);
+    }
+
+    /**
+     * Closes the client and response. Small unread response bodies are drained first so the
+     * connection can return to the pool rather than being discarded.
+     */
     public static void closeClientAndResponse(CloseableHttpClient client, CloseableHttpResponse response) {
         try {
             if (client != null) {
@@ -37,9 +188,207 @@ public class SourcesCommons {
         }
         try {
             if (response != null) {
+                HttpEntity entity = response.getEntity();
+                if (entity != null && entity.getContentLength() >= 0
+                        && entity.getContentLength() <= MAX_DRAINED_RESPONSE_LENGTH) {
+                    EntityUtils.consumeQuietly(entity);
+                }
                 response.close();
             }
         } catch (Exception e) {
         }
     }
+
+    static PoolingHttpClientConnectionManager createConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register(HTTP, new TimedPlainSocketFactory())
+                        .register(HTTPS, new EndpointSslSocketFactory())
+                        .build(),
+                        null,
+                        null,
+                        SourcesCommons::resolvePreferred,
+                        CONNECTION_TTL,
+                        TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+        return connectionManager;
+    }
+
+    /**
+     * Opens a plain TCP connection by racing the host's addresses, recording how long the connect
+     * took for the host. The winning socket takes the options already set on {@code socket}.
+     */
+    private static Socket timedConnect(int connectTimeout, Socket socket, HttpHost host,
+            InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            Socket connected;
+            if (localAddress != null) {
+                connected = PlainConnectionSocketFactory.getSocketFactory()
+                        .connectSocket(connectTimeout,
+                                socket,
+                                host,
+                                remoteAddress,
+                                localAddress,
+                                context);
+            } else {
+                connected = raceConnect(connectTimeout, socket, host, remoteAddress);
+            }
+            recordConnectTime(host.getHostName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return connected;
+        } catch (SocketTimeoutException e) {
+            recordConnectTimeout(host.getHostName());
+            throw e;
+        }
+    }
+
+    private static Socket raceConnect(int connectTimeout, Socket socket, HttpHost host,
+            InetSocketAddress remoteAddress) throws IOException {
+        HappyEyeballsConnector connector = HappyEyeballsConnector.getInstance();
+        Socket connected = connector.connect(host.getHostName(),
+                connector.resolve(host.getHostName()),
+                remoteAddress.getPort(),
+                connectTimeout > 0 ? connectTimeout : connectTimeout(host.getHostName()));
+        try {
+            connected.setSoTimeout(socket.getSoTimeout());
+            connected.setTcpNoDelay(socket.getTcpNoDelay());
+            connected.setKeepAlive(socket.getKeepAlive());
+            int linger = socket.getSoLinger();
+            connected.setSoLinger(linger >= 0, Math.max(linger, 0));
+        } catch (IOException e) {
+            connected.close();
+            throw e;
+        } finally {
+            socket.close();
+        }
+        return connected;
+    }
+
+    /**
+     * Hands the connection operator only the preferred address of a host. The socket factories
+     * race all of the host's addresses themselves, so the operator must not retry the others.
+     */
+    private static InetAddress[] resolvePreferred(String host) throws UnknownHostException {
+        return new InetAddress[] {HappyEyeballsConnector.getInstance()
+                .resolve(host)
+                .get(0)};
+    }
+
+    private static class TimedPlainSocketFactory implements ConnectionSocketFactory {
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return PlainConnectionSocketFactory.getSocketFactory()
+                    .createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host,
+                InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                HttpContext context) throws IOException {
+            return timedConnect(connectTimeout,
+                    socket,
+                    host,
+                    remoteAddress,
+                    localAddress,
+                    context);
+        }
+    }
+
+    /**
+     * Layers TLS over pooled connections using the {@link TlsTrustCache} context of the endpoint
+     * being connected to, so trust verdicts are recorded per endpoint. Only the TCP connect is
+     * timed; the handshake is bounded by the host's read timeout.
+     */
+    private static class EndpointSslSocketFactory implements LayeredConnectionSocketFactory {
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return PlainConnectionSocketFactory.getSocketFactory()
+                    .createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host,
+                InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                HttpContext context) throws IOException {
+            Socket connected = timedConnect(connectTimeout,
+                    socket,
+                    host,
+                    remoteAddress,
+                    localAddress,
+                    context);
+            if (connected.getSoTimeout() == 0) {
+                connected.setSoTimeout(readTimeout(host.getHostName()));
+            }
+            try {
+                return createLayeredSocket(connected,
+                        host.getHostName(),
+                        remoteAddress.getPort(),
+                        context);
+            } catch (IOException e) {
+                connected.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port,
+                HttpContext context) throws IOException {
+            return delegateFor(target, port).createLayeredSocket(socket, target, port, context);
+        }
+
+        private SSLConnectionSocketFactory delegateFor(String host, int port) throws IOException {
+            int endpointPort = port == -1 ? DEFAULT_HTTPS_PORT : port;
+            try {
+                return new SSLConnectionSocketFactory(TlsTrustCache.getInstance()
+                        .getSslContext(host, endpointPort, false));
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Unable to create an SSL context for " + host, e);
+            }
+        }
+    }
+
+    /**
+     * Records how long each host takes to answer a request once it has been sent on an open
+     * connection. Before sending, records the trust verdict of the TLS session of the connection,
+     * which may have been opened by an earlier probe.
+     * <p>
+     * Only 200 responses with a body are sampled. Revalidations answered with a 304 and other
+     * responses without a body cost the host little to produce, so sampling them would shorten
+     * the read timeout below what a full response from the same host needs.
+     */
+    private static class TimedRequestExecutor extends HttpRequestExecutor {
+
+        @Override
+        public HttpResponse execute(HttpRequest request, HttpClientConnection connection,
+                HttpContext context) throws IOException, HttpException {
+            HttpHost target = HttpCoreContext.adapt(context)
+                    .getTargetHost();
+            String hostname = target == null ? null : target.getHostName();
+            if (connection instanceof ManagedHttpClientConnection) {
+                SSLSession session = ((ManagedHttpClientConnection) connection).getSSLSession();
+                TlsTrustCache.getInstance()
+                        .recordSessionVerdict(session);
+            }
+            long start = System.nanoTime();
+            try {
+                HttpResponse response = super.execute(request, connection, context);
+                if (response.getStatusLine()
+                        .getStatusCode() == HttpStatus.SC_OK && canResponseHaveBody(request,
+                        response)) {
+                    recordResponseTime(hostname,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                return response;
+            } catch (SocketTimeoutException e) {
+                recordReadTimeout(hostname);
+                throw e;
+            }
+        }
+    }
 }
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.SOURCES_NAMESPACE_CONTEXT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Shared XML parsing and XPath evaluation for the source utils. The JAXP factories are looked up
+ * once, parsers and compiled expressions are cached per thread since neither is thread safe, and
+ * the parsers never resolve external DTDs or entities so a capabilities document can't make a
+ * probe reach out to a third host.
+ */
+public class SourcesXmlUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourcesXmlUtils.class);
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY =
+            createDocumentBuilderFactory();
+
+    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER =
+            ThreadLocal.withInitial(SourcesXmlUtils::createDocumentBuilder);
+
+    private SourcesXmlUtils() {
+    }
+
+    /**
+     * Parses the stream with this thread's hardened, namespace aware {@link DocumentBuilder}.
+     */
+    public static Document parse(InputStream inputStream) throws SAXException, IOException {
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        builder.reset();
+        builder.setEntityResolver(SourcesXmlUtils::resolveNothing);
+        return builder.parse(inputStream);
+    }
+
+    /**
+     * Compiles the expression against {@link org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons#SOURCES_NAMESPACE_CONTEXT}.
+     * The expression is compiled immediately so that a malformed constant fails on class load
+     * rather than on the first probe.
+     */
+    public static CompiledXPath compile(String expression) {
+        return new CompiledXPath(expression);
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        setFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        setFeature(factory, "http://xml.org/sax/features/external-general-entities", false);
+        setFeature(factory, "http://xml.org/sax/features/external-parameter-entities", false);
+        setFeature(factory,
+                "http://apache.org/xml/features/nonvalidating/load-external-dtd",
+                false);
+        return factory;
+    }
+
+    private static void setFeature(DocumentBuilderFactory factory, String feature,
+            boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (ParserConfigurationException e) {
+            LOGGER.debug("XML parser does not support feature {}.", feature, e);
+        }
+    }
+
+    private static DocumentBuilder createDocumentBuilder() {
+        try {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Unable to create XML document builder.", e);
+        }
+    }
+
+    private static InputSource resolveNothing(String publicId, String systemId) {
+        return new InputSource(new StringReader(""));
+    }
+
+    private static XPathExpression compileExpression(String expression) {
+        XPath xpath;
+        synchronized (XPATH_FACTORY) {
+            xpath = XPATH_FACTORY.newXPath();
+        }
+        xpath.setNamespaceContext(SOURCES_NAMESPACE_CONTEXT);
+        try {
+            return xpath.compile(expression);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath expression: " + expression, e);
+        }
+    }
+
+    /**
+     * A precompiled XPath expression that is safe to share as a constant. Each thread evaluates
+     * against its own compiled copy.
+     */
+    public static class CompiledXPath {
+
+        private final String expression;
+
+        private final ThreadLocal<XPathExpression> compiled;
+
+        private CompiledXPath(String expression) {
+            this.expression = expression;
+            XPathExpression first = compileExpression(expression);
+            this.compiled = ThreadLocal.withInitial(() -> compileExpression(expression));
+            this.compiled.set(first);
+        }
+
+        public String evaluate(Document document) throws XPathExpressionException {
+            return compiled.get()
+                    .evaluate(document);
+        }
+
+        public boolean evaluateBoolean(Document document) throws XPathExpressionException {
+            return (Boolean) evaluate(document, XPathConstants.BOOLEAN);
+        }
+
+        public Object evaluate(Document document, QName returnType)
+                throws XPathExpressionException {
+            return compiled.get()
+                    .evaluate(document, returnType);
+        }
+
+        public String expression() {
+            return expression;
+        }
+    }
+}
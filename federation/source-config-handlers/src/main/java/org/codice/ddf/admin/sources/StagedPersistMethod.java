@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.configurator.Configurator;
+
+/**
+ * A persist method whose change can be registered on a shared {@link Configurator}, so several
+ * sources can be persisted in a single transaction.
+ *
+ * @param <S> the {@link SourceConfiguration} type persisted
+ */
+public interface StagedPersistMethod<S extends SourceConfiguration> {
+
+    /**
+     * Registers the change for {@code configuration} without committing it.
+     *
+     * @return the key of the change in the {@link org.codice.ddf.admin.api.configurator.OperationReport}
+     * of the commit
+     */
+    String stage(Configurator configurator, S configuration);
+}
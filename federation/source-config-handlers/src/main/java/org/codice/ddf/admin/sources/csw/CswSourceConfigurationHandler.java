@@ -35,6 +35,7 @@ import org.codice.ddf.admin.api.services.CswServiceProperties;
 import org.codice.ddf.admin.sources.csw.persist.CreateCswSourcePersistMethod;
 import org.codice.ddf.admin.sources.csw.persist.DeleteCswSourcePersistMethod;
 import org.codice.ddf.admin.sources.csw.probe.CswConfigFromUrlProbeMethod;
+import org.codice.ddf.admin.sources.csw.probe.CswQueryBenchmarkProbeMethod;
 import org.codice.ddf.admin.sources.csw.probe.DiscoverCswSourceProbeMethod;
 
 public class CswSourceConfigurationHandler extends DefaultConfigurationHandler<SourceConfiguration>
@@ -45,7 +46,9 @@ public class CswSourceConfigurationHandler extends DefaultConfigurationHandler<S
 
     @Override
     public List<ProbeMethod> getProbeMethods() {
-        return Arrays.asList(new DiscoverCswSourceProbeMethod(), new CswConfigFromUrlProbeMethod());
+        return Arrays.asList(new DiscoverCswSourceProbeMethod(),
+                new CswConfigFromUrlProbeMethod(),
+                new CswQueryBenchmarkProbeMethod());
     }
 
     @Override
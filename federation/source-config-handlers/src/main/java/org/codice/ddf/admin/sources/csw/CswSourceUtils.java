@@ -14,38 +14,40 @@
 package org.codice.ddf.admin.sources.csw;
 
 import static java.net.HttpURLConnection.HTTP_OK;
-import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.SOURCES_NAMESPACE_CONTEXT;
 import static org.codice.ddf.admin.api.services.CswServiceProperties.CSW_GMD_FACTORY_PID;
 import static org.codice.ddf.admin.api.services.CswServiceProperties.CSW_PROFILE_FACTORY_PID;
 import static org.codice.ddf.admin.api.services.CswServiceProperties.CSW_SPEC_FACTORY_PID;
-import static org.codice.ddf.admin.sources.SourcesCommons.closeClientAndResponse;
-import static org.codice.ddf.admin.sources.SourcesCommons.getCloseableHttpClient;
+import static org.codice.ddf.admin.sources.SourcesCommons.hasCachedCertError;
+import static org.codice.ddf.admin.sources.SourcesCommons.isTrustedEndpoint;
+import static org.codice.ddf.admin.sources.SourcesCommons.recordCertError;
+import static org.codice.ddf.admin.sources.SourcesXmlUtils.compile;
+import static org.codice.ddf.admin.sources.SourcesXmlUtils.parse;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-
-import org.apache.commons.codec.binary.Base64;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
+
 import org.codice.ddf.admin.api.config.sources.CswSourceConfiguration;
 import org.codice.ddf.admin.api.handler.commons.UrlAvailability;
+import org.codice.ddf.admin.sources.CapabilitiesCache;
+import org.codice.ddf.admin.sources.CapabilitiesCache.Capabilities;
+import org.codice.ddf.admin.sources.ResponseLimitExceededException;
+import org.codice.ddf.admin.sources.SourcesXmlUtils.CompiledXPath;
 import org.w3c.dom.Document;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.net.HttpHeaders;
 
 public class CswSourceUtils {
 
     public static final String GET_CAPABILITIES_PARAMS = "?service=CSW&request=GetCapabilities";
 
+    // Counts the matching records without returning any of them
+    public static final String HITS_QUERY_PARAMS =
+            "?service=CSW&version=2.0.2&request=GetRecords&typeNames=csw:Record&resultType=hits"
+                    + "&namespace=xmlns(csw=http://www.opengis.net/cat/csw/2.0.2)";
+
     private static final List<String> URL_FORMATS = ImmutableList.of("https://%s:%d/services/csw",
             "https://%s:%d/csw",
             "http://%s:%d/services/csw",
@@ -56,111 +58,72 @@ public class CswSourceUtils {
 
     private static final String GMD_OUTPUT_SCHEMA = "http://www.isotc211.org/2005/gmd";
 
-    private static final String HAS_CATALOG_METACARD_EXP =
-            "//ows:OperationsMetadata//ows:Operation[@name='GetRecords']/ows:Parameter[@name='OutputSchema' or @name='outputSchema']/ows:Value/text()='urn:catalog:metacard'";
+    private static final CompiledXPath HAS_CATALOG_METACARD_EXP = compile(
+            "//ows:OperationsMetadata//ows:Operation[@name='GetRecords']/ows:Parameter[@name='OutputSchema' or @name='outputSchema']/ows:Value/text()='urn:catalog:metacard'");
 
-    private static final String HAS_GMD_ISO_EXP =
-            "//ows:OperationsMetadata/ows:Operation[@name='GetRecords']/ows:Parameter[@name='OutputSchema' or @name='outputSchema']/ows:Value/text()='http://www.isotc211.org/2005/gmd'";
+    private static final CompiledXPath HAS_GMD_ISO_EXP = compile(
+            "//ows:OperationsMetadata/ows:Operation[@name='GetRecords']/ows:Parameter[@name='OutputSchema' or @name='outputSchema']/ows:Value/text()='http://www.isotc211.org/2005/gmd'");
 
-    private static final String GET_FIRST_OUTPUT_SCHEMA =
-            "//ows:OperationsMetadata/ows:Operation[@name='GetRecords']/ows:Parameter[@name='OutputSchema' or @name='outputSchema']/ows:Value[1]/text()";
+    private static final CompiledXPath GET_FIRST_OUTPUT_SCHEMA = compile(
+            "//ows:OperationsMetadata/ows:Operation[@name='GetRecords']/ows:Parameter[@name='OutputSchema' or @name='outputSchema']/ows:Value[1]/text()");
 
     // Given a config with an endpoint URL, determines if that URL is a functional CSW endpoint.
     public UrlAvailability getUrlAvailability(String url, String un, String pw) {
         UrlAvailability result = new UrlAvailability(url);
-        String contentType;
-        int status;
-        url += GET_CAPABILITIES_PARAMS;
-        HttpGet request = new HttpGet(url);
-        CloseableHttpClient client = null;
-        CloseableHttpResponse response = null;
-        if (url.startsWith("https") && un != null && pw != null) {
-            byte[] auth = Base64.encodeBase64((un + ":" + pw).getBytes());
-            request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
+        URI capabilitiesUri = URI.create(url + GET_CAPABILITIES_PARAMS);
+        if (hasCachedCertError(capabilitiesUri)) {
+            return result.trustedCertAuthority(false)
+                    .certError(true)
+                    .available(false);
         }
         try {
-            client = getCloseableHttpClient(false);
-            response = client.execute(request);
-            status = response.getStatusLine().getStatusCode();
-            contentType = response.getEntity().getContentType().getValue();
-            if (status == HTTP_OK && CSW_MIME_TYPES.contains(contentType)) {
-                return result.trustedCertAuthority(true)
-                        .certError(false)
-                        .available(true);
-            } else {
-                return result.trustedCertAuthority(true)
-                        .certError(false)
-                        .available(false);
-            }
+            Capabilities capabilities = CapabilitiesCache.getInstance()
+                    .fetch(capabilitiesUri.toString(), un, pw);
+            return result.trustedCertAuthority(isTrustedEndpoint(capabilitiesUri))
+                    .certError(false)
+                    .available(capabilities.status() == HTTP_OK
+                            && CSW_MIME_TYPES.contains(capabilities.contentType()));
         } catch (SSLPeerUnverifiedException e) {
             // This is the hostname != cert name case - if this occurs, the URL's SSL cert configuration
             // is incorrect, or a serious network security issue has occurred.
+            recordCertError(capabilitiesUri);
             return result.trustedCertAuthority(false)
                     .certError(true)
                     .available(false);
+        } catch (ResponseLimitExceededException e) {
+            return result.trustedCertAuthority(isTrustedEndpoint(capabilitiesUri))
+                    .certError(false)
+                    .responseLimitError(e.failureType())
+                    .available(false);
         } catch (Exception e) {
-            try {
-                // We want to trust any root CA, but maintain all other standard SSL checks
-                client = getCloseableHttpClient(true);
-                response = client.execute(request);
-                status = response.getStatusLine().getStatusCode();
-                contentType = response.getEntity().getContentType().getValue();
-                if (status == HTTP_OK && CSW_MIME_TYPES.contains(contentType)) {
-                    return result.trustedCertAuthority(false)
-                            .certError(false)
-                            .available(true);
-                }
-            } catch (Exception e1) {
-                return result.trustedCertAuthority(false)
-                        .certError(false)
-                        .available(false);
-            }
-        } finally {
-            closeClientAndResponse(client, response);
+            return result.trustedCertAuthority(isTrustedEndpoint(capabilitiesUri))
+                    .certError(false)
+                    .available(false);
         }
-        return result;
     }
 
     // Given a configuration, determines the preferred CSW source type and output schema and returns
     // a config with the appropriate factoryPid and Output Schema.
     public Optional<CswSourceConfiguration> getPreferredConfig(CswSourceConfiguration config) {
         CswSourceConfiguration preferred = new CswSourceConfiguration(config);
-        HttpGet getCapabilitiesRequest = new HttpGet(
-                preferred.endpointUrl() + GET_CAPABILITIES_PARAMS);
-        CloseableHttpClient client = null;
-        CloseableHttpResponse response = null;
-        if (config.endpointUrl().startsWith("https") && config.sourceUserName() != null && config.sourceUserPassword() != null) {
-            byte[] auth = Base64.encodeBase64((config.sourceUserName() + ":" + config.sourceUserPassword()).getBytes());
-            getCapabilitiesRequest.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
-        }
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        xpath.setNamespaceContext(SOURCES_NAMESPACE_CONTEXT);
         try {
-            client = getCloseableHttpClient(true);
-            response = client.execute(getCapabilitiesRequest);
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document capabilitiesXml = builder.parse(response
-                    .getEntity()
-                    .getContent());
-            if ((Boolean) xpath.compile(HAS_CATALOG_METACARD_EXP)
-                    .evaluate(capabilitiesXml, XPathConstants.BOOLEAN)) {
+            Capabilities capabilities = CapabilitiesCache.getInstance()
+                    .fetch(preferred.endpointUrl() + GET_CAPABILITIES_PARAMS,
+                            config.sourceUserName(),
+                            config.sourceUserPassword());
+            Document capabilitiesXml = parse(capabilities.content());
+            if (HAS_CATALOG_METACARD_EXP.evaluateBoolean(capabilitiesXml)) {
                 return Optional.of((CswSourceConfiguration) preferred.factoryPid(
                         CSW_PROFILE_FACTORY_PID));
-            } else if ((Boolean) xpath.compile(HAS_GMD_ISO_EXP)
-                    .evaluate(capabilitiesXml, XPathConstants.BOOLEAN)) {
+            } else if (HAS_GMD_ISO_EXP.evaluateBoolean(capabilitiesXml)) {
                 return Optional.of(((CswSourceConfiguration) preferred.factoryPid(
                         CSW_GMD_FACTORY_PID)).outputSchema(GMD_OUTPUT_SCHEMA));
             } else {
                 return Optional.of(((CswSourceConfiguration) (preferred.factoryPid(
-                        CSW_SPEC_FACTORY_PID))).outputSchema(xpath.compile(GET_FIRST_OUTPUT_SCHEMA)
-                        .evaluate(capabilitiesXml)));
+                        CSW_SPEC_FACTORY_PID))).outputSchema(GET_FIRST_OUTPUT_SCHEMA.evaluate(capabilitiesXml)));
             }
         } catch (Exception e) {
             return Optional.empty();
-        } finally {
-            closeClientAndResponse(client, response);
         }
     }
 
@@ -171,7 +134,8 @@ public class CswSourceUtils {
                         config.sourceHostName(),
                         config.sourcePort()))
                 .map(url -> getUrlAvailability(url, config.sourceUserName(), config.sourceUserPassword()))
-                .filter(avail -> avail.isAvailable() || avail.isCertError())
+                .filter(avail -> avail.isAvailable() || avail.isCertError()
+                        || avail.isResponseLimitError())
                 .findFirst();
         return result.isPresent() ? result.get() : null;
     }
@@ -36,11 +36,13 @@ import org.codice.ddf.admin.api.configurator.OperationReport;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
-public class CreateCswSourcePersistMethod extends PersistMethod<CswSourceConfiguration> {
+public class CreateCswSourcePersistMethod extends PersistMethod<CswSourceConfiguration>
+        implements StagedPersistMethod<CswSourceConfiguration> {
 
     public static final String CREATE_CSW_SOURCE_ID = CREATE;
 
@@ -75,8 +77,7 @@ public class CreateCswSourcePersistMethod extends PersistMethod<CswSourceConfigu
     @Override
     public Report persist(CswSourceConfiguration configuration) {
         Configurator configurator = new Configurator();
-        configurator.createManagedService(configuration.factoryPid(),
-                cswConfigToServiceProps(configuration));
+        stage(configurator, configuration);
         OperationReport report = configurator.commit("CSW source saved with details: {}",
                 configuration.toString());
         return Report.createReport(SUCCESS_TYPES,
@@ -85,6 +86,12 @@ public class CreateCswSourcePersistMethod extends PersistMethod<CswSourceConfigu
                 report.containsFailedResults() ? FAILED_PERSIST : SUCCESSFUL_PERSIST);
     }
 
+    @Override
+    public String stage(Configurator configurator, CswSourceConfiguration configuration) {
+        return configurator.createManagedService(configuration.factoryPid(),
+                cswConfigToServiceProps(configuration));
+    }
+
     @Override
     public List<ConfigurationMessage> validateOptionalFields(CswSourceConfiguration configuration) {
         List<ConfigurationMessage> validationResults = validateOptionalUsernameAndPassword(
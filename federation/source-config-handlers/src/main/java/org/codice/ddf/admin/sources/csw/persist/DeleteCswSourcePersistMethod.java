@@ -26,11 +26,13 @@ import org.codice.ddf.admin.api.configurator.Configurator;
 import org.codice.ddf.admin.api.configurator.OperationReport;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
-public class DeleteCswSourcePersistMethod extends PersistMethod<CswSourceConfiguration> {
+public class DeleteCswSourcePersistMethod extends PersistMethod<CswSourceConfiguration>
+        implements StagedPersistMethod<CswSourceConfiguration> {
 
     public static final String DELETE_CSW_SOURCE_ID = DELETE;
 
@@ -58,7 +60,7 @@ public class DeleteCswSourcePersistMethod extends PersistMethod<CswSourceConfigu
     @Override
     public Report persist(CswSourceConfiguration configuration) {
         Configurator configurator = new Configurator();
-        configurator.deleteManagedService(configuration.servicePid());
+        stage(configurator, configuration);
         OperationReport report = configurator.commit("CSW source deleted for servicePid: {}",
                 configuration.servicePid());
 
@@ -68,4 +70,9 @@ public class DeleteCswSourcePersistMethod extends PersistMethod<CswSourceConfigu
                 report.containsFailedResults() ? FAILED_PERSIST : SUCCESSFUL_PERSIST);
     }
 
+    @Override
+    public String stage(Configurator configurator, CswSourceConfiguration configuration) {
+        return configurator.deleteManagedService(configuration.servicePid());
+    }
+
 }
@@ -13,35 +13,92 @@
  */
 package org.codice.ddf.admin.sources.impl;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.codice.ddf.admin.api.config.ConfigurationType;
 import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
-import org.codice.ddf.admin.api.handler.ConfigurationHandler;
 import org.codice.ddf.admin.api.handler.DefaultConfigurationHandler;
+import org.codice.ddf.admin.api.handler.PagedConfigurationHandler;
 import org.codice.ddf.admin.api.handler.SourceConfigurationHandler;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.method.ProbeMethod;
 import org.codice.ddf.admin.api.handler.method.TestMethod;
+import org.codice.ddf.admin.api.handler.report.ConfigurationPage;
+import org.codice.ddf.admin.sources.SourceConnectionPool;
+import org.codice.ddf.admin.sources.impl.discovery.BulkDiscoveryService;
+import org.codice.ddf.admin.sources.impl.discovery.SubnetDiscoveryService;
+import org.codice.ddf.admin.sources.impl.health.SourceHealthMonitor;
+import org.codice.ddf.admin.sources.impl.persist.BulkCreateSourcesPersistMethod;
+import org.codice.ddf.admin.sources.impl.persist.BulkDeleteSourcesPersistMethod;
+import org.codice.ddf.admin.sources.impl.probe.DiscoverSourcesBulkProbeMethod;
 import org.codice.ddf.admin.sources.impl.probe.DiscoverSourcesProbeMethod;
+import org.codice.ddf.admin.sources.impl.probe.DiscoverSubnetProbeMethod;
 import org.codice.ddf.admin.sources.impl.probe.GetConfigHandlersProbeMethod;
+import org.codice.ddf.admin.sources.impl.probe.SourceHealthProbeMethod;
+import org.codice.ddf.admin.sources.impl.probe.SubnetDiscoveryResultsProbeMethod;
 import org.codice.ddf.admin.sources.impl.test.ValidUrlTestMethod;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class SourceConfigurationHandlerImpl
-        extends DefaultConfigurationHandler<SourceConfiguration> {
+        extends DefaultConfigurationHandler<SourceConfiguration>
+        implements PagedConfigurationHandler<SourceConfiguration> {
 
     public static final String SOURCE_CONFIGURATION_HANDLER_ID =
             SourceConfiguration.CONFIGURATION_TYPE;
 
+    // Filter on the id of the configuration handler of the source, such as "csw-source"
+    public static final String TYPE_FILTER = "type";
+
+    // Filter on source names containing the value, ignoring case
+    public static final String NAME_FILTER = "name";
+
+    private static final int MAX_CONCURRENT_READS = 4;
+
+    private static final Comparator<SourceConfiguration> SOURCE_ORDER = Comparator.comparing(
+            (SourceConfiguration config) -> config.sourceName(),
+            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(config -> config.servicePid(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ExecutorService configurationExecutor = Executors.newFixedThreadPool(
+            MAX_CONCURRENT_READS,
+            new ThreadFactoryBuilder().setNameFormat("source-configurations-%d")
+                    .setDaemon(true)
+                    .build());
+
     private List<SourceConfigurationHandler> srcHandlers;
 
+    private final SubnetDiscoveryService subnetDiscoveryService = new SubnetDiscoveryService(
+            config -> DiscoverSourcesProbeMethod.discoverSources(srcHandlers, config));
+
+    private final BulkDiscoveryService bulkDiscoveryService = new BulkDiscoveryService(
+            config -> DiscoverSourcesProbeMethod.discoverSources(srcHandlers, config));
+
+    @SuppressWarnings("unchecked")
+    private final SourceHealthMonitor healthMonitor =
+            new SourceHealthMonitor(() -> (List<SourceConfiguration>) getConfigurations());
+
     @Override
     public List<ProbeMethod> getProbeMethods() {
         return ImmutableList.of(new DiscoverSourcesProbeMethod(srcHandlers),
-                new GetConfigHandlersProbeMethod(srcHandlers));
+                new GetConfigHandlersProbeMethod(srcHandlers),
+                new DiscoverSubnetProbeMethod(subnetDiscoveryService),
+                new SubnetDiscoveryResultsProbeMethod(subnetDiscoveryService),
+                new DiscoverSourcesBulkProbeMethod(bulkDiscoveryService),
+                new SourceHealthProbeMethod(healthMonitor));
     }
 
     @Override
@@ -51,15 +108,93 @@ public class SourceConfigurationHandlerImpl
 
     @Override
     public List<PersistMethod> getPersistMethods() {
-        return null;
+        return ImmutableList.of(new BulkCreateSourcesPersistMethod(srcHandlers),
+                new BulkDeleteSourcesPersistMethod(srcHandlers));
     }
 
     @Override
     public List getConfigurations() {
-        return srcHandlers.stream()
-                .map(ConfigurationHandler::getConfigurations)
-                .flatMap(List<Object>::stream)
+        return getConfigurations(srcHandlers);
+    }
+
+    /**
+     * Supports the {@link #TYPE_FILTER} and {@link #NAME_FILTER} filters. Sources are ordered by
+     * name, then by service PID. A type filter skips reading the configurations of the other
+     * source handlers.
+     * <p>
+     * Paging is done in memory: the order across handlers and the total number of matches are
+     * only known once every selected handler has been read, so each call reads all of their
+     * configurations and returns the requested slice. It saves sending every configuration to
+     * the client, not reading them.
+     */
+    @Override
+    public ConfigurationPage<SourceConfiguration> getConfigurations(int offset, int limit,
+            Map<String, String> filters) {
+        String type = filters.get(TYPE_FILTER);
+        String name = filters.get(NAME_FILTER) == null ?
+                null :
+                filters.get(NAME_FILTER)
+                        .toLowerCase(Locale.ROOT);
+
+        List<SourceConfigurationHandler> handlers = type == null ?
+                srcHandlers :
+                srcHandlers.stream()
+                        .filter(handler -> type.equals(handler.getConfigurationHandlerId()))
+                        .collect(Collectors.toList());
+        List<SourceConfiguration> matches = getConfigurations(handlers).stream()
+                .filter(config -> name == null || config.sourceName() != null
+                        && config.sourceName()
+                        .toLowerCase(Locale.ROOT)
+                        .contains(name))
+                .sorted(SOURCE_ORDER)
                 .collect(Collectors.toList());
+
+        return new ConfigurationPage<>(offset,
+                limit,
+                matches.size(),
+                matches.stream()
+                        .skip(offset)
+                        .limit(limit)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads the configurations of each handler concurrently. Each handler makes its own
+     * sequence of configuration admin calls, so reading them one after another makes the
+     * total time grow with the number of handlers. Results keep the order of the handlers.
+     */
+    @SuppressWarnings("unchecked")
+    private List<SourceConfiguration> getConfigurations(
+            List<SourceConfigurationHandler> handlers) {
+        List<Callable<List<SourceConfiguration>>> reads = handlers.stream()
+                .map(handler -> (Callable<List<SourceConfiguration>>) handler::getConfigurations)
+                .collect(Collectors.toList());
+
+        List<Future<List<SourceConfiguration>>> futures;
+        try {
+            futures = configurationExecutor.invokeAll(reads);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            throw new IllegalStateException("Interrupted while reading source configurations.",
+                    e);
+        }
+
+        List<SourceConfiguration> configurations = new ArrayList<>();
+        for (Future<List<SourceConfiguration>> future : futures) {
+            try {
+                configurations.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                throw new IllegalStateException(
+                        "Interrupted while reading source configurations.",
+                        e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+        return configurations;
     }
 
     @Override
@@ -72,6 +207,21 @@ public class SourceConfigurationHandlerImpl
         return new SourceConfiguration().getConfigurationType();
     }
 
+    public void init() {
+        SourceConnectionPool.getInstance()
+                .init();
+        healthMonitor.init();
+    }
+
+    public void destroy() {
+        configurationExecutor.shutdownNow();
+        healthMonitor.destroy();
+        subnetDiscoveryService.destroy();
+        bulkDiscoveryService.destroy();
+        SourceConnectionPool.getInstance()
+                .destroy();
+    }
+
     public void setSourceConfigurationHandlers(
             List<SourceConfigurationHandler> sourceConfigurationHandlers) {
         this.srcHandlers = sourceConfigurationHandlers;
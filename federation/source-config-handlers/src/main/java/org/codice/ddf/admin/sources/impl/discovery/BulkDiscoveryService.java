@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.discovery;
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.PORT;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_HOSTNAME;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Discovers sources on a list of endpoints at once. Discoveries share a fixed pool of threads, so
+ * the number of endpoints contacted concurrently is bounded no matter how many targets or
+ * requests are submitted.
+ */
+public class BulkDiscoveryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkDiscoveryService.class);
+
+    public static final long BULK_DISCOVERY_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    private static final int MAX_CONCURRENT_DISCOVERIES = 8;
+
+    private final Function<SourceConfiguration, List<Map<String, Object>>> discoverer;
+
+    private final ExecutorService discoveryExecutor;
+
+    /**
+     * @param discoverer returns the discovered sources for the host and port of a configuration
+     */
+    public BulkDiscoveryService(
+            Function<SourceConfiguration, List<Map<String, Object>>> discoverer) {
+        this.discoverer = discoverer;
+        this.discoveryExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_DISCOVERIES,
+                new ThreadFactoryBuilder().setNameFormat("bulk-discovery-%d")
+                        .setDaemon(true)
+                        .build());
+    }
+
+    /**
+     * Discovers the sources of every target, waiting at most {@link #BULK_DISCOVERY_TIMEOUT}.
+     *
+     * @return one map per target, in the order given, with the keys
+     * {@link SourceConfiguration#SOURCE_HOSTNAME}, {@link SourceConfiguration#PORT} and
+     * {@link org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons#DISCOVERED_SOURCES}.
+     * Targets that fail or do not finish in time have no discovered sources.
+     */
+    public List<Map<String, Object>> discover(List<SourceConfiguration> targets) {
+        List<Callable<List<Map<String, Object>>>> tasks = targets.stream()
+                .map(target -> (Callable<List<Map<String, Object>>>) () -> discoverer.apply(
+                        target))
+                .collect(Collectors.toList());
+
+        List<Future<List<Map<String, Object>>>> futures;
+        try {
+            futures = discoveryExecutor.invokeAll(tasks,
+                    BULK_DISCOVERY_TIMEOUT,
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            futures = ImmutableList.of();
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            SourceConfiguration target = targets.get(i);
+            List<Map<String, Object>> sources = i < futures.size() ?
+                    getSources(target, futures.get(i)) :
+                    ImmutableList.of();
+            results.add(ImmutableMap.of(SOURCE_HOSTNAME,
+                    target.sourceHostName(),
+                    PORT,
+                    target.sourcePort(),
+                    DISCOVERED_SOURCES,
+                    sources));
+        }
+        return results;
+    }
+
+    public void destroy() {
+        discoveryExecutor.shutdownNow();
+    }
+
+    private List<Map<String, Object>> getSources(SourceConfiguration target,
+            Future<List<Map<String, Object>>> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            LOGGER.debug("Source discovery of {}:{} did not finish in time.",
+                    target.sourceHostName(),
+                    target.sourcePort());
+        } catch (ExecutionException e) {
+            LOGGER.debug("Source discovery of {}:{} failed.",
+                    target.sourceHostName(),
+                    target.sourcePort(),
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+        return ImmutableList.of();
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.discovery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Progress and results of a single subnet discovery. Results are appended as each live endpoint
+ * finishes discovery, so callers may page through them while the job is still running.
+ */
+public class SubnetDiscoveryJob {
+
+    private final String id = UUID.randomUUID()
+            .toString();
+
+    private final String subnet;
+
+    private final long endpointsTotal;
+
+    private final AtomicInteger endpointsScanned = new AtomicInteger();
+
+    private final AtomicInteger liveEndpoints = new AtomicInteger();
+
+    private final AtomicInteger pendingDiscoveries = new AtomicInteger();
+
+    private final List<Map<String, Object>> discoveredSources = new CopyOnWriteArrayList<>();
+
+    private volatile boolean sweepComplete;
+
+    private volatile boolean cancelled;
+
+    private volatile boolean complete;
+
+    private volatile long completedAt;
+
+    SubnetDiscoveryJob(String subnet, long endpointsTotal) {
+        this.subnet = subnet;
+        this.endpointsTotal = endpointsTotal;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String subnet() {
+        return subnet;
+    }
+
+    public long endpointsTotal() {
+        return endpointsTotal;
+    }
+
+    public int endpointsScanned() {
+        return endpointsScanned.get();
+    }
+
+    public int liveEndpoints() {
+        return liveEndpoints.get();
+    }
+
+    /**
+     * @return true once every endpoint has been scanned and every live endpoint has finished
+     * discovery
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int resultCount() {
+        return discoveredSources.size();
+    }
+
+    /**
+     * @return the discovered sources from {@code offset} onward, in the order they were found
+     */
+    public List<Map<String, Object>> discoveredSources(int offset) {
+        List<Map<String, Object>> snapshot = ImmutableList.copyOf(discoveredSources);
+        return offset >= snapshot.size() ? ImmutableList.of() : snapshot.subList(offset,
+                snapshot.size());
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    boolean isExpired(long ttlMillis) {
+        return isComplete()
+                && System.nanoTime() - completedAt > TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    void endpointScanned(boolean live) {
+        endpointsScanned.incrementAndGet();
+        if (live) {
+            liveEndpoints.incrementAndGet();
+        }
+    }
+
+    void discoveryStarted() {
+        pendingDiscoveries.incrementAndGet();
+    }
+
+    void discoveryFinished(List<Map<String, Object>> sources) {
+        discoveredSources.addAll(sources);
+        if (pendingDiscoveries.decrementAndGet() == 0 && sweepComplete) {
+            markComplete();
+        }
+    }
+
+    void sweepFinished() {
+        sweepComplete = true;
+        if (pendingDiscoveries.get() == 0) {
+            markComplete();
+        }
+    }
+
+    private synchronized void markComplete() {
+        if (!complete) {
+            completedAt = System.nanoTime();
+            complete = true;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.discovery;
+
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.recordConnectTime;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.recordEndpointReachable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.network.ReachabilityScanner;
+import org.codice.ddf.admin.api.network.ReachabilityScanner.ScanResult;
+import org.codice.ddf.admin.api.network.ReachabilityScanner.ScanTarget;
+import org.codice.ddf.admin.api.network.SubnetRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs subnet discoveries in the background. Each job sweeps every address and port of a subnet
+ * with a {@link ReachabilityScanner}, then runs source discovery against the live endpoints on a
+ * bounded pool while the sweep continues.
+ */
+public class SubnetDiscoveryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubnetDiscoveryService.class);
+
+    public static final long SWEEP_CONNECT_TIMEOUT = 1000;
+
+    public static final long COMPLETED_JOB_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    public static final int MAX_JOBS = 16;
+
+    private static final int MAX_CONCURRENT_SWEEPS = 2;
+
+    private static final int MAX_CONCURRENT_DISCOVERIES = 8;
+
+    private static final int MAX_SWEEP_CONNECTS = 256;
+
+    private final ReachabilityScanner scanner = new ReachabilityScanner(MAX_SWEEP_CONNECTS);
+
+    private final Map<String, SubnetDiscoveryJob> jobs = new ConcurrentHashMap<>();
+
+    private final Function<SourceConfiguration, List<Map<String, Object>>> discoverer;
+
+    private final ExecutorService sweepExecutor;
+
+    private final ExecutorService discoveryExecutor;
+
+    /**
+     * @param discoverer returns the discovered sources for the host and port of a configuration
+     */
+    public SubnetDiscoveryService(
+            Function<SourceConfiguration, List<Map<String, Object>>> discoverer) {
+        this.discoverer = discoverer;
+        this.sweepExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_SWEEPS,
+                new ThreadFactoryBuilder().setNameFormat("subnet-sweep-%d")
+                        .setDaemon(true)
+                        .build());
+        this.discoveryExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_DISCOVERIES,
+                new ThreadFactoryBuilder().setNameFormat("subnet-discovery-%d")
+                        .setDaemon(true)
+                        .build());
+    }
+
+    /**
+     * Starts discovering sources on every port of every host in the subnet.
+     *
+     * @param template supplies the credentials used against each discovered endpoint
+     * @return the started job, or empty if too many jobs are already held
+     */
+    public Optional<SubnetDiscoveryJob> start(SubnetRange subnet, List<Integer> ports,
+            SourceConfiguration template) {
+        jobs.values()
+                .removeIf(job -> job.isExpired(COMPLETED_JOB_TTL));
+        if (jobs.size() >= MAX_JOBS) {
+            return Optional.empty();
+        }
+
+        List<Integer> distinctPorts = ports.stream()
+                .distinct()
+                .collect(Collectors.toList());
+        SubnetDiscoveryJob job = new SubnetDiscoveryJob(subnet.toString(),
+                subnet.size() * distinctPorts.size());
+        SourceConfiguration credentials = new SourceConfiguration(template);
+        jobs.put(job.id(), job);
+        try {
+            sweepExecutor.execute(() -> sweep(job, subnet, distinctPorts, credentials));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    public Optional<SubnetDiscoveryJob> getJob(String jobId) {
+        SubnetDiscoveryJob job = jobs.get(jobId);
+        if (job != null && job.isExpired(COMPLETED_JOB_TTL)) {
+            jobs.remove(jobId, job);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    public void destroy() {
+        jobs.values()
+                .forEach(SubnetDiscoveryJob::cancel);
+        sweepExecutor.shutdownNow();
+        discoveryExecutor.shutdownNow();
+    }
+
+    private void sweep(SubnetDiscoveryJob job, SubnetRange subnet, List<Integer> ports,
+            SourceConfiguration credentials) {
+        Iterable<ScanTarget> targets = () -> StreamSupport.stream(subnet.spliterator(), false)
+                .flatMap(address -> ports.stream()
+                        .map(port -> new ScanTarget(address.getHostAddress(),
+                                port,
+                                SWEEP_CONNECT_TIMEOUT)))
+                .iterator();
+        try {
+            scanner.scan(targets, result -> onScanned(job, result, credentials));
+        } catch (CancellationException e) {
+            LOGGER.debug("Subnet discovery of {} was cancelled.", job.subnet());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Subnet discovery of {} failed.", job.subnet(), e);
+        } finally {
+            job.sweepFinished();
+        }
+    }
+
+    private void onScanned(SubnetDiscoveryJob job, ScanResult result,
+            SourceConfiguration credentials) {
+        if (job.isCancelled()) {
+            throw new CancellationException();
+        }
+
+        job.endpointScanned(result.isReachable());
+        if (!result.isReachable()) {
+            return;
+        }
+
+        // Record the result under the host name the discovery probes will check, which brackets
+        // IPv6 literals as in a URL
+        String host = InetAddresses.toUriString(InetAddresses.forString(result.target()
+                .host()));
+        int port = result.target()
+                .port();
+        recordEndpointReachable(host, port, true);
+        recordConnectTime(host, result.elapsedMillis());
+
+        SourceConfiguration config = new SourceConfiguration(credentials).sourceHostName(host)
+                .sourcePort(port);
+        job.discoveryStarted();
+        try {
+            discoveryExecutor.execute(() -> discover(job, config));
+        } catch (RejectedExecutionException e) {
+            job.discoveryFinished(ImmutableList.of());
+        }
+    }
+
+    private void discover(SubnetDiscoveryJob job, SourceConfiguration config) {
+        List<Map<String, Object>> sources = ImmutableList.of();
+        try {
+            if (!job.isCancelled()) {
+                sources = discoverer.apply(config);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Source discovery of {}:{} failed.",
+                    config.sourceHostName(),
+                    config.sourcePort(),
+                    e);
+        } finally {
+            job.discoveryFinished(sources);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.health;
+
+import static org.codice.ddf.admin.api.services.CswServiceProperties.PASSWORD;
+import static org.codice.ddf.admin.api.services.CswServiceProperties.USERNAME;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.http.HttpStatus;
+import org.codice.ddf.admin.api.config.sources.CswSourceConfiguration;
+import org.codice.ddf.admin.api.config.sources.OpenSearchSourceConfiguration;
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.config.sources.WfsSourceConfiguration;
+import org.codice.ddf.admin.api.configurator.Configurator;
+import org.codice.ddf.admin.sources.CapabilitiesCache;
+import org.codice.ddf.admin.sources.csw.CswSourceUtils;
+import org.codice.ddf.admin.sources.opensearch.OpenSearchSourceUtils;
+import org.codice.ddf.admin.sources.wfs.WfsSourceUtils;
+
+/**
+ * Checks a source by reading its capabilities document, or a minimal query for OpenSearch
+ * sources, in full.
+ * <p>
+ * Configurations returned by the source handlers have their passwords masked, so the source's
+ * credentials are read from its service properties. As for every probe, they are only sent to
+ * HTTPS endpoints. A source that rejects them is reported as
+ * {@link SourceStatus#AUTHENTICATION_FAILED} rather than as available.
+ * <p>
+ * Documents are fetched through the {@link CapabilitiesCache}, so checking a source whose
+ * capabilities have not changed usually costs a 304 response.
+ */
+public class CapabilitiesHealthCheck implements Function<SourceConfiguration, SourceStatus> {
+
+    private final Function<String, Map<String, Object>> serviceProperties;
+
+    public CapabilitiesHealthCheck() {
+        this(servicePid -> new Configurator().getConfig(servicePid));
+    }
+
+    /**
+     * @param serviceProperties returns the configuration admin properties of a service PID
+     */
+    public CapabilitiesHealthCheck(Function<String, Map<String, Object>> serviceProperties) {
+        this.serviceProperties = serviceProperties;
+    }
+
+    @Override
+    public SourceStatus apply(SourceConfiguration config) {
+        Map<String, Object> properties = getServiceProperties(config.servicePid());
+        try {
+            int status = CapabilitiesCache.getInstance()
+                    .fetch(getCheckUrl(config),
+                            stringValue(properties, USERNAME),
+                            stringValue(properties, PASSWORD))
+                    .status();
+            if (status == HttpStatus.SC_OK) {
+                return SourceStatus.AVAILABLE;
+            }
+            return status == HttpStatus.SC_UNAUTHORIZED || status == HttpStatus.SC_FORBIDDEN ?
+                    SourceStatus.AUTHENTICATION_FAILED :
+                    SourceStatus.UNAVAILABLE;
+        } catch (IOException | RuntimeException e) {
+            return SourceStatus.UNAVAILABLE;
+        }
+    }
+
+    static String getCheckUrl(SourceConfiguration config) {
+        String endpointUrl = config.endpointUrl();
+        if (config instanceof CswSourceConfiguration) {
+            return endpointUrl + CswSourceUtils.GET_CAPABILITIES_PARAMS;
+        } else if (config instanceof WfsSourceConfiguration) {
+            return endpointUrl + WfsSourceUtils.GET_CAPABILITIES_PARAMS;
+        } else if (config instanceof OpenSearchSourceConfiguration) {
+            return endpointUrl + OpenSearchSourceUtils.SIMPLE_QUERY_PARAMS;
+        }
+        return endpointUrl;
+    }
+
+    // The CSW, WFS and OpenSearch source properties all name the credentials username and password
+    private Map<String, Object> getServiceProperties(String servicePid) {
+        try {
+            Map<String, Object> properties = serviceProperties.apply(servicePid);
+            return properties == null ? Collections.emptyMap() : properties;
+        } catch (RuntimeException e) {
+            // Check anonymously, as the endpoint may still be reached
+            return Collections.emptyMap();
+        }
+    }
+
+    private static String stringValue(Map<String, Object> properties, String key) {
+        Object value = properties.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.health;
+
+/**
+ * A snapshot of the recent health of one configured source. Getters follow JavaBean naming so
+ * the snapshot maps to open data when read through {@link SourceHealthMonitorMXBean}.
+ */
+public class SourceHealth {
+
+    private final String servicePid;
+
+    private final String sourceName;
+
+    private final String endpointUrl;
+
+    private final boolean available;
+
+    private final SourceStatus status;
+
+    private final double availability;
+
+    private final int checks;
+
+    private final int consecutiveFailures;
+
+    private final long lastChecked;
+
+    private final long lastLatencyMillis;
+
+    private final long meanLatencyMillis;
+
+    private final long p95LatencyMillis;
+
+    public SourceHealth(String servicePid, String sourceName, String endpointUrl,
+            SourceStatus status, double availability, int checks, int consecutiveFailures,
+            long lastChecked, long lastLatencyMillis, long meanLatencyMillis,
+            long p95LatencyMillis) {
+        this.servicePid = servicePid;
+        this.sourceName = sourceName;
+        this.endpointUrl = endpointUrl;
+        this.available = status == SourceStatus.AVAILABLE;
+        this.status = status;
+        this.availability = availability;
+        this.checks = checks;
+        this.consecutiveFailures = consecutiveFailures;
+        this.lastChecked = lastChecked;
+        this.lastLatencyMillis = lastLatencyMillis;
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.p95LatencyMillis = p95LatencyMillis;
+    }
+
+    public String getServicePid() {
+        return servicePid;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public String getEndpointUrl() {
+        return endpointUrl;
+    }
+
+    /**
+     * @return whether the most recent check succeeded
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @return the outcome of the most recent check, or null if the source has not been checked
+     */
+    public SourceStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the fraction of checks in the rolling window that succeeded
+     */
+    public double getAvailability() {
+        return availability;
+    }
+
+    /**
+     * @return the number of checks in the rolling window
+     */
+    public int getChecks() {
+        return checks;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return when the most recent check finished, in milliseconds since the epoch
+     */
+    public long getLastChecked() {
+        return lastChecked;
+    }
+
+    public long getLastLatencyMillis() {
+        return lastLatencyMillis;
+    }
+
+    /**
+     * @return the mean latency of successful checks in the rolling window, or -1 if none
+     * succeeded
+     */
+    public long getMeanLatencyMillis() {
+        return meanLatencyMillis;
+    }
+
+    /**
+     * @return the 95th percentile latency of successful checks in the rolling window, or -1 if
+     * none succeeded
+     */
+    public long getP95LatencyMillis() {
+        return p95LatencyMillis;
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.health;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Periodically checks every configured source and keeps rolling availability and latency
+ * statistics for each. Checks of a round are spread over a jitter window so sources are not all
+ * contacted at once, and at most {@link #MAX_CONCURRENT_CHECKS} run at a time.
+ */
+public class SourceHealthMonitor implements SourceHealthMonitorMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceHealthMonitor.class);
+
+    public static final String OBJECT_NAME =
+            "org.codice.ddf.admin.sources:service=source-health-monitor";
+
+    public static final long DEFAULT_CHECK_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    public static final long DEFAULT_CHECK_JITTER = TimeUnit.SECONDS.toMillis(30);
+
+    public static final int WINDOW_SIZE = 20;
+
+    public static final int MAX_CONCURRENT_CHECKS = 4;
+
+    private final Supplier<List<SourceConfiguration>> sources;
+
+    private final Function<SourceConfiguration, SourceStatus> healthCheck;
+
+    private final long checkInterval;
+
+    private final long checkJitter;
+
+    private final Map<String, SourceHealthStats> stats = new ConcurrentHashMap<>();
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService checkExecutor;
+
+    public SourceHealthMonitor(Supplier<List<SourceConfiguration>> sources) {
+        this(sources, new CapabilitiesHealthCheck(), DEFAULT_CHECK_INTERVAL, DEFAULT_CHECK_JITTER);
+    }
+
+    /**
+     * @param sources     supplies the sources to check each round
+     * @param healthCheck returns the status of a source; its duration is recorded as the source's
+     *                    latency
+     */
+    public SourceHealthMonitor(Supplier<List<SourceConfiguration>> sources,
+            Function<SourceConfiguration, SourceStatus> healthCheck, long checkInterval,
+            long checkJitter) {
+        this.sources = sources;
+        this.healthCheck = healthCheck;
+        this.checkInterval = checkInterval;
+        this.checkJitter = checkJitter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(
+                "source-health-scheduler-%d")
+                .setDaemon(true)
+                .build());
+        this.checkExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_CHECKS,
+                new ThreadFactoryBuilder().setNameFormat("source-health-check-%d")
+                        .setDaemon(true)
+                        .build());
+    }
+
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::checkNow,
+                0,
+                checkInterval,
+                TimeUnit.MILLISECONDS);
+        registerMBean();
+    }
+
+    public void destroy() {
+        unregisterMBean();
+        scheduler.shutdownNow();
+        checkExecutor.shutdownNow();
+    }
+
+    @Override
+    public List<SourceHealth> getSourceHealth() {
+        return stats.entrySet()
+                .stream()
+                .map(entry -> entry.getValue()
+                        .snapshot(entry.getKey()))
+                .sorted(Comparator.comparing(SourceHealth::getServicePid))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void checkNow() {
+        List<SourceConfiguration> configs;
+        try {
+            configs = sources.get();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to retrieve the configured sources to check.", e);
+            return;
+        }
+
+        List<SourceConfiguration> checkable = configs.stream()
+                .filter(config -> config.servicePid() != null && config.endpointUrl() != null)
+                .collect(Collectors.toList());
+        Set<String> servicePids = checkable.stream()
+                .map(SourceConfiguration::servicePid)
+                .collect(Collectors.toSet());
+        stats.keySet()
+                .retainAll(servicePids);
+
+        for (SourceConfiguration config : checkable) {
+            long delay = checkJitter > 0 ? ThreadLocalRandom.current()
+                    .nextLong(checkJitter) : 0;
+            try {
+                scheduler.schedule(() -> submit(config), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    private void submit(SourceConfiguration config) {
+        if (!inFlight.add(config.servicePid())) {
+            return;
+        }
+        try {
+            checkExecutor.execute(() -> check(config));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(config.servicePid());
+        }
+    }
+
+    private void check(SourceConfiguration config) {
+        long start = System.nanoTime();
+        SourceStatus status;
+        try {
+            status = healthCheck.apply(config);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Health check of source {} failed.", config.servicePid(), e);
+            status = SourceStatus.UNAVAILABLE;
+        }
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        try {
+            stats.computeIfAbsent(config.servicePid(), pid -> new SourceHealthStats(WINDOW_SIZE))
+                    .record(config.sourceName(),
+                            config.endpointUrl(),
+                            status == null ? SourceStatus.UNAVAILABLE : status,
+                            latencyMillis,
+                            System.currentTimeMillis());
+        } finally {
+            inFlight.remove(config.servicePid());
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+        } catch (JMException e) {
+            LOGGER.info("Unable to register the source health monitor MBean.", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.debug("Unable to unregister the source health monitor MBean.", e);
+        }
+    }
+}
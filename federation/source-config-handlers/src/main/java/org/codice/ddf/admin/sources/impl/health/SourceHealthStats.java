@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.health;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.stream.LongStream;
+
+/**
+ * Rolling window of the most recent health check results of a source.
+ */
+class SourceHealthStats {
+
+    private final int windowSize;
+
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private String sourceName;
+
+    private String endpointUrl;
+
+    private int consecutiveFailures;
+
+    SourceHealthStats(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Only {@link SourceStatus#AVAILABLE} checks count towards the availability and latency;
+     * any other status is a failure.
+     */
+    synchronized void record(String sourceName, String endpointUrl, SourceStatus status,
+            long latencyMillis, long checkedAt) {
+        this.sourceName = sourceName;
+        this.endpointUrl = endpointUrl;
+        consecutiveFailures = status == SourceStatus.AVAILABLE ? 0 : consecutiveFailures + 1;
+        if (samples.size() == windowSize) {
+            samples.removeFirst();
+        }
+        samples.addLast(new Sample(status, latencyMillis, checkedAt));
+    }
+
+    synchronized SourceHealth snapshot(String servicePid) {
+        Sample last = samples.peekLast();
+        long[] latencies = samples.stream()
+                .filter(Sample::isAvailable)
+                .mapToLong(sample -> sample.latencyMillis)
+                .sorted()
+                .toArray();
+
+        return new SourceHealth(servicePid,
+                sourceName,
+                endpointUrl,
+                last == null ? null : last.status,
+                samples.isEmpty() ? 0 : (double) latencies.length / samples.size(),
+                samples.size(),
+                consecutiveFailures,
+                last == null ? 0 : last.checkedAt,
+                last == null ? -1 : last.latencyMillis,
+                latencies.length == 0 ? -1 : Math.round(LongStream.of(latencies)
+                        .average()
+                        .getAsDouble()),
+                latencies.length == 0 ?
+                        -1 :
+                        latencies[(int) Math.ceil(latencies.length * 0.95) - 1]);
+    }
+
+    private static class Sample {
+
+        private final SourceStatus status;
+
+        private final long latencyMillis;
+
+        private final long checkedAt;
+
+        private Sample(SourceStatus status, long latencyMillis, long checkedAt) {
+            this.status = status;
+            this.latencyMillis = latencyMillis;
+            this.checkedAt = checkedAt;
+        }
+
+        private boolean isAvailable() {
+            return status == SourceStatus.AVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.health;
+
+/**
+ * Outcome of a single source health check.
+ */
+public enum SourceStatus {
+    /**
+     * The source answered the check successfully.
+     */
+    AVAILABLE,
+
+    /**
+     * The source answered but rejected the configured credentials, so it cannot be queried even
+     * though it is up.
+     */
+    AUTHENTICATION_FAILED,
+
+    /**
+     * The source could not be reached or answered with an error.
+     */
+    UNAVAILABLE
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.persist;
+
+import static org.codice.ddf.admin.api.handler.commons.HandlerCommons.CREATE;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.configurator.Configurator;
+import org.codice.ddf.admin.api.configurator.OperationReport;
+import org.codice.ddf.admin.api.handler.SourceConfigurationHandler;
+
+public class BulkCreateSourcesPersistMethod extends BulkSourcesPersistMethod {
+
+    public static final String BULK_CREATE_SOURCES_ID = "bulk-create";
+
+    public static final String DESCRIPTION =
+            "Attempts to create and persist every source in the list of sources in a single transaction. "
+                    + "Each source must name its configurationType and is validated as it would be when created individually.";
+
+    public BulkCreateSourcesPersistMethod(List<SourceConfigurationHandler> handlers) {
+        super(BULK_CREATE_SOURCES_ID,
+                DESCRIPTION,
+                CREATE,
+                "Source successfully created.",
+                handlers);
+    }
+
+    @Override
+    protected OperationReport commit(Configurator configurator,
+            List<SourceConfiguration> sources) {
+        return configurator.commit("{} sources saved with details: {}",
+                String.valueOf(sources.size()),
+                sources.stream()
+                        .map(SourceConfiguration::toString)
+                        .collect(Collectors.joining(", ")));
+    }
+}
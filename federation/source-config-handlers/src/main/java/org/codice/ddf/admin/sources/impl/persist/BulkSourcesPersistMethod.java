@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.persist;
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCES;
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.FAILED_PERSIST;
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.MessageType.FAILURE;
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.MessageType.SUCCESS;
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.createInvalidFieldMsg;
+import static org.codice.ddf.admin.api.handler.commons.HandlerCommons.SUCCESSFUL_PERSIST;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.configurator.Configurator;
+import org.codice.ddf.admin.api.configurator.OperationReport;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.handler.SourceConfigurationHandler;
+import org.codice.ddf.admin.api.handler.method.PersistMethod;
+import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Persists a list of sources of any type in a single {@link Configurator} transaction. Each
+ * source is validated and staged by the persist method of its own type's handler, so if any
+ * change fails the changes already made are rolled back. The report has one message per source,
+ * identified by its position in the list.
+ */
+public abstract class BulkSourcesPersistMethod extends PersistMethod<SourceConfiguration> {
+
+    public static final String ROLLED_BACK = "ROLLED_BACK";
+
+    public static final String NOT_PERSISTED = "NOT_PERSISTED";
+
+    public static final String FAILED_ROLLBACK = "FAILED_ROLLBACK";
+
+    protected static final List<String> REQUIRED_FIELDS = ImmutableList.of(SOURCES);
+
+    protected static final Map<String, String> FAILURE_TYPES = ImmutableMap.of(FAILED_PERSIST,
+            "The change to this source failed.",
+            ROLLED_BACK,
+            "The change to this source was undone because another source in the transaction failed.",
+            NOT_PERSISTED,
+            "This source was not changed because another source in the transaction failed.",
+            FAILED_ROLLBACK,
+            "The change to this source could not be undone after another source failed and must be corrected manually.");
+
+    private final String sourcePersistId;
+
+    private final String successMessage;
+
+    private final List<SourceConfigurationHandler> handlers;
+
+    public BulkSourcesPersistMethod(String id, String description, String sourcePersistId,
+            String successMessage, List<SourceConfigurationHandler> handlers) {
+        super(id,
+                description,
+                REQUIRED_FIELDS,
+                null,
+                ImmutableMap.of(SUCCESSFUL_PERSIST, successMessage),
+                FAILURE_TYPES,
+                null);
+        this.sourcePersistId = sourcePersistId;
+        this.successMessage = successMessage;
+        this.handlers = handlers;
+    }
+
+    /**
+     * Commits the staged changes, describing the sources in the audit log entry if the commit
+     * succeeds.
+     */
+    protected abstract OperationReport commit(Configurator configurator,
+            List<SourceConfiguration> sources);
+
+    @Override
+    public List<ConfigurationMessage> validateRequiredFields(SourceConfiguration configuration) {
+        List<ConfigurationMessage> errors = super.validateRequiredFields(configuration);
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        List<SourceConfiguration> sources = configuration.sources();
+        return IntStream.range(0, sources.size())
+                .parallel()
+                .mapToObj(i -> validateSource(sources.get(i), i))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Report persist(SourceConfiguration configuration) {
+        List<SourceConfiguration> sources = configuration.sources();
+        Configurator configurator = new Configurator();
+        List<String> keys = new ArrayList<>(sources.size());
+        for (SourceConfiguration source : sources) {
+            keys.add(stage(configurator, source));
+        }
+
+        OperationReport report = commit(configurator, sources);
+
+        Report bulkReport = new Report();
+        for (int i = 0; i < sources.size(); i++) {
+            bulkReport.addMessage(buildSourceMessage(report.getResult(keys.get(i)), i));
+        }
+        return bulkReport;
+    }
+
+    private List<ConfigurationMessage> validateSource(SourceConfiguration source, int index) {
+        String sourceId = SOURCES + "[" + index + "]";
+        Optional<PersistMethod> method = findPersistMethod(source);
+        if (!method.isPresent()) {
+            return ImmutableList.of(createInvalidFieldMsg("Sources of type \""
+                    + source.getConfigurationType()
+                    .configTypeName() + "\" cannot be persisted in bulk.", sourceId));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<ConfigurationMessage> errors = method.get()
+                .validate(source);
+        errors.forEach(error -> error.configFieldId(error.configFieldId() == null ?
+                sourceId :
+                sourceId + "." + error.configFieldId()));
+        return errors;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String stage(Configurator configurator, SourceConfiguration source) {
+        return ((StagedPersistMethod<SourceConfiguration>) findPersistMethod(source).get()).stage(
+                configurator,
+                source);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<PersistMethod> findPersistMethod(SourceConfiguration source) {
+        String typeName = source.getConfigurationType()
+                .configTypeName();
+        return handlers.stream()
+                .filter(handler -> handler.getConfigurationType()
+                        .configTypeName()
+                        .equals(typeName) && handler.getConfigurationType()
+                        .configClass()
+                        .isInstance(source))
+                .findFirst()
+                .map(handler -> (List<PersistMethod>) handler.getPersistMethods())
+                .flatMap(methods -> methods == null ?
+                        Optional.empty() :
+                        methods.stream()
+                                .filter(method -> method.id()
+                                        .equals(sourcePersistId)
+                                        && method instanceof StagedPersistMethod)
+                                .findFirst());
+    }
+
+    private ConfigurationMessage buildSourceMessage(OperationReport.Result result, int index) {
+        String sourceId = SOURCES + "[" + index + "]";
+        String subtype = FAILED_PERSIST;
+        if (result != null) {
+            switch (result.getStatus()) {
+            case COMMIT_PASSED:
+                subtype = SUCCESSFUL_PERSIST;
+                break;
+            case ROLLBACK_PASSED:
+                subtype = ROLLED_BACK;
+                break;
+            case ROLLBACK_FAILED:
+                subtype = FAILED_ROLLBACK;
+                break;
+            case SKIPPED:
+                subtype = NOT_PERSISTED;
+                break;
+            default:
+                subtype = FAILED_PERSIST;
+            }
+        }
+
+        return SUCCESSFUL_PERSIST.equals(subtype) ?
+                new ConfigurationMessage(SUCCESS, subtype, successMessage, sourceId) :
+                new ConfigurationMessage(FAILURE, subtype, FAILURE_TYPES.get(subtype), sourceId);
+    }
+}
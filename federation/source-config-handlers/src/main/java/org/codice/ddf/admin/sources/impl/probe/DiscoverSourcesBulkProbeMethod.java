@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.probe;
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.CONFIGURATION_TYPE;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.DISCOVERY_TARGETS;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USERNAME;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USER_PASSWORD;
+import static org.codice.ddf.admin.api.handler.commons.HandlerCommons.SUCCESSFUL_PROBE;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
+import static org.codice.ddf.admin.api.handler.report.ProbeReport.createProbeReport;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateOptionalUsernameAndPassword;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.handler.method.ProbeMethod;
+import org.codice.ddf.admin.api.handler.report.ProbeReport;
+import org.codice.ddf.admin.sources.impl.discovery.BulkDiscoveryService;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class DiscoverSourcesBulkProbeMethod extends ProbeMethod<SourceConfiguration> {
+
+    public static final String DISCOVER_SOURCES_BULK_ID = "discover-sources-bulk";
+
+    public static final String DESCRIPTION =
+            "Retrieves possible configurations for each host and port in the list of "
+                    + DISCOVERY_TARGETS + ", each with a configurationType of \"" + CONFIGURATION_TYPE
+                    + "\". Targets without credentials use the optional "
+                    + SOURCE_USERNAME + " and " + SOURCE_USER_PASSWORD
+                    + ". The results will be in a list with one map per target, in order.";
+
+    public static final List<String> REQUIRED_FIELDS = ImmutableList.of(DISCOVERY_TARGETS);
+
+    public static final List<String> OPTIONAL_FIELDS = ImmutableList.of(SOURCE_USERNAME,
+            SOURCE_USER_PASSWORD);
+
+    public static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(SUCCESSFUL_PROBE,
+            "Attempted discovery of sources on each of the specified targets.");
+
+    public static final List<String> RETURN_TYPES = ImmutableList.of(DISCOVERED_SOURCES);
+
+    private final BulkDiscoveryService discoveryService;
+
+    public DiscoverSourcesBulkProbeMethod(BulkDiscoveryService discoveryService) {
+        super(DISCOVER_SOURCES_BULK_ID,
+                DESCRIPTION,
+                REQUIRED_FIELDS,
+                OPTIONAL_FIELDS,
+                SUCCESS_TYPES,
+                null,
+                null,
+                RETURN_TYPES);
+        this.discoveryService = discoveryService;
+    }
+
+    @Override
+    public ProbeReport probe(SourceConfiguration config) {
+        List<SourceConfiguration> targets = config.discoveryTargets()
+                .stream()
+                .map(target -> withDefaultCredentials(target, config))
+                .collect(Collectors.toList());
+
+        return createProbeReport(SUCCESS_TYPES, null, null, SUCCESSFUL_PROBE).probeResult(
+                DISCOVERED_SOURCES,
+                discoveryService.discover(targets));
+    }
+
+    @Override
+    public List<ConfigurationMessage> validateOptionalFields(SourceConfiguration configuration) {
+        return validateOptionalUsernameAndPassword(configuration);
+    }
+
+    private static SourceConfiguration withDefaultCredentials(SourceConfiguration target,
+            SourceConfiguration config) {
+        SourceConfiguration copy = new SourceConfiguration(target);
+        if (copy.sourceUserName() == null) {
+            copy.sourceUserName(config.sourceUserName())
+                    .sourceUserPassword(config.sourceUserPassword());
+        }
+        return copy;
+    }
+}
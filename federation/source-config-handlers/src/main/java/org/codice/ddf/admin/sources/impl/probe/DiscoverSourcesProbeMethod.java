@@ -74,22 +74,28 @@ public class DiscoverSourcesProbeMethod extends ProbeMethod<SourceConfiguration>
 
     @Override
     public ProbeReport probe(SourceConfiguration config) {
-        List<ProbeReport> sourceProbeReports = handlers.stream()
-                .map(handler -> handler.probe(DISCOVER_SOURCES_ID, config))
-                .collect(Collectors.toList());
+        return createProbeReport(SUCCESS_TYPES, null, null, SUCCESSFUL_PROBE).probeResult(
+                DISCOVERED_SOURCES,
+                discoverSources(handlers, config));
+    }
 
-        List<Map<String, Object>> discoveredSources = sourceProbeReports.stream()
+    /**
+     * Runs each handler's discover probe against the configuration's host and port.
+     *
+     * @return a map with the keys {@link #CONFIG} and {@link #MESSAGES} for each handler that
+     * discovered a source
+     */
+    public static List<Map<String, Object>> discoverSources(
+            List<SourceConfigurationHandler> handlers, SourceConfiguration config) {
+        return handlers.stream()
+                .map(handler -> handler.probe(DISCOVER_SOURCES_ID, config))
                 .filter(probeReport -> !probeReport.containsFailureMessages())
-                .map(probeReport -> ImmutableMap.of(CONFIG,
+                .map(probeReport -> ImmutableMap.<String, Object>of(CONFIG,
                         probeReport.probeResults()
                                 .get(DISCOVERED_SOURCES),
                         MESSAGES,
                         probeReport.messages()))
                 .collect(Collectors.toList());
-
-        return createProbeReport(SUCCESS_TYPES, null, null, SUCCESSFUL_PROBE).probeResult(
-                DISCOVERED_SOURCES,
-                discoveredSources);
     }
 
     @Override
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.probe;
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.DISCOVERY_JOB_ID;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_PORTS;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USERNAME;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_USER_PASSWORD;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SUBNET;
+import static org.codice.ddf.admin.api.handler.report.ProbeReport.createProbeReport;
+import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateOptionalUsernameAndPassword;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.handler.method.ProbeMethod;
+import org.codice.ddf.admin.api.handler.report.ProbeReport;
+import org.codice.ddf.admin.api.network.SubnetRange;
+import org.codice.ddf.admin.sources.impl.discovery.SubnetDiscoveryJob;
+import org.codice.ddf.admin.sources.impl.discovery.SubnetDiscoveryService;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class DiscoverSubnetProbeMethod extends ProbeMethod<SourceConfiguration> {
+
+    public static final String DISCOVER_SUBNET_ID = "discover-subnet";
+
+    public static final String DESCRIPTION =
+            "Starts discovering sources on each of the specified ports of every host in the specified subnet. "
+                    + "Returns a " + DISCOVERY_JOB_ID + " whose results can be retrieved with the "
+                    + SubnetDiscoveryResultsProbeMethod.DISCOVER_SUBNET_RESULTS_ID + " probe.";
+
+    public static final List<String> REQUIRED_FIELDS = ImmutableList.of(SUBNET, SOURCE_PORTS);
+
+    public static final List<String> OPTIONAL_FIELDS = ImmutableList.of(SOURCE_USERNAME,
+            SOURCE_USER_PASSWORD);
+
+    public static final String SUBNET_DISCOVERY_STARTED = "SUBNET_DISCOVERY_STARTED";
+
+    public static final String TOO_MANY_DISCOVERIES = "TOO_MANY_DISCOVERIES";
+
+    public static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(
+            SUBNET_DISCOVERY_STARTED,
+            "Started discovering sources in the specified subnet.");
+
+    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.of(TOO_MANY_DISCOVERIES,
+            "Too many subnet discoveries are in progress. Try again once one has completed.");
+
+    public static final List<String> RETURN_TYPES = ImmutableList.of(DISCOVERY_JOB_ID);
+
+    private final SubnetDiscoveryService discoveryService;
+
+    public DiscoverSubnetProbeMethod(SubnetDiscoveryService discoveryService) {
+        super(DISCOVER_SUBNET_ID,
+                DESCRIPTION,
+                REQUIRED_FIELDS,
+                OPTIONAL_FIELDS,
+                SUCCESS_TYPES,
+                FAILURE_TYPES,
+                null,
+                RETURN_TYPES);
+        this.discoveryService = discoveryService;
+    }
+
+    @Override
+    public ProbeReport probe(SourceConfiguration config) {
+        Optional<SubnetDiscoveryJob> job = discoveryService.start(SubnetRange.parse(config.subnet()),
+                config.sourcePorts(),
+                config);
+        if (!job.isPresent()) {
+            return createProbeReport(SUCCESS_TYPES, FAILURE_TYPES, null, TOO_MANY_DISCOVERIES);
+        }
+
+        return createProbeReport(SUCCESS_TYPES,
+                FAILURE_TYPES,
+                null,
+                SUBNET_DISCOVERY_STARTED).probeResult(DISCOVERY_JOB_ID,
+                job.get()
+                        .id());
+    }
+
+    @Override
+    public List<ConfigurationMessage> validateOptionalFields(SourceConfiguration configuration) {
+        return validateOptionalUsernameAndPassword(configuration);
+    }
+}
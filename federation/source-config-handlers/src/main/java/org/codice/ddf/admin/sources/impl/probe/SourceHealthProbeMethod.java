@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.probe;
+
+import java.util.List;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.handler.method.ProbeMethod;
+import org.codice.ddf.admin.api.handler.report.ProbeReport;
+import org.codice.ddf.admin.sources.impl.health.SourceHealthMonitor;
+
+import com.google.common.collect.ImmutableList;
+
+public class SourceHealthProbeMethod extends ProbeMethod<SourceConfiguration> {
+
+    public static final String SOURCE_HEALTH_ID = "source-health";
+
+    public static final String SOURCE_HEALTH = "sourceHealth";
+
+    public static final String DESCRIPTION =
+            "Retrieves the recent availability and latency of every configured source, as measured by the periodic source health checks.";
+
+    public static final List<String> RETURN_TYPES = ImmutableList.of(SOURCE_HEALTH);
+
+    private final SourceHealthMonitor healthMonitor;
+
+    public SourceHealthProbeMethod(SourceHealthMonitor healthMonitor) {
+        super(SOURCE_HEALTH_ID, DESCRIPTION, null, null, null, null, null, RETURN_TYPES);
+        this.healthMonitor = healthMonitor;
+    }
+
+    @Override
+    public ProbeReport probe(SourceConfiguration configuration) {
+        return new ProbeReport().probeResult(SOURCE_HEALTH, healthMonitor.getSourceHealth());
+    }
+}
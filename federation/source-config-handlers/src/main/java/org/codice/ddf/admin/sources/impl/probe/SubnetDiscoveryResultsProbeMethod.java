@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl.probe;
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.DISCOVERY_JOB_ID;
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.DISCOVERY_OFFSET;
+import static org.codice.ddf.admin.api.handler.commons.HandlerCommons.SUCCESSFUL_PROBE;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
+import static org.codice.ddf.admin.api.handler.report.ProbeReport.createProbeReport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.handler.method.ProbeMethod;
+import org.codice.ddf.admin.api.handler.report.ProbeReport;
+import org.codice.ddf.admin.sources.impl.discovery.SubnetDiscoveryJob;
+import org.codice.ddf.admin.sources.impl.discovery.SubnetDiscoveryService;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class SubnetDiscoveryResultsProbeMethod extends ProbeMethod<SourceConfiguration> {
+
+    public static final String DISCOVER_SUBNET_RESULTS_ID = "discover-subnet-results";
+
+    public static final String DISCOVERY_STATUS = "discoveryStatus";
+
+    public static final String COMPLETE = "complete";
+
+    public static final String ENDPOINTS_TOTAL = "endpointsTotal";
+
+    public static final String ENDPOINTS_SCANNED = "endpointsScanned";
+
+    public static final String LIVE_ENDPOINTS = "liveEndpoints";
+
+    public static final String NEXT_OFFSET = "nextOffset";
+
+    public static final String DESCRIPTION =
+            "Retrieves the sources discovered so far by a subnet discovery, starting at the optional "
+                    + DISCOVERY_OFFSET + ". The results will be in a list of maps with the keys "
+                    + DiscoverSourcesProbeMethod.CONFIG + ", " + DiscoverSourcesProbeMethod.MESSAGES
+                    + ". Poll again from " + NEXT_OFFSET + " until " + COMPLETE + " is true.";
+
+    public static final List<String> REQUIRED_FIELDS = ImmutableList.of(DISCOVERY_JOB_ID);
+
+    public static final List<String> OPTIONAL_FIELDS = ImmutableList.of(DISCOVERY_OFFSET);
+
+    public static final String UNKNOWN_DISCOVERY_JOB = "UNKNOWN_DISCOVERY_JOB";
+
+    public static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(SUCCESSFUL_PROBE,
+            "Retrieved the results of the subnet discovery.");
+
+    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.of(UNKNOWN_DISCOVERY_JOB,
+            "No subnet discovery with the specified id exists. It may have expired.");
+
+    public static final List<String> RETURN_TYPES = ImmutableList.of(DISCOVERED_SOURCES,
+            DISCOVERY_STATUS);
+
+    private final SubnetDiscoveryService discoveryService;
+
+    public SubnetDiscoveryResultsProbeMethod(SubnetDiscoveryService discoveryService) {
+        super(DISCOVER_SUBNET_RESULTS_ID,
+                DESCRIPTION,
+                REQUIRED_FIELDS,
+                OPTIONAL_FIELDS,
+                SUCCESS_TYPES,
+                FAILURE_TYPES,
+                null,
+                RETURN_TYPES);
+        this.discoveryService = discoveryService;
+    }
+
+    @Override
+    public ProbeReport probe(SourceConfiguration config) {
+        Optional<SubnetDiscoveryJob> found = discoveryService.getJob(config.discoveryJobId());
+        if (!found.isPresent()) {
+            return createProbeReport(SUCCESS_TYPES, FAILURE_TYPES, null, UNKNOWN_DISCOVERY_JOB);
+        }
+
+        SubnetDiscoveryJob job = found.get();
+        // Read completion first so a complete status never accompanies a partial page
+        boolean complete = job.isComplete();
+        List<Map<String, Object>> discoveredSources =
+                job.discoveredSources(config.discoveryOffset());
+
+        Map<String, Object> status = new ImmutableMap.Builder<String, Object>().put(COMPLETE,
+                complete)
+                .put(ENDPOINTS_TOTAL, job.endpointsTotal())
+                .put(ENDPOINTS_SCANNED, job.endpointsScanned())
+                .put(LIVE_ENDPOINTS, job.liveEndpoints())
+                .put(NEXT_OFFSET, config.discoveryOffset() + discoveredSources.size())
+                .build();
+
+        return createProbeReport(SUCCESS_TYPES, FAILURE_TYPES, null, SUCCESSFUL_PROBE).probeResult(
+                DISCOVERED_SOURCES,
+                discoveredSources)
+                .probeResult(DISCOVERY_STATUS, status);
+    }
+
+    @Override
+    public List<ConfigurationMessage> validateOptionalFields(SourceConfiguration configuration) {
+        return configuration.validate(OPTIONAL_FIELDS);
+    }
+}
@@ -15,16 +15,15 @@ package org.codice.ddf.admin.sources.impl.test;
 
 import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.PORT;
 import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_HOSTNAME;
-import static org.codice.ddf.admin.api.handler.ConfigurationMessage.buildMessage;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CANNOT_CONNECT;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.REACHED_URL;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.VALID_URL_TEST_ID;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.buildReachabilityMessage;
 
 import java.util.List;
 import java.util.Map;
 
 import org.codice.ddf.admin.api.config.sources.SourceConfiguration;
-import org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons;
 import org.codice.ddf.admin.api.handler.method.TestMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
 
@@ -55,10 +54,10 @@ public class ValidUrlTestMethod extends TestMethod<SourceConfiguration> {
 
     @Override
     public Report test(SourceConfiguration configuration) {
-        return new Report(buildMessage(SUCCESS_TYPES,
+        return new Report(buildReachabilityMessage(SUCCESS_TYPES,
                 FAILURE_TYPES,
                 null,
-                SourceHandlerCommons.endpointIsReachable(configuration.sourceHostName(),
-                        configuration.sourcePort())));
+                configuration.sourceHostName(),
+                configuration.sourcePort()));
     }
 }
@@ -36,6 +36,7 @@ import org.codice.ddf.admin.sources.opensearch.persist.CreateOpenSearchSourcePer
 import org.codice.ddf.admin.sources.opensearch.persist.DeleteOpenSearchSourcePersistMethod;
 import org.codice.ddf.admin.sources.opensearch.probe.DiscoverOpenSearchSourceProbeMethod;
 import org.codice.ddf.admin.sources.opensearch.probe.OpenSearchConfigFromUrlProbeMethod;
+import org.codice.ddf.admin.sources.opensearch.probe.OpenSearchQueryBenchmarkProbeMethod;
 
 public class OpenSearchSourceConfigurationHandler
         extends DefaultConfigurationHandler<SourceConfiguration>
@@ -47,7 +48,8 @@ public class OpenSearchSourceConfigurationHandler
     @Override
     public List<ProbeMethod> getProbeMethods() {
         return Arrays.asList(new DiscoverOpenSearchSourceProbeMethod(),
-                new OpenSearchConfigFromUrlProbeMethod());
+                new OpenSearchConfigFromUrlProbeMethod(),
+                new OpenSearchQueryBenchmarkProbeMethod());
     }
 
     @Override
@@ -14,19 +14,19 @@
 package org.codice.ddf.admin.sources.opensearch;
 
 import static java.net.HttpURLConnection.HTTP_OK;
-import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.SOURCES_NAMESPACE_CONTEXT;
+import static org.codice.ddf.admin.sources.SourcesCommons.boundedContent;
 import static org.codice.ddf.admin.sources.SourcesCommons.closeClientAndResponse;
 import static org.codice.ddf.admin.sources.SourcesCommons.getCloseableHttpClient;
+import static org.codice.ddf.admin.sources.SourcesCommons.hasCachedCertError;
+import static org.codice.ddf.admin.sources.SourcesCommons.isTrustedEndpoint;
+import static org.codice.ddf.admin.sources.SourcesCommons.recordCertError;
+import static org.codice.ddf.admin.sources.SourcesXmlUtils.compile;
+import static org.codice.ddf.admin.sources.SourcesXmlUtils.parse;
 
 import java.util.List;
 import java.util.Optional;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -34,6 +34,8 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.codice.ddf.admin.api.config.sources.OpenSearchSourceConfiguration;
 import org.codice.ddf.admin.api.handler.commons.UrlAvailability;
+import org.codice.ddf.admin.sources.ResponseLimitExceededException;
+import org.codice.ddf.admin.sources.SourcesXmlUtils.CompiledXPath;
 import org.w3c.dom.Document;
 
 import com.google.common.collect.ImmutableList;
@@ -50,9 +52,12 @@ public class OpenSearchSourceUtils {
             "http://%s:%d/services/catalog/query",
             "http://%s:%d/catalog/query");
 
-    private static final String SIMPLE_QUERY_PARAMS = "?q=test&mr=1&src=local";
+    public static final String SIMPLE_QUERY_PARAMS = "?q=test&mr=1&src=local";
 
-    private static final String TOTAL_RESULTS_XPATH = "//os:totalResults|//opensearch:totalResults";
+    public static final String BENCHMARK_QUERY_PARAMS = "?q=*&count=1&src=local";
+
+    private static final CompiledXPath TOTAL_RESULTS_XPATH = compile(
+            "//os:totalResults|//opensearch:totalResults");
 
     //Given a config, returns the correct URL format for the endpoint if one exists
     public UrlAvailability confirmEndpointUrl(OpenSearchSourceConfiguration config) {
@@ -61,7 +66,8 @@ public class OpenSearchSourceUtils {
                         config.sourceHostName(),
                         config.sourcePort()))
                 .map(url -> getUrlAvailability(url, config.sourceUserName(), config.sourceUserPassword()))
-                .filter(avail -> avail.isAvailable() || avail.isCertError())
+                .filter(avail -> avail.isAvailable() || avail.isCertError()
+                        || avail.isResponseLimitError())
                 .findFirst();
         return result.isPresent() ? result.get() : null;
     }
@@ -80,63 +86,40 @@ public class OpenSearchSourceUtils {
             byte[] auth = Base64.encodeBase64((un + ":" + pw).getBytes());
             request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
         }
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        xpath.setNamespaceContext(SOURCES_NAMESPACE_CONTEXT);
+        if (hasCachedCertError(request.getURI())) {
+            return result.trustedCertAuthority(false)
+                    .certError(true)
+                    .available(false);
+        }
         try {
-            client = getCloseableHttpClient(false);
+            client = getCloseableHttpClient(request.getURI());
             response = client.execute(request);
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document responseXml = builder.parse(response
-                    .getEntity()
-                    .getContent());
-            queryResponse = (Boolean) xpath.compile(TOTAL_RESULTS_XPATH).evaluate(responseXml, XPathConstants.BOOLEAN);
+            Document responseXml = parse(boundedContent(response.getEntity()));
+            queryResponse = TOTAL_RESULTS_XPATH.evaluateBoolean(responseXml);
             status = response.getStatusLine().getStatusCode();
             contentType = response.getEntity().getContentType().getValue();
-            if (status == HTTP_OK && OPENSEARCH_MIME_TYPES.contains(contentType) && queryResponse) {
-                return result.trustedCertAuthority(true).certError(false).available(true);
-            } else {
-                return result.trustedCertAuthority(true)
-                        .certError(false)
-                        .available(false);
-            }
+            return result.trustedCertAuthority(isTrustedEndpoint(request.getURI()))
+                    .certError(false)
+                    .available(status == HTTP_OK && OPENSEARCH_MIME_TYPES.contains(contentType)
+                            && queryResponse);
         } catch (SSLPeerUnverifiedException e) {
             // This is the hostname != cert name case - if this occurs, the URL's SSL cert configuration
             // is incorrect, or a serious network security issue has occurred.
+            recordCertError(request.getURI());
             return result.trustedCertAuthority(false)
                     .certError(true)
                     .available(false);
+        } catch (ResponseLimitExceededException e) {
+            return result.trustedCertAuthority(isTrustedEndpoint(request.getURI()))
+                    .certError(false)
+                    .responseLimitError(e.failureType())
+                    .available(false);
         } catch (Exception e) {
-            try {
-                closeClientAndResponse(client, response);
-                client = getCloseableHttpClient(true);
-                response = client.execute(request);
-                status = response.getStatusLine()
-                        .getStatusCode();
-                contentType = response.getEntity()
-                        .getContentType()
-                        .getValue();
-                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                factory.setNamespaceAware(true);
-                DocumentBuilder builder = factory.newDocumentBuilder();
-                Document responseXml = builder.parse(response
-                        .getEntity()
-                        .getContent());
-                queryResponse = (Boolean) xpath.compile(TOTAL_RESULTS_XPATH).evaluate(responseXml, XPathConstants.BOOLEAN);
-                if (status == HTTP_OK && OPENSEARCH_MIME_TYPES.contains(contentType) && queryResponse) {
-                    return result.trustedCertAuthority(false)
-                            .certError(false)
-                            .available(true);
-                }
-            } catch (Exception e1) {
-                return result.trustedCertAuthority(false)
-                        .certError(false)
-                        .available(false);
-            }
+            return result.trustedCertAuthority(isTrustedEndpoint(request.getURI()))
+                    .certError(false)
+                    .available(false);
         } finally {
             closeClientAndResponse(client, response);
         }
-        return result;
     }
 }
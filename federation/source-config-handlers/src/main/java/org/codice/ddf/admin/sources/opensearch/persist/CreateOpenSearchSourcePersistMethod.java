@@ -33,12 +33,14 @@ import org.codice.ddf.admin.api.configurator.OperationReport;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 public class CreateOpenSearchSourcePersistMethod
-        extends PersistMethod<OpenSearchSourceConfiguration> {
+        extends PersistMethod<OpenSearchSourceConfiguration>
+        implements StagedPersistMethod<OpenSearchSourceConfiguration> {
     public static final String CREATE_OPENSEARCH_SOURCE_ID = CREATE;
 
     public static final String DESCRIPTION =
@@ -68,8 +70,7 @@ public class CreateOpenSearchSourcePersistMethod
     @Override
     public Report persist(OpenSearchSourceConfiguration configuration) {
         Configurator configurator = new Configurator();
-        configurator.createManagedService(configuration.factoryPid(),
-                openSearchConfigToServiceProps(configuration));
+        stage(configurator, configuration);
         OperationReport report = configurator.commit("Opensearch source saved with details: {}",
                 configuration.toString());
         return createReport(SUCCESS_TYPES,
@@ -80,6 +81,12 @@ public class CreateOpenSearchSourcePersistMethod
                         SUCCESSFUL_PERSIST);
     }
 
+    @Override
+    public String stage(Configurator configurator, OpenSearchSourceConfiguration configuration) {
+        return configurator.createManagedService(configuration.factoryPid(),
+                openSearchConfigToServiceProps(configuration));
+    }
+
     @Override
     public List<ConfigurationMessage> validateOptionalFields(
             OpenSearchSourceConfiguration configuration) {
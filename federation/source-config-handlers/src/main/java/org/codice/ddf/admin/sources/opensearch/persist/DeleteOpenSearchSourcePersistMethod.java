@@ -27,12 +27,14 @@ import org.codice.ddf.admin.api.configurator.Configurator;
 import org.codice.ddf.admin.api.configurator.OperationReport;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 public class DeleteOpenSearchSourcePersistMethod
-        extends PersistMethod<OpenSearchSourceConfiguration> {
+        extends PersistMethod<OpenSearchSourceConfiguration>
+        implements StagedPersistMethod<OpenSearchSourceConfiguration> {
 
     public static final String DELETE_OPENSEARCH_SOURCE_ID = DELETE;
 
@@ -60,7 +62,7 @@ public class DeleteOpenSearchSourcePersistMethod
     @Override
     public Report persist(OpenSearchSourceConfiguration configuration) {
         Configurator configurator = new Configurator();
-        configurator.deleteManagedService(configuration.servicePid());
+        stage(configurator, configuration);
         OperationReport report = configurator.commit("Opensearch source deleted for servicePid: {}",
                 configuration.servicePid());
 
@@ -70,4 +72,9 @@ public class DeleteOpenSearchSourcePersistMethod
                 report.containsFailedResults() ? FAILED_PERSIST : SUCCESSFUL_PERSIST);
     }
 
+    @Override
+    public String stage(Configurator configurator, OpenSearchSourceConfiguration configuration) {
+        return configurator.deleteManagedService(configuration.servicePid());
+    }
+
 }
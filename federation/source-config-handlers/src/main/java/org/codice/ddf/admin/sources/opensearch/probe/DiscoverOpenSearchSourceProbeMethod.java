@@ -23,9 +23,11 @@ import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CERT
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CONFIG_CREATED;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVER_SOURCES_ID;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TIMED_OUT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNKNOWN_ENDPOINT;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNTRUSTED_CA;
-import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.endpointIsReachable;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.buildReachabilityMessage;
 import static org.codice.ddf.admin.api.services.OpenSearchServiceProperties.OPENSEARCH_FACTORY_PID;
 import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateOptionalUsernameAndPassword;
 import static org.codice.ddf.admin.sources.opensearch.OpenSearchSourceConfigurationHandler.OPENSEARCH_SOURCE_CONFIGURATION_HANDLER_ID;
@@ -65,7 +67,11 @@ public class DiscoverOpenSearchSourceProbeMethod
             UNKNOWN_ENDPOINT,
             "No OpenSearch endpoint found.",
             BAD_CONFIG,
-            "Endpoint discovered, but could not create valid configuration.");
+            "Endpoint discovered, but could not create valid configuration.",
+            RESPONSE_TOO_LARGE,
+            "The endpoint's response was larger than the maximum allowed size.",
+            RESPONSE_TIMED_OUT,
+            "The endpoint did not finish sending its response within the allowed time.");
 
     public static final Map<String, String> WARNING_TYPES = ImmutableMap.of(UNTRUSTED_CA,
             "The discovered URL has incorrectly configured SSL certificates and is likely insecure.");
@@ -88,10 +94,11 @@ public class DiscoverOpenSearchSourceProbeMethod
 
     @Override
     public ProbeReport probe(OpenSearchSourceConfiguration configuration) {
-        ProbeReport probeReport = new ProbeReport(buildMessage(SUCCESS_TYPES,
+        ProbeReport probeReport = new ProbeReport(buildReachabilityMessage(SUCCESS_TYPES,
                 FAILURE_TYPES,
                 WARNING_TYPES,
-                endpointIsReachable(configuration.endpointUrl())));
+                configuration.sourceHostName(),
+                configuration.sourcePort()));
         if (probeReport.containsFailureMessages()) {
             return probeReport;
         }
@@ -23,6 +23,8 @@ import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CERT
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CONFIG_CREATED;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CONFIG_FROM_URL_ID;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TIMED_OUT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNKNOWN_ENDPOINT;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNTRUSTED_CA;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.endpointIsReachable;
@@ -65,7 +67,11 @@ public class OpenSearchConfigFromUrlProbeMethod extends ProbeMethod<OpenSearchSo
             CANNOT_CONNECT,
             "THe URL provided could not be reached.",
             CERT_ERROR,
-            "The URL provided has improperly configured SSL certificates and is insecure.");
+            "The URL provided has improperly configured SSL certificates and is insecure.",
+            RESPONSE_TOO_LARGE,
+            "The endpoint's response was larger than the maximum allowed size.",
+            RESPONSE_TIMED_OUT,
+            "The endpoint did not finish sending its response within the allowed time.");
 
     public static final Map<String, String> WARNING_TYPES = ImmutableMap.of(UNTRUSTED_CA,
             "The URL's SSL certificate has been signed by an untrusted certificate authority and may be insecure.");
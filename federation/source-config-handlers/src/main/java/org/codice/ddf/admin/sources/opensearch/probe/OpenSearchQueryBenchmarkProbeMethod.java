@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.opensearch.probe;
+
+import static org.codice.ddf.admin.sources.opensearch.OpenSearchSourceUtils.BENCHMARK_QUERY_PARAMS;
+
+import java.util.Optional;
+
+import org.codice.ddf.admin.api.config.sources.OpenSearchSourceConfiguration;
+import org.codice.ddf.admin.sources.QueryBenchmarkProbeMethod;
+
+public class OpenSearchQueryBenchmarkProbeMethod
+        extends QueryBenchmarkProbeMethod<OpenSearchSourceConfiguration> {
+
+    public static final String DESCRIPTION =
+            "Measures the latency, throughput and error rate of OpenSearch queries returning at most one result against the endpoint.";
+
+    public OpenSearchQueryBenchmarkProbeMethod() {
+        super(DESCRIPTION);
+    }
+
+    @Override
+    protected Optional<String> getQueryUrl(OpenSearchSourceConfiguration configuration) {
+        return Optional.of(configuration.endpointUrl() + BENCHMARK_QUERY_PARAMS);
+    }
+}
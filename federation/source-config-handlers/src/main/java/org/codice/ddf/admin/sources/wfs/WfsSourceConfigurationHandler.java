@@ -36,6 +36,7 @@ import org.codice.ddf.admin.sources.wfs.persist.CreateWfsSourcePersistMethod;
 import org.codice.ddf.admin.sources.wfs.persist.DeleteWfsSourcePersistMethod;
 import org.codice.ddf.admin.sources.wfs.probe.DiscoverWfsSourceProbeMethod;
 import org.codice.ddf.admin.sources.wfs.probe.WfsConfigFromUrlProbeMethod;
+import org.codice.ddf.admin.sources.wfs.probe.WfsQueryBenchmarkProbeMethod;
 
 public class WfsSourceConfigurationHandler extends DefaultConfigurationHandler<SourceConfiguration>
         implements SourceConfigurationHandler<SourceConfiguration> {
@@ -45,7 +46,9 @@ public class WfsSourceConfigurationHandler extends DefaultConfigurationHandler<S
 
     @Override
     public List<ProbeMethod> getProbeMethods() {
-        return Arrays.asList(new DiscoverWfsSourceProbeMethod(), new WfsConfigFromUrlProbeMethod());
+        return Arrays.asList(new DiscoverWfsSourceProbeMethod(),
+                new WfsConfigFromUrlProbeMethod(),
+                new WfsQueryBenchmarkProbeMethod());
     }
 
     @Override
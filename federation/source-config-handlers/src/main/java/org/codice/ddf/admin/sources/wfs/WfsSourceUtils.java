@@ -14,31 +14,34 @@
 package org.codice.ddf.admin.sources.wfs;
 
 import static java.net.HttpURLConnection.HTTP_OK;
-import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.SOURCES_NAMESPACE_CONTEXT;
 import static org.codice.ddf.admin.api.services.WfsServiceProperties.WFS1_FACTORY_PID;
 import static org.codice.ddf.admin.api.services.WfsServiceProperties.WFS2_FACTORY_PID;
-import static org.codice.ddf.admin.sources.SourcesCommons.closeClientAndResponse;
-import static org.codice.ddf.admin.sources.SourcesCommons.getCloseableHttpClient;
+import static org.codice.ddf.admin.sources.SourcesCommons.hasCachedCertError;
+import static org.codice.ddf.admin.sources.SourcesCommons.isTrustedEndpoint;
+import static org.codice.ddf.admin.sources.SourcesCommons.recordCertError;
+import static org.codice.ddf.admin.sources.SourcesXmlUtils.compile;
+import static org.codice.ddf.admin.sources.SourcesXmlUtils.parse;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathFactory;
-
-import org.apache.commons.codec.binary.Base64;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
+
 import org.codice.ddf.admin.api.config.sources.WfsSourceConfiguration;
 import org.codice.ddf.admin.api.handler.commons.UrlAvailability;
+import org.codice.ddf.admin.sources.CapabilitiesCache;
+import org.codice.ddf.admin.sources.CapabilitiesCache.Capabilities;
+import org.codice.ddf.admin.sources.ResponseLimitExceededException;
+import org.codice.ddf.admin.sources.SourcesXmlUtils.CompiledXPath;
 import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.net.HttpHeaders;
 
 public class WfsSourceUtils {
 
@@ -54,106 +57,74 @@ public class WfsSourceUtils {
             "http://%s:%d/services/wfs",
             "http://%s:%d/wfs");
 
+    private static final CompiledXPath WFS_VERSION_EXP = compile(
+            "/wfs:WFS_Capabilities/attribute::version");
+
+    // WFS 1.0.0 capabilities use a different namespace, so match these by local name
+    private static final CompiledXPath ANY_WFS_VERSION_EXP = compile(
+            "/*[local-name()='WFS_Capabilities']/attribute::version");
+
+    private static final CompiledXPath FIRST_FEATURE_TYPE_NAME_EXP = compile(
+            "//*[local-name()='FeatureTypeList']/*[local-name()='FeatureType'][1]/*[local-name()='Name']/text()");
+
+    private static final String WFS2_GET_FEATURE_PARAMS =
+            "?service=WFS&version=2.0.0&request=GetFeature&count=1&typeNames=";
+
+    private static final String WFS1_GET_FEATURE_PARAMS =
+            "?service=WFS&version=1.0.0&request=GetFeature&maxFeatures=1&typeName=";
+
     public UrlAvailability confirmEndpointUrl(WfsSourceConfiguration config) {
         Optional<UrlAvailability> result = URL_FORMATS.stream()
                 .map(formatUrl -> String.format(formatUrl,
                         config.sourceHostName(),
                         config.sourcePort()))
                 .map(url -> getUrlAvailability(url, config.sourceUserName(), config.sourceUserPassword()))
-                .filter(avail -> avail.isAvailable() || avail.isCertError())
+                .filter(avail -> avail.isAvailable() || avail.isCertError()
+                        || avail.isResponseLimitError())
                 .findFirst();
         return result.isPresent() ? result.get() : null;
     }
 
     public UrlAvailability getUrlAvailability(String url, String un, String pw) {
         UrlAvailability result = new UrlAvailability(url);
-        int status;
-        String contentType;
-        url += GET_CAPABILITIES_PARAMS;
-        HttpGet request = new HttpGet(url);
-        CloseableHttpResponse response = null;
-        CloseableHttpClient client = null;
-        if (url.startsWith("https") && un != null && pw != null) {
-            byte[] auth = Base64.encodeBase64((un + ":" + pw).getBytes());
-            request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
+        URI capabilitiesUri = URI.create(url + GET_CAPABILITIES_PARAMS);
+        if (hasCachedCertError(capabilitiesUri)) {
+            return result.trustedCertAuthority(false)
+                    .certError(true)
+                    .available(false);
         }
         try {
-            client = getCloseableHttpClient(false);
-            response = client.execute(request);
-            status = response.getStatusLine()
-                    .getStatusCode();
-            contentType = response.getEntity()
-                    .getContentType()
-                    .getValue();
-            if (status == HTTP_OK && WFS_MIME_TYPES.contains(contentType)) {
-                return result.trustedCertAuthority(true)
-                        .certError(false)
-                        .available(true);
-            } else {
-                return result.trustedCertAuthority(true)
-                        .certError(false)
-                        .available(false);
-            }
+            Capabilities capabilities = CapabilitiesCache.getInstance()
+                    .fetch(capabilitiesUri.toString(), un, pw);
+            return result.trustedCertAuthority(isTrustedEndpoint(capabilitiesUri))
+                    .certError(false)
+                    .available(capabilities.status() == HTTP_OK
+                            && WFS_MIME_TYPES.contains(capabilities.contentType()));
         } catch (SSLPeerUnverifiedException e) {
             // This is the hostname != cert name case - if this occurs, the URL's SSL cert configuration
             // is incorrect, or a serious network security issue has occurred.
+            recordCertError(capabilitiesUri);
             return result.trustedCertAuthority(false)
                     .certError(true)
                     .available(false);
+        } catch (ResponseLimitExceededException e) {
+            return result.trustedCertAuthority(isTrustedEndpoint(capabilitiesUri))
+                    .certError(false)
+                    .responseLimitError(e.failureType())
+                    .available(false);
         } catch (Exception e) {
-            try {
-                closeClientAndResponse(client, response);
-                client = getCloseableHttpClient(true);
-                response = client.execute(request);
-                status = response.getStatusLine()
-                        .getStatusCode();
-                contentType = response.getEntity()
-                        .getContentType()
-                        .getValue();
-                if (status == HTTP_OK && WFS_MIME_TYPES.contains(contentType)) {
-                    return result.trustedCertAuthority(false)
-                            .certError(false)
-                            .available(true);
-                }
-            } catch (Exception e1) {
-                return result.trustedCertAuthority(false)
-                        .certError(false)
-                        .available(false);
-            }
-        } finally {
-            closeClientAndResponse(client, response);
+            return result.trustedCertAuthority(isTrustedEndpoint(capabilitiesUri))
+                    .certError(false)
+                    .available(false);
         }
-        return result;
     }
 
     public Optional<WfsSourceConfiguration> getPreferredConfig(
             WfsSourceConfiguration configuration) {
         WfsSourceConfiguration config = new WfsSourceConfiguration(configuration);
-        String wfsVersionExp = "/wfs:WFS_Capabilities/attribute::version";
-        HttpGet getCapabilitiesRequest = new HttpGet(
-                config.endpointUrl() + GET_CAPABILITIES_PARAMS + ACCEPT_VERSION_PARAMS);
-        if (configuration.endpointUrl().startsWith("https")
-                && config.sourceUserName() != null
-                && config.sourceUserPassword() != null) {
-            byte[] auth = Base64.encodeBase64((config.sourceUserName() + ":" + config.sourceUserPassword()).getBytes());
-            getCapabilitiesRequest.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + new String(auth));
-        }
-        XPath xpath = XPathFactory.newInstance()
-                .newXPath();
-        xpath.setNamespaceContext(SOURCES_NAMESPACE_CONTEXT);
-        CloseableHttpClient client = null;
-        CloseableHttpResponse response = null;
         try {
-            client = getCloseableHttpClient(true);
-            response = client.execute(getCapabilitiesRequest);
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document capabilitiesXml = builder.parse(response
-                    .getEntity()
-                    .getContent());
-            String wfsVersion = xpath.compile(wfsVersionExp)
-                    .evaluate(capabilitiesXml);
+            Document capabilitiesXml = getVersionedCapabilities(config);
+            String wfsVersion = WFS_VERSION_EXP.evaluate(capabilitiesXml);
             switch (wfsVersion) {
             case "2.0.0":
                 return Optional.of((WfsSourceConfiguration) config.factoryPid(WFS2_FACTORY_PID));
@@ -164,8 +135,47 @@ public class WfsSourceUtils {
             }
         } catch (Exception e) {
             return Optional.empty();
-        } finally {
-            closeClientAndResponse(client, response);
         }
     }
+
+    /**
+     * Builds a GetFeature URL requesting a single feature of the first feature type advertised by
+     * the endpoint, in the newest WFS version the endpoint supports.
+     */
+    public Optional<String> getFeatureQueryUrl(WfsSourceConfiguration configuration) {
+        try {
+            Document capabilitiesXml = getVersionedCapabilities(configuration);
+            String featureType = FIRST_FEATURE_TYPE_NAME_EXP.evaluate(capabilitiesXml)
+                    .trim();
+            if (featureType.isEmpty()) {
+                return Optional.empty();
+            }
+            switch (ANY_WFS_VERSION_EXP.evaluate(capabilitiesXml)) {
+            case "2.0.0":
+                return Optional.of(configuration.endpointUrl() + WFS2_GET_FEATURE_PARAMS
+                        + encode(featureType));
+            case "1.0.0":
+                return Optional.of(configuration.endpointUrl() + WFS1_GET_FEATURE_PARAMS
+                        + encode(featureType));
+            default:
+                return Optional.empty();
+            }
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private Document getVersionedCapabilities(WfsSourceConfiguration configuration)
+            throws IOException, SAXException {
+        return parse(CapabilitiesCache.getInstance()
+                .fetch(configuration.endpointUrl() + GET_CAPABILITIES_PARAMS
+                                + ACCEPT_VERSION_PARAMS,
+                        configuration.sourceUserName(),
+                        configuration.sourceUserPassword())
+                .content());
+    }
+
+    private static String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
 }
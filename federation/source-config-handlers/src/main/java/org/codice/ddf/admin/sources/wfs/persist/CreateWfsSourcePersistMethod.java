@@ -34,11 +34,13 @@ import org.codice.ddf.admin.api.configurator.OperationReport;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
-public class CreateWfsSourcePersistMethod extends PersistMethod<WfsSourceConfiguration> {
+public class CreateWfsSourcePersistMethod extends PersistMethod<WfsSourceConfiguration>
+        implements StagedPersistMethod<WfsSourceConfiguration> {
 
     public static final String CREATE_WFS_SOURCE_ID = CREATE;
 
@@ -71,8 +73,7 @@ public class CreateWfsSourcePersistMethod extends PersistMethod<WfsSourceConfigu
     @Override
     public Report persist(WfsSourceConfiguration configuration) {
         Configurator configurator = new Configurator();
-        configurator.createManagedService(configuration.factoryPid(),
-                wfsConfigToServiceProps(configuration));
+        stage(configurator, configuration);
         OperationReport report = configurator.commit("WFS source saved with details: {}",
                 configuration.toString());
         return createReport(SUCCESS_TYPES,
@@ -81,6 +82,12 @@ public class CreateWfsSourcePersistMethod extends PersistMethod<WfsSourceConfigu
                 report.containsFailedResults() ? FAILED_PERSIST : SUCCESSFUL_PERSIST);
     }
 
+    @Override
+    public String stage(Configurator configurator, WfsSourceConfiguration configuration) {
+        return configurator.createManagedService(configuration.factoryPid(),
+                wfsConfigToServiceProps(configuration));
+    }
+
     @Override
     public List<ConfigurationMessage> validateOptionalFields(WfsSourceConfiguration configuration) {
         return validateOptionalUsernameAndPassword(configuration);
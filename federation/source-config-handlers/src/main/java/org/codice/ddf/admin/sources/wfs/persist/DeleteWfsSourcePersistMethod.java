@@ -27,11 +27,13 @@ import org.codice.ddf.admin.api.configurator.Configurator;
 import org.codice.ddf.admin.api.configurator.OperationReport;
 import org.codice.ddf.admin.api.handler.method.PersistMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
+import org.codice.ddf.admin.sources.StagedPersistMethod;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
-public class DeleteWfsSourcePersistMethod extends PersistMethod<WfsSourceConfiguration> {
+public class DeleteWfsSourcePersistMethod extends PersistMethod<WfsSourceConfiguration>
+        implements StagedPersistMethod<WfsSourceConfiguration> {
 
     public static final String DELETE_WFS_SOURCE_ID = DELETE;
 
@@ -59,7 +61,7 @@ public class DeleteWfsSourcePersistMethod extends PersistMethod<WfsSourceConfigu
     @Override
     public Report persist(WfsSourceConfiguration configuration) {
         Configurator configurator = new Configurator();
-        configurator.deleteManagedService(configuration.servicePid());
+        stage(configurator, configuration);
         OperationReport report = configurator.commit("WFS source deleted for servicePid: {}",
                 configuration.servicePid());
 
@@ -69,4 +71,9 @@ public class DeleteWfsSourcePersistMethod extends PersistMethod<WfsSourceConfigu
                 report.containsFailedResults() ? FAILED_PERSIST : SUCCESSFUL_PERSIST);
     }
 
+    @Override
+    public String stage(Configurator configurator, WfsSourceConfiguration configuration) {
+        return configurator.deleteManagedService(configuration.servicePid());
+    }
+
 }
@@ -24,9 +24,11 @@ import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CERT
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CONFIG_CREATED;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVER_SOURCES_ID;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TIMED_OUT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNKNOWN_ENDPOINT;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNTRUSTED_CA;
-import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.endpointIsReachable;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.buildReachabilityMessage;
 import static org.codice.ddf.admin.api.handler.report.ProbeReport.createProbeReport;
 import static org.codice.ddf.admin.api.validation.SourceValidationUtils.validateOptionalUsernameAndPassword;
 import static org.codice.ddf.admin.sources.wfs.WfsSourceConfigurationHandler.WFS_SOURCE_CONFIGURATION_HANDLER_ID;
@@ -61,14 +63,17 @@ public class DiscoverWfsSourceProbeMethod extends ProbeMethod<WfsSourceConfigura
     public static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(CONFIG_CREATED,
             "Successfully created a configuration from the WFS endpoint.");
 
-    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.of(CANNOT_CONNECT,
-            "The URL provided could not be reached.",
-            UNKNOWN_ENDPOINT,
-            "The endpoint does not appear to have WFS capabilities.",
-            CERT_ERROR,
-            "The discovered source has incorrectly configured SSL certificates and is insecure.",
-            INTERNAL_ERROR,
-            "Failed to create configuration from WFS URL.");
+    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.<String, String>builder()
+            .put(CANNOT_CONNECT, "The URL provided could not be reached.")
+            .put(UNKNOWN_ENDPOINT, "The endpoint does not appear to have WFS capabilities.")
+            .put(CERT_ERROR,
+                    "The discovered source has incorrectly configured SSL certificates and is insecure.")
+            .put(INTERNAL_ERROR, "Failed to create configuration from WFS URL.")
+            .put(RESPONSE_TOO_LARGE,
+                    "The endpoint's response was larger than the maximum allowed size.")
+            .put(RESPONSE_TIMED_OUT,
+                    "The endpoint did not finish sending its response within the allowed time.")
+            .build();
 
     public static final Map<String, String> WARNING_TYPES = ImmutableMap.of(UNTRUSTED_CA,
             "The discovered URL has incorrectly configured SSL certificates and is likely insecure.");
@@ -92,10 +97,11 @@ public class DiscoverWfsSourceProbeMethod extends ProbeMethod<WfsSourceConfigura
     @Override
     public ProbeReport probe(WfsSourceConfiguration configuration) {
         WfsSourceConfiguration config = new WfsSourceConfiguration(configuration);
-        ProbeReport probeReport = new ProbeReport(buildMessage(SUCCESS_TYPES,
+        ProbeReport probeReport = new ProbeReport(buildReachabilityMessage(SUCCESS_TYPES,
                 FAILURE_TYPES,
                 WARNING_TYPES,
-                endpointIsReachable(config.sourceHostName(), config.sourcePort())));
+                config.sourceHostName(),
+                config.sourcePort()));
         if (probeReport.containsFailureMessages()) {
             return probeReport;
         }
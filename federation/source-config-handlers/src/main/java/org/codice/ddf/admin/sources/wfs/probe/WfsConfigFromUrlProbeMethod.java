@@ -24,6 +24,8 @@ import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CONF
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.CONFIG_FROM_URL_ID;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.REACHED_URL;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TIMED_OUT;
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNKNOWN_ENDPOINT;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.UNTRUSTED_CA;
 import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.VERIFIED_URL;
@@ -65,14 +67,17 @@ public class WfsConfigFromUrlProbeMethod extends ProbeMethod<WfsSourceConfigurat
             VERIFIED_URL,
             "Endpoint was successfully verified as a WFS endpoint.");
 
-    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.of(CANNOT_CONNECT,
-            "The URL provided could not be reached.",
-            UNKNOWN_ENDPOINT,
-            "The endpoint does not appear to have WFS capabilities.",
-            CERT_ERROR,
-            "The URL provided has improperly configured SSL Certificates and is insecure.",
-            INTERNAL_ERROR,
-            "Failed to create a config from WFS URL.");
+    public static final Map<String, String> FAILURE_TYPES = ImmutableMap.<String, String>builder()
+            .put(CANNOT_CONNECT, "The URL provided could not be reached.")
+            .put(UNKNOWN_ENDPOINT, "The endpoint does not appear to have WFS capabilities.")
+            .put(CERT_ERROR,
+                    "The URL provided has improperly configured SSL Certificates and is insecure.")
+            .put(INTERNAL_ERROR, "Failed to create a config from WFS URL.")
+            .put(RESPONSE_TOO_LARGE,
+                    "The endpoint's response was larger than the maximum allowed size.")
+            .put(RESPONSE_TIMED_OUT,
+                    "The endpoint did not finish sending its response within the allowed time.")
+            .build();
 
     public static final Map<String, String> WARNING_TYPES = ImmutableMap.of(UNTRUSTED_CA,
             "The URL's SSL certificate has been signed by an untrusted certificate authority, and is likely insecure.");
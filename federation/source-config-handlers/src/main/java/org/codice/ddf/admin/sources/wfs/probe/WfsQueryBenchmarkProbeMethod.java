@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.wfs.probe;
+
+import java.util.Optional;
+
+import org.codice.ddf.admin.api.config.sources.WfsSourceConfiguration;
+import org.codice.ddf.admin.sources.QueryBenchmarkProbeMethod;
+import org.codice.ddf.admin.sources.wfs.WfsSourceUtils;
+
+public class WfsQueryBenchmarkProbeMethod
+        extends QueryBenchmarkProbeMethod<WfsSourceConfiguration> {
+
+    public static final String DESCRIPTION =
+            "Measures the latency, throughput and error rate of WFS GetFeature requests for a single feature of the endpoint's first feature type.";
+
+    private WfsSourceUtils utils;
+
+    public WfsQueryBenchmarkProbeMethod() {
+        super(DESCRIPTION);
+        utils = new WfsSourceUtils();
+    }
+
+    @Override
+    protected Optional<String> getQueryUrl(WfsSourceConfiguration configuration) {
+        return utils.getFeatureQueryUrl(configuration);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources
+
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TIMED_OUT
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.RESPONSE_TOO_LARGE
+
+import spock.lang.Specification
+
+class BoundedInputStreamTest extends Specification {
+
+    def 'test a response within the limits is read completely'() {
+        setup:
+        def stream = new BoundedInputStream(new ByteArrayInputStream(new byte[64]), 64, 10000)
+
+        when:
+        def read = stream.bytes
+
+        then:
+        read.length == 64
+        stream.count() == 64
+    }
+
+    def 'test a response over the size limit fails'() {
+        setup:
+        def stream = new BoundedInputStream(new ByteArrayInputStream(new byte[65]), 64, 10000)
+
+        when:
+        stream.bytes
+
+        then:
+        ResponseLimitExceededException e = thrown()
+        e.failureType() == RESPONSE_TOO_LARGE
+    }
+
+    def 'test an oversized document fails to parse with the size limit'() {
+        setup:
+        def xml = '<Capabilities>' + ('<Layer/>' * 1000) + '</Capabilities>'
+        def stream = new BoundedInputStream(new ByteArrayInputStream(xml.bytes), 1024, 10000)
+
+        when:
+        SourcesXmlUtils.parse(stream)
+
+        then:
+        ResponseLimitExceededException e = thrown()
+        e.failureType() == RESPONSE_TOO_LARGE
+    }
+
+    def 'test an endless response fails at the deadline'() {
+        setup:
+        def endless = new InputStream() {
+            @Override
+            int read() throws IOException {
+                Thread.sleep(10)
+                return 'x' as char
+            }
+        }
+        def stream = new BoundedInputStream(endless, Long.MAX_VALUE, 200)
+
+        when:
+        while (stream.read() != -1) {
+        }
+
+        then:
+        ResponseLimitExceededException e = thrown()
+        e.failureType() == RESPONSE_TIMED_OUT
+        stream.count() < 100
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import spock.lang.Specification
+
+import java.util.zip.GZIPOutputStream
+
+class CapabilitiesCacheTest extends Specification {
+
+    static final String DOCUMENT = '<Capabilities version="2.0.0"/>'
+
+    def server = HttpServer.create(new InetSocketAddress(InetAddress.getByName('127.0.0.1'), 0), 0)
+
+    def cache = new CapabilitiesCache(16, 60000)
+
+    def requests = []
+
+    def eTag = '"v1"'
+
+    def setup() {
+        server.createContext('/etag', { HttpExchange exchange ->
+            requests << exchange.requestHeaders
+            if (exchange.requestHeaders.getFirst('If-None-Match') == eTag) {
+                exchange.sendResponseHeaders(304, -1)
+            } else {
+                exchange.responseHeaders.add('ETag', eTag)
+                exchange.responseHeaders.add('Content-Type', 'text/xml')
+                send(exchange, DOCUMENT.bytes)
+            }
+            exchange.close()
+        })
+        server.createContext('/gzip', { HttpExchange exchange ->
+            requests << exchange.requestHeaders
+            exchange.responseHeaders.add('Content-Encoding', 'gzip')
+            exchange.responseHeaders.add('Last-Modified', 'Mon, 05 Jun 2017 10:00:00 GMT')
+            def compressed = new ByteArrayOutputStream()
+            new GZIPOutputStream(compressed).withStream { it.write(DOCUMENT.bytes) }
+            send(exchange, compressed.toByteArray())
+            exchange.close()
+        })
+        server.createContext('/plain', { HttpExchange exchange ->
+            requests << exchange.requestHeaders
+            send(exchange, DOCUMENT.bytes)
+            exchange.close()
+        })
+        server.start()
+    }
+
+    def cleanup() {
+        server.stop(0)
+    }
+
+    def 'test an unchanged document is revalidated with its etag'() {
+        when:
+        def first = cache.fetch(url('/etag'), null, null)
+        def second = cache.fetch(url('/etag'), null, null)
+
+        then:
+        !first.notModified
+        second.notModified
+        second.status() == 200
+        second.contentType() == 'text/xml'
+        second.content().text == DOCUMENT
+        requests.size() == 2
+        requests[0].getFirst('If-None-Match') == null
+        requests[1].getFirst('If-None-Match') == '"v1"'
+    }
+
+    def 'test a changed document replaces the cached copy'() {
+        setup:
+        cache.fetch(url('/etag'), null, null)
+        eTag = '"v2"'
+
+        when:
+        def changed = cache.fetch(url('/etag'), null, null)
+        def unchanged = cache.fetch(url('/etag'), null, null)
+
+        then:
+        !changed.notModified
+        unchanged.notModified
+        requests[2].getFirst('If-None-Match') == '"v2"'
+    }
+
+    def 'test compressed documents are requested and decoded'() {
+        when:
+        def capabilities = cache.fetch(url('/gzip'), null, null)
+        cache.fetch(url('/gzip'), null, null)
+
+        then:
+        requests[0].getFirst('Accept-Encoding').contains('gzip')
+        capabilities.content().text == DOCUMENT
+        requests[1].getFirst('If-Modified-Since') == 'Mon, 05 Jun 2017 10:00:00 GMT'
+    }
+
+    def 'test documents without validators are not cached'() {
+        when:
+        cache.fetch(url('/plain'), null, null)
+        def second = cache.fetch(url('/plain'), null, null)
+
+        then:
+        !second.notModified
+        second.content().text == DOCUMENT
+        requests.every { it.getFirst('If-None-Match') == null && it.getFirst('If-Modified-Since') == null }
+    }
+
+    def 'test failed responses have no content'() {
+        when:
+        def missing = cache.fetch(url('/missing'), null, null)
+
+        then:
+        missing.status() == 404
+        missing.content().bytes.length == 0
+    }
+
+    def send(HttpExchange exchange, byte[] body) {
+        exchange.sendResponseHeaders(200, body.length)
+        exchange.responseBody.withStream { it.write(body) }
+    }
+
+    def url(String path) {
+        "http://127.0.0.1:${server.address.port}$path".toString()
+    }
+}
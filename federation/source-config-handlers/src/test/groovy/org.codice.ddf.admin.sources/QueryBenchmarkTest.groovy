@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources
+
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class QueryBenchmarkTest extends Specification {
+
+    def 'test every query is run with at most the requested concurrency'() {
+        setup:
+        def calls = new AtomicInteger()
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+
+        when:
+        def result = QueryBenchmark.run({
+            calls.incrementAndGet()
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math.&max)
+            try {
+                Thread.sleep(20)
+            } finally {
+                running.decrementAndGet()
+            }
+        }, 30, 3)
+
+        then:
+        calls.get() == 30
+        maxRunning.get() == 3
+        result.queries == 30
+        result.concurrency == 3
+        result.failedQueries == 0
+        result.errorRate == 0
+        result.failureReasons.isEmpty()
+        result.minLatencyMillis >= 20
+        result.minLatencyMillis <= result.p50LatencyMillis
+        result.p50LatencyMillis <= result.p95LatencyMillis
+        result.p95LatencyMillis <= result.p99LatencyMillis
+        result.p99LatencyMillis <= result.maxLatencyMillis
+        result.queriesPerSecond > 0
+    }
+
+    def 'test failed queries are counted by reason and excluded from latency'() {
+        setup:
+        def calls = new AtomicInteger()
+
+        when:
+        def result = QueryBenchmark.run({
+            switch (calls.incrementAndGet() % 4) {
+            case 0:
+                throw new IOException('HTTP status 503')
+            case 1:
+                throw new SocketTimeoutException('Read timed out')
+            default:
+                return true
+            }
+        }, 20, 2)
+
+        then:
+        result.failedQueries == 10
+        result.errorRate == 0.5d
+        result.failureReasons == ['HTTP status 503': 5, SocketTimeoutException: 5]
+        result.p50LatencyMillis >= 0
+    }
+
+    def 'test a benchmark where every query fails has no latency figures'() {
+        when:
+        def result = QueryBenchmark.run({ throw new ConnectException() }, 5, 2)
+
+        then:
+        result.failedQueries == 5
+        result.errorRate == 1.0d
+        result.queriesPerSecond == 0
+        result.p50LatencyMillis == -1
+        result.p99LatencyMillis == -1
+        result.meanLatencyMillis == -1
+    }
+
+    def 'test percentiles use the nearest rank of the successful queries'() {
+        when:
+        def result = new QueryBenchmark.Result(100, 1, (1L..100L).toList().reverse(), [:], 1000000000L)
+
+        then:
+        result.minLatencyMillis == 1
+        result.p50LatencyMillis == 50
+        result.p95LatencyMillis == 95
+        result.p99LatencyMillis == 99
+        result.maxLatencyMillis == 100
+        result.meanLatencyMillis == 51
+        result.queriesPerSecond == 100.0d
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources
+
+import org.apache.http.HttpHost
+import org.apache.http.conn.routing.HttpRoute
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class SourceConnectionPoolTest extends Specification {
+
+    def pool = SourceConnectionPool.getInstance()
+
+    def cleanup() {
+        pool.destroy()
+    }
+
+    def 'test destroy shuts down the shared connection manager'() {
+        setup:
+        pool.init()
+        def connectionManager = pool.connectionManager()
+
+        when:
+        pool.destroy()
+        connectionManager.requestConnection(new HttpRoute(new HttpHost('localhost', 80)), null)
+                .get(1, TimeUnit.SECONDS)
+
+        then:
+        thrown(IllegalStateException)
+        !pool.connectionManager().is(connectionManager)
+    }
+}
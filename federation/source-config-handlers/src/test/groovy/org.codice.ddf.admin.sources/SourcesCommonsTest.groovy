@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import com.sun.net.httpserver.HttpsConfigurator
+import com.sun.net.httpserver.HttpsServer
+import org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons
+import org.codice.ddf.admin.api.network.TlsTrustCache
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.net.ssl.KeyManagerFactory
+import javax.net.ssl.SSLContext
+import java.nio.file.Files
+import java.security.KeyStore
+
+class SourcesCommonsTest extends Specification {
+
+    static final String PASSWORD = 'password'
+
+    // A self-signed certificate, so its authority is not in the default trust store
+    @Shared
+    SSLContext serverContext = createServerContext()
+
+    def server = HttpsServer.create(new InetSocketAddress(InetAddress.getByName('127.0.0.1'), 0), 0)
+
+    def cache = new CapabilitiesCache(16, 60000)
+
+    def setup() {
+        server.httpsConfigurator = new HttpsConfigurator(serverContext)
+        server.createContext('/capabilities', { HttpExchange exchange ->
+            def body = '<Capabilities version="2.0.0"/>'.bytes
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.responseBody.withStream { it.write(body) }
+            exchange.close()
+        })
+        server.start()
+    }
+
+    def cleanup() {
+        server.stop(0)
+    }
+
+    def 'test an untrusted verdict is restored from a pooled connection after eviction'() {
+        setup:
+        def url = "https://127.0.0.1:${server.address.port}/capabilities"
+        def uri = URI.create(url)
+
+        when:
+        def first = cache.fetch(url, null, null)
+
+        then:
+        first.status() == 200
+        !SourcesCommons.isTrustedEndpoint(uri)
+
+        when: 'the verdict is evicted while the connection stays pooled'
+        TlsTrustCache.instance.invalidate('127.0.0.1', server.address.port)
+        def second = cache.fetch(url, null, null)
+
+        then:
+        second.status() == 200
+        !SourcesCommons.isTrustedEndpoint(uri)
+    }
+
+    def 'test revalidations do not shorten the read timeout of a full response'() {
+        setup: 'a host whose full responses take a second to start'
+        def eTag = '"v1"'
+        def delay = 1000
+        def httpServer = HttpServer.create(new InetSocketAddress(0), 0)
+        httpServer.createContext('/capabilities', { HttpExchange exchange ->
+            if (exchange.requestHeaders.getFirst('If-None-Match') == eTag) {
+                // The JDK server drops connections after a 304, so the client must not reuse them
+                exchange.responseHeaders.add('Connection', 'close')
+                exchange.sendResponseHeaders(304, -1)
+            } else {
+                sleep(delay)
+                def body = '<Capabilities version="2.0.0"/>'.bytes
+                exchange.responseHeaders.add('ETag', eTag)
+                exchange.sendResponseHeaders(200, body.length)
+                exchange.responseBody.withStream { it.write(body) }
+            }
+            exchange.close()
+        })
+        httpServer.start()
+        // A host name no other test requests, so the learned timeout is this test's alone
+        def url = "http://localhost:${httpServer.address.port}/capabilities"
+
+        when:
+        cache.fetch(url, null, null)
+        def timeout = SourceHandlerCommons.readTimeout('localhost')
+        20.times {
+            assert cache.fetch(url, null, null).notModified
+        }
+
+        then:
+        SourceHandlerCommons.readTimeout('localhost') == timeout
+
+        when: 'the document changes and the next full response starts after the 2 second floor'
+        eTag = '"v2"'
+        delay = 2400
+        def changed = cache.fetch(url, null, null)
+
+        then:
+        !changed.notModified
+        changed.status() == 200
+
+        cleanup:
+        httpServer.stop(0)
+    }
+
+    private static SSLContext createServerContext() {
+        def keyStoreFile = new File(Files.createTempDirectory('sources-commons').toFile(), 'server.jks')
+        keyStoreFile.deleteOnExit()
+        def keytool = new File(System.getProperty('java.home'), 'bin/keytool').path
+        def process = [keytool, '-genkeypair', '-keyalg', 'RSA', '-keysize', '2048', '-alias',
+                       'server', '-dname', 'CN=127.0.0.1', '-ext', 'san=ip:127.0.0.1', '-validity',
+                       '1', '-storetype', 'JKS', '-keystore', keyStoreFile.path, '-storepass',
+                       PASSWORD, '-keypass', PASSWORD].execute()
+        process.consumeProcessOutput()
+        assert process.waitFor() == 0
+
+        def keyStore = KeyStore.getInstance('JKS')
+        keyStoreFile.withInputStream { keyStore.load(it, PASSWORD.toCharArray()) }
+        def keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.defaultAlgorithm)
+        keyManagerFactory.init(keyStore, PASSWORD.toCharArray())
+        def context = SSLContext.getInstance('TLS')
+        context.init(keyManagerFactory.keyManagers, null, null)
+        context
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class SourcesXmlUtilsTest extends Specification {
+
+    static final WFS_VERSION = SourcesXmlUtils.compile('/wfs:WFS_Capabilities/attribute::version')
+
+    def 'test parse and evaluate compiled expression'() {
+        when:
+        def doc = SourcesXmlUtils.parse(getClass().getClassLoader().getResourceAsStream('wfs20GetCapabilities.xml'))
+
+        then:
+        WFS_VERSION.evaluate(doc) == '2.0.0'
+    }
+
+    def 'test compiled expression is usable across threads'() {
+        setup:
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        def versions = executor.invokeAll((1..8).collect {
+            { ->
+                WFS_VERSION.evaluate(SourcesXmlUtils.parse(getClass().getClassLoader()
+                        .getResourceAsStream('wfs10GetCapabilities.xml')))
+            } as Callable<String>
+        })*.get()
+
+        then:
+        versions.every { it == '1.0.0' }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def 'test external entities are not resolved'() {
+        setup:
+        def xml = '''<?xml version="1.0"?>
+<!DOCTYPE doc [<!ENTITY ext SYSTEM "http://localhost:1/evil.dtd">]>
+<doc>&ext;</doc>'''
+
+        when:
+        def doc = SourcesXmlUtils.parse(new ByteArrayInputStream(xml.getBytes('UTF-8')))
+
+        then:
+        doc.getDocumentElement().getTextContent() == ''
+    }
+
+    def 'test invalid expression fails on compile'() {
+        when:
+        SourcesXmlUtils.compile('//[')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.sources.impl
+
+import org.codice.ddf.admin.api.config.sources.CswSourceConfiguration
+import org.codice.ddf.admin.api.config.sources.WfsSourceConfiguration
+import org.codice.ddf.admin.api.handler.SourceConfigurationHandler
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.codice.ddf.admin.sources.impl.SourceConfigurationHandlerImpl.NAME_FILTER
+import static org.codice.ddf.admin.sources.impl.SourceConfigurationHandlerImpl.TYPE_FILTER
+
+class SourceConfigurationHandlerImplTest extends Specification {
+
+    def handler = new SourceConfigurationHandlerImpl()
+
+    def cswHandler = Mock(SourceConfigurationHandler)
+
+    def wfsHandler = Mock(SourceConfigurationHandler)
+
+    def cswSources = [csw('Gamma', 'csw.3'), csw('alpha', 'csw.1'), csw('Beta', 'csw.2')]
+
+    def wfsSources = [wfs('Alphabet', 'wfs.1'), wfs('delta', 'wfs.2')]
+
+    def setup() {
+        cswHandler.getConfigurationHandlerId() >> 'csw-source'
+        wfsHandler.getConfigurationHandlerId() >> 'wfs-source'
+        handler.setSourceConfigurationHandlers([cswHandler, wfsHandler])
+    }
+
+    def cleanup() {
+        handler.destroy()
+    }
+
+    def csw(String name, String pid) {
+        new CswSourceConfiguration().sourceName(name).servicePid(pid)
+    }
+
+    def wfs(String name, String pid) {
+        new WfsSourceConfiguration().sourceName(name).servicePid(pid)
+    }
+
+    def 'test handlers are read concurrently and their order is kept'() {
+        setup:
+        def bothReading = new CountDownLatch(2)
+        cswHandler.getConfigurations() >> {
+            bothReading.countDown()
+            assert bothReading.await(5, TimeUnit.SECONDS)
+            cswSources
+        }
+        wfsHandler.getConfigurations() >> {
+            bothReading.countDown()
+            assert bothReading.await(5, TimeUnit.SECONDS)
+            wfsSources
+        }
+
+        when:
+        def configs = handler.getConfigurations()
+
+        then:
+        configs == cswSources + wfsSources
+    }
+
+    def 'test a page of all sources is ordered by name'() {
+        setup:
+        cswHandler.getConfigurations() >> cswSources
+        wfsHandler.getConfigurations() >> wfsSources
+
+        when:
+        def page = handler.getConfigurations(1, 2, [:])
+
+        then:
+        page.offset == 1
+        page.limit == 2
+        page.total == 5
+        page.configurations*.sourceName() == ['Alphabet', 'Beta']
+    }
+
+    def 'test the type filter only reads the matching handler'() {
+        when:
+        def page = handler.getConfigurations(0, 10, [(TYPE_FILTER): 'wfs-source'])
+
+        then:
+        1 * wfsHandler.getConfigurations() >> wfsSources
+        0 * cswHandler.getConfigurations()
+        page.total == 2
+        page.configurations*.servicePid() == ['wfs.1', 'wfs.2']
+    }
+
+    def 'test the name filter matches part of the name ignoring case'() {
+        setup:
+        cswHandler.getConfigurations() >> cswSources
+        wfsHandler.getConfigurations() >> wfsSources
+
+        when:
+        def page = handler.getConfigurations(0, 10, [(NAME_FILTER): 'ALPHA'])
+
+        then:
+        page.total == 2
+        page.configurations*.sourceName() == ['alpha', 'Alphabet']
+    }
+
+    def 'test an offset past the last match returns an empty page'() {
+        setup:
+        cswHandler.getConfigurations() >> cswSources
+        wfsHandler.getConfigurations() >> wfsSources
+
+        when:
+        def page = handler.getConfigurations(10, 5, [:])
+
+        then:
+        page.total == 5
+        page.configurations.isEmpty()
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources.impl.discovery
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.PORT
+import static org.codice.ddf.admin.api.config.sources.SourceConfiguration.SOURCE_HOSTNAME
+import static org.codice.ddf.admin.api.handler.commons.SourceHandlerCommons.DISCOVERED_SOURCES
+
+class BulkDiscoveryServiceTest extends Specification {
+
+    def running = new AtomicInteger()
+
+    def maxRunning = new AtomicInteger()
+
+    def service = new BulkDiscoveryService({ SourceConfiguration config ->
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math.&max)
+        try {
+            Thread.sleep(20)
+            if (config.sourcePort() == 13) {
+                throw new IllegalStateException('unlucky')
+            }
+            return [[config: config.sourceHostName(), messages: []]]
+        } finally {
+            running.decrementAndGet()
+        }
+    })
+
+    def cleanup() {
+        service.destroy()
+    }
+
+    def 'test one result per target in order with bounded parallelism'() {
+        setup:
+        def targets = (1..40).collect {
+            new SourceConfiguration().sourceHostName("host$it").sourcePort(it)
+        }
+
+        when:
+        def results = service.discover(targets)
+
+        then:
+        results.size() == 40
+        results*.get(SOURCE_HOSTNAME) == targets*.sourceHostName()
+        results*.get(PORT) == (1..40)
+        results[0].get(DISCOVERED_SOURCES) == [[config: 'host1', messages: []]]
+        maxRunning.get() <= 8
+    }
+
+    def 'test failed target has no discovered sources'() {
+        when:
+        def results = service.discover([new SourceConfiguration().sourceHostName('bad').sourcePort(13),
+                                        new SourceConfiguration().sourceHostName('good').sourcePort(80)])
+
+        then:
+        results[0].get(DISCOVERED_SOURCES) == []
+        results[1].get(DISCOVERED_SOURCES) == [[config: 'good', messages: []]]
+    }
+}
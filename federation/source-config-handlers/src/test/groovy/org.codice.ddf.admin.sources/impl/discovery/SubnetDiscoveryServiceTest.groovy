@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources.impl.discovery
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration
+import org.codice.ddf.admin.api.network.SubnetRange
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CountDownLatch
+
+class SubnetDiscoveryServiceTest extends Specification {
+
+    def openSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())
+
+    def closedPort
+
+    def discovered = [].asSynchronized()
+
+    def release = new CountDownLatch(1)
+
+    def service = new SubnetDiscoveryService({ SourceConfiguration config ->
+        discovered << config
+        release.await()
+        [[config: config.sourcePort(), messages: []]]
+    })
+
+    def conditions = new PollingConditions(timeout: 10)
+
+    def setup() {
+        def socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())
+        closedPort = socket.getLocalPort()
+        socket.close()
+    }
+
+    def cleanup() {
+        release.countDown()
+        service.destroy()
+        openSocket.close()
+    }
+
+    def 'test only live endpoints are discovered and results arrive incrementally'() {
+        when:
+        def job = service.start(SubnetRange.parse('127.0.0.1/32'),
+                [openSocket.getLocalPort(), closedPort],
+                new SourceConfiguration().sourceUserName('user')
+                        .sourceUserPassword('pass')).get()
+
+        then:
+        conditions.eventually {
+            assert job.endpointsScanned() == 2
+            assert discovered.size() == 1
+        }
+        job.endpointsTotal() == 2
+        job.liveEndpoints() == 1
+        !job.isComplete()
+        job.discoveredSources(0).isEmpty()
+        discovered[0].sourceHostName() == '127.0.0.1'
+        discovered[0].sourcePort() == openSocket.getLocalPort()
+        discovered[0].sourceUserName() == 'user'
+
+        when:
+        release.countDown()
+
+        then:
+        conditions.eventually {
+            assert job.isComplete()
+        }
+        job.discoveredSources(0) == [[config: openSocket.getLocalPort(), messages: []]]
+        job.discoveredSources(1).isEmpty()
+        service.getJob(job.id()).get().is(job)
+    }
+
+    def 'test unknown job is not found'() {
+        expect:
+        !service.getJob('unknown').isPresent()
+    }
+
+    def 'test job limit is enforced'() {
+        when:
+        def jobs = (1..SubnetDiscoveryService.MAX_JOBS + 1).collect {
+            service.start(SubnetRange.parse('127.0.0.1'), [openSocket.getLocalPort()],
+                    new SourceConfiguration())
+        }
+
+        then:
+        jobs.count { it.isPresent() } == SubnetDiscoveryService.MAX_JOBS
+        !jobs.last().isPresent()
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources.impl.health
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration
+import spock.lang.Specification
+
+class CapabilitiesHealthCheckTest extends Specification {
+
+    def server = HttpServer.create(new InetSocketAddress(InetAddress.getByName('127.0.0.1'), 0), 0)
+
+    def requestedPids = []
+
+    def healthCheck = new CapabilitiesHealthCheck({ String servicePid ->
+        requestedPids << servicePid
+        [username: 'admin', password: 'secret']
+    })
+
+    def setup() {
+        [200: '/ok', 401: '/unauthorized', 403: '/forbidden', 500: '/error'].each { status, path ->
+            server.createContext(path, { HttpExchange exchange ->
+                def body = '<Capabilities version="2.0.0"/>'.bytes
+                exchange.sendResponseHeaders(status, body.length)
+                exchange.responseBody.withStream { it.write(body) }
+                exchange.close()
+            })
+        }
+        server.start()
+    }
+
+    def cleanup() {
+        server.stop(0)
+    }
+
+    def 'test response statuses map to source statuses'() {
+        expect:
+        healthCheck.apply(source(path)) == status
+
+        where:
+        path            | status
+        '/ok'           | SourceStatus.AVAILABLE
+        '/unauthorized' | SourceStatus.AUTHENTICATION_FAILED
+        '/forbidden'    | SourceStatus.AUTHENTICATION_FAILED
+        '/error'        | SourceStatus.UNAVAILABLE
+    }
+
+    def 'test credentials are looked up by the service pid of the source'() {
+        when:
+        healthCheck.apply(source('/ok'))
+
+        then:
+        requestedPids == ['pid']
+    }
+
+    def 'test a failed credential lookup still checks the source'() {
+        setup:
+        def anonymous = new CapabilitiesHealthCheck({ throw new IllegalStateException() })
+
+        expect:
+        anonymous.apply(source('/ok')) == SourceStatus.AVAILABLE
+    }
+
+    def 'test an unreachable source is unavailable'() {
+        setup:
+        def socket = new ServerSocket(0, 0, InetAddress.getByName('127.0.0.1'))
+        def port = socket.localPort
+        socket.close()
+
+        expect:
+        healthCheck.apply(new SourceConfiguration().endpointUrl("http://127.0.0.1:$port/ok")
+                .servicePid('pid')) == SourceStatus.UNAVAILABLE
+    }
+
+    def source(String path) {
+        new SourceConfiguration().endpointUrl("http://127.0.0.1:${server.address.port}$path")
+                .servicePid('pid')
+    }
+}
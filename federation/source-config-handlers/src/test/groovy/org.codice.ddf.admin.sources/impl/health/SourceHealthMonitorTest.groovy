@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources.impl.health
+
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.TimeUnit
+import java.util.function.Function
+
+class SourceHealthMonitorTest extends Specification {
+
+    def conditions = new PollingConditions(timeout: 5)
+
+    def sources = [source('up'), source('down')]
+
+    def failing = ['down'] as Set
+
+    def rejected = [] as Set
+
+    def monitor = new SourceHealthMonitor({ sources },
+            { SourceConfiguration config ->
+                if (failing.contains(config.servicePid())) {
+                    return SourceStatus.UNAVAILABLE
+                }
+                rejected.contains(config.servicePid()) ?
+                        SourceStatus.AUTHENTICATION_FAILED :
+                        SourceStatus.AVAILABLE
+            } as Function,
+            TimeUnit.MINUTES.toMillis(5),
+            0)
+
+    def cleanup() {
+        monitor.destroy()
+    }
+
+    def 'test checks record availability and consecutive failures per source'() {
+        when:
+        monitor.checkNow()
+
+        then:
+        conditions.eventually {
+            assert monitor.sourceHealth.size() == 2
+        }
+
+        when:
+        monitor.checkNow()
+
+        then:
+        conditions.eventually {
+            def health = monitor.sourceHealth.collectEntries { [it.servicePid, it] }
+            assert health.up.checks == 2
+            assert health.up.available
+            assert health.up.availability == 1.0d
+            assert health.up.consecutiveFailures == 0
+            assert health.up.status == SourceStatus.AVAILABLE
+            assert health.down.checks == 2
+            assert health.down.status == SourceStatus.UNAVAILABLE
+            assert !health.down.available
+            assert health.down.availability == 0.0d
+            assert health.down.consecutiveFailures == 2
+            assert health.down.meanLatencyMillis == -1
+        }
+    }
+
+    def 'test a recovered source resets its consecutive failures'() {
+        setup:
+        monitor.checkNow()
+        conditions.eventually {
+            assert monitor.sourceHealth.find { it.servicePid == 'down' }?.checks == 1
+        }
+
+        when:
+        failing.clear()
+        monitor.checkNow()
+
+        then:
+        conditions.eventually {
+            def down = monitor.sourceHealth.find { it.servicePid == 'down' }
+            assert down.checks == 2
+            assert down.available
+            assert down.availability == 0.5d
+            assert down.consecutiveFailures == 0
+        }
+    }
+
+    def 'test rejected credentials are reported as an authentication failure'() {
+        setup:
+        rejected << 'up'
+
+        when:
+        monitor.checkNow()
+
+        then:
+        conditions.eventually {
+            def up = monitor.sourceHealth.find { it.servicePid == 'up' }
+            assert up.status == SourceStatus.AUTHENTICATION_FAILED
+            assert !up.available
+            assert up.consecutiveFailures == 1
+            assert up.meanLatencyMillis == -1
+        }
+    }
+
+    def 'test removed sources are no longer reported'() {
+        setup:
+        monitor.checkNow()
+        conditions.eventually {
+            assert monitor.sourceHealth.size() == 2
+        }
+
+        when:
+        sources.remove(1)
+        monitor.checkNow()
+
+        then:
+        monitor.sourceHealth*.servicePid == ['up']
+    }
+
+    def 'test the window keeps only the most recent checks'() {
+        setup:
+        def stats = new SourceHealthStats(SourceHealthMonitor.WINDOW_SIZE)
+
+        when:
+        (1..100).each {
+            stats.record('name',
+                    'https://localhost:8993',
+                    it % 10 != 0 ? SourceStatus.AVAILABLE : SourceStatus.UNAVAILABLE,
+                    it,
+                    it)
+        }
+        def health = stats.snapshot('pid')
+
+        then:
+        health.checks == SourceHealthMonitor.WINDOW_SIZE
+        health.availability == 0.9d
+        health.lastLatencyMillis == 100
+        health.lastChecked == 100
+        health.p95LatencyMillis == 99
+    }
+
+    def source(String pid) {
+        new SourceConfiguration().sourceName(pid)
+                .endpointUrl("https://$pid:8993/services")
+                .servicePid(pid)
+    }
+}
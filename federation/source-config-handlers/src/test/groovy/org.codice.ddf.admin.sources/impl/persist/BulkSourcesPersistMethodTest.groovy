@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ **/
+package org.codice.ddf.admin.sources.impl.persist
+
+import org.codice.ddf.admin.api.config.sources.CswSourceConfiguration
+import org.codice.ddf.admin.api.config.sources.OpenSearchSourceConfiguration
+import org.codice.ddf.admin.api.config.sources.SourceConfiguration
+import org.codice.ddf.admin.sources.csw.CswSourceConfigurationHandler
+import spock.lang.Specification
+
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.INVALID_FIELD
+import static org.codice.ddf.admin.api.handler.ConfigurationMessage.MISSING_REQUIRED_FIELD
+import static org.codice.ddf.admin.api.services.CswServiceProperties.CSW_PROFILE_FACTORY_PID
+
+class BulkSourcesPersistMethodTest extends Specification {
+
+    def createMethod = new BulkCreateSourcesPersistMethod([new CswSourceConfigurationHandler()])
+
+    def deleteMethod = new BulkDeleteSourcesPersistMethod([new CswSourceConfigurationHandler()])
+
+    def validCswSource() {
+        new CswSourceConfiguration().sourceName('csw')
+                .endpointUrl('https://localhost:8993/services/csw')
+                .factoryPid(CSW_PROFILE_FACTORY_PID)
+    }
+
+    def 'test missing sources fail validation'() {
+        when:
+        def errors = createMethod.validate(new SourceConfiguration())
+
+        then:
+        errors*.subtype() == [MISSING_REQUIRED_FIELD]
+        errors*.configFieldId() == ['sources']
+    }
+
+    def 'test valid sources pass validation'() {
+        when:
+        def errors = createMethod.validate(new SourceConfiguration().sources([validCswSource(),
+                                                                              validCswSource().sourceName('csw2')]))
+
+        then:
+        errors.isEmpty()
+    }
+
+    def 'test each source is validated by its own type and identified by position'() {
+        setup:
+        def missingName = validCswSource().sourceName(null)
+
+        when:
+        def errors = createMethod.validate(new SourceConfiguration().sources([validCswSource(),
+                                                                              missingName]))
+
+        then:
+        errors*.subtype() == [MISSING_REQUIRED_FIELD]
+        errors*.configFieldId() == ['sources[1].sourceName']
+    }
+
+    def 'test sources without a bulk capable handler are rejected'() {
+        when:
+        def errors = createMethod.validate(new SourceConfiguration().sources([validCswSource(),
+                                                                              new OpenSearchSourceConfiguration()]))
+
+        then:
+        errors*.subtype() == [INVALID_FIELD]
+        errors*.configFieldId() == ['sources[1]']
+    }
+
+    def 'test delete requires a service pid for each source'() {
+        when:
+        def errors = deleteMethod.validate(new SourceConfiguration().sources([new CswSourceConfiguration().servicePid('pid'),
+                                                                              new CswSourceConfiguration()]))
+
+        then:
+        errors*.configFieldId() == ['sources[1].servicePid']
+    }
+}
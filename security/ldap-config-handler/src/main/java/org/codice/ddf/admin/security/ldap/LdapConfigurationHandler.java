@@ -37,6 +37,7 @@ import org.codice.ddf.admin.security.ldap.probe.LdapQueryProbe;
 import org.codice.ddf.admin.security.ldap.probe.SubjectAttributeProbe;
 import org.codice.ddf.admin.security.ldap.test.AttributeMappingTestMethod;
 import org.codice.ddf.admin.security.ldap.test.BindUserTestMethod;
+import org.codice.ddf.admin.security.ldap.test.ClaimsLookupTestMethod;
 import org.codice.ddf.admin.security.ldap.test.ConnectTestMethod;
 import org.codice.ddf.admin.security.ldap.test.DirectoryStructTestMethod;
 import org.codice.ddf.admin.security.ldap.test.LdapTestingCommons;
@@ -48,6 +49,24 @@ public class LdapConfigurationHandler extends DefaultConfigurationHandler<LdapCo
     private static final String LDAP_CONFIGURATION_HANDLER_ID =
             LdapConfiguration.CONFIGURATION_TYPE;
 
+    public void init() {
+        LdapConnectionPool.getInstance()
+                .init();
+        LdapPagedSearches.getInstance()
+                .init();
+    }
+
+    public void destroy() {
+        LdapPagedSearches.getInstance()
+                .destroy();
+        LdapConnectionPool.getInstance()
+                .destroy();
+        LdapSchemaCache.getInstance()
+                .clear();
+        LdapConnectionProfiles.getInstance()
+                .clear();
+    }
+
     @Override
     public String getConfigurationHandlerId() {
         return LDAP_CONFIGURATION_HANDLER_ID;
@@ -73,6 +92,7 @@ public class LdapConfigurationHandler extends DefaultConfigurationHandler<LdapCo
         return ImmutableList.of(new ConnectTestMethod(ldapTestingCommons),
                 new BindUserTestMethod(ldapTestingCommons),
                 new DirectoryStructTestMethod(ldapTestingCommons),
+                new ClaimsLookupTestMethod(ldapTestingCommons),
                 new AttributeMappingTestMethod(new Configurator()));
     }
 
@@ -0,0 +1,745 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.security.ldap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.DN;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Bounded pool of LDAP sessions, keyed by everything that decides what a connection can see:
+ * host, port, encryption, bind method, bind DN, realm and bind password. Keys hold only an HMAC
+ * of these fields under a secret generated at startup, never the password or a plain hash of it.
+ * <p>
+ * Sessions are leased with {@link #borrow(Key, Callable)}. Closing a leased connection returns
+ * it to the pool rather than unbinding it, so callers should lease in a try-with-resources block.
+ * This lets the steps of the LDAP wizard share one bound connection instead of each negotiating
+ * TLS and binding again.
+ * <p>
+ * A session is closed once it has been idle for longer than the idle timeout or has existed for
+ * longer than the maximum lifetime. A session that has been idle for a while is checked with a
+ * root DSE read before it is leased again. When a key with new credentials is seen for a server
+ * and bind DN, sessions bound with the old credentials are closed.
+ */
+public class LdapConnectionPool implements LdapConnectionPoolMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LdapConnectionPool.class);
+
+    public static final String OBJECT_NAME =
+            "org.codice.ddf.admin.security.ldap:service=ldap-connection-pool";
+
+    public static final String SESSION_IDLE_TIMEOUT_PROPERTY =
+            "org.codice.ddf.admin.security.ldap.sessionIdleTimeout";
+
+    public static final String SESSION_MAX_LIFETIME_PROPERTY =
+            "org.codice.ddf.admin.security.ldap.sessionMaxLifetime";
+
+    public static final int DEFAULT_MAX_PER_KEY = 4;
+
+    public static final int DEFAULT_MAX_TOTAL = 32;
+
+    public static final long DEFAULT_MAX_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    public static final long DEFAULT_MAX_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    public static final long DEFAULT_VALIDATE_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    public static final long DEFAULT_BORROW_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final String KEY_ALGORITHM = "HmacSHA256";
+
+    private static final byte[] KEY_SECRET = new byte[32];
+
+    static {
+        new SecureRandom().nextBytes(KEY_SECRET);
+    }
+
+    private static final LdapConnectionPool INSTANCE = new LdapConnectionPool(DEFAULT_MAX_PER_KEY,
+            DEFAULT_MAX_TOTAL,
+            Long.getLong(SESSION_IDLE_TIMEOUT_PROPERTY, DEFAULT_MAX_IDLE_MILLIS),
+            Long.getLong(SESSION_MAX_LIFETIME_PROPERTY, DEFAULT_MAX_LIFETIME_MILLIS),
+            DEFAULT_VALIDATE_AFTER_MILLIS,
+            DEFAULT_BORROW_TIMEOUT_MILLIS);
+
+    private final int maxPerKey;
+
+    private final int maxTotal;
+
+    private final long maxIdleNanos;
+
+    private final long maxLifetimeNanos;
+
+    private final long validateAfterNanos;
+
+    private final long borrowTimeoutNanos;
+
+    // Guarded by this. Counts include both leased and idle connections.
+    private final Map<Key, Deque<IdleConnection>> idle = new HashMap<>();
+
+    private final Map<Key, Integer> openPerKey = new HashMap<>();
+
+    // The latest key with open connections for each server and bind DN, and keys superseded by a
+    // later one
+    private final Map<String, Key> currentKeys = new HashMap<>();
+
+    private final Set<Key> retiredKeys = new HashSet<>();
+
+    private int open;
+
+    private int idleCount;
+
+    private ScheduledExecutorService evictor;
+
+    private final AtomicLong created = new AtomicLong();
+
+    private final AtomicLong reused = new AtomicLong();
+
+    private final AtomicLong evicted = new AtomicLong();
+
+    private final AtomicLong failedValidations = new AtomicLong();
+
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+
+    private final AtomicLong invalidated = new AtomicLong();
+
+    public LdapConnectionPool(int maxPerKey, int maxTotal, long maxIdleMillis,
+            long maxLifetimeMillis, long validateAfterMillis, long borrowTimeoutMillis) {
+        this.maxPerKey = maxPerKey;
+        this.maxTotal = maxTotal;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(maxLifetimeMillis);
+        this.validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(validateAfterMillis);
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+    }
+
+    public static LdapConnectionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Leases a connection for the key, reusing an idle one if it is still healthy and otherwise
+     * opening one with {@code opener}. If the key or the pool as a whole is at its limit, waits
+     * for a connection to be returned.
+     *
+     * @return a connection whose {@code close()} returns it to the pool
+     * @throws TimeoutException if no connection became available within the borrow timeout
+     * @throws Exception        anything thrown by {@code opener}
+     */
+    public Connection borrow(Key key, Callable<Connection> opener) throws Exception {
+        long deadline = System.nanoTime() + borrowTimeoutNanos;
+        while (true) {
+            IdleConnection candidate = reserve(key, deadline);
+            if (candidate == null) {
+                return open(key, opener);
+            }
+            if (isHealthy(candidate)) {
+                reused.incrementAndGet();
+                return lease(key, candidate.connection, candidate.createdAt);
+            }
+            failedValidations.incrementAndGet();
+            discard(key, candidate.connection);
+        }
+    }
+
+    /**
+     * Adds a connection opened outside the pool, so that it is kept for reuse once it is closed.
+     * If the pool is full the connection is returned as is.
+     */
+    public Connection adopt(Key key, Connection connection) {
+        synchronized (this) {
+            retireSuperseded(key);
+            if (!tryReserve(key)) {
+                forgetIfUnused(key);
+                return connection;
+            }
+        }
+        created.incrementAndGet();
+        return lease(key, connection, System.nanoTime());
+    }
+
+    /**
+     * Removes a healthy idle connection for the key from the pool and hands it over to the
+     * caller, who is then responsible for closing it. This lets a connection opened for one key,
+     * such as an unbound connection, be bound and leased under another.
+     *
+     * @return the connection, or null if the key has no healthy idle connection
+     */
+    public Connection take(Key key) {
+        while (true) {
+            IdleConnection candidate;
+            synchronized (this) {
+                closeExpired(key);
+                Deque<IdleConnection> connections = idle.get(key);
+                if (connections == null || connections.isEmpty()) {
+                    return null;
+                }
+                candidate = connections.pollLast();
+                idleCount--;
+            }
+            if (isHealthy(candidate)) {
+                released(key);
+                reused.incrementAndGet();
+                return candidate.connection;
+            }
+            failedValidations.incrementAndGet();
+            discard(key, candidate.connection);
+        }
+    }
+
+    /**
+     * Closes the idle connections for the key and marks its leased connections to be closed
+     * rather than returned, for instance once its credentials are found to be rejected.
+     */
+    public synchronized void invalidate(Key key) {
+        retire(key);
+    }
+
+    /**
+     * Closes every idle connection. Leased connections are closed when they are returned.
+     */
+    @Override
+    public void clear() {
+        closeIdle(connection -> true);
+    }
+
+    /**
+     * Closes idle connections that have been unused for longer than the idle timeout or have
+     * outlived the maximum lifetime.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        closeIdle(connection -> isExpired(connection, now));
+    }
+
+    /**
+     * Starts evicting idle connections in the background and registers the pool's MBean.
+     */
+    public synchronized void init() {
+        if (evictor == null) {
+            evictor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("ldap-connection-evictor-%d")
+                            .setDaemon(true)
+                            .build());
+            long period = Math.max(TimeUnit.NANOSECONDS.toMillis(maxIdleNanos) / 2, 1000);
+            evictor.scheduleWithFixedDelay(this::evictIdle,
+                    period,
+                    period,
+                    TimeUnit.MILLISECONDS);
+        }
+        registerMBean();
+    }
+
+    public void destroy() {
+        unregisterMBean();
+        synchronized (this) {
+            if (evictor != null) {
+                evictor.shutdownNow();
+                evictor = null;
+            }
+        }
+        clear();
+    }
+
+    /**
+     * @return the number of servers and bind DNs whose latest key has open connections
+     */
+    public synchronized int trackedKeys() {
+        return currentKeys.size();
+    }
+
+    @Override
+    public synchronized int getOpenConnections() {
+        return open;
+    }
+
+    @Override
+    public synchronized int getIdleConnections() {
+        return idleCount;
+    }
+
+    @Override
+    public synchronized int getLeasedConnections() {
+        return open - idleCount;
+    }
+
+    @Override
+    public long getCreatedConnections() {
+        return created.get();
+    }
+
+    @Override
+    public long getReusedConnections() {
+        return reused.get();
+    }
+
+    @Override
+    public long getEvictedConnections() {
+        return evicted.get();
+    }
+
+    @Override
+    public long getFailedValidations() {
+        return failedValidations.get();
+    }
+
+    @Override
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    @Override
+    public long getInvalidatedConnections() {
+        return invalidated.get();
+    }
+
+    /**
+     * Takes an idle connection for the key, or reserves room to open a new one and returns null.
+     */
+    private synchronized IdleConnection reserve(Key key, long deadline)
+            throws InterruptedException, TimeoutException {
+        retireSuperseded(key);
+        while (true) {
+            closeExpired(key);
+            Deque<IdleConnection> connections = idle.get(key);
+            if (connections != null && !connections.isEmpty()) {
+                idleCount--;
+                return connections.pollLast();
+            }
+            if (tryReserve(key)) {
+                return null;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                borrowTimeouts.incrementAndGet();
+                forgetIfUnused(key);
+                throw new TimeoutException("No LDAP connection became available in time.");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+    }
+
+    // Called holding the lock
+    private boolean tryReserve(Key key) {
+        int openForKey = openPerKey.getOrDefault(key, 0);
+        if (openForKey < maxPerKey && open >= maxTotal) {
+            // Make room by closing the longest idle connection held for another key
+            closeLongestIdle();
+        }
+        if (openForKey < maxPerKey && open < maxTotal) {
+            openPerKey.put(key, openForKey + 1);
+            open++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Closes the idle sessions of any earlier key for the same server and bind DN as this one,
+     * and marks that key so its leased sessions are closed rather than returned. Called holding
+     * the lock.
+     */
+    private void retireSuperseded(Key key) {
+        Key previous = currentKeys.put(key.identity, key);
+        if (previous == null || previous.equals(key)) {
+            return;
+        }
+        retire(previous);
+    }
+
+    /**
+     * Stops tracking the key as the latest for its server and bind DN once it has no open
+     * connections, so keys for servers that are no longer used do not pile up. A later key for
+     * the same server then has nothing to retire. Called holding the lock.
+     */
+    private void forgetIfUnused(Key key) {
+        if (!openPerKey.containsKey(key)) {
+            currentKeys.remove(key.identity, key);
+        }
+    }
+
+    // Called holding the lock
+    private void retire(Key key) {
+        if (openPerKey.containsKey(key)) {
+            retiredKeys.add(key);
+        }
+        Deque<IdleConnection> connections = idle.remove(key);
+        if (connections != null) {
+            for (IdleConnection connection : connections) {
+                idleCount--;
+                invalidated.incrementAndGet();
+                discard(key, connection.connection);
+            }
+        }
+    }
+
+    private Connection open(Key key, Callable<Connection> opener) throws Exception {
+        Connection connection;
+        try {
+            connection = opener.call();
+        } catch (Exception | Error e) {
+            released(key);
+            throw e;
+        }
+        if (connection == null) {
+            released(key);
+            throw new IllegalStateException("The LDAP connection opener returned no connection.");
+        }
+        created.incrementAndGet();
+        return lease(key, connection, System.nanoTime());
+    }
+
+    private boolean isHealthy(IdleConnection candidate) {
+        if (!candidate.connection.isValid()) {
+            return false;
+        }
+        if (System.nanoTime() - candidate.idleSince < validateAfterNanos) {
+            return true;
+        }
+        try {
+            // Reading the root DSE with no attributes is the cheapest request every server answers
+            candidate.connection.readEntry(DN.rootDN(), "1.1");
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Pooled LDAP connection failed its health check.", e);
+            return false;
+        }
+    }
+
+    private boolean isExpired(IdleConnection connection, long now) {
+        return now - connection.idleSince >= maxIdleNanos
+                || now - connection.createdAt >= maxLifetimeNanos;
+    }
+
+    /**
+     * Wraps the connection so that closing it hands it back to the pool. Closing with an unbind
+     * request closes the underlying connection. Only the first close has any effect.
+     */
+    private Connection lease(Key key, Connection connection, long createdAt) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "close":
+                        if (returned.compareAndSet(false, true)) {
+                            if (args == null || args.length == 0) {
+                                release(key, connection, createdAt);
+                            } else {
+                                discard(key, connection);
+                            }
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned.get() || connection.isClosed();
+                    case "isValid":
+                        return !returned.get() && connection.isValid();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled " + connection;
+                    default:
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private void release(Key key, Connection connection, long createdAt) {
+        if (!connection.isValid()) {
+            discard(key, connection);
+            return;
+        }
+        synchronized (this) {
+            if (retiredKeys.contains(key)) {
+                invalidated.incrementAndGet();
+                discard(key, connection);
+                return;
+            }
+            idle.computeIfAbsent(key, k -> new ArrayDeque<>())
+                    .addLast(new IdleConnection(connection, createdAt));
+            idleCount++;
+            notifyAll();
+        }
+    }
+
+    private void discard(Key key, Connection connection) {
+        released(key);
+        closeQuietly(connection);
+    }
+
+    private synchronized void released(Key key) {
+        int openForKey = openPerKey.getOrDefault(key, 0) - 1;
+        if (openForKey > 0) {
+            openPerKey.put(key, openForKey);
+        } else {
+            openPerKey.remove(key);
+            retiredKeys.remove(key);
+            forgetIfUnused(key);
+        }
+        open--;
+        notifyAll();
+    }
+
+    private void closeIdle(Predicate<IdleConnection> predicate) {
+        Map<Key, Deque<IdleConnection>> expired = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<Key, Deque<IdleConnection>> entry : idle.entrySet()) {
+                Iterator<IdleConnection> iterator = entry.getValue()
+                        .iterator();
+                while (iterator.hasNext()) {
+                    IdleConnection connection = iterator.next();
+                    if (predicate.test(connection)) {
+                        iterator.remove();
+                        idleCount--;
+                        expired.computeIfAbsent(entry.getKey(), k -> new ArrayDeque<>())
+                                .add(connection);
+                    }
+                }
+            }
+            idle.values()
+                    .removeIf(Deque::isEmpty);
+        }
+        expired.forEach((key, connections) -> connections.forEach(connection -> {
+            evicted.incrementAndGet();
+            discard(key, connection.connection);
+        }));
+    }
+
+    // Called holding the lock; the connections are closed while holding it, which only delays
+    // other borrowers by the time taken to send an unbind.
+    private void closeExpired(Key key) {
+        Deque<IdleConnection> connections = idle.get(key);
+        if (connections == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Iterator<IdleConnection> iterator = connections.iterator();
+        while (iterator.hasNext()) {
+            IdleConnection connection = iterator.next();
+            if (isExpired(connection, now)) {
+                iterator.remove();
+                idleCount--;
+                evicted.incrementAndGet();
+                discard(key, connection.connection);
+            }
+        }
+        if (connections.isEmpty()) {
+            idle.remove(key);
+        }
+    }
+
+    // Called holding the lock
+    private void closeLongestIdle() {
+        Key oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<Key, Deque<IdleConnection>> entry : idle.entrySet()) {
+            IdleConnection first = entry.getValue()
+                    .peekFirst();
+            if (first != null && first.idleSince < oldest) {
+                oldest = first.idleSince;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (oldestKey == null) {
+            return;
+        }
+        Deque<IdleConnection> connections = idle.get(oldestKey);
+        IdleConnection connection = connections.pollFirst();
+        if (connections.isEmpty()) {
+            idle.remove(oldestKey);
+        }
+        idleCount--;
+        evicted.incrementAndGet();
+        discard(oldestKey, connection.connection);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Error closing LDAP connection.", e);
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+        } catch (JMException e) {
+            LOGGER.info("Unable to register the LDAP connection pool MBean.", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.debug("Unable to unregister the LDAP connection pool MBean.", e);
+        }
+    }
+
+    private static class IdleConnection {
+
+        private final Connection connection;
+
+        private final long createdAt;
+
+        private final long idleSince = System.nanoTime();
+
+        private IdleConnection(Connection connection, long createdAt) {
+            this.connection = connection;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Identifies sessions that are interchangeable. The fields are only kept as HMACs: one of the
+     * server and bind DN, which groups the keys whose credentials supersede each other, and one of
+     * all fields including the password.
+     */
+    public static final class Key {
+
+        private final String identity;
+
+        private final String digest;
+
+        private final String description;
+
+        public Key(String hostName, int port, String encryptionMethod, String bindMethod,
+                String bindUser, String bindRealm, String bindUserPassword) {
+            String host = hostName == null ? null : hostName.toLowerCase();
+            String encryption = encryptionMethod == null ? null : encryptionMethod.toLowerCase();
+            this.identity = hmac(host, Integer.toString(port), encryption, bindUser);
+            this.digest = hmac(host,
+                    Integer.toString(port),
+                    encryption,
+                    bindUser,
+                    bindMethod,
+                    bindRealm,
+                    bindUserPassword);
+            this.description = String.format("%s@%s:%d", bindUser, host, port);
+        }
+
+        /**
+         * @return the key of a session bound with the configuration's bind user
+         */
+        public static Key forBind(LdapConfiguration configuration) {
+            return new Key(configuration.hostName(),
+                    configuration.port(),
+                    configuration.encryptionMethod(),
+                    configuration.bindUserMethod(),
+                    configuration.bindUser(),
+                    configuration.bindRealm(),
+                    configuration.bindUserPassword());
+        }
+
+        /**
+         * @return the key of an unbound connection to the configuration's server
+         */
+        public static Key forConnection(LdapConfiguration configuration) {
+            return new Key(configuration.hostName(),
+                    configuration.port(),
+                    configuration.encryptionMethod(),
+                    null,
+                    null,
+                    null,
+                    null);
+        }
+
+        private static String hmac(String... fields) {
+            try {
+                Mac mac = Mac.getInstance(KEY_ALGORITHM);
+                mac.init(new SecretKeySpec(KEY_SECRET, KEY_ALGORITHM));
+                for (String field : fields) {
+                    // Length-prefix each field so that different field values never collide
+                    byte[] bytes = field == null ?
+                            new byte[0] :
+                            field.getBytes(StandardCharsets.UTF_8);
+                    mac.update(ByteBuffer.allocate(4)
+                            .putInt(field == null ? -1 : bytes.length)
+                            .array());
+                    mac.update(bytes);
+                }
+                return BaseEncoding.base16()
+                        .lowerCase()
+                        .encode(mac.doFinal());
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to compute an LDAP session key.", e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Key && digest.equals(((Key) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return digest.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
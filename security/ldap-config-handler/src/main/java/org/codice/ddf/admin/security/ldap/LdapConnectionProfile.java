@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.security.ldap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.net.ssl.SSLContext;
+
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.LDAPConnectionFactory;
+import org.forgerock.opendj.ldap.LDAPOptions;
+import org.forgerock.opendj.ldap.LdapException;
+
+/**
+ * The immutable settings used to open connections for one encryption method and set of system
+ * TLS settings. Profiles are built by {@link LdapConnectionProfiles}, which shares them between
+ * connections.
+ */
+public final class LdapConnectionProfile {
+
+    private final boolean useStartTls;
+
+    private final SSLContext sslContext;
+
+    private final List<String> cipherSuites;
+
+    private final List<String> protocols;
+
+    // Never modified once built; connection factories take their own copy
+    private final LDAPOptions options;
+
+    LdapConnectionProfile(boolean useStartTls, SSLContext sslContext, String cipherSuites,
+            String protocols) {
+        this.useStartTls = useStartTls;
+        this.sslContext = sslContext;
+        this.cipherSuites = split(cipherSuites);
+        this.protocols = split(protocols);
+
+        options = new LDAPOptions();
+        if (sslContext != null) {
+            options.setSSLContext(sslContext);
+        }
+        options.setUseStartTLS(useStartTls);
+        if (!this.cipherSuites.isEmpty()) {
+            options.addEnabledCipherSuite(this.cipherSuites.toArray(new String[0]));
+        }
+        if (!this.protocols.isEmpty()) {
+            options.addEnabledProtocol(this.protocols.toArray(new String[0]));
+        }
+        //sets the classloader so it can find the grizzly protocol handler class
+        options.setProviderClassLoader(LdapConnectionProfile.class.getClassLoader());
+    }
+
+    /**
+     * Opens a new, unbound connection to the server using this profile.
+     */
+    public Connection connect(String hostName, int port) throws LdapException {
+        return new LDAPConnectionFactory(hostName, port, options).getConnection();
+    }
+
+    public boolean useStartTls() {
+        return useStartTls;
+    }
+
+    /**
+     * @return the context for LDAPS connections, or null if connections do not start with TLS
+     */
+    public SSLContext sslContext() {
+        return sslContext;
+    }
+
+    /**
+     * @return the enabled cipher suites, or an empty list to use the JVM's defaults
+     */
+    public List<String> cipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * @return the enabled protocols, or an empty list to use the JVM's defaults
+     */
+    public List<String> protocols() {
+        return protocols;
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.security.ldap;
+
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.LDAPS;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.START_TLS;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * Shares {@link LdapConnectionProfile}s between connections, so the connection options are not
+ * rebuilt and the TLS system properties re-parsed for every connection. A profile is looked up by
+ * encryption method, SSL context and the current values of the {@value #CIPHER_SUITES_PROPERTY}
+ * and {@value #PROTOCOLS_PROPERTY} system properties, so a new profile is built when any of them
+ * change.
+ */
+public class LdapConnectionProfiles {
+
+    public static final String CIPHER_SUITES_PROPERTY = "https.cipherSuites";
+
+    public static final String PROTOCOLS_PROPERTY = "https.protocols";
+
+    public static final int DEFAULT_MAX_PROFILES = 64;
+
+    private static final LdapConnectionProfiles INSTANCE = new LdapConnectionProfiles(
+            DEFAULT_MAX_PROFILES);
+
+    private final int maxProfiles;
+
+    private final Map<ProfileKey, LdapConnectionProfile> profiles = new ConcurrentHashMap<>();
+
+    public LdapConnectionProfiles(int maxProfiles) {
+        this.maxProfiles = maxProfiles;
+    }
+
+    public static LdapConnectionProfiles getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param sslContext the context to open LDAPS connections with; ignored for other encryption
+     *                   methods
+     */
+    public LdapConnectionProfile getProfile(String encryptionMethod, SSLContext sslContext) {
+        ProfileKey key = new ProfileKey(START_TLS.equalsIgnoreCase(encryptionMethod),
+                LDAPS.equalsIgnoreCase(encryptionMethod) ? sslContext : null,
+                System.getProperty(CIPHER_SUITES_PROPERTY),
+                System.getProperty(PROTOCOLS_PROPERTY));
+
+        LdapConnectionProfile profile = profiles.get(key);
+        if (profile != null) {
+            return profile;
+        }
+
+        // Profiles for SSL contexts that have since been replaced are never used again
+        if (profiles.size() >= maxProfiles) {
+            profiles.clear();
+        }
+        return profiles.computeIfAbsent(key,
+                k -> new LdapConnectionProfile(k.useStartTls,
+                        k.sslContext,
+                        k.cipherSuites,
+                        k.protocols));
+    }
+
+    public void clear() {
+        profiles.clear();
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    private static class ProfileKey {
+
+        private final boolean useStartTls;
+
+        private final SSLContext sslContext;
+
+        private final String cipherSuites;
+
+        private final String protocols;
+
+        private ProfileKey(boolean useStartTls, SSLContext sslContext, String cipherSuites,
+                String protocols) {
+            this.useStartTls = useStartTls;
+            this.sslContext = sslContext;
+            this.cipherSuites = cipherSuites;
+            this.protocols = protocols;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProfileKey)) {
+                return false;
+            }
+            ProfileKey other = (ProfileKey) o;
+            // SSL contexts are compared by identity, so a replaced context gets a new profile
+            return useStartTls == other.useStartTls && sslContext == other.sslContext
+                    && Objects.equals(cipherSuites, other.cipherSuites) && Objects.equals(
+                    protocols,
+                    other.protocols);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(useStartTls,
+                    System.identityHashCode(sslContext),
+                    cipherSuites,
+                    protocols);
+        }
+    }
+}
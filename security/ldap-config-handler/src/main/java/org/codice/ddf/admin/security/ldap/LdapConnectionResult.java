@@ -25,13 +25,19 @@ public enum LdapConnectionResult {
             "Unable to bind the user to the LDAP connection. Try a different username or password. Make sure the username is in the format of a distinguished name."), BASE_USER_DN_NOT_FOUND(
             "The specified base user DN does not appear to exist."), BASE_GROUP_DN_NOT_FOUND(
             "The specified base group DN does not appear to exist."), USER_NAME_ATTRIBUTE_NOT_FOUND(
-            "No users found with the described attribute in the base user DN."),
+            "No users found with the described attribute in the base user DN."), CANNOT_QUERY(
+            "The LDAP server was unable to run the query. Check the query, its base DN and the page cookie."),
 
     //Warning types
     NO_USERS_IN_BASE_USER_DN("The base user DN was found, but there are no users in it."), NO_GROUPS_IN_BASE_GROUP_DN(
             "The base group DN was found, but there are no groups in it with the specified group objectClass."), NO_GROUPS_WITH_MEMBERS(
             "No group entries were found within the base group DN with member references."), NO_REFERENCED_MEMBER(
-            "No member found under base user DN as referenced from group."),
+            "No member found under base user DN as referenced from group."), UNINDEXED_USER_LOOKUP(
+            "The LDAP server reports that looking up a user by the user name attribute is not indexed."), UNINDEXED_GROUP_LOOKUP(
+            "The LDAP server reports that looking up the groups of a user is not indexed. Check the group objectClass and the attribute holding members are indexed for equality."), SLOW_USER_LOOKUP(
+            "Looking up a user by the user name attribute is much slower than reading a user entry by DN. The attribute may not be indexed for equality."), SLOW_GROUP_LOOKUP(
+            "Looking up the groups of a user is much slower than reading a user entry by DN. The attribute holding members may not be indexed for equality."), LARGE_GROUP_MEMBERSHIP(
+            "Some groups of the sampled users have very many members, which makes reading and updating them expensive."),
 
     SUCCESSFUL_CONNECTION("A connection with the LDAP was successfully established."), SUCCESSFUL_BIND(
             "Successfully binded the user to the LDAP connection.");
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.security.ldap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.opendj.ldap.Connection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Keeps the session of a paged search leased between pages. A Simple Paged Results cookie is
+ * only valid on the connection that returned it (RFC 2696), so the next page has to be read on
+ * the same session rather than on any pooled one.
+ * <p>
+ * A session is held from the page that returned a cookie until that cookie is used, and is
+ * returned to the {@link LdapConnectionPool} once the search has not been continued within the
+ * idle timeout. Sessions are held by bind key and cookie, so a cookie only resumes a search for
+ * the credentials that started it.
+ */
+public class LdapPagedSearches {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LdapPagedSearches.class);
+
+    public static final int DEFAULT_MAX_SEARCHES = 32;
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private static final LdapPagedSearches INSTANCE = new LdapPagedSearches(DEFAULT_MAX_SEARCHES,
+            DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+    private final int maxSearches;
+
+    private final long idleTimeoutNanos;
+
+    // Insertion ordered, so the first search is the one left waiting the longest
+    private final Map<PageKey, PinnedSession> searches = new LinkedHashMap<>();
+
+    private ScheduledExecutorService evictor;
+
+    public LdapPagedSearches(int maxSearches, long idleTimeoutMillis) {
+        this.maxSearches = maxSearches;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    public static LdapPagedSearches getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Holds the session that returned {@code cookie} until the next page is requested. If as many
+     * searches as allowed are already held, the one left waiting the longest is ended.
+     */
+    public void pin(LdapConnectionPool.Key key, String cookie, Connection connection) {
+        List<Connection> ended = new ArrayList<>();
+        synchronized (this) {
+            removeExpired(ended);
+            Iterator<PinnedSession> oldest = searches.values()
+                    .iterator();
+            while (searches.size() >= maxSearches && oldest.hasNext()) {
+                ended.add(oldest.next().connection);
+                oldest.remove();
+            }
+            PinnedSession previous = searches.put(new PageKey(key, cookie),
+                    new PinnedSession(connection));
+            if (previous != null) {
+                ended.add(previous.connection);
+            }
+        }
+        ended.forEach(LdapPagedSearches::closeQuietly);
+    }
+
+    /**
+     * Hands back the session a search was left on. The caller owns the session again and either
+     * pins it with the next cookie or closes it.
+     *
+     * @return the session that returned {@code cookie}, or null if the search was not held or has
+     * been idle for longer than the timeout
+     */
+    public Connection resume(LdapConnectionPool.Key key, String cookie) {
+        PinnedSession pinned;
+        synchronized (this) {
+            pinned = searches.remove(new PageKey(key, cookie));
+        }
+        if (pinned == null) {
+            return null;
+        }
+        if (pinned.isExpired(System.nanoTime())) {
+            closeQuietly(pinned.connection);
+            return null;
+        }
+        return pinned.connection;
+    }
+
+    /**
+     * Returns the sessions of searches that have been idle for longer than the timeout.
+     */
+    public void evictExpired() {
+        List<Connection> ended = new ArrayList<>();
+        synchronized (this) {
+            removeExpired(ended);
+        }
+        ended.forEach(LdapPagedSearches::closeQuietly);
+    }
+
+    public synchronized int size() {
+        return searches.size();
+    }
+
+    /**
+     * Starts returning the sessions of abandoned searches in the background.
+     */
+    public synchronized void init() {
+        if (evictor == null) {
+            evictor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("ldap-paged-search-evictor-%d")
+                            .setDaemon(true)
+                            .build());
+            long period = Math.max(TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 2, 1000);
+            evictor.scheduleWithFixedDelay(this::evictExpired,
+                    period,
+                    period,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void destroy() {
+        List<Connection> ended;
+        synchronized (this) {
+            if (evictor != null) {
+                evictor.shutdownNow();
+                evictor = null;
+            }
+            ended = new ArrayList<>();
+            searches.values()
+                    .forEach(pinned -> ended.add(pinned.connection));
+            searches.clear();
+        }
+        ended.forEach(LdapPagedSearches::closeQuietly);
+    }
+
+    // Called holding the lock
+    private void removeExpired(List<Connection> ended) {
+        long now = System.nanoTime();
+        Iterator<PinnedSession> iterator = searches.values()
+                .iterator();
+        while (iterator.hasNext()) {
+            PinnedSession pinned = iterator.next();
+            if (pinned.isExpired(now)) {
+                ended.add(pinned.connection);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Error closing LDAP connection.", e);
+        }
+    }
+
+    private class PinnedSession {
+
+        private final Connection connection;
+
+        private final long pinnedAt = System.nanoTime();
+
+        private PinnedSession(Connection connection) {
+            this.connection = connection;
+        }
+
+        private boolean isExpired(long now) {
+            return now - pinnedAt > idleTimeoutNanos;
+        }
+    }
+
+    private static final class PageKey {
+
+        private final LdapConnectionPool.Key key;
+
+        private final String cookie;
+
+        private PageKey(LdapConnectionPool.Key key, String cookie) {
+            this.key = key;
+            this.cookie = cookie;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return key.equals(other.key) && cookie.equals(other.cookie);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, cookie);
+        }
+    }
+}
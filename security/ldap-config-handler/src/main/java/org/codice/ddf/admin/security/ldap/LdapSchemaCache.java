@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.security.ldap;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.RootDSE;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.opendj.ldap.schema.Schema;
+
+/**
+ * Caches each server's RootDSE, parsed subschema and the attribute sets derived from them, keyed
+ * by the server's {@link LdapConnectionPool.Key#forConnection connection key}.
+ * <p>
+ * Before a cached schema is used, the {@code modifyTimestamp} of the server's subschema subentry
+ * is read and compared with the one seen when the schema was loaded. This costs one small read
+ * instead of downloading and parsing the whole subschema. Servers that do not expose the
+ * timestamp have their schema reloaded once the TTL has passed.
+ */
+public class LdapSchemaCache {
+
+    public static final String SCHEMA_CACHE_TTL_PROPERTY =
+            "org.codice.ddf.admin.security.ldap.schemaCacheTtl";
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String MODIFY_TIMESTAMP = "modifyTimestamp";
+
+    private static final LdapSchemaCache INSTANCE = new LdapSchemaCache(DEFAULT_MAX_ENTRIES,
+            Long.getLong(SCHEMA_CACHE_TTL_PROPERTY, DEFAULT_TTL_MILLIS));
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final Map<LdapConnectionPool.Key, ServerSchema> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttlMillis how long a schema is kept after it was loaded, whether or not it has changed
+     */
+    public LdapSchemaCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    public static LdapSchemaCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the server's RootDSE and schema, read over the connection if they are not cached or
+     * have changed since they were cached
+     */
+    public ServerSchema get(LdapConnectionPool.Key server, Connection connection)
+            throws LdapException {
+        ServerSchema cached = entries.get(server);
+        if (cached != null && !cached.isExpired() && isCurrent(cached, connection)) {
+            return cached;
+        }
+
+        ServerSchema loaded = load(connection);
+        prune();
+        entries.put(server, loaded);
+        return loaded;
+    }
+
+    public void invalidate(LdapConnectionPool.Key server) {
+        entries.remove(server);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    protected RootDSE readRootDse(Connection connection) throws LdapException {
+        return RootDSE.readRootDSE(connection);
+    }
+
+    protected Schema readSchema(Connection connection, DN subschemaDn) throws LdapException {
+        return Schema.readSchema(connection, subschemaDn);
+    }
+
+    protected String readModifyTimestamp(Connection connection, DN subschemaDn)
+            throws LdapException {
+        SearchResultEntry subschema = connection.readEntry(subschemaDn, MODIFY_TIMESTAMP);
+        Attribute timestamp = subschema.getAttribute(MODIFY_TIMESTAMP);
+        return timestamp == null ? null : timestamp.firstValueAsString();
+    }
+
+    private ServerSchema load(Connection connection) throws LdapException {
+        RootDSE rootDse = readRootDse(connection);
+        DN subschemaDn = rootDse.getSubschemaSubentry();
+        // Read the timestamp first, so a change made while the schema is read causes a reload
+        String modifyTimestamp = readModifyTimestamp(connection, subschemaDn);
+        return new ServerSchema(rootDse,
+                readSchema(connection, subschemaDn),
+                subschemaDn,
+                modifyTimestamp);
+    }
+
+    private boolean isCurrent(ServerSchema cached, Connection connection) {
+        if (cached.modifyTimestamp == null) {
+            return true;
+        }
+        try {
+            return cached.modifyTimestamp.equals(readModifyTimestamp(connection,
+                    cached.subschemaDn));
+        } catch (LdapException e) {
+            return false;
+        }
+    }
+
+    private void prune() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values()
+                .removeIf(ServerSchema::isExpired);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * A server's RootDSE and parsed subschema, with a memo of attribute sets derived from them.
+     */
+    public class ServerSchema {
+
+        private final RootDSE rootDse;
+
+        private final Schema schema;
+
+        private final DN subschemaDn;
+
+        private final String modifyTimestamp;
+
+        private final long loaded = System.nanoTime();
+
+        private final Map<String, SortedSet<String>> attributeSets = new ConcurrentHashMap<>();
+
+        private ServerSchema(RootDSE rootDse, Schema schema, DN subschemaDn,
+                String modifyTimestamp) {
+            this.rootDse = rootDse;
+            this.schema = schema;
+            this.subschemaDn = subschemaDn;
+            this.modifyTimestamp = modifyTimestamp;
+        }
+
+        public RootDSE rootDse() {
+            return rootDse;
+        }
+
+        public Schema schema() {
+            return schema;
+        }
+
+        /**
+         * @return the attribute set cached under the name, computing it the first time
+         */
+        public SortedSet<String> attributeSet(String name,
+                Supplier<SortedSet<String>> attributes) {
+            return attributeSets.computeIfAbsent(name,
+                    key -> Collections.unmodifiableSortedSet(Objects.requireNonNull(
+                            attributes.get())));
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - loaded > ttlNanos;
+        }
+    }
+}
@@ -16,7 +16,6 @@ package org.codice.ddf.admin.security.ldap;
 import static org.forgerock.opendj.ldap.schema.ObjectClassType.AUXILIARY;
 import static org.forgerock.opendj.ldap.schema.ObjectClassType.STRUCTURAL;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -26,22 +25,31 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.Connection;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.Entries;
 import org.forgerock.opendj.ldap.Filter;
 import org.forgerock.opendj.ldap.LdapException;
-import org.forgerock.opendj.ldap.RootDSE;
+import org.forgerock.opendj.ldap.LdapPromise;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchResultHandler;
 import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.requests.Requests;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Result;
 import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.opendj.ldap.responses.SearchResultReference;
 import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.forgerock.opendj.ldap.schema.ObjectClass;
 import org.forgerock.opendj.ldap.schema.Schema;
@@ -70,8 +78,33 @@ public abstract class ServerGuesser {
                     "openDj",
                     ServerGuesser.OpenDjGuesser::new);
 
+    // Only the DN of a matching entry is needed, so request no attributes
+    private static final String NO_ATTRIBUTES = "1.1";
+
+    private static final int CHOICES_SIZE_LIMIT = 100;
+
+    private static final int CHOICES_TIME_LIMIT = 10;
+
+    // Seconds to wait past the server-side time limit before abandoning a search
+    private static final int SEARCH_WAIT_GRACE = 5;
+
+    // Object classes with names like *person* in the core schema; this will catch person,
+    // organizationalPerson, inetOrgPerson, etc. if present
+    private static final SortedSet<String> CORE_PERSON_ATTRIBUTES =
+            Collections.unmodifiableSortedSet(extractAttributes(Schema.getCoreSchema()
+                    .getObjectClasses(), oc -> oc.getNameOrOID()
+                    .toLowerCase()
+                    .matches(".*person.*")));
+
+    private static final String[] ROOT_DSE_ATTRIBUTES = {"namingContexts",
+            "rootDomainNamingContext"};
+
     protected final Connection connection;
 
+    private SearchResultEntry rootDse;
+
+    private List<String> baseContexts;
+
     private static final Predicate<ObjectClass> STRUCT_OR_AUX =
             oc -> oc.getObjectClassType() == STRUCTURAL || oc.getObjectClassType() == AUXILIARY;
 
@@ -85,28 +118,43 @@ public abstract class ServerGuesser {
                 .apply(connection);
     }
 
+    /**
+     * @return the naming contexts to search, read from the RootDSE the first time they are needed
+     */
     public List<String> getBaseContexts() {
-        try {
-            ConnectionEntryReader reader = connection.search("",
-                    SearchScope.BASE_OBJECT,
-                    "(objectClass=*)",
-                    "namingContexts");
-
-            ArrayList<String> contexts = new ArrayList<>();
-            while (reader.hasNext()) {
-                contexts.add(reader.readEntry()
-                        .getAttribute("namingContexts")
-                        .firstValueAsString());
-            }
+        if (baseContexts == null) {
+            baseContexts = readBaseContexts();
+        }
+        return baseContexts;
+    }
 
-            if (contexts.isEmpty()) {
-                contexts.add("");
+    protected List<String> readBaseContexts() {
+        List<String> contexts = getRootDseValues("namingContexts");
+        return contexts.isEmpty() ? Collections.singletonList("") : contexts;
+    }
+
+    /**
+     * Reads the RootDSE once per guesser, fetching every attribute any guesser uses from it.
+     */
+    protected List<String> getRootDseValues(String attributeName) {
+        if (rootDse == null) {
+            try {
+                rootDse = connection.readEntry(DN.rootDN(), ROOT_DSE_ATTRIBUTES);
+            } catch (LdapException e) {
+                LOGGER.debug("Error reading the RootDSE", e);
+                return Collections.emptyList();
             }
-            return contexts;
-        } catch (LdapException | SearchResultReferenceIOException e) {
-            LOGGER.debug("Error getting baseContext", e);
-            return Collections.singletonList("");
         }
+
+        Attribute attribute = rootDse.getAttribute(attributeName);
+        if (attribute == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        for (ByteString value : attribute) {
+            values.add(value.toString());
+        }
+        return values;
     }
 
     public List<String> getUserNameAttribute() {
@@ -133,39 +181,50 @@ public abstract class ServerGuesser {
         return getChoices("(|(ou=group*)(name=group*)(cn=group*)(objectClass=groupOfUniqueNames))");
     }
 
-    public Set<String> getClaimAttributeOptions(String baseUserDn)
+    /**
+     * @param server identifies the server for the {@link LdapSchemaCache}, so its subschema is
+     *               only downloaded and parsed when it has changed
+     */
+    public Set<String> getClaimAttributeOptions(String baseUserDn, LdapConnectionPool.Key server)
             throws SearchResultReferenceIOException, LdapException {
-        // Find all object classes with names like *person* in the core schema;
-        // this will catch person, organizationalPerson, inetOrgPerson, etc. if present
-        SortedSet<String> attributes = extractAttributes(Schema.getCoreSchema()
-                        .getObjectClasses(),
-                oc -> oc.getNameOrOID()
-                        .toLowerCase()
-                        .matches(".*person.*"));
+        SortedSet<String> attributes = new TreeSet<>(CORE_PERSON_ATTRIBUTES);
 
         // TODO RAP 24 Jan 17: This should be moved elsewhere
         // Find any given user with the clearance attribute
         SearchRequest clearanceReq = Requests.newSearchRequest(DN.valueOf(baseUserDn),
                 SearchScope.WHOLE_SUBTREE,
                 Filter.present("2.16.840.1.101.2.2.1.203"),
-                "objectClass");
-        ConnectionEntryReader clearanceReader = connection.search(clearanceReq);
-
-        if (clearanceReader.hasNext()) {
-            SearchResultEntry entry = clearanceReader.readEntry();
-            RootDSE rootDSE = RootDSE.readRootDSE(connection);
-            DN subschemaDN = rootDSE.getSubschemaSubentry();
-            Schema subschema = Schema.readSchema(connection, subschemaDN);
-
-            // Check against both the subschema and the default schema
-            attributes.addAll(extractAttributes(Entries.getObjectClasses(entry, subschema),
-                    STRUCT_OR_AUX));
-            attributes.addAll(extractAttributes(Entries.getObjectClasses(entry), STRUCT_OR_AUX));
+                "objectClass")
+                .setSizeLimit(1);
+        try (ConnectionEntryReader clearanceReader = connection.search(clearanceReq)) {
+            if (clearanceReader.hasNext()) {
+                SearchResultEntry entry = clearanceReader.readEntry();
+                LdapSchemaCache.ServerSchema serverSchema = LdapSchemaCache.getInstance()
+                        .get(server, connection);
+                Attribute objectClasses = entry.getAttribute("objectClass");
+                String objectClassKey = objectClasses == null ?
+                        "" :
+                        objectClasses.stream()
+                                .map(value -> value.toString()
+                                        .toLowerCase())
+                                .sorted()
+                                .collect(Collectors.joining(","));
+
+                // Check against both the subschema and the default schema
+                attributes.addAll(serverSchema.attributeSet(objectClassKey, () -> {
+                    SortedSet<String> entryAttributes = extractAttributes(Entries.getObjectClasses(
+                            entry,
+                            serverSchema.schema()), STRUCT_OR_AUX);
+                    entryAttributes.addAll(extractAttributes(Entries.getObjectClasses(entry),
+                            STRUCT_OR_AUX));
+                    return entryAttributes;
+                }));
+            }
         }
         return attributes;
     }
 
-    private SortedSet<String> extractAttributes(Collection<ObjectClass> objectClasses,
+    private static SortedSet<String> extractAttributes(Collection<ObjectClass> objectClasses,
             Predicate<ObjectClass> predicate) {
         return objectClasses.stream()
                 .filter(predicate)
@@ -175,32 +234,80 @@ public abstract class ServerGuesser {
                 .collect(Collectors.toCollection(TreeSet::new));
     }
 
+    /**
+     * Searches every base context at once for entries matching the query, returning only their
+     * DNs. The searches are limited to {@value #CHOICES_SIZE_LIMIT} entries and
+     * {@value #CHOICES_TIME_LIMIT} seconds each, and whatever a limited search found before it
+     * stopped is kept.
+     */
     private List<String> getChoices(String query) {
-        List<String> baseContexts = getBaseContexts();
-
-        List<String> choices = new ArrayList<>();
-        for (String baseContext : baseContexts) {
-            try (ConnectionEntryReader reader = connection.search(baseContext,
+        List<String> contexts = getBaseContexts();
+        List<List<String>> contextChoices = new ArrayList<>();
+        List<LdapPromise<Result>> searches = new ArrayList<>();
+        for (String baseContext : contexts) {
+            List<String> choices = Collections.synchronizedList(new ArrayList<>());
+            SearchRequest request = Requests.newSearchRequest(baseContext,
                     SearchScope.WHOLE_SUBTREE,
-                    query)) {
-                while (reader.hasNext()) {
-                    if (!reader.isReference()) {
-                        SearchResultEntry resultEntry = reader.readEntry();
-                        choices.add(resultEntry.getName()
-                                .toString());
-                    } else {
-                        // TODO RAP 07 Dec 16: What do we need to do with remote references?
-                        reader.readReference();
-                    }
+                    query,
+                    NO_ATTRIBUTES)
+                    .setSizeLimit(CHOICES_SIZE_LIMIT)
+                    .setTimeLimit(CHOICES_TIME_LIMIT);
+            contextChoices.add(choices);
+            searches.add(connection.searchAsync(request, new SearchResultHandler() {
+                @Override
+                public boolean handleEntry(SearchResultEntry entry) {
+                    choices.add(entry.getName()
+                            .toString());
+                    return true;
                 }
-            } catch (IOException e) {
-                LOGGER.debug("Error getting choices", e);
-            }
+
+                @Override
+                public boolean handleReference(SearchResultReference reference) {
+                    // TODO RAP 07 Dec 16: What do we need to do with remote references?
+                    return true;
+                }
+            }));
         }
 
+        List<String> choices = new ArrayList<>();
+        for (int i = 0; i < searches.size(); i++) {
+            awaitSearch(searches.get(i));
+            synchronized (contextChoices.get(i)) {
+                choices.addAll(contextChoices.get(i));
+            }
+        }
         return choices;
     }
 
+    private static void awaitSearch(LdapPromise<Result> search) {
+        try {
+            search.get(CHOICES_TIME_LIMIT + SEARCH_WAIT_GRACE, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            search.cancel(true);
+        } catch (TimeoutException e) {
+            LOGGER.debug("Abandoning choices search that exceeded its time limit");
+            search.cancel(true);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof LdapException && isLimitExceeded((LdapException) cause)) {
+                LOGGER.debug("Choices search stopped at its limit, keeping partial results");
+            } else {
+                LOGGER.debug("Error getting choices", cause);
+            }
+        }
+    }
+
+    private static boolean isLimitExceeded(LdapException e) {
+        ResultCode resultCode = e.getResult() == null ?
+                null :
+                e.getResult()
+                        .getResultCode();
+        return resultCode == ResultCode.SIZE_LIMIT_EXCEEDED
+                || resultCode == ResultCode.TIME_LIMIT_EXCEEDED;
+    }
+
     private static class DefaultGuesser extends ServerGuesser {
         private DefaultGuesser(Connection connection) {
             super(connection);
@@ -225,24 +332,11 @@ public abstract class ServerGuesser {
         }
 
         @Override
-        public List<String> getBaseContexts() {
-            try {
-                ConnectionEntryReader reader = connection.search("",
-                        SearchScope.BASE_OBJECT,
-                        "(objectClass=*)",
-                        "rootDomainNamingContext");
-
-                if (reader.hasNext()) {
-                    return Collections.singletonList(reader.readEntry()
-                            .getAttribute("rootDomainNamingContext")
-                            .firstValueAsString());
-                } else {
-                    return Collections.singletonList("");
-                }
-            } catch (LdapException | SearchResultReferenceIOException e) {
-                LOGGER.debug("Error getting baseContext", e);
-                return Collections.singletonList("");
-            }
+        protected List<String> readBaseContexts() {
+            List<String> contexts = getRootDseValues("rootDomainNamingContext");
+            return contexts.isEmpty() ?
+                    Collections.singletonList("") :
+                    Collections.singletonList(contexts.get(0));
         }
 
         @Override
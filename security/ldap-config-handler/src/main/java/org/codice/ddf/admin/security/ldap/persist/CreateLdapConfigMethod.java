@@ -22,10 +22,12 @@ import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_REALM;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_USER;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_USER_PASSWORD;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.ENCRYPTION_METHOD;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.FAILOVER_SERVERS;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.GROUP_ATTRIBUTE_HOLDING_MEMBER;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.GROUP_OBJECT_CLASS;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.HOST_NAME;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.LDAP_USE_CASE;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.LOAD_BALANCING;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.PORT;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.USER_NAME_ATTRIBUTE;
@@ -82,7 +84,9 @@ public class CreateLdapConfigMethod extends PersistMethod<LdapConfiguration> {
             GROUP_OBJECT_CLASS,
             GROUP_ATTRIBUTE_HOLDING_MEMBER,
             MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP,
-            ATTRIBUTE_MAPPINGS);
+            ATTRIBUTE_MAPPINGS,
+            FAILOVER_SERVERS,
+            LOAD_BALANCING);
 
     public static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(SUCCESSFUL_PERSIST,
             "Successfully saved LDAP settings.");
@@ -151,6 +155,12 @@ public class CreateLdapConfigMethod extends PersistMethod<LdapConfiguration> {
                     MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP,
                     ATTRIBUTE_MAPPINGS)));
         }
+        if (configuration.failoverServers() != null) {
+            validationResults.addAll(configuration.validate(ImmutableList.of(FAILOVER_SERVERS)));
+        }
+        if (configuration.loadBalancing() != null) {
+            validationResults.addAll(configuration.validate(ImmutableList.of(LOAD_BALANCING)));
+        }
         return validationResults;
     }
 }
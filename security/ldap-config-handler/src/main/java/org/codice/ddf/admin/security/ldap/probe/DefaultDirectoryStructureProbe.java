@@ -106,33 +106,34 @@ public class DefaultDirectoryStructureProbe extends ProbeMethod<LdapConfiguratio
 
     @Override
     public ProbeReport probe(LdapConfiguration configuration) {
-        LdapTestingCommons.LdapConnectionAttempt connectionAttempt =
-                ldapTestingCommons.bindUserToLdapConnection(configuration);
-        if (connectionAttempt.result() != SUCCESSFUL_BIND) {
-            return createProbeReport(SUCCESS_TYPES,
-                    FAILURE_TYPES,
-                    null,
-                    connectionAttempt.result()
-                            .name());
-        }
-
         Map<String, Object> probeResult = new HashMap<>();
-        String ldapType = configuration.ldapType();
-        ServerGuesser guesser = ServerGuesser.buildGuesser(ldapType,
-                connectionAttempt.connection());
-
-        if (guesser != null) {
-            probeResult.put(BASE_USER_DN, guesser.getUserBaseChoices());
-            probeResult.put(BASE_GROUP_DN, guesser.getGroupBaseChoices());
-            probeResult.put(USER_NAME_ATTRIBUTE, guesser.getUserNameAttribute());
-            probeResult.put(GROUP_OBJECT_CLASS, guesser.getGroupObjectClass());
-            probeResult.put(GROUP_ATTRIBUTE_HOLDING_MEMBER,
-                    guesser.getGroupAttributeHoldingMember());
-            probeResult.put(MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP,
-                    guesser.getMemberAttributeReferencedInGroup());
-            // TODO RAP 13 Dec 16: Better query, perhaps driven by guessers?
-            probeResult.put(QUERY, Collections.singletonList("objectClass=*"));
-            probeResult.put(QUERY_BASE, guesser.getBaseContexts());
+        try (LdapTestingCommons.LdapConnectionAttempt connectionAttempt =
+                ldapTestingCommons.bindUserToLdapConnection(configuration)) {
+            if (connectionAttempt.result() != SUCCESSFUL_BIND) {
+                return createProbeReport(SUCCESS_TYPES,
+                        FAILURE_TYPES,
+                        null,
+                        connectionAttempt.result()
+                                .name());
+            }
+
+            String ldapType = configuration.ldapType();
+            ServerGuesser guesser = ServerGuesser.buildGuesser(ldapType,
+                    connectionAttempt.connection());
+
+            if (guesser != null) {
+                probeResult.put(BASE_USER_DN, guesser.getUserBaseChoices());
+                probeResult.put(BASE_GROUP_DN, guesser.getGroupBaseChoices());
+                probeResult.put(USER_NAME_ATTRIBUTE, guesser.getUserNameAttribute());
+                probeResult.put(GROUP_OBJECT_CLASS, guesser.getGroupObjectClass());
+                probeResult.put(GROUP_ATTRIBUTE_HOLDING_MEMBER,
+                        guesser.getGroupAttributeHoldingMember());
+                probeResult.put(MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP,
+                        guesser.getMemberAttributeReferencedInGroup());
+                // TODO RAP 13 Dec 16: Better query, perhaps driven by guessers?
+                probeResult.put(QUERY, Collections.singletonList("objectClass=*"));
+                probeResult.put(QUERY_BASE, guesser.getBaseContexts());
+            }
         }
 
         return createProbeReport(SUCCESS_TYPES, FAILURE_TYPES, null, SUCCESSFUL_PROBE).probeResults(
@@ -22,44 +22,63 @@ import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.HOST_NAME;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.LDAP_TYPE;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.PORT;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.QUERY;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.QUERY_ATTRIBUTES;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.QUERY_BASE;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.QUERY_PAGE_COOKIE;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.QUERY_PAGE_SIZE;
 import static org.codice.ddf.admin.api.handler.commons.HandlerCommons.SUCCESSFUL_PROBE;
 import static org.codice.ddf.admin.api.handler.report.ProbeReport.createProbeReport;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateBindRealm;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_BIND;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONFIGURE;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONNECT;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_QUERY;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL_BIND;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.toDescriptionMap;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
 import org.codice.ddf.admin.api.handler.method.ProbeMethod;
 import org.codice.ddf.admin.api.handler.report.ProbeReport;
+import org.codice.ddf.admin.security.ldap.LdapConnectionPool;
+import org.codice.ddf.admin.security.ldap.LdapPagedSearches;
 import org.codice.ddf.admin.security.ldap.test.LdapTestingCommons;
 import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.Connection;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+/**
+ * Runs a query and returns one page of its results, using the Simple Paged Results control. A
+ * caller pages through a large directory by passing the returned cookie back with the next call.
+ * The session is held between calls in {@link LdapPagedSearches}, as the cookie is only valid on
+ * it.
+ */
 public class LdapQueryProbe extends ProbeMethod<LdapConfiguration> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LdapQueryProbe.class);
+
     private static final String LDAP_QUERY_ID = "query";
 
     private static final String DESCRIPTION =
-            "Probe to execute arbitrary query against an LDAP server and return the results.";
+            "Probe to execute arbitrary query against an LDAP server and return a page of the "
+                    + "results.";
 
-    private static final int MAX_QUERY_RESULTS = 50;
+    private static final int DEFAULT_QUERY_PAGE_SIZE = 50;
 
     private static final List<String> REQUIRED_FIELDS = ImmutableList.of(LDAP_TYPE,
             HOST_NAME,
@@ -71,11 +90,21 @@ public class LdapQueryProbe extends ProbeMethod<LdapConfiguration> {
             QUERY,
             QUERY_BASE);
 
-    private static final List<String> OPTIONAL_FIELDS = ImmutableList.of(BIND_REALM);
+    private static final List<String> PAGING_FIELDS = ImmutableList.of(QUERY_PAGE_SIZE,
+            QUERY_PAGE_COOKIE,
+            QUERY_ATTRIBUTES);
+
+    private static final List<String> OPTIONAL_FIELDS = ImmutableList.<String>builder().add(
+            BIND_REALM)
+            .addAll(PAGING_FIELDS)
+            .build();
 
     private static final String LDAP_QUERY_RESULTS = "ldapQueryResults";
 
-    private static final List<String> RETURN_TYPES = ImmutableList.of(LDAP_QUERY_RESULTS);
+    private static final String LDAP_QUERY_NEXT_PAGE_COOKIE = "ldapQueryNextPageCookie";
+
+    private static final List<String> RETURN_TYPES = ImmutableList.of(LDAP_QUERY_RESULTS,
+            LDAP_QUERY_NEXT_PAGE_COOKIE);
 
     private static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(SUCCESSFUL_PROBE,
             "Successfully executed LDAP query.");
@@ -83,11 +112,19 @@ public class LdapQueryProbe extends ProbeMethod<LdapConfiguration> {
     private static final Map<String, String> FAILURE_TYPES = toDescriptionMap(Arrays.asList(
             CANNOT_CONFIGURE,
             CANNOT_CONNECT,
-            CANNOT_BIND));
+            CANNOT_BIND,
+            CANNOT_QUERY));
 
     private final LdapTestingCommons ldapTestingCommons;
 
+    private final LdapPagedSearches pagedSearches;
+
     public LdapQueryProbe(LdapTestingCommons ldapTestingCommons) {
+        this(ldapTestingCommons, LdapPagedSearches.getInstance());
+    }
+
+    public LdapQueryProbe(LdapTestingCommons ldapTestingCommons,
+            LdapPagedSearches pagedSearches) {
         super(LDAP_QUERY_ID,
                 DESCRIPTION,
                 REQUIRED_FIELDS,
@@ -97,14 +134,15 @@ public class LdapQueryProbe extends ProbeMethod<LdapConfiguration> {
                 null,
                 RETURN_TYPES);
         this.ldapTestingCommons = ldapTestingCommons;
+        this.pagedSearches = pagedSearches;
     }
 
     @Override
     public ProbeReport probe(LdapConfiguration configuration) {
         ProbeReport probeReport = new ProbeReport();
-        LdapTestingCommons.LdapConnectionAttempt connectionAttempt =
-                ldapTestingCommons.bindUserToLdapConnection(configuration);
-
+        LdapConnectionPool.Key sessionKey = LdapConnectionPool.Key.forBind(configuration);
+        LdapTestingCommons.LdapConnectionAttempt connectionAttempt = resumeSearch(sessionKey,
+                configuration);
         if (connectionAttempt.result() != SUCCESSFUL_BIND) {
             return createProbeReport(SUCCESS_TYPES,
                     FAILURE_TYPES,
@@ -113,39 +151,107 @@ public class LdapQueryProbe extends ProbeMethod<LdapConfiguration> {
                             .name()));
         }
 
-        List<SearchResultEntry> searchResults = ldapTestingCommons.getLdapQueryResults(
-                connectionAttempt.connection(),
-                configuration.queryBase(),
-                configuration.query(),
-                SearchScope.WHOLE_SUBTREE,
-                MAX_QUERY_RESULTS);
-        List<Map<String, String>> convertedSearchResults = new ArrayList<>();
-
-        for (SearchResultEntry entry : searchResults) {
-            Map<String, String> entryMap = new HashMap<>();
-            for (Attribute attri : entry.getAllAttributes()) {
-                entryMap.put("name",
-                        entry.getName()
-                                .toString());
-                if (!attri.getAttributeDescriptionAsString()
-                        .toLowerCase()
-                        .contains("password")) {
-                    List<String> attributeValueList = attri.parallelStream()
-                            .map(ByteString::toString)
-                            .collect(Collectors.toList());
-                    String attributeValue = attributeValueList.size() == 1 ? attributeValueList.get(
-                            0) : attributeValueList.toString();
-                    entryMap.put(attri.getAttributeDescriptionAsString(), attributeValue);
-                }
+        boolean pinned = false;
+        try {
+            int pageSize = configuration.queryPageSize() == null ?
+                    DEFAULT_QUERY_PAGE_SIZE :
+                    configuration.queryPageSize();
+            ByteString cookie = configuration.queryPageCookie() == null ?
+                    null :
+                    ByteString.valueOfBase64(configuration.queryPageCookie());
+            String[] attributes = configuration.queryAttributes() == null ?
+                    null :
+                    configuration.queryAttributes()
+                            .toArray(new String[0]);
+
+            // Entries are converted as they are read, so only the page's results are held
+            List<Map<String, String>> convertedSearchResults = new ArrayList<>();
+            ByteString nextCookie;
+            try {
+                nextCookie = ldapTestingCommons.getLdapQueryPage(connectionAttempt.connection(),
+                        configuration.queryBase(),
+                        configuration.query(),
+                        SearchScope.WHOLE_SUBTREE,
+                        pageSize,
+                        cookie,
+                        entry -> convertedSearchResults.add(toResultMap(entry)),
+                        attributes);
+            } catch (IOException e) {
+                LOGGER.debug("Error running LDAP query {}", configuration.query(), e);
+                return createProbeReport(SUCCESS_TYPES,
+                        FAILURE_TYPES,
+                        null,
+                        CANNOT_QUERY.name());
             }
-            convertedSearchResults.add(entryMap);
-        }
 
-        return probeReport.probeResult(LDAP_QUERY_RESULTS, convertedSearchResults);
+            probeReport.probeResult(LDAP_QUERY_RESULTS, convertedSearchResults);
+            if (nextCookie != null) {
+                String nextPageCookie = nextCookie.toBase64String();
+                // The cookie is only valid on this session, so keep it for the next page
+                pagedSearches.pin(sessionKey, nextPageCookie, connectionAttempt.connection());
+                pinned = true;
+                probeReport.probeResult(LDAP_QUERY_NEXT_PAGE_COOKIE, nextPageCookie);
+            }
+            return probeReport;
+        } finally {
+            if (!pinned) {
+                connectionAttempt.close();
+            }
+        }
     }
 
     @Override
     public List<ConfigurationMessage> validateOptionalFields(LdapConfiguration configuration) {
-        return validateBindRealm(configuration);
+        List<ConfigurationMessage> errors = new ArrayList<>(validateBindRealm(configuration));
+        List<String> givenPagingFields = new ArrayList<>();
+        if (configuration.queryPageSize() != null) {
+            givenPagingFields.add(QUERY_PAGE_SIZE);
+        }
+        if (configuration.queryPageCookie() != null) {
+            givenPagingFields.add(QUERY_PAGE_COOKIE);
+        }
+        if (configuration.queryAttributes() != null) {
+            givenPagingFields.add(QUERY_ATTRIBUTES);
+        }
+        errors.addAll(configuration.validate(givenPagingFields));
+        return errors;
+    }
+
+    /**
+     * Continues a paged search on the session that returned its cookie. A first page, or a search
+     * whose session is no longer held, is run on a session leased from the pool.
+     */
+    private LdapTestingCommons.LdapConnectionAttempt resumeSearch(
+            LdapConnectionPool.Key sessionKey, LdapConfiguration configuration) {
+        if (configuration.queryPageCookie() != null) {
+            Connection connection = pagedSearches.resume(sessionKey,
+                    configuration.queryPageCookie());
+            if (connection != null) {
+                return new LdapTestingCommons.LdapConnectionAttempt(SUCCESSFUL_BIND, connection);
+            }
+        }
+        return ldapTestingCommons.bindUserToLdapConnection(configuration);
+    }
+
+    private static Map<String, String> toResultMap(SearchResultEntry entry) {
+        Map<String, String> entryMap = new HashMap<>();
+        entryMap.put("name",
+                entry.getName()
+                        .toString());
+        for (Attribute attri : entry.getAllAttributes()) {
+            if (!attri.getAttributeDescriptionAsString()
+                    .toLowerCase()
+                    .contains("password")) {
+                List<String> attributeValueList = new ArrayList<>();
+                for (ByteString value : attri) {
+                    attributeValueList.add(value.toString());
+                }
+                String attributeValue = attributeValueList.size() == 1 ?
+                        attributeValueList.get(0) :
+                        attributeValueList.toString();
+                entryMap.put(attri.getAttributeDescriptionAsString(), attributeValue);
+            }
+        }
+        return entryMap;
     }
 }
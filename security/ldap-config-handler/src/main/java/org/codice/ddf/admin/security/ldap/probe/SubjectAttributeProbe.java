@@ -37,6 +37,7 @@ import org.codice.ddf.admin.api.configurator.Configurator;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
 import org.codice.ddf.admin.api.handler.method.ProbeMethod;
 import org.codice.ddf.admin.api.handler.report.ProbeReport;
+import org.codice.ddf.admin.security.ldap.LdapConnectionPool;
 import org.codice.ddf.admin.security.ldap.ServerGuesser;
 import org.codice.ddf.admin.security.ldap.test.LdapTestingCommons;
 import org.forgerock.opendj.ldap.LdapException;
@@ -98,16 +99,15 @@ public class SubjectAttributeProbe extends ProbeMethod<LdapConfiguration> {
         Object subjectClaims = configurator.getConfig(STS_CLAIMS_CONFIGURATION_CONFIG_ID)
                 .get(STS_CLAIMS_PROPS_KEY_CLAIMS);
 
-        LdapTestingCommons.LdapConnectionAttempt ldapConnectionAttempt =
-                ldapTestingCommons.bindUserToLdapConnection(configuration);
-
         Set<String> ldapEntryAttributes = null;
-        try {
+        try (LdapTestingCommons.LdapConnectionAttempt ldapConnectionAttempt =
+                ldapTestingCommons.bindUserToLdapConnection(configuration)) {
             if (ldapConnectionAttempt.result() == SUCCESSFUL_BIND) {
                 ServerGuesser serverGuesser = ServerGuesser.buildGuesser(configuration.ldapType(),
                         ldapConnectionAttempt.connection());
                 ldapEntryAttributes =
-                        serverGuesser.getClaimAttributeOptions(configuration.baseUserDn());
+                        serverGuesser.getClaimAttributeOptions(configuration.baseUserDn(),
+                                LdapConnectionPool.Key.forConnection(configuration));
             } else {
                 LOGGER.warn("Error binding to LDAP server with config: {}",
                         configuration.toString());
@@ -80,7 +80,7 @@ public class BindUserTestMethod extends TestMethod<LdapConfiguration> {
     @Override
     public Report test(LdapConfiguration configuration) {
         LdapTestingCommons.LdapConnectionAttempt bindConnectionAttempt =
-                ldapTestingCommons.bindUserToLdapConnection(configuration);
+                ldapTestingCommons.verifyBind(configuration);
 
         if (bindConnectionAttempt.result() == SUCCESSFUL_BIND) {
             bindConnectionAttempt.connection()
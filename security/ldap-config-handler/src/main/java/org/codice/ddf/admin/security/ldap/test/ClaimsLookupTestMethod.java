@@ -0,0 +1,452 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.admin.security.ldap.test;
+
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BASE_GROUP_DN;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BASE_USER_DN;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_METHOD;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_REALM;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_USER;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.BIND_USER_PASSWORD;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.ENCRYPTION_METHOD;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.GROUP_ATTRIBUTE_HOLDING_MEMBER;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.GROUP_OBJECT_CLASS;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.HOST_NAME;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.PORT;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.USER_NAME_ATTRIBUTE;
+import static org.codice.ddf.admin.api.handler.commons.HandlerCommons.SUCCESSFUL_TEST;
+import static org.codice.ddf.admin.api.handler.report.Report.createReport;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.validateBindRealm;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_BIND;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONFIGURE;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONNECT;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.LARGE_GROUP_MEMBERSHIP;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.NO_USERS_IN_BASE_USER_DN;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SLOW_GROUP_LOOKUP;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SLOW_USER_LOOKUP;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL_BIND;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.UNINDEXED_GROUP_LOOKUP;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.UNINDEXED_USER_LOOKUP;
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.toDescriptionMap;
+import static org.codice.ddf.admin.security.ldap.test.LdapTestingCommons.LdapConnectionAttempt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
+import org.codice.ddf.admin.api.handler.method.TestMethod;
+import org.codice.ddf.admin.api.handler.report.Report;
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.Filter;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+
+/**
+ * Replays the lookups the LDAP claims handler makes when a user logs in, for a sample of the
+ * users under the base user DN: the user is found by the user name attribute, then their groups
+ * are found by the reference to them held in each group. The latency of each lookup is compared
+ * to a read of the user entry by DN, which any server answers without a search index.
+ * <p>
+ * OpenDJ based servers also describe how they would run a search when it asks for the
+ * {@code debugsearchindex} attribute, which gives the number of entries a lookup scans. Other
+ * servers ignore the attribute, leaving the latency comparison as the only sign of a missing
+ * index.
+ */
+public class ClaimsLookupTestMethod extends TestMethod<LdapConfiguration> {
+    private static final String LDAP_CLAIMS_LOOKUP_TEST_ID = "claims-lookup";
+
+    private static final String DESCRIPTION =
+            "Replays the user and group lookups made for claims at login and reports their latency and any signs of missing indexes.";
+
+    public static final String LOOKUP_LATENCY = "LOOKUP_LATENCY";
+
+    static final int SAMPLE_USERS = 20;
+
+    static final int MAX_LOOKUP_RESULTS = 1000;
+
+    static final int LARGE_GROUP_MEMBERS = 5000;
+
+    static final int SLOW_LOOKUP_FACTOR = 10;
+
+    static final long SLOW_LOOKUP_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    static final String DEBUG_SEARCH_INDEX = "debugsearchindex";
+
+    // The claims handler only reads the name of each group it finds
+    private static final String GROUP_NAME_ATTRIBUTE = "cn";
+
+    private static final String NO_ATTRIBUTES = "1.1";
+
+    private static final Pattern ENTRIES_SCANNED = Pattern.compile("final=\\[COUNT:(\\d+)]");
+
+    private static final Pattern NOT_INDEXED = Pattern.compile("final=\\[NOT-INDEXED]");
+
+    private static final List<String> REQUIRED_FIELDS = ImmutableList.of(HOST_NAME,
+            PORT,
+            ENCRYPTION_METHOD,
+            BIND_USER,
+            BIND_USER_PASSWORD,
+            BIND_METHOD,
+            BASE_USER_DN,
+            BASE_GROUP_DN,
+            USER_NAME_ATTRIBUTE,
+            GROUP_OBJECT_CLASS,
+            GROUP_ATTRIBUTE_HOLDING_MEMBER,
+            MEMBER_ATTRIBUTE_REFERENCED_IN_GROUP);
+
+    private static final List<String> OPTIONAL_FIELDS = ImmutableList.of(BIND_REALM);
+
+    private static final Map<String, String> SUCCESS_TYPES = ImmutableMap.of(SUCCESSFUL_TEST,
+            "The claims lookups showed no signs of missing indexes.",
+            LOOKUP_LATENCY,
+            "Measured the latency of the claims lookups.");
+
+    private static final Map<String, String> FAILURE_TYPES = toDescriptionMap(Arrays.asList(
+            CANNOT_CONFIGURE,
+            CANNOT_CONNECT,
+            CANNOT_BIND));
+
+    private static final Map<String, String> WARNING_TYPES = toDescriptionMap(Arrays.asList(
+            NO_USERS_IN_BASE_USER_DN,
+            UNINDEXED_USER_LOOKUP,
+            UNINDEXED_GROUP_LOOKUP,
+            SLOW_USER_LOOKUP,
+            SLOW_GROUP_LOOKUP,
+            LARGE_GROUP_MEMBERSHIP));
+
+    private final LdapTestingCommons ldapTestingCommons;
+
+    public ClaimsLookupTestMethod(LdapTestingCommons ldapTestingCommons) {
+        super(LDAP_CLAIMS_LOOKUP_TEST_ID,
+                DESCRIPTION,
+                REQUIRED_FIELDS,
+                OPTIONAL_FIELDS,
+                SUCCESS_TYPES,
+                FAILURE_TYPES,
+                WARNING_TYPES);
+        this.ldapTestingCommons = ldapTestingCommons;
+    }
+
+    @Override
+    public Report test(LdapConfiguration configuration) {
+        LdapConnectionAttempt connectionAttempt = ldapTestingCommons.bindUserToLdapConnection(
+                configuration);
+
+        if (connectionAttempt.result() != SUCCESSFUL_BIND) {
+            return createReport(SUCCESS_TYPES,
+                    FAILURE_TYPES,
+                    WARNING_TYPES,
+                    Collections.singletonList(connectionAttempt.result()
+                            .name()));
+        }
+
+        Multimap<String, String> resultsWithConfigIds = ArrayListMultimap.create();
+        ConfigurationMessage latencyMessage;
+        try (Connection ldapConnection = connectionAttempt.connection()) {
+            List<SearchResultEntry> sampleUsers = ldapTestingCommons.getLdapQueryResults(
+                    ldapConnection,
+                    configuration.baseUserDn(),
+                    Filter.present(configuration.userNameAttribute())
+                            .toString(),
+                    SearchScope.WHOLE_SUBTREE,
+                    SAMPLE_USERS,
+                    configuration.userNameAttribute());
+            if (sampleUsers.isEmpty()) {
+                resultsWithConfigIds.put(NO_USERS_IN_BASE_USER_DN.name(), BASE_USER_DN);
+                return createReport(SUCCESS_TYPES,
+                        FAILURE_TYPES,
+                        WARNING_TYPES,
+                        resultsWithConfigIds);
+            }
+
+            LookupTimes dnReads = new LookupTimes();
+            LookupTimes userLookups = new LookupTimes();
+            LookupTimes groupLookups = new LookupTimes();
+            String firstUserFilter = null;
+            String firstGroupFilter = null;
+            for (SearchResultEntry sampleUser : sampleUsers) {
+                String userName = sampleUser.getAttribute(configuration.userNameAttribute())
+                        .firstValueAsString();
+                String userFilter = userFilter(configuration, userName);
+
+                dnReads.time(() -> ldapTestingCommons.getLdapQueryResults(ldapConnection,
+                        sampleUser.getName()
+                                .toString(),
+                        Filter.present("objectClass")
+                                .toString(),
+                        SearchScope.BASE_OBJECT,
+                        1,
+                        NO_ATTRIBUTES));
+                List<SearchResultEntry> users = userLookups.time(() -> ldapTestingCommons.getLdapQueryResults(
+                        ldapConnection,
+                        configuration.baseUserDn(),
+                        userFilter,
+                        SearchScope.WHOLE_SUBTREE,
+                        MAX_LOOKUP_RESULTS,
+                        configuration.memberAttributeReferencedInGroup()));
+
+                String groupFilter = groupFilter(configuration, userName, users);
+                groupLookups.time(() -> ldapTestingCommons.getLdapQueryResults(ldapConnection,
+                        configuration.baseGroupDn(),
+                        groupFilter,
+                        SearchScope.WHOLE_SUBTREE,
+                        MAX_LOOKUP_RESULTS,
+                        GROUP_NAME_ATTRIBUTE));
+
+                if (firstUserFilter == null) {
+                    firstUserFilter = userFilter;
+                    firstGroupFilter = groupFilter;
+                }
+            }
+
+            String userIndexDebug = debugSearchIndex(ldapConnection,
+                    configuration.baseUserDn(),
+                    firstUserFilter);
+            String groupIndexDebug = debugSearchIndex(ldapConnection,
+                    configuration.baseGroupDn(),
+                    firstGroupFilter);
+
+            checkUserLookup(resultsWithConfigIds, userIndexDebug, userLookups, dnReads);
+            checkGroupLookup(resultsWithConfigIds, groupIndexDebug, groupLookups, dnReads);
+            checkGroupSizes(configuration,
+                    resultsWithConfigIds,
+                    ldapConnection,
+                    firstGroupFilter);
+
+            latencyMessage = new ConfigurationMessage(ConfigurationMessage.MessageType.SUCCESS,
+                    LOOKUP_LATENCY,
+                    describeLookups(sampleUsers.size(),
+                            dnReads,
+                            userLookups,
+                            userIndexDebug,
+                            groupLookups,
+                            groupIndexDebug));
+        }
+
+        Report report = resultsWithConfigIds.isEmpty() ?
+                createReport(SUCCESS_TYPES, FAILURE_TYPES, WARNING_TYPES, SUCCESSFUL_TEST) :
+                createReport(SUCCESS_TYPES, FAILURE_TYPES, WARNING_TYPES, resultsWithConfigIds);
+        return report.addMessage(latencyMessage);
+    }
+
+    void checkUserLookup(Multimap<String, String> resultsWithConfigIds, String indexDebug,
+            LookupTimes userLookups, LookupTimes dnReads) {
+        if (isUnindexed(indexDebug)) {
+            resultsWithConfigIds.put(UNINDEXED_USER_LOOKUP.name(), USER_NAME_ATTRIBUTE);
+        } else if (isSlow(userLookups, dnReads)) {
+            resultsWithConfigIds.put(SLOW_USER_LOOKUP.name(), USER_NAME_ATTRIBUTE);
+        }
+    }
+
+    void checkGroupLookup(Multimap<String, String> resultsWithConfigIds, String indexDebug,
+            LookupTimes groupLookups, LookupTimes dnReads) {
+        if (isUnindexed(indexDebug)) {
+            resultsWithConfigIds.put(UNINDEXED_GROUP_LOOKUP.name(),
+                    GROUP_ATTRIBUTE_HOLDING_MEMBER);
+        } else if (isSlow(groupLookups, dnReads)) {
+            resultsWithConfigIds.put(SLOW_GROUP_LOOKUP.name(), GROUP_ATTRIBUTE_HOLDING_MEMBER);
+        }
+    }
+
+    /**
+     * Reads the member lists of the groups found for one of the sampled users. Only those groups
+     * are read, since a large directory may hold groups far too big to read in a test.
+     */
+    void checkGroupSizes(LdapConfiguration configuration,
+            Multimap<String, String> resultsWithConfigIds, Connection ldapConnection,
+            String groupFilter) {
+        List<SearchResultEntry> groups = ldapTestingCommons.getLdapQueryResults(ldapConnection,
+                configuration.baseGroupDn(),
+                groupFilter,
+                SearchScope.WHOLE_SUBTREE,
+                SAMPLE_USERS,
+                configuration.groupAttributeHoldingMember());
+        for (SearchResultEntry group : groups) {
+            Attribute members = group.getAttribute(configuration.groupAttributeHoldingMember());
+            if (members != null && members.size() > LARGE_GROUP_MEMBERS) {
+                resultsWithConfigIds.put(LARGE_GROUP_MEMBERSHIP.name(),
+                        GROUP_ATTRIBUTE_HOLDING_MEMBER);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the server's description of how it would run the search, or null if it does not
+     * give one
+     */
+    private String debugSearchIndex(Connection ldapConnection, String baseDn, String filter) {
+        List<SearchResultEntry> results = ldapTestingCommons.getLdapQueryResults(ldapConnection,
+                baseDn,
+                filter,
+                SearchScope.WHOLE_SUBTREE,
+                1,
+                DEBUG_SEARCH_INDEX);
+        if (results.isEmpty()) {
+            return null;
+        }
+        Attribute debug = results.get(0)
+                .getAttribute(DEBUG_SEARCH_INDEX);
+        return debug == null ? null : debug.firstValueAsString();
+    }
+
+    static boolean isSlow(LookupTimes lookups, LookupTimes dnReads) {
+        long threshold = Math.max(SLOW_LOOKUP_NANOS,
+                SLOW_LOOKUP_FACTOR * dnReads.percentile(0.50));
+        return lookups.percentile(0.50) > threshold;
+    }
+
+    static boolean isUnindexed(String indexDebug) {
+        return indexDebug != null && NOT_INDEXED.matcher(indexDebug)
+                .find();
+    }
+
+    /**
+     * @return the number of candidate entries the server reports it would scan, or -1 if it
+     * does not say
+     */
+    static long entriesScanned(String indexDebug) {
+        if (indexDebug == null) {
+            return -1;
+        }
+        Matcher matcher = ENTRIES_SCANNED.matcher(indexDebug);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static String userFilter(LdapConfiguration configuration, String userName) {
+        return Filter.equality(configuration.userNameAttribute(), userName)
+                .toString();
+    }
+
+    /**
+     * Builds the group filter the way the claims handler does, from the value of the member
+     * attribute on the user entry under the base user DN.
+     */
+    private static String groupFilter(LdapConfiguration configuration, String userName,
+            List<SearchResultEntry> users) {
+        String memberName = userName;
+        if (!users.isEmpty()) {
+            Attribute memberAttribute = users.get(0)
+                    .getAttribute(configuration.memberAttributeReferencedInGroup());
+            if (memberAttribute != null) {
+                memberName = memberAttribute.firstValueAsString();
+            }
+        }
+        String memberDn = String.format("%s=%s,%s",
+                configuration.memberAttributeReferencedInGroup(),
+                memberName,
+                configuration.baseUserDn());
+        return Filter.and(Filter.equality("objectClass", configuration.groupObjectClass()),
+                Filter.equality(configuration.groupAttributeHoldingMember(), memberDn))
+                .toString();
+    }
+
+    private static String describeLookups(int users, LookupTimes dnReads,
+            LookupTimes userLookups, String userIndexDebug, LookupTimes groupLookups,
+            String groupIndexDebug) {
+        StringBuilder description = new StringBuilder(String.format(
+                "Replayed the claims lookups for %d users. User lookups took %s and returned %.1f entries on average. "
+                        + "Group lookups took %s and returned %.1f groups on average. "
+                        + "Reading a user entry by DN took %s.",
+                users,
+                userLookups.describe(),
+                userLookups.meanReturned(),
+                groupLookups.describe(),
+                groupLookups.meanReturned(),
+                dnReads.describe()));
+        describeIndexUse(description, "user", userIndexDebug);
+        describeIndexUse(description, "group", groupIndexDebug);
+        return description.toString();
+    }
+
+    private static void describeIndexUse(StringBuilder description, String lookup,
+            String indexDebug) {
+        if (isUnindexed(indexDebug)) {
+            description.append(String.format(" The server scans every entry for a %s lookup.",
+                    lookup));
+        } else if (entriesScanned(indexDebug) >= 0) {
+            description.append(String.format(" The server scans %d entries for a %s lookup.",
+                    entriesScanned(indexDebug),
+                    lookup));
+        }
+    }
+
+    @Override
+    public List<ConfigurationMessage> validateOptionalFields(LdapConfiguration configuration) {
+        return validateBindRealm(configuration);
+    }
+
+    /**
+     * Latencies and result counts of one kind of lookup. Percentiles are nearest-rank values.
+     */
+    static class LookupTimes {
+
+        private final List<Long> nanos = new ArrayList<>();
+
+        private long returned;
+
+        List<SearchResultEntry> time(Supplier<List<SearchResultEntry>> lookup) {
+            long start = System.nanoTime();
+            List<SearchResultEntry> results = lookup.get();
+            add(System.nanoTime() - start, results.size());
+            return results;
+        }
+
+        void add(long lookupNanos, int results) {
+            nanos.add(lookupNanos);
+            returned += results;
+        }
+
+        long percentile(double percentile) {
+            if (nanos.isEmpty()) {
+                return 0;
+            }
+            long[] sorted = nanos.stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+            return sorted[Math.max(0, (int) Math.ceil(sorted.length * percentile) - 1)];
+        }
+
+        double meanReturned() {
+            return nanos.isEmpty() ? 0 : (double) returned / nanos.size();
+        }
+
+        String describe() {
+            return String.format("p50 %.1f ms, p95 %.1f ms, p99 %.1f ms",
+                    millis(percentile(0.50)),
+                    millis(percentile(0.95)),
+                    millis(percentile(0.99)));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
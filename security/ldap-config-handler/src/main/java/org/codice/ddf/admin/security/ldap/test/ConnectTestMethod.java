@@ -15,18 +15,22 @@
 package org.codice.ddf.admin.security.ldap.test;
 
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.ENCRYPTION_METHOD;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.FAILOVER_SERVERS;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.HOST_NAME;
+import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.LOAD_BALANCING;
 import static org.codice.ddf.admin.api.config.ldap.LdapConfiguration.PORT;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONFIGURE;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONNECT;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL_CONNECTION;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.toDescriptionMap;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
+import org.codice.ddf.admin.api.handler.ConfigurationMessage;
 import org.codice.ddf.admin.api.handler.method.TestMethod;
 import org.codice.ddf.admin.api.handler.report.Report;
 
@@ -35,12 +39,16 @@ import com.google.common.collect.ImmutableList;
 public class ConnectTestMethod extends TestMethod<LdapConfiguration> {
     private static final String LDAP_CONNECTION_TEST_ID = "connection";
 
-    private static final String DESCRIPTION = "Attempts to connect to the given LDAP host";
+    private static final String DESCRIPTION =
+            "Attempts to connect to the given LDAP host and to any failover servers";
 
     private static final List<String> REQUIRED_FIELDS = ImmutableList.of(HOST_NAME,
             PORT,
             ENCRYPTION_METHOD);
 
+    private static final List<String> OPTIONAL_FIELDS = ImmutableList.of(FAILOVER_SERVERS,
+            LOAD_BALANCING);
+
     private static final Map<String, String> SUCCESS_TYPES =
             toDescriptionMap(Collections.singletonList(SUCCESSFUL_CONNECTION));
 
@@ -54,7 +62,7 @@ public class ConnectTestMethod extends TestMethod<LdapConfiguration> {
         super(LDAP_CONNECTION_TEST_ID,
                 DESCRIPTION,
                 REQUIRED_FIELDS,
-                null,
+                OPTIONAL_FIELDS,
                 SUCCESS_TYPES,
                 FAILURE_TYPES,
                 null);
@@ -63,6 +71,11 @@ public class ConnectTestMethod extends TestMethod<LdapConfiguration> {
 
     @Override
     public Report test(LdapConfiguration configuration) {
+        if (configuration.failoverServers() != null && !configuration.failoverServers()
+                .isEmpty()) {
+            return testServers(configuration);
+        }
+
         LdapTestingCommons.LdapConnectionAttempt connectionAttempt =
                 ldapTestingCommons.getLdapConnection(configuration);
         if (connectionAttempt.connection() != null) {
@@ -77,4 +90,42 @@ public class ConnectTestMethod extends TestMethod<LdapConfiguration> {
                         .name()));
     }
 
+    /**
+     * Reports the outcome and connection time of each server, so that the fastest can be placed
+     * first for failover.
+     */
+    private Report testServers(LdapConfiguration configuration) {
+        List<LdapTestingCommons.ServerConnectionAttempt> attempts =
+                ldapTestingCommons.getServerConnections(configuration);
+        Report report = new Report();
+        for (int i = 0; i < attempts.size(); i++) {
+            LdapTestingCommons.ServerConnectionAttempt attempt = attempts.get(i);
+            ConfigurationMessage message = ConfigurationMessage.buildMessage(SUCCESS_TYPES,
+                    FAILURE_TYPES,
+                    null,
+                    attempt.result()
+                            .name(),
+                    i == 0 ? HOST_NAME : FAILOVER_SERVERS);
+            report.addMessage(new ConfigurationMessage(message.type(),
+                    message.subtype(),
+                    String.format("%s (%s, %d ms)",
+                            message.message(),
+                            attempt.server(),
+                            attempt.latencyMillis()),
+                    message.configFieldId()));
+        }
+        return report;
+    }
+
+    @Override
+    public List<ConfigurationMessage> validateOptionalFields(LdapConfiguration configuration) {
+        List<ConfigurationMessage> validationResults = new ArrayList<>();
+        if (configuration.failoverServers() != null) {
+            validationResults.addAll(configuration.validate(ImmutableList.of(FAILOVER_SERVERS)));
+        }
+        if (configuration.loadBalancing() != null) {
+            validationResults.addAll(configuration.validate(ImmutableList.of(LOAD_BALANCING)));
+        }
+        return validationResults;
+    }
 }
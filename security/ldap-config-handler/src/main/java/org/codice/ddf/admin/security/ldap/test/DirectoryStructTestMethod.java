@@ -50,6 +50,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
 import org.codice.ddf.admin.api.handler.ConfigurationMessage;
@@ -131,21 +133,40 @@ public class DirectoryStructTestMethod extends TestMethod<LdapConfiguration> {
 
         Multimap<String, String> resultsWithConfigIds = ArrayListMultimap.create();
         try (Connection ldapConnection = connectionAttempt.connection()) {
-            if (checkUserDir(configuration, ldapConnection)) {
+            // The checks other than the referenced member lookup do not depend on each other,
+            // so send them all before waiting on any response
+            Future<List<SearchResultEntry>> userDirQuery = findUserDir(configuration,
+                    ldapConnection);
+            Future<List<SearchResultEntry>> usersQuery = findUsers(configuration, ldapConnection);
+            Future<List<SearchResultEntry>> groupDirQuery = findGroupDir(configuration,
+                    ldapConnection);
+            Future<List<SearchResultEntry>> groupsOfClassQuery = findGroupsOfClass(configuration,
+                    ldapConnection);
+            Future<List<SearchResultEntry>> groupsWithMembersQuery = findGroupsWithMembers(
+                    configuration,
+                    ldapConnection);
+
+            List<SearchResultEntry> userDir = results(userDirQuery);
+            List<SearchResultEntry> users = results(usersQuery);
+            List<SearchResultEntry> groupDir = results(groupDirQuery);
+            List<SearchResultEntry> groupsOfClass = results(groupsOfClassQuery);
+            List<SearchResultEntry> groupsWithMembers = results(groupsWithMembersQuery);
+
+            if (userDir.isEmpty()) {
                 resultsWithConfigIds.put(BASE_USER_DN_NOT_FOUND.name(), BASE_USER_DN);
             } else {
-                checkUsersInDir(configuration, resultsWithConfigIds, ldapConnection);
+                checkUsersInDir(resultsWithConfigIds, users);
             }
 
-            if (checkGroupDir(configuration, ldapConnection)) {
+            if (groupDir.isEmpty()) {
                 resultsWithConfigIds.put(BASE_GROUP_DN_NOT_FOUND.name(), BASE_GROUP_DN);
             } else {
                 // First check the group objectClass is on at least one entry in the directory
-                checkGroupObjectClass(configuration, resultsWithConfigIds, ldapConnection);
+                checkGroupObjectClass(resultsWithConfigIds, groupsOfClass);
 
                 // Then, check that there is a group entry (of the correct objectClass) that has
                 // any member references
-                checkGroup(configuration, resultsWithConfigIds, ldapConnection);
+                checkGroup(configuration, resultsWithConfigIds, ldapConnection, groupsWithMembers);
             }
         }
 
@@ -156,65 +177,75 @@ public class DirectoryStructTestMethod extends TestMethod<LdapConfiguration> {
         return createReport(SUCCESS_TYPES, FAILURE_TYPES, WARNING_TYPES, resultsWithConfigIds);
     }
 
-    boolean checkUserDir(LdapConfiguration configuration, Connection ldapConnection) {
-        return ldapTestingCommons.getLdapQueryResults(ldapConnection,
+    Future<List<SearchResultEntry>> findUserDir(LdapConfiguration configuration,
+            Connection ldapConnection) {
+        return ldapTestingCommons.getLdapQueryResultsAsync(ldapConnection,
                 configuration.baseUserDn(),
                 Filter.present("objectClass")
                         .toString(),
                 SearchScope.BASE_OBJECT,
-                1)
-                .isEmpty();
+                1);
     }
 
-    void checkUsersInDir(LdapConfiguration configuration,
-            Multimap<String, String> resultsWithConfigIds, Connection ldapConnection) {
-        List<SearchResultEntry> baseUsersResults = ldapTestingCommons.getLdapQueryResults(
-                ldapConnection,
+    Future<List<SearchResultEntry>> findUsers(LdapConfiguration configuration,
+            Connection ldapConnection) {
+        return ldapTestingCommons.getLdapQueryResultsAsync(ldapConnection,
                 configuration.baseUserDn(),
                 Filter.present(configuration.userNameAttribute())
                         .toString(),
                 SearchScope.SUBORDINATES,
                 1);
-        if (baseUsersResults.isEmpty()) {
-            resultsWithConfigIds.put(NO_USERS_IN_BASE_USER_DN.name(), BASE_USER_DN);
-            resultsWithConfigIds.put(USER_NAME_ATTRIBUTE_NOT_FOUND.name(), USER_NAME_ATTRIBUTE);
-        }
     }
 
-    boolean checkGroupDir(LdapConfiguration configuration, Connection ldapConnection) {
-        return ldapTestingCommons.getLdapQueryResults(ldapConnection,
+    Future<List<SearchResultEntry>> findGroupDir(LdapConfiguration configuration,
+            Connection ldapConnection) {
+        return ldapTestingCommons.getLdapQueryResultsAsync(ldapConnection,
                 configuration.baseGroupDn(),
                 Filter.present("objectClass")
                         .toString(),
                 SearchScope.BASE_OBJECT,
-                1)
-                .isEmpty();
+                1);
     }
 
-    void checkGroupObjectClass(LdapConfiguration configuration,
-            Multimap<String, String> resultsWithConfigIds, Connection ldapConnection) {
-        List<SearchResultEntry> baseGroupResults = ldapTestingCommons.getLdapQueryResults(
-                ldapConnection,
+    Future<List<SearchResultEntry>> findGroupsOfClass(LdapConfiguration configuration,
+            Connection ldapConnection) {
+        return ldapTestingCommons.getLdapQueryResultsAsync(ldapConnection,
                 configuration.baseGroupDn(),
                 Filter.equality("objectClass", configuration.groupObjectClass())
                         .toString(),
                 SearchScope.SUBORDINATES,
                 1);
-        if (baseGroupResults.isEmpty()) {
-            resultsWithConfigIds.put(NO_GROUPS_IN_BASE_GROUP_DN.name(), BASE_GROUP_DN);
-            resultsWithConfigIds.put(NO_GROUPS_IN_BASE_GROUP_DN.name(), GROUP_OBJECT_CLASS);
-        }
     }
 
-    void checkGroup(LdapConfiguration configuration, Multimap<String, String> resultsWithConfigIds,
+    Future<List<SearchResultEntry>> findGroupsWithMembers(LdapConfiguration configuration,
             Connection ldapConnection) {
-        List<SearchResultEntry> groups = ldapTestingCommons.getLdapQueryResults(ldapConnection,
+        return ldapTestingCommons.getLdapQueryResultsAsync(ldapConnection,
                 configuration.baseGroupDn(),
                 Filter.and(Filter.equality("objectClass", configuration.groupObjectClass()),
                         Filter.present(configuration.groupAttributeHoldingMember()))
                         .toString(),
                 SearchScope.SUBORDINATES,
                 1);
+    }
+
+    void checkUsersInDir(Multimap<String, String> resultsWithConfigIds,
+            List<SearchResultEntry> baseUsersResults) {
+        if (baseUsersResults.isEmpty()) {
+            resultsWithConfigIds.put(NO_USERS_IN_BASE_USER_DN.name(), BASE_USER_DN);
+            resultsWithConfigIds.put(USER_NAME_ATTRIBUTE_NOT_FOUND.name(), USER_NAME_ATTRIBUTE);
+        }
+    }
+
+    void checkGroupObjectClass(Multimap<String, String> resultsWithConfigIds,
+            List<SearchResultEntry> baseGroupResults) {
+        if (baseGroupResults.isEmpty()) {
+            resultsWithConfigIds.put(NO_GROUPS_IN_BASE_GROUP_DN.name(), BASE_GROUP_DN);
+            resultsWithConfigIds.put(NO_GROUPS_IN_BASE_GROUP_DN.name(), GROUP_OBJECT_CLASS);
+        }
+    }
+
+    void checkGroup(LdapConfiguration configuration, Multimap<String, String> resultsWithConfigIds,
+            Connection ldapConnection, List<SearchResultEntry> groups) {
         if (groups.isEmpty()) {
             resultsWithConfigIds.put(NO_GROUPS_WITH_MEMBERS.name(), GROUP_ATTRIBUTE_HOLDING_MEMBER);
         } else {
@@ -254,6 +285,19 @@ public class DirectoryStructTestMethod extends TestMethod<LdapConfiguration> {
         }
     }
 
+    private static List<SearchResultEntry> results(Future<List<SearchResultEntry>> query) {
+        try {
+            return query.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            query.cancel(true);
+            return Collections.emptyList();
+        } catch (ExecutionException e) {
+            return Collections.emptyList();
+        }
+    }
+
     @Override
     public List<ConfigurationMessage> validateOptionalFields(LdapConfiguration configuration) {
         List<ConfigurationMessage> validationResults = validateBindRealm(configuration);
@@ -14,10 +14,12 @@
 
 package org.codice.ddf.admin.security.ldap.test;
 
+import static org.codice.ddf.admin.api.network.TlsTrustCache.TrustVerdict.UNTRUSTED_CA;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.DIGEST_MD5_SASL;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.LDAPS;
 import static org.codice.ddf.admin.api.validation.LdapValidationUtils.SIMPLE;
-import static org.codice.ddf.admin.api.validation.LdapValidationUtils.START_TLS;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.parseServer;
+import static org.codice.ddf.admin.api.validation.LdapValidationUtils.serverHost;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_BIND;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONFIGURE;
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONNECT;
@@ -25,44 +27,154 @@ import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL_CONNECTION;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.net.ssl.SSLContext;
 
 import org.codice.ddf.admin.api.config.ldap.LdapConfiguration;
+import org.codice.ddf.admin.api.network.TlsTrustCache;
+import org.codice.ddf.admin.security.ldap.LdapConnectionPool;
+import org.codice.ddf.admin.security.ldap.LdapConnectionProfile;
+import org.codice.ddf.admin.security.ldap.LdapConnectionProfiles;
 import org.codice.ddf.admin.security.ldap.LdapConnectionResult;
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.Connection;
-import org.forgerock.opendj.ldap.LDAPConnectionFactory;
-import org.forgerock.opendj.ldap.LDAPOptions;
+import org.forgerock.opendj.ldap.DecodeOptions;
+import org.forgerock.opendj.ldap.LdapPromise;
+import org.forgerock.opendj.ldap.SearchResultHandler;
 import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
 import org.forgerock.opendj.ldap.requests.BindRequest;
 import org.forgerock.opendj.ldap.requests.DigestMD5SASLBindRequest;
 import org.forgerock.opendj.ldap.requests.Requests;
+import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Result;
 import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.opendj.ldap.responses.SearchResultReference;
 import org.forgerock.opendj.ldif.ConnectionEntryReader;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 public class LdapTestingCommons {
+
+    private static final ExecutorService SERVER_CONNECTION_EXECUTOR =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(
+                    "ldap-server-connection-%d")
+                    .setDaemon(true)
+                    .build());
+
+    private final LdapConnectionPool connectionPool;
+
+    public LdapTestingCommons() {
+        this(LdapConnectionPool.getInstance());
+    }
+
+    public LdapTestingCommons(LdapConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Opens a new, unbound connection. Once closed, the connection is kept in the pool for a
+     * while, so a following {@link #bindUserToLdapConnection} can bind on it rather than
+     * connecting and negotiating TLS again.
+     */
     public LdapConnectionAttempt getLdapConnection(LdapConfiguration ldapConfiguration) {
-        LDAPOptions ldapOptions = new LDAPOptions();
+        LdapConnectionAttempt connectionAttempt = openConnection(
+                ldapConfiguration.encryptionMethod(),
+                ldapConfiguration.hostName(),
+                ldapConfiguration.port(),
+                false);
+        if (connectionAttempt.result() != SUCCESSFUL_CONNECTION) {
+            return connectionAttempt;
+        }
+        return new LdapConnectionAttempt(SUCCESSFUL_CONNECTION,
+                connectionPool.adopt(LdapConnectionPool.Key.forConnection(ldapConfiguration),
+                        connectionAttempt.connection()));
+    }
 
-        try {
-            if (ldapConfiguration.encryptionMethod()
-                    .equalsIgnoreCase(LDAPS)) {
-                ldapOptions.setSSLContext(SSLContext.getDefault());
-            } else if (ldapConfiguration.encryptionMethod()
-                    .equalsIgnoreCase(START_TLS)) {
-                ldapOptions.setUseStartTLS(true);
-            }
+    /**
+     * Connects to each of the configuration's servers, the failover servers included, at the same
+     * time. Each connection is returned to the pool as soon as it is open, as with
+     * {@link #getLdapConnection}.
+     *
+     * @return the outcome of connecting to each server, in the order of
+     * {@link LdapConfiguration#servers()}
+     */
+    public List<ServerConnectionAttempt> getServerConnections(
+            LdapConfiguration ldapConfiguration) {
+        List<CompletableFuture<ServerConnectionAttempt>> attempts = ldapConfiguration.servers()
+                .stream()
+                .map(server -> CompletableFuture.supplyAsync(() -> connectToServer(
+                        ldapConfiguration.encryptionMethod(),
+                        server), SERVER_CONNECTION_EXECUTOR))
+                .collect(Collectors.toList());
+        return attempts.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
 
-            ldapOptions.addEnabledCipherSuite(System.getProperty("https.cipherSuites")
-                    .split(","));
-            ldapOptions.addEnabledProtocol(System.getProperty("https.protocols")
-                    .split(","));
+    private ServerConnectionAttempt connectToServer(String encryptionMethod, String server) {
+        URI serverUri = parseServer(server);
+        if (serverUri == null) {
+            return new ServerConnectionAttempt(server, CANNOT_CONFIGURE, -1);
+        }
 
-            //sets the classloader so it can find the grizzly protocol handler class
-            ldapOptions.setProviderClassLoader(LdapTestingCommons.class.getClassLoader());
+        String host = serverHost(serverUri);
+        long start = System.nanoTime();
+        LdapConnectionAttempt connectionAttempt = openConnection(encryptionMethod,
+                host,
+                serverUri.getPort(),
+                false);
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (connectionAttempt.result() != SUCCESSFUL_CONNECTION) {
+            return new ServerConnectionAttempt(server, connectionAttempt.result(), latencyMillis);
+        }
+
+        connectionPool.adopt(new LdapConnectionPool.Key(host,
+                serverUri.getPort(),
+                encryptionMethod,
+                null,
+                null,
+                null,
+                null), connectionAttempt.connection())
+                .close();
+        return new ServerConnectionAttempt(server, SUCCESSFUL_CONNECTION, latencyMillis);
+    }
 
+    /**
+     * @param trustCachedVerdict if true, fails without connecting to an LDAPS server already
+     *                           known to present an untrusted chain. Connection tests pass false,
+     *                           so that a server whose certificate has since been fixed is seen.
+     */
+    private LdapConnectionAttempt openConnection(String encryptionMethod, String hostName,
+            int port, boolean trustCachedVerdict) {
+        LdapConnectionProfile profile;
+        try {
+            SSLContext sslContext = null;
+            if (encryptionMethod.equalsIgnoreCase(LDAPS)) {
+                TlsTrustCache trustCache = TlsTrustCache.getInstance();
+                // A server already known to present an untrusted chain will fail the handshake
+                if (trustCachedVerdict && trustCache.getVerdict(hostName, port)
+                        .filter(UNTRUSTED_CA::equals)
+                        .isPresent()) {
+                    return new LdapConnectionAttempt(CANNOT_CONNECT);
+                }
+                sslContext = trustCache.getSslContext(hostName, port, true);
+            }
+            profile = LdapConnectionProfiles.getInstance()
+                    .getProfile(encryptionMethod, sslContext);
         } catch (Exception e) {
             return new LdapConnectionAttempt(CANNOT_CONFIGURE);
         }
@@ -70,9 +182,7 @@ public class LdapTestingCommons {
         Connection ldapConnection;
 
         try {
-            ldapConnection = new LDAPConnectionFactory(ldapConfiguration.hostName(),
-                    ldapConfiguration.port(),
-                    ldapOptions).getConnection();
+            ldapConnection = profile.connect(hostName, port);
         } catch (Exception e) {
             return new LdapConnectionAttempt(CANNOT_CONNECT);
         }
@@ -80,14 +190,61 @@ public class LdapTestingCommons {
         return new LdapConnectionAttempt(SUCCESSFUL_CONNECTION, ldapConnection);
     }
 
+    /**
+     * Leases a bound connection from the pool. If no idle session for the same server and
+     * credentials is available, binds an idle unbound connection to the server or a new one. The
+     * connection must be closed, which returns it to the pool; closing the returned attempt does
+     * so.
+     */
     public LdapConnectionAttempt bindUserToLdapConnection(LdapConfiguration ldapConfiguration) {
+        try {
+            Connection connection = connectionPool.borrow(LdapConnectionPool.Key.forBind(
+                    ldapConfiguration), () -> openBoundConnection(ldapConfiguration));
+            return new LdapConnectionAttempt(SUCCESSFUL_BIND, connection);
+        } catch (ConnectionFailedException e) {
+            return new LdapConnectionAttempt(e.result);
+        } catch (Exception e) {
+            return new LdapConnectionAttempt(CANNOT_CONNECT);
+        }
+    }
 
-        LdapConnectionAttempt ldapConnectionResult = getLdapConnection(ldapConfiguration);
-        if (ldapConnectionResult.result() != SUCCESSFUL_CONNECTION) {
-            return ldapConnectionResult;
+    /**
+     * Always sends a bind request for the configuration's credentials, unlike
+     * {@link #bindUserToLdapConnection}, which may return a session bound earlier. An idle
+     * unbound connection to the server is reused if there is one. A bound connection is added to
+     * the pool so that later steps can reuse it; a rejected bind closes the pooled sessions for
+     * the same credentials.
+     */
+    public LdapConnectionAttempt verifyBind(LdapConfiguration ldapConfiguration) {
+        LdapConnectionPool.Key key = LdapConnectionPool.Key.forBind(ldapConfiguration);
+        try {
+            return new LdapConnectionAttempt(SUCCESSFUL_BIND,
+                    connectionPool.adopt(key, openBoundConnection(ldapConfiguration)));
+        } catch (ConnectionFailedException e) {
+            if (e.result == CANNOT_BIND) {
+                connectionPool.invalidate(key);
+            }
+            return new LdapConnectionAttempt(e.result);
+        } catch (Exception e) {
+            return new LdapConnectionAttempt(CANNOT_CONNECT);
         }
+    }
 
-        Connection connection = ldapConnectionResult.connection();
+    private Connection openBoundConnection(LdapConfiguration ldapConfiguration)
+            throws ConnectionFailedException {
+        Connection connection = connectionPool.take(LdapConnectionPool.Key.forConnection(
+                ldapConfiguration));
+        if (connection == null) {
+            LdapConnectionAttempt ldapConnectionResult = openConnection(
+                    ldapConfiguration.encryptionMethod(),
+                    ldapConfiguration.hostName(),
+                    ldapConfiguration.port(),
+                    true);
+            if (ldapConnectionResult.result() != SUCCESSFUL_CONNECTION) {
+                throw new ConnectionFailedException(ldapConnectionResult.result());
+            }
+            connection = ldapConnectionResult.connection();
+        }
 
         try {
             BindRequest bindRequest = selectBindMethod(ldapConfiguration.bindUserMethod(),
@@ -97,10 +254,11 @@ public class LdapTestingCommons {
                     null);
             connection.bind(bindRequest);
         } catch (Exception e) {
-            return new LdapConnectionAttempt(CANNOT_BIND);
+            connection.close();
+            throw new ConnectionFailedException(CANNOT_BIND);
         }
 
-        return new LdapConnectionAttempt(SUCCESSFUL_BIND, connection);
+        return connection;
     }
 
     /**
@@ -143,6 +301,88 @@ public class LdapTestingCommons {
         return entries;
     }
 
+    /**
+     * Starts a query without waiting for its response, so that several independent queries can
+     * be in flight on one connection at once. The server is asked to return at most
+     * {@code maxResults} entries.
+     *
+     * @return the entries found, once the query completes. As with
+     * {@link #getLdapQueryResults}, a failed query yields the entries read before it failed
+     */
+    public Future<List<SearchResultEntry>> getLdapQueryResultsAsync(Connection ldapConnection,
+            String ldapSearchBaseDN, String ldapQuery, SearchScope searchScope, int maxResults,
+            String... attributes) {
+        SearchRequest request = Requests.newSearchRequest(ldapSearchBaseDN,
+                searchScope,
+                ldapQuery,
+                attributes == null ? new String[0] : attributes)
+                .setSizeLimit(maxResults);
+        List<SearchResultEntry> entries = Collections.synchronizedList(new ArrayList<>());
+        LdapPromise<Result> search = ldapConnection.searchAsync(request,
+                new SearchResultHandler() {
+                    @Override
+                    public boolean handleEntry(SearchResultEntry entry) {
+                        synchronized (entries) {
+                            if (entries.size() < maxResults) {
+                                entries.add(entry);
+                            }
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean handleReference(SearchResultReference reference) {
+                        return true;
+                    }
+                });
+        return new PendingQueryResults(search, entries);
+    }
+
+    /**
+     * Reads one page of a query's results using the Simple Paged Results control, passing each
+     * entry to {@code consumer} as it arrives rather than collecting them. The control is not
+     * critical, so a server that does not support it returns unpaged results; reading then stops
+     * after {@code pageSize} entries and no cookie is returned.
+     *
+     * @param cookie     the cookie returned with the previous page, or null for the first page
+     * @param attributes optional list of attributes for return projection; if null or empty,
+     *                   then all attributes will be returned
+     * @return the cookie for the next page, or null if this was the last page
+     * @throws IOException if the search fails, such as for a cookie the server does not accept
+     */
+    public ByteString getLdapQueryPage(Connection ldapConnection, String ldapSearchBaseDN,
+            String ldapQuery, SearchScope searchScope, int pageSize, ByteString cookie,
+            Consumer<SearchResultEntry> consumer, String... attributes) throws IOException {
+        SearchRequest request = Requests.newSearchRequest(ldapSearchBaseDN,
+                searchScope,
+                ldapQuery,
+                attributes == null ? new String[0] : attributes)
+                .addControl(SimplePagedResultsControl.newControl(false,
+                        pageSize,
+                        cookie == null ? ByteString.empty() : cookie));
+
+        try (ConnectionEntryReader reader = ldapConnection.search(request)) {
+            int read = 0;
+            while (reader.hasNext()) {
+                if (reader.isReference()) {
+                    reader.readReference();
+                } else if (read == pageSize) {
+                    // The server ignored the control; closing the reader abandons the search
+                    return null;
+                } else {
+                    consumer.accept(reader.readEntry());
+                    read++;
+                }
+            }
+
+            Result result = reader.readResult();
+            SimplePagedResultsControl control = result.getControl(SimplePagedResultsControl.DECODER,
+                    new DecodeOptions());
+            return control == null || control.getCookie()
+                    .length() == 0 ? null : control.getCookie();
+        }
+    }
+
     private static BindRequest selectBindMethod(String bindMethod, String bindUser,
             String bindUserCredentials, String realm, String kdcAddress) {
         BindRequest request;
@@ -186,7 +426,64 @@ public class LdapTestingCommons {
         return request;
     }
 
-    public static class LdapConnectionAttempt {
+    private static class PendingQueryResults implements Future<List<SearchResultEntry>> {
+
+        private final LdapPromise<Result> search;
+
+        private final List<SearchResultEntry> entries;
+
+        private PendingQueryResults(LdapPromise<Result> search, List<SearchResultEntry> entries) {
+            this.search = search;
+            this.entries = entries;
+        }
+
+        @Override
+        public List<SearchResultEntry> get() throws InterruptedException {
+            try {
+                search.get();
+            } catch (ExecutionException e) {
+                // Keep what was read, such as the entries before a size limit was reached
+            }
+            return copyOfEntries();
+        }
+
+        @Override
+        public List<SearchResultEntry> get(long timeout, TimeUnit unit)
+                throws InterruptedException, TimeoutException {
+            try {
+                search.get(timeout, unit);
+            } catch (ExecutionException e) {
+                // Keep what was read, such as the entries before a size limit was reached
+            }
+            return copyOfEntries();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return search.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return search.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return search.isDone();
+        }
+
+        private List<SearchResultEntry> copyOfEntries() {
+            synchronized (entries) {
+                return new ArrayList<>(entries);
+            }
+        }
+    }
+
+    /**
+     * The result of opening a connection. Closing the attempt closes its connection, if any.
+     */
+    public static class LdapConnectionAttempt implements AutoCloseable {
 
         private LdapConnectionResult result;
 
@@ -208,5 +505,59 @@ public class LdapTestingCommons {
         public LdapConnectionResult result() {
             return result;
         }
+
+        @Override
+        public void close() {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * The result of connecting to one of a configuration's servers, and how long it took.
+     */
+    public static class ServerConnectionAttempt {
+
+        private final String server;
+
+        private final LdapConnectionResult result;
+
+        private final long latencyMillis;
+
+        public ServerConnectionAttempt(String server, LdapConnectionResult result,
+                long latencyMillis) {
+            this.server = server;
+            this.result = result;
+            this.latencyMillis = latencyMillis;
+        }
+
+        /**
+         * @return the server as {@code host:port}
+         */
+        public String server() {
+            return server;
+        }
+
+        public LdapConnectionResult result() {
+            return result;
+        }
+
+        /**
+         * @return the time taken to open the connection, or to fail to, or -1 if no connection
+         * was attempted
+         */
+        public long latencyMillis() {
+            return latencyMillis;
+        }
+    }
+
+    private static class ConnectionFailedException extends Exception {
+
+        private final LdapConnectionResult result;
+
+        private ConnectionFailedException(LdapConnectionResult result) {
+            this.result = result;
+        }
     }
 }
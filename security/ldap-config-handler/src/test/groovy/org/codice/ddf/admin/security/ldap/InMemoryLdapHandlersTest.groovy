@@ -0,0 +1,146 @@
+package org.codice.ddf.admin.security.ldap
+
+import org.codice.ddf.admin.api.config.ldap.LdapConfiguration
+import org.codice.ddf.admin.security.ldap.fixture.InMemoryLdapServer
+import org.codice.ddf.admin.security.ldap.fixture.SyntheticDirectory
+import org.codice.ddf.admin.security.ldap.probe.DefaultDirectoryStructureProbe
+import org.codice.ddf.admin.security.ldap.probe.LdapQueryProbe
+import org.codice.ddf.admin.security.ldap.test.BindUserTestMethod
+import org.codice.ddf.admin.security.ldap.test.ClaimsLookupTestMethod
+import org.codice.ddf.admin.security.ldap.test.ConnectTestMethod
+import org.codice.ddf.admin.security.ldap.test.DirectoryStructTestMethod
+import org.codice.ddf.admin.security.ldap.test.LdapTestingCommons
+import spock.lang.Shared
+import spock.lang.Specification
+
+/**
+ * Runs the handler's probes and tests against a small directory served in-process, rather than
+ * against a mocked {@link LdapTestingCommons}.
+ */
+class InMemoryLdapHandlersTest extends Specification {
+
+    @Shared
+    InMemoryLdapServer server = new InMemoryLdapServer(new SyntheticDirectory(users: 20,
+            groups: 4,
+            membersPerGroup: 5,
+            nestingDepth: 1))
+
+    LdapConnectionPool pool = new LdapConnectionPool(4, 8, 60000, 600000, 10000, 5000)
+
+    LdapTestingCommons ldapTestingCommons = new LdapTestingCommons(pool)
+
+    LdapConfiguration configuration = server.configuration()
+
+    def cleanup() {
+        pool.clear()
+    }
+
+    def cleanupSpec() {
+        server.close()
+    }
+
+    def 'test connect and bind against the directory'() {
+        expect:
+        !new ConnectTestMethod(ldapTestingCommons).test(configuration)
+                .containsUnsuccessfulMessages()
+        !new BindUserTestMethod(ldapTestingCommons).test(configuration)
+                .containsUnsuccessfulMessages()
+    }
+
+    def 'test each failover server is connected to'() {
+        setup:
+        def unused = new ServerSocket(0)
+        def closedPort = unused.localPort
+        unused.close()
+        configuration.failoverServers(["$server.hostName:$server.port".toString(),
+                                       "$server.hostName:$closedPort".toString()])
+
+        when:
+        def report = new ConnectTestMethod(ldapTestingCommons).test(configuration)
+
+        then:
+        report.messages()*.subtype() == [LdapConnectionResult.SUCCESSFUL_CONNECTION.name(),
+                                         LdapConnectionResult.SUCCESSFUL_CONNECTION.name(),
+                                         LdapConnectionResult.CANNOT_CONNECT.name()]
+    }
+
+    def 'test a wrong password fails to bind'() {
+        when:
+        def report = new BindUserTestMethod(ldapTestingCommons).test(configuration.bindUserPassword(
+                'wrong'))
+
+        then:
+        report.containsUnsuccessfulMessages()
+        report.messages()*.subtype() == [LdapConnectionResult.CANNOT_BIND.name()]
+    }
+
+    def 'test the directory structure is verified'() {
+        when:
+        def report = new DirectoryStructTestMethod(ldapTestingCommons).test(configuration)
+
+        then:
+        !report.containsUnsuccessfulMessages()
+    }
+
+    def 'test a misconfigured user base is reported'() {
+        when:
+        def report = new DirectoryStructTestMethod(ldapTestingCommons).test(configuration.baseUserDn(
+                "ou=people,$SyntheticDirectory.BASE_DN"))
+
+        then:
+        report.messages()*.subtype()
+                .contains(LdapConnectionResult.BASE_USER_DN_NOT_FOUND.name())
+    }
+
+    def 'test the claims lookups are replayed'() {
+        when:
+        def report = new ClaimsLookupTestMethod(ldapTestingCommons).test(configuration)
+
+        then:
+        !report.containsUnsuccessfulMessages()
+        report.messages()*.subtype()
+                .contains(ClaimsLookupTestMethod.LOOKUP_LATENCY)
+    }
+
+    def 'test the query probe returns projected entries'() {
+        setup:
+        configuration.query('(objectClass=inetOrgPerson)')
+                .queryBase(SyntheticDirectory.USER_BASE_DN)
+                .queryPageSize(5)
+                .queryAttributes(['uid'])
+
+        when:
+        def report = new LdapQueryProbe(ldapTestingCommons).probe(configuration)
+        List<Map<String, String>> results = report.probeResults()
+                .get('ldapQueryResults') as List
+
+        then:
+        !report.containsUnsuccessfulMessages()
+        results.size() == 5
+        results.every { it.keySet() == ['name', 'uid'] as Set }
+    }
+
+    def 'test the directory structure probe suggests the base DNs'() {
+        when:
+        def report = new DefaultDirectoryStructureProbe(ldapTestingCommons).probe(configuration)
+
+        then:
+        !report.containsUnsuccessfulMessages()
+        (report.probeResults()
+                .get(LdapConfiguration.BASE_USER_DN) as List).contains(SyntheticDirectory.USER_BASE_DN)
+        (report.probeResults()
+                .get(LdapConfiguration.BASE_GROUP_DN) as List).contains(SyntheticDirectory.GROUP_BASE_DN)
+        report.probeResults()
+                .get(LdapConfiguration.QUERY_BASE) == [SyntheticDirectory.BASE_DN]
+    }
+
+    def 'test bound sessions are reused between steps'() {
+        when:
+        new BindUserTestMethod(ldapTestingCommons).test(configuration)
+        new DirectoryStructTestMethod(ldapTestingCommons).test(configuration)
+
+        then:
+        pool.createdConnections == 1
+        pool.reusedConnections == 1
+    }
+}
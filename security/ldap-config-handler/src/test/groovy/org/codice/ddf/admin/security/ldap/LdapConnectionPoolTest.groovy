@@ -0,0 +1,246 @@
+package org.codice.ddf.admin.security.ldap
+
+import org.forgerock.opendj.ldap.Connection
+import spock.lang.Specification
+
+import java.util.concurrent.TimeoutException
+
+class LdapConnectionPoolTest extends Specification {
+
+    def key = new LdapConnectionPool.Key('Host', 389, 'none', 'Simple', 'cn=admin', null, 'secret')
+
+    def pool = new LdapConnectionPool(2, 3, 60000, 600000, 60000, 100)
+
+    def 'test a returned connection is reused for the same key'() {
+        setup:
+        def connection = Mock(Connection)
+        connection.isValid() >> true
+        def opened = 0
+
+        when:
+        pool.borrow(key, { opened++; connection }).close()
+        def leased = pool.borrow(new LdapConnectionPool.Key('host',
+                389,
+                'NONE',
+                'Simple',
+                'cn=admin',
+                null,
+                'secret'), { opened++; Mock(Connection) })
+
+        then:
+        opened == 1
+        pool.reusedConnections == 1
+        pool.leasedConnections == 1
+        0 * connection.close()
+
+        when:
+        leased.close()
+        leased.close()
+
+        then:
+        pool.idleConnections == 1
+        pool.openConnections == 1
+    }
+
+    def 'test connections are not shared between credentials'() {
+        setup:
+        def connection = Mock(Connection)
+        connection.isValid() >> true
+        def otherKey = new LdapConnectionPool.Key('host', 389, 'none', 'Simple', 'cn=admin', null,
+                'changed')
+        pool.borrow(key, { connection }).close()
+
+        when:
+        pool.borrow(otherKey, { Mock(Connection) })
+
+        then:
+        pool.createdConnections == 2
+        pool.reusedConnections == 0
+    }
+
+    def 'test an invalid idle connection is discarded'() {
+        setup:
+        def stale = Mock(Connection)
+        stale.isValid() >>> [true, false]
+        pool.borrow(key, { stale }).close()
+
+        when:
+        pool.borrow(key, { Mock(Connection) })
+
+        then:
+        1 * stale.close()
+        pool.failedValidations == 1
+        pool.createdConnections == 2
+        pool.openConnections == 1
+    }
+
+    def 'test borrowing fails when the key is at its limit'() {
+        setup:
+        pool.borrow(key, { Mock(Connection) })
+        pool.borrow(key, { Mock(Connection) })
+
+        when:
+        pool.borrow(key, { Mock(Connection) })
+
+        then:
+        thrown(TimeoutException)
+        pool.borrowTimeouts == 1
+        pool.openConnections == 2
+    }
+
+    def 'test an idle connection of another key is closed to stay under the total limit'() {
+        setup:
+        def idle = Mock(Connection)
+        idle.isValid() >> true
+        // Keep the first lease open so that the second opens a new connection
+        pool.borrow(key, { Mock(Connection) })
+        pool.borrow(key, { idle }).close()
+        def otherKey = new LdapConnectionPool.Key('other', 389, 'none', 'Simple', 'cn=admin', null,
+                'secret')
+        pool.borrow(otherKey, { Mock(Connection) })
+
+        when:
+        pool.borrow(otherKey, { Mock(Connection) })
+
+        then:
+        1 * idle.close()
+        pool.evictedConnections == 1
+        pool.openConnections == 3
+    }
+
+    def 'test a failed open does not hold a place in the pool'() {
+        when:
+        pool.borrow(key, { throw new IOException('refused') })
+
+        then:
+        thrown(IOException)
+        pool.openConnections == 0
+    }
+
+    def 'test idle connections are closed after the idle timeout'() {
+        setup:
+        def shortPool = new LdapConnectionPool(2, 3, 0, 600000, 60000, 100)
+        def connection = Mock(Connection)
+        connection.isValid() >> true
+        shortPool.borrow(key, { connection }).close()
+
+        when:
+        shortPool.evictIdle()
+
+        then:
+        1 * connection.close()
+        shortPool.openConnections == 0
+        shortPool.evictedConnections == 1
+    }
+
+    def 'test sessions outliving the maximum lifetime are closed'() {
+        setup:
+        def shortPool = new LdapConnectionPool(2, 3, 60000, 0, 60000, 100)
+        def connection = Mock(Connection)
+        connection.isValid() >> true
+        shortPool.borrow(key, { connection }).close()
+
+        when:
+        shortPool.borrow(key, { Mock(Connection) })
+
+        then:
+        1 * connection.close()
+        shortPool.reusedConnections == 0
+        shortPool.createdConnections == 2
+    }
+
+    def 'test new credentials for a bind DN close the sessions of the old ones'() {
+        setup:
+        def idle = Mock(Connection)
+        idle.isValid() >> true
+        def leased = Mock(Connection)
+        leased.isValid() >> true
+        def first = pool.borrow(key, { idle })
+        def lease = pool.borrow(key, { leased })
+        first.close()
+        def changed = new LdapConnectionPool.Key('host', 389, 'none', 'Simple', 'cn=admin', null,
+                'changed')
+
+        when:
+        pool.borrow(changed, { Mock(Connection) })
+
+        then:
+        1 * idle.close()
+        0 * leased.close()
+
+        when: 'a session with the old credentials is returned'
+        lease.close()
+
+        then:
+        1 * leased.close()
+        pool.invalidatedConnections == 2
+        pool.idleConnections == 0
+        pool.openConnections == 1
+    }
+
+    def 'test a connection can be taken from the pool to be bound'() {
+        setup:
+        def unbound = new LdapConnectionPool.Key('host', 389, 'none', null, null, null, null)
+        def connection = Mock(Connection)
+        connection.isValid() >> true
+        pool.adopt(unbound, connection).close()
+
+        when:
+        def taken = pool.take(unbound)
+
+        then:
+        taken.is(connection)
+        pool.openConnections == 0
+        pool.take(unbound) == null
+    }
+
+    def 'test invalidating a key closes its sessions'() {
+        setup:
+        def idle = Mock(Connection)
+        idle.isValid() >> true
+        def leased = Mock(Connection)
+        leased.isValid() >> true
+        def first = pool.borrow(key, { idle })
+        def lease = pool.borrow(key, { leased })
+        first.close()
+
+        when:
+        pool.invalidate(key)
+
+        then:
+        1 * idle.close()
+        0 * leased.close()
+
+        when:
+        lease.close()
+
+        then:
+        1 * leased.close()
+        pool.openConnections == 0
+    }
+
+    def 'test servers are no longer tracked once their connections are closed'() {
+        setup:
+        def otherKey = new LdapConnectionPool.Key('other', 389, 'none', 'Simple', 'cn=admin', null,
+                'secret')
+        pool.borrow(key, { Mock(Connection) })
+        def leases = [pool.borrow(otherKey, { Mock(Connection) }),
+                      pool.borrow(otherKey, { Mock(Connection) })]
+
+        when: 'a borrow times out before it opens a connection'
+        pool.borrow(new LdapConnectionPool.Key('third', 389, 'none', 'Simple', 'cn=admin', null,
+                'secret'), { Mock(Connection) })
+
+        then:
+        thrown(TimeoutException)
+        pool.trackedKeys() == 2
+
+        when:
+        leases*.close()
+        pool.clear()
+
+        then:
+        pool.trackedKeys() == 1
+        pool.openConnections == 1
+    }
+}
@@ -0,0 +1,97 @@
+package org.codice.ddf.admin.security.ldap
+
+import spock.lang.Specification
+
+import javax.net.ssl.SSLContext
+
+import static org.codice.ddf.admin.security.ldap.LdapConnectionProfiles.CIPHER_SUITES_PROPERTY
+import static org.codice.ddf.admin.security.ldap.LdapConnectionProfiles.PROTOCOLS_PROPERTY
+
+class LdapConnectionProfilesTest extends Specification {
+
+    def profiles = new LdapConnectionProfiles(4)
+
+    String cipherSuites
+
+    String protocols
+
+    def setup() {
+        cipherSuites = System.getProperty(CIPHER_SUITES_PROPERTY)
+        protocols = System.getProperty(PROTOCOLS_PROPERTY)
+        System.setProperty(CIPHER_SUITES_PROPERTY, 'TLS_A, TLS_B')
+        System.setProperty(PROTOCOLS_PROPERTY, 'TLSv1.2')
+    }
+
+    def cleanup() {
+        restore(CIPHER_SUITES_PROPERTY, cipherSuites)
+        restore(PROTOCOLS_PROPERTY, protocols)
+    }
+
+    def 'test profiles are shared until the TLS settings change'() {
+        when:
+        def first = profiles.getProfile('none', null)
+        def second = profiles.getProfile('NONE', SSLContext.getInstance('TLS'))
+
+        then:
+        second.is(first)
+        first.cipherSuites() == ['TLS_A', 'TLS_B']
+        first.protocols() == ['TLSv1.2']
+        !first.useStartTls()
+        first.sslContext() == null
+
+        when:
+        System.setProperty(PROTOCOLS_PROPERTY, 'TLSv1.1,TLSv1.2')
+        def third = profiles.getProfile('none', null)
+
+        then:
+        !third.is(first)
+        third.protocols() == ['TLSv1.1', 'TLSv1.2']
+    }
+
+    def 'test profiles are kept per encryption method and LDAPS context'() {
+        setup:
+        def context = SSLContext.getInstance('TLS')
+
+        when:
+        def startTls = profiles.getProfile('startTls', null)
+        def ldaps = profiles.getProfile('ldaps', context)
+
+        then:
+        startTls.useStartTls()
+        startTls.sslContext() == null
+        !ldaps.useStartTls()
+        ldaps.sslContext().is(context)
+        profiles.getProfile('LDAPS', context).is(ldaps)
+        !profiles.getProfile('ldaps', SSLContext.getInstance('TLS')).is(ldaps)
+        profiles.size() == 3
+    }
+
+    def 'test unset TLS properties use the defaults'() {
+        setup:
+        System.clearProperty(CIPHER_SUITES_PROPERTY)
+        System.clearProperty(PROTOCOLS_PROPERTY)
+
+        when:
+        def profile = profiles.getProfile('none', null)
+
+        then:
+        profile.cipherSuites().isEmpty()
+        profile.protocols().isEmpty()
+    }
+
+    def 'test the number of profiles is bounded'() {
+        when:
+        5.times { profiles.getProfile('ldaps', SSLContext.getInstance('TLS')) }
+
+        then:
+        profiles.size() <= 4
+    }
+
+    private static void restore(String property, String value) {
+        if (value == null) {
+            System.clearProperty(property)
+        } else {
+            System.setProperty(property, value)
+        }
+    }
+}
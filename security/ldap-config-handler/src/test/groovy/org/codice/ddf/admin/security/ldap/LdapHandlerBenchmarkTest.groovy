@@ -0,0 +1,94 @@
+package org.codice.ddf.admin.security.ldap
+
+import org.codice.ddf.admin.api.configurator.Configurator
+import org.codice.ddf.admin.security.ldap.fixture.InMemoryLdapServer
+import org.codice.ddf.admin.security.ldap.fixture.OperationBenchmark
+import org.codice.ddf.admin.security.ldap.fixture.SyntheticDirectory
+import org.codice.ddf.admin.security.ldap.probe.DefaultDirectoryStructureProbe
+import org.codice.ddf.admin.security.ldap.probe.LdapQueryProbe
+import org.codice.ddf.admin.security.ldap.probe.SubjectAttributeProbe
+import org.codice.ddf.admin.security.ldap.test.DirectoryStructTestMethod
+import org.codice.ddf.admin.security.ldap.test.LdapTestingCommons
+import spock.lang.IgnoreIf
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.codice.ddf.admin.api.services.PolicyManagerServiceProperties.STS_CLAIMS_CONFIGURATION_CONFIG_ID
+
+/**
+ * Measures the latency and allocation of the LDAP probes and tests against in-process
+ * directories of several sizes. Skipped unless the {@value #BENCHMARK_PROPERTY} system property is
+ * true, for example:
+ * <pre>
+ * mvn test -Dtest=LdapHandlerBenchmarkTest -Dorg.codice.ddf.admin.security.ldap.benchmark=true
+ * </pre>
+ * The directory sizes, as comma separated user counts, are set with {@value #USERS_PROPERTY}.
+ * Each directory has a tenth as many groups as users, nested three deep.
+ */
+@IgnoreIf({ !Boolean.getBoolean(LdapHandlerBenchmarkTest.BENCHMARK_PROPERTY) })
+class LdapHandlerBenchmarkTest extends Specification {
+
+    static final String BENCHMARK_PROPERTY = 'org.codice.ddf.admin.security.ldap.benchmark'
+
+    static final String USERS_PROPERTY = 'org.codice.ddf.admin.security.ldap.benchmark.users'
+
+    static final String ITERATIONS_PROPERTY =
+            'org.codice.ddf.admin.security.ldap.benchmark.iterations'
+
+    static final int WARMUPS = 10
+
+    @Unroll
+    def 'benchmark LDAP handler methods with #users users'() {
+        setup:
+        def server = new InMemoryLdapServer(new SyntheticDirectory(users: users,
+                groups: Math.max(1, users.intdiv(10)),
+                membersPerGroup: 20,
+                nestingDepth: 3))
+        def pool = new LdapConnectionPool(4, 8, 60000, 600000, 10000, 5000)
+        def ldapTestingCommons = new LdapTestingCommons(pool)
+        def configuration = server.configuration()
+                .query('(objectClass=inetOrgPerson)')
+                .queryBase(SyntheticDirectory.USER_BASE_DN)
+                .queryPageSize(50)
+        def configurator = Mock(Configurator)
+        configurator.getConfig(STS_CLAIMS_CONFIGURATION_CONFIG_ID) >> [:]
+        int iterations = Integer.getInteger(ITERATIONS_PROPERTY, 50)
+
+        def structureProbe = new DefaultDirectoryStructureProbe(ldapTestingCommons)
+        def structureTest = new DirectoryStructTestMethod(ldapTestingCommons)
+        def subjectProbe = new SubjectAttributeProbe(ldapTestingCommons, configurator)
+        def queryProbe = new LdapQueryProbe(ldapTestingCommons)
+
+        when:
+        def results = [OperationBenchmark.measure('DefaultDirectoryStructureProbe',
+                WARMUPS,
+                iterations,
+                { structureProbe.probe(configuration) }),
+                       OperationBenchmark.measure('DirectoryStructTestMethod',
+                               WARMUPS,
+                               iterations,
+                               { structureTest.test(configuration) }),
+                       OperationBenchmark.measure('SubjectAttributeProbe',
+                               WARMUPS,
+                               iterations,
+                               { subjectProbe.probe(configuration) }),
+                       OperationBenchmark.measure('LdapQueryProbe',
+                               WARMUPS,
+                               iterations,
+                               { queryProbe.probe(configuration) })]
+        println "LDAP handler benchmark, $users users:"
+        results.each { println "  $it" }
+
+        then:
+        results.every { it.iterations == iterations }
+
+        cleanup:
+        pool.clear()
+        server?.close()
+
+        where:
+        users << System.getProperty(USERS_PROPERTY, '1000,10000,100000')
+                .split(',')
+                .collect { it.trim() as int }
+    }
+}
@@ -0,0 +1,72 @@
+package org.codice.ddf.admin.security.ldap
+
+import org.forgerock.opendj.ldap.Connection
+import spock.lang.Specification
+
+class LdapPagedSearchesTest extends Specification {
+
+    def key = new LdapConnectionPool.Key('host', 389, 'none', 'Simple', 'cn=admin', null, 'secret')
+
+    def 'test a search resumes on the session that returned its cookie'() {
+        setup:
+        def searches = new LdapPagedSearches(4, 60000)
+        def connection = Mock(Connection)
+        searches.pin(key, 'cookie', connection)
+
+        expect:
+        searches.resume(new LdapConnectionPool.Key('host', 389, 'none', 'Simple', 'cn=admin',
+                null, 'other'), 'cookie') == null
+        searches.resume(key, 'other') == null
+        searches.resume(key, 'cookie').is(connection)
+        searches.resume(key, 'cookie') == null
+        searches.size() == 0
+    }
+
+    def 'test an abandoned search returns its session'() {
+        setup:
+        def searches = new LdapPagedSearches(4, 0)
+        def connection = Mock(Connection)
+        searches.pin(key, 'cookie', connection)
+        sleep(5)
+
+        when:
+        searches.evictExpired()
+
+        then:
+        1 * connection.close()
+        searches.size() == 0
+        searches.resume(key, 'cookie') == null
+    }
+
+    def 'test the longest waiting search is ended to stay under the limit'() {
+        setup:
+        def searches = new LdapPagedSearches(2, 60000)
+        def first = Mock(Connection)
+        def second = Mock(Connection)
+        searches.pin(key, 'first', first)
+        searches.pin(key, 'second', second)
+
+        when:
+        searches.pin(key, 'third', Mock(Connection))
+
+        then:
+        1 * first.close()
+        0 * second.close()
+        searches.size() == 2
+        searches.resume(key, 'second').is(second)
+    }
+
+    def 'test destroy returns every held session'() {
+        setup:
+        def searches = new LdapPagedSearches(4, 60000)
+        def connection = Mock(Connection)
+        searches.pin(key, 'cookie', connection)
+
+        when:
+        searches.destroy()
+
+        then:
+        1 * connection.close()
+        searches.size() == 0
+    }
+}
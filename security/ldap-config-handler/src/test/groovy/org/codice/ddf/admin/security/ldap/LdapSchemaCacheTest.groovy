@@ -0,0 +1,135 @@
+package org.codice.ddf.admin.security.ldap
+
+import org.forgerock.opendj.ldap.Connection
+import org.forgerock.opendj.ldap.DN
+import org.forgerock.opendj.ldap.LinkedHashMapEntry
+import org.forgerock.opendj.ldap.RootDSE
+import org.forgerock.opendj.ldap.schema.Schema
+import spock.lang.Specification
+
+class LdapSchemaCacheTest extends Specification {
+
+    def server = new LdapConnectionPool.Key('host', 389, 'none', null, null, null, null)
+
+    def connection = Mock(Connection)
+
+    def rootDse = RootDSE.valueOf(new LinkedHashMapEntry('dn: ',
+            'objectClass: top',
+            'subschemaSubentry: cn=schema'))
+
+    def schemaReads = 0
+
+    def timestamp = '20170101000000Z'
+
+    def 'test schema is reused while its modify timestamp is unchanged'() {
+        setup:
+        def cache = newCache(3600000)
+
+        when:
+        def first = cache.get(server, connection)
+        def second = cache.get(server, connection)
+
+        then:
+        schemaReads == 1
+        second.is(first)
+        first.rootDse().is(rootDse)
+        first.schema().is(Schema.getCoreSchema())
+
+        when:
+        timestamp = '20170102000000Z'
+        def third = cache.get(server, connection)
+
+        then:
+        schemaReads == 2
+        !third.is(first)
+        cache.size() == 1
+    }
+
+    def 'test schema without a modify timestamp is reloaded after the TTL'() {
+        setup:
+        timestamp = null
+
+        when:
+        def cache = newCache(3600000)
+        cache.get(server, connection)
+        cache.get(server, connection)
+
+        then:
+        schemaReads == 1
+
+        when:
+        cache = newCache(0)
+        cache.get(server, connection)
+        Thread.sleep(5)
+        cache.get(server, connection)
+
+        then:
+        schemaReads == 3
+    }
+
+    def 'test schemas are cached per server'() {
+        setup:
+        def cache = newCache(3600000)
+        def other = new LdapConnectionPool.Key('other', 389, 'none', null, null, null, null)
+
+        when:
+        cache.get(server, connection)
+        cache.get(other, connection)
+        cache.get(new LdapConnectionPool.Key('HOST', 389, 'NONE', null, null, null, null),
+                connection)
+
+        then:
+        schemaReads == 2
+        cache.size() == 2
+
+        when:
+        cache.invalidate(server)
+        cache.get(server, connection)
+
+        then:
+        schemaReads == 3
+    }
+
+    def 'test derived attribute sets are computed once per schema'() {
+        setup:
+        def cache = newCache(3600000)
+        def computed = 0
+
+        when:
+        def serverSchema = cache.get(server, connection)
+        def first = serverSchema.attributeSet('person', { computed++; ['cn', 'sn'] as TreeSet })
+        def second = cache.get(server, connection)
+                .attributeSet('person', { computed++; ['cn'] as TreeSet })
+
+        then:
+        computed == 1
+        first == ['cn', 'sn'] as Set
+        second.is(first)
+
+        when:
+        first.add('uid')
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+
+    private LdapSchemaCache newCache(long ttlMillis) {
+        new LdapSchemaCache(4, ttlMillis) {
+            @Override
+            protected RootDSE readRootDse(Connection connection) {
+                rootDse
+            }
+
+            @Override
+            protected Schema readSchema(Connection connection, DN subschemaDn) {
+                schemaReads++
+                Schema.getCoreSchema()
+            }
+
+            @Override
+            protected String readModifyTimestamp(Connection connection, DN subschemaDn) {
+                timestamp
+            }
+        }
+    }
+}
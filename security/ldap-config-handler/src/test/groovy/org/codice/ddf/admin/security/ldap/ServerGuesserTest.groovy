@@ -0,0 +1,99 @@
+package org.codice.ddf.admin.security.ldap
+
+import org.forgerock.opendj.ldap.Connection
+import org.forgerock.opendj.ldap.DN
+import org.forgerock.opendj.ldap.LdapException
+import org.forgerock.opendj.ldap.LdapPromise
+import org.forgerock.opendj.ldap.LinkedHashMapEntry
+import org.forgerock.opendj.ldap.ResultCode
+import org.forgerock.opendj.ldap.SearchResultHandler
+import org.forgerock.opendj.ldap.requests.SearchRequest
+import org.forgerock.opendj.ldap.responses.Responses
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeoutException
+
+class ServerGuesserTest extends Specification {
+
+    def connection = Mock(Connection)
+
+    def rootDse = Responses.newSearchResultEntry(new LinkedHashMapEntry('dn: ',
+            'namingContexts: dc=a,dc=com',
+            'namingContexts: dc=b,dc=com'))
+
+    def requests = []
+
+    def handlers = []
+
+    def 'test every naming context is searched at once and partial results are kept'() {
+        setup:
+        connection.readEntry(DN.rootDN(), *_) >> rootDse
+        def searchesIssuedBeforeWaiting = 0
+        def first = Mock(LdapPromise)
+        first.get(_, _) >> {
+            searchesIssuedBeforeWaiting = handlers.size()
+            deliver(1, 'ou=users,dc=b,dc=com')
+            deliver(0, 'ou=users,dc=a,dc=com', 'cn=users,ou=people,dc=a,dc=com')
+            throw new ExecutionException(LdapException.newLdapException(ResultCode.SIZE_LIMIT_EXCEEDED))
+        }
+        def second = Mock(LdapPromise)
+        second.get(_, _) >> {
+            throw new ExecutionException(LdapException.newLdapException(ResultCode.TIME_LIMIT_EXCEEDED))
+        }
+        connection.searchAsync(_, _) >> { SearchRequest request, SearchResultHandler handler ->
+            requests << request
+            handlers << handler
+            handlers.size() == 1 ? first : second
+        }
+
+        when:
+        def choices = ServerGuesser.buildGuesser('unknown', connection)
+                .getUserBaseChoices()
+
+        then:
+        searchesIssuedBeforeWaiting == 2
+        requests*.name*.toString() == ['dc=a,dc=com', 'dc=b,dc=com']
+        requests.every { it.sizeLimit == 100 && it.timeLimit == 10 && it.attributes == ['1.1'] }
+        choices == ['ou=users,dc=a,dc=com', 'cn=users,ou=people,dc=a,dc=com', 'ou=users,dc=b,dc=com']
+    }
+
+    def 'test a search that outlives its time limit is abandoned'() {
+        setup:
+        connection.readEntry(DN.rootDN(), *_) >> rootDse
+        def stalled = Mock(LdapPromise)
+        connection.searchAsync(_, _) >> { SearchRequest request, SearchResultHandler handler ->
+            handlers << handler
+            deliver(handlers.size() - 1, "ou=groups,${request.name}".toString())
+            stalled
+        }
+
+        when:
+        def choices = ServerGuesser.buildGuesser('unknown', connection)
+                .getGroupBaseChoices()
+
+        then:
+        2 * stalled.get(_, _) >> { throw new TimeoutException() }
+        2 * stalled.cancel(true)
+        choices == ['ou=groups,dc=a,dc=com', 'ou=groups,dc=b,dc=com']
+    }
+
+    def 'test the RootDSE is read once for user and group choices'() {
+        setup:
+        def done = Mock(LdapPromise)
+        connection.searchAsync(_, _) >> done
+        def guesser = ServerGuesser.buildGuesser('unknown', connection)
+
+        when:
+        guesser.getUserBaseChoices()
+        guesser.getGroupBaseChoices()
+
+        then:
+        1 * connection.readEntry(DN.rootDN(), *_) >> rootDse
+        4 * done.get(_, _)
+    }
+
+    private void deliver(int search, String... dns) {
+        dns.each { handlers[search].handleEntry(Responses.newSearchResultEntry(DN.valueOf(it))) }
+    }
+}
@@ -0,0 +1,58 @@
+package org.codice.ddf.admin.security.ldap.fixture
+
+import org.codice.ddf.admin.api.config.ldap.LdapConfiguration
+import org.forgerock.opendj.ldap.Connections
+import org.forgerock.opendj.ldap.LDAPListener
+import org.forgerock.opendj.ldap.MemoryBackend
+import org.forgerock.opendj.ldif.LDIF
+
+/**
+ * An LDAP server running in the test JVM on an ephemeral loopback port, serving a
+ * {@link SyntheticDirectory} from OpenDJ's in-memory backend. The backend supports simple binds
+ * against {@code userPassword} but not controls such as Simple Paged Results.
+ */
+class InMemoryLdapServer implements Closeable {
+    final MemoryBackend backend
+
+    private final LDAPListener listener
+
+    InMemoryLdapServer(SyntheticDirectory directory) {
+        backend = new MemoryBackend(LDIF.newEntryCollectionReader(directory.entries()))
+        listener = new LDAPListener(new InetSocketAddress(InetAddress.loopbackAddress, 0),
+                Connections.newServerConnectionFactory(backend))
+    }
+
+    String getHostName() {
+        ((InetSocketAddress) listener.socketAddress).hostString
+    }
+
+    int getPort() {
+        ((InetSocketAddress) listener.socketAddress).port
+    }
+
+    /**
+     * @return a configuration that binds to this server as the directory's administrator and
+     * describes the directory's layout
+     */
+    LdapConfiguration configuration() {
+        new LdapConfiguration().hostName(hostName)
+                .port(port)
+                .encryptionMethod('none')
+                .bindUserMethod('Simple')
+                .bindUser(SyntheticDirectory.ADMIN_DN)
+                .bindUserPassword(SyntheticDirectory.ADMIN_PASSWORD)
+                .ldapType('openDj')
+                .ldapUseCase('authenticationAndAttributeStore')
+                .baseUserDn(SyntheticDirectory.USER_BASE_DN)
+                .baseGroupDn(SyntheticDirectory.GROUP_BASE_DN)
+                .userNameAttribute('uid')
+                .groupObjectClass('groupOfNames')
+                .groupAttributeHoldingMember('member')
+                .memberAttributeReferencedInGroup('uid')
+    }
+
+    @Override
+    void close() {
+        listener.close()
+    }
+}
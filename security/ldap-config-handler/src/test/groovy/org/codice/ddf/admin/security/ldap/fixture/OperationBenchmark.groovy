@@ -0,0 +1,82 @@
+package org.codice.ddf.admin.security.ldap.fixture
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+
+/**
+ * Times repeated runs of an operation and estimates the bytes it allocates. Allocation is summed
+ * over all live threads, so it includes the LDAP SDK's I/O threads and, when other work is
+ * running, some noise; it is not counted where the JVM does not support thread allocation
+ * accounting.
+ */
+class OperationBenchmark {
+
+    static Result measure(String name, int warmups, int iterations, Closure operation) {
+        warmups.times { operation() }
+
+        List<Long> latencies = []
+        long allocatedBefore = allocatedBytes()
+        iterations.times {
+            long start = System.nanoTime()
+            operation()
+            latencies << System.nanoTime() - start
+        }
+        long allocatedAfter = allocatedBytes()
+
+        latencies.sort()
+        new Result(name: name,
+                iterations: iterations,
+                p50Micros: micros(percentile(latencies, 50)),
+                p95Micros: micros(percentile(latencies, 95)),
+                maxMicros: micros(latencies.last()),
+                allocatedBytesPerRun: allocatedBefore < 0 || allocatedAfter < 0 ?
+                        -1 :
+                        (allocatedAfter - allocatedBefore).intdiv(iterations))
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        sorted[Math.max(0, (int) Math.ceil(percentile / 100d * sorted.size()) - 1)]
+    }
+
+    private static long micros(long nanos) {
+        TimeUnit.NANOSECONDS.toMicros(nanos)
+    }
+
+    private static long allocatedBytes() {
+        def threads = ManagementFactory.threadMXBean
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !threads.threadAllocatedMemorySupported
+                || !threads.threadAllocatedMemoryEnabled) {
+            return -1
+        }
+        long[] ids = threads.allThreadIds
+        threads.getThreadAllocatedBytes(ids)
+                .findAll { it > 0 }
+                .sum(0L) as long
+    }
+
+    static class Result {
+        String name
+
+        int iterations
+
+        long p50Micros
+
+        long p95Micros
+
+        long maxMicros
+
+        long allocatedBytesPerRun
+
+        @Override
+        String toString() {
+            String.format('%-32s runs=%-5d p50=%8dus p95=%8dus max=%8dus alloc/run=%s',
+                    name,
+                    iterations,
+                    p50Micros,
+                    p95Micros,
+                    maxMicros,
+                    allocatedBytesPerRun < 0 ? 'n/a' : "${allocatedBytesPerRun}B")
+        }
+    }
+}
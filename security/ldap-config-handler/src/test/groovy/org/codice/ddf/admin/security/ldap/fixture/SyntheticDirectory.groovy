@@ -0,0 +1,103 @@
+package org.codice.ddf.admin.security.ldap.fixture
+
+import org.forgerock.opendj.ldap.Entry
+import org.forgerock.opendj.ldap.LinkedHashMapEntry
+
+/**
+ * Generates a directory of users and groups with predictable names, for loading into an
+ * {@link InMemoryLdapServer}. Users are {@code uid=user<n>} under {@link #USER_BASE_DN} and groups
+ * are {@code cn=group<n>} under {@link #GROUP_BASE_DN}.
+ * <p>
+ * Each group holds {@link #membersPerGroup} users. With a {@link #nestingDepth} above zero, groups
+ * are split into that many levels plus one and every group above the bottom level also holds the
+ * group before it, so membership chains are {@code nestingDepth} groups deep.
+ */
+class SyntheticDirectory {
+    static final String BASE_DN = 'dc=example,dc=com'
+
+    static final String USER_BASE_DN = "ou=users,$BASE_DN"
+
+    static final String GROUP_BASE_DN = "ou=groups,$BASE_DN"
+
+    static final String ADMIN_DN = "cn=admin,$BASE_DN"
+
+    static final String ADMIN_PASSWORD = 'secret'
+
+    static final String USER_PASSWORD = 'password'
+
+    int users = 100
+
+    int groups = 10
+
+    int membersPerGroup = 10
+
+    int nestingDepth = 0
+
+    /**
+     * @return the RootDSE, the base entries and all generated users and groups, parents first
+     */
+    List<Entry> entries() {
+        List<Entry> entries = []
+        entries << entry('',
+                'objectClass: top',
+                "namingContexts: $BASE_DN",
+                'subschemaSubentry: cn=schema')
+        entries << entry(BASE_DN, 'objectClass: top', 'objectClass: domain', 'dc: example')
+        entries << entry(ADMIN_DN,
+                'objectClass: top',
+                'objectClass: person',
+                'cn: admin',
+                'sn: admin',
+                "userPassword: $ADMIN_PASSWORD")
+        entries << entry(USER_BASE_DN,
+                'objectClass: top',
+                'objectClass: organizationalUnit',
+                'ou: users')
+        entries << entry(GROUP_BASE_DN,
+                'objectClass: top',
+                'objectClass: organizationalUnit',
+                'ou: groups')
+
+        users.times { entries << userEntry(it) }
+        groups.times { entries << groupEntry(it) }
+        entries
+    }
+
+    static String userDn(int n) {
+        "uid=user$n,$USER_BASE_DN"
+    }
+
+    static String groupDn(int n) {
+        "cn=group$n,$GROUP_BASE_DN"
+    }
+
+    private static Entry userEntry(int n) {
+        entry(userDn(n),
+                'objectClass: top',
+                'objectClass: person',
+                'objectClass: organizationalPerson',
+                'objectClass: inetOrgPerson',
+                "uid: user$n",
+                "cn: User $n",
+                "sn: $n",
+                "mail: user$n@example.com",
+                "userPassword: $USER_PASSWORD")
+    }
+
+    private Entry groupEntry(int n) {
+        List<String> lines = ['objectClass: top', 'objectClass: groupOfNames', "cn: group$n"]
+        if (users > 0) {
+            membersPerGroup.times {
+                lines << "member: ${userDn((n * membersPerGroup + it) % users)}"
+            }
+        }
+        if (nestingDepth > 0 && n % (nestingDepth + 1) != 0) {
+            lines << "member: ${groupDn(n - 1)}"
+        }
+        entry(groupDn(n), *lines)
+    }
+
+    private static Entry entry(String dn, String... attributes) {
+        new LinkedHashMapEntry((["dn: $dn"] + attributes.toList()) as String[])
+    }
+}
@@ -3,6 +3,7 @@ package org.codice.ddf.admin.security.ldap.probe
 import org.codice.ddf.admin.api.config.ldap.LdapConfiguration
 import org.codice.ddf.admin.api.handler.report.ProbeReport
 import org.codice.ddf.admin.security.ldap.LdapConnectionResult
+import org.codice.ddf.admin.security.ldap.LdapPagedSearches
 import org.codice.ddf.admin.security.ldap.test.LdapTestingCommons
 import org.forgerock.opendj.ldap.Attribute
 import org.forgerock.opendj.ldap.ByteString
@@ -25,7 +26,7 @@ class LdapQueryProbeTest extends Specification {
 
         and:
         ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
-        ldapTestingCommons.getLdapQueryResults(connection, 'base', 'query', _ as SearchScope, 50) >> []
+        ldapTestingCommons.getLdapQueryPage(connection, 'base', 'query', _ as SearchScope, 50, null, _, *_) >> null
 
         def probe = new LdapQueryProbe(ldapTestingCommons)
 
@@ -43,6 +44,89 @@ class LdapQueryProbeTest extends Specification {
         1 * connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
         !report.containsUnsuccessfulMessages()
         report.probeResults().get('ldapQueryResults') == []
+        !report.probeResults().containsKey('ldapQueryNextPageCookie')
+    }
+
+    def 'test stageprobe query failure'() {
+        setup:
+        def configuration = Mock(LdapConfiguration)
+        configuration.queryBase() >> 'base'
+        configuration.query() >> 'query'
+        def ldapTestingCommons = Mock(LdapTestingCommons)
+        def connection = Mock(Connection)
+        def connectionAttempt = Mock(LdapTestingCommons.LdapConnectionAttempt)
+        connectionAttempt.connection() >> connection
+        connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
+
+        and:
+        ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        ldapTestingCommons.getLdapQueryPage(*_) >> { throw new IOException('bad query') }
+
+        def probe = new LdapQueryProbe(ldapTestingCommons)
+
+        when:
+        ProbeReport report = probe.probe(configuration)
+
+        then:
+        report.containsUnsuccessfulMessages()
+        report.messages()*.subtype() == [LdapConnectionResult.CANNOT_QUERY.name()]
+        1 * connectionAttempt.close()
+    }
+
+    def 'test stageprobe pages through results'() {
+        setup:
+        def configuration = Mock(LdapConfiguration)
+        configuration.queryBase() >> 'base'
+        configuration.query() >> 'query'
+        configuration.queryPageSize() >> 1
+        def cookie = ByteString.valueOf('page1').toBase64String()
+        configuration.queryPageCookie() >> { cookie }
+        configuration.queryAttributes() >> ['cn']
+        def ldapTestingCommons = Mock(LdapTestingCommons)
+        def connection = Mock(Connection)
+        def connectionAttempt = Mock(LdapTestingCommons.LdapConnectionAttempt)
+        connectionAttempt.connection() >> connection
+        connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
+
+        and:
+        def result = Mock(SearchResultEntry)
+        result.getAllAttributes() >> []
+        result.getName() >> DN.valueOf('cn=name1')
+
+        def pagedSearches = new LdapPagedSearches(4, 60000)
+        def probe = new LdapQueryProbe(ldapTestingCommons, pagedSearches)
+
+        when:
+        ProbeReport report = probe.probe(configuration)
+
+        then:
+        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        1 * ldapTestingCommons.getLdapQueryPage(connection, 'base', 'query', _ as SearchScope, 1,
+                ByteString.valueOf('page1'), _, 'cn') >> { args ->
+            args[6].accept(result)
+            ByteString.valueOf('page2')
+        }
+        0 * connectionAttempt.close()
+        0 * connection.close()
+
+        !report.containsUnsuccessfulMessages()
+        report.probeResults().get('ldapQueryResults') == [[name: 'cn=name1']]
+        report.probeResults().get('ldapQueryNextPageCookie') == ByteString.valueOf('page2').toBase64String()
+        pagedSearches.size() == 1
+
+        when: 'the next page is read on the same session'
+        cookie = ByteString.valueOf('page2').toBase64String()
+        report = probe.probe(configuration)
+
+        then:
+        0 * ldapTestingCommons.bindUserToLdapConnection(_)
+        1 * ldapTestingCommons.getLdapQueryPage(connection, 'base', 'query', _ as SearchScope, 1,
+                ByteString.valueOf('page2'), _, 'cn') >> null
+        1 * connection.close()
+
+        !report.containsUnsuccessfulMessages()
+        !report.probeResults().containsKey('ldapQueryNextPageCookie')
+        pagedSearches.size() == 0
     }
 
     def 'test stageprobe success'() {
@@ -64,12 +148,12 @@ class LdapQueryProbeTest extends Specification {
         def attribute3 = Mock(Attribute)
         attribute1.getAttributeDescriptionAsString() >> 'password'
         attribute2.getAttributeDescriptionAsString() >> 'foo'
-        attribute2.parallelStream() >> {
-            [ByteString.valueOf('foo1'), ByteString.valueOf('foo2')].parallelStream()
+        attribute2.iterator() >> {
+            [ByteString.valueOf('foo1'), ByteString.valueOf('foo2')].iterator()
         }
         attribute3.getAttributeDescriptionAsString() >> 'bar'
-        attribute3.parallelStream() >> {
-            [ByteString.valueOf('bar1')].parallelStream()
+        attribute3.iterator() >> {
+            [ByteString.valueOf('bar1')].iterator()
         }
 
         def name1 = DN.valueOf('cn=name1')
@@ -90,8 +174,12 @@ class LdapQueryProbeTest extends Specification {
 
         then:
         1 * connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'base', 'query', _ as SearchScope, 50) >>
-                [result1, result2]
+        1 * ldapTestingCommons.getLdapQueryPage(connection, 'base', 'query', _ as SearchScope, 50,
+                null, _, *_) >> { args ->
+            args[6].accept(result1)
+            args[6].accept(result2)
+            null
+        }
 
         !report.containsUnsuccessfulMessages()
         queryResults.size() == 2
@@ -21,7 +21,7 @@ class BindUserTestMethodTest extends Specification {
         Report report = tester.test(configuration)
 
         then:
-        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        1 * ldapTestingCommons.verifyBind(configuration) >> connectionAttempt
         1 * connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
         1 * connectionAttempt.connection() >> Mock(Connection)
         1 * connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
@@ -31,7 +31,7 @@ class BindUserTestMethodTest extends Specification {
         report = tester.test(configuration)
 
         then:
-        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        1 * ldapTestingCommons.verifyBind(configuration) >> connectionAttempt
         2 * connectionAttempt.result() >> LdapConnectionResult.CANNOT_BIND
         report.containsFailureMessages()
     }
@@ -51,7 +51,7 @@ class BindUserTestMethodTest extends Specification {
         Report report = tester.test(configuration)
 
         then: 'pass'
-        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        1 * ldapTestingCommons.verifyBind(configuration) >> connectionAttempt
         1 * connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
         1 * connectionAttempt.connection() >> Mock(Connection)
         1 * connectionAttempt.result() >> LdapConnectionResult.SUCCESSFUL_BIND
@@ -61,7 +61,7 @@ class BindUserTestMethodTest extends Specification {
         report = tester.test(configuration)
 
         then: 'fail binding'
-        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        1 * ldapTestingCommons.verifyBind(configuration) >> connectionAttempt
         2 * connectionAttempt.result() >> LdapConnectionResult.CANNOT_BIND
         report.containsFailureMessages()
     }
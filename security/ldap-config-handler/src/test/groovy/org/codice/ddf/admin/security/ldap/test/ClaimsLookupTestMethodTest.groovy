@@ -0,0 +1,189 @@
+package org.codice.ddf.admin.security.ldap.test
+
+import com.google.common.collect.ArrayListMultimap
+import org.codice.ddf.admin.api.config.ldap.LdapConfiguration
+import org.codice.ddf.admin.api.handler.report.Report
+import org.forgerock.opendj.ldap.Attribute
+import org.forgerock.opendj.ldap.Connection
+import org.forgerock.opendj.ldap.DN
+import org.forgerock.opendj.ldap.SearchScope
+import org.forgerock.opendj.ldap.responses.SearchResultEntry
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONNECT
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.LARGE_GROUP_MEMBERSHIP
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.NO_USERS_IN_BASE_USER_DN
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SLOW_GROUP_LOOKUP
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SLOW_USER_LOOKUP
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL_BIND
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.UNINDEXED_GROUP_LOOKUP
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.UNINDEXED_USER_LOOKUP
+
+class ClaimsLookupTestMethodTest extends Specification {
+    static final INDEXED = 'filter=(uid=joe)[INDEX:uid.equality][COUNT:1] final=[COUNT:1]'
+
+    static final NOT_INDEXED = 'filter=(description=joe)[NOT-INDEXED] scope=wholeSubtree[LIMIT-EXCEEDED:4000] final=[NOT-INDEXED]'
+
+    private configuration
+    private ldapTestingCommons
+    private connection
+    private connectionAttempt
+    private tester
+
+    def setup() {
+        ldapTestingCommons = Mock(LdapTestingCommons)
+        connection = Mock(Connection)
+        connectionAttempt = Mock(LdapTestingCommons.LdapConnectionAttempt)
+        tester = new ClaimsLookupTestMethod(ldapTestingCommons)
+
+        configuration = Mock(LdapConfiguration)
+        configuration.baseUserDn() >> 'ou=users,dc=foo'
+        configuration.baseGroupDn() >> 'ou=groups,dc=foo'
+        configuration.userNameAttribute() >> 'uid'
+        configuration.groupObjectClass() >> 'groupOfNames'
+        configuration.groupAttributeHoldingMember() >> 'member'
+        configuration.memberAttributeReferencedInGroup() >> 'uid'
+    }
+
+    def 'fail due to failed connection'() {
+        when:
+        Report report = tester.test(configuration)
+
+        then:
+        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        _ * connectionAttempt.result() >> CANNOT_CONNECT
+        0 * ldapTestingCommons.getLdapQueryResults(*_)
+        report.messages()*.subtype() == [CANNOT_CONNECT.name()]
+    }
+
+    def 'warn when there are no users to sample'() {
+        when:
+        Report report = tester.test(configuration)
+
+        then:
+        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        _ * connectionAttempt.result() >> SUCCESSFUL_BIND
+        _ * connectionAttempt.connection() >> connection
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=users,dc=foo', '(uid=*)', SearchScope.WHOLE_SUBTREE, ClaimsLookupTestMethod.SAMPLE_USERS, 'uid') >> []
+        report.messages()*.subtype() == [NO_USERS_IN_BASE_USER_DN.name()]
+    }
+
+    def 'replay the lookups the claims handler makes'() {
+        setup:
+        def joe = entry('uid=joe,ou=users,dc=foo', [uid: ['joe']])
+
+        when:
+        Report report = tester.test(configuration)
+
+        then:
+        1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
+        _ * connectionAttempt.result() >> SUCCESSFUL_BIND
+        _ * connectionAttempt.connection() >> connection
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=users,dc=foo', '(uid=*)', SearchScope.WHOLE_SUBTREE, ClaimsLookupTestMethod.SAMPLE_USERS, 'uid') >> [joe]
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'uid=joe,ou=users,dc=foo', _, SearchScope.BASE_OBJECT, 1, '1.1') >> [joe]
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=users,dc=foo', '(uid=joe)', SearchScope.WHOLE_SUBTREE, ClaimsLookupTestMethod.MAX_LOOKUP_RESULTS, 'uid') >> [joe]
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=groups,dc=foo', '(&(objectClass=groupOfNames)(member=uid=joe,ou=users,dc=foo))', SearchScope.WHOLE_SUBTREE, ClaimsLookupTestMethod.MAX_LOOKUP_RESULTS, 'cn') >> [entry('cn=admins,ou=groups,dc=foo', [:])]
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=users,dc=foo', '(uid=joe)', SearchScope.WHOLE_SUBTREE, 1, ClaimsLookupTestMethod.DEBUG_SEARCH_INDEX) >> [entry('cn=debugsearch', [debugsearchindex: [INDEXED]])]
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=groups,dc=foo', { it.startsWith('(&') }, SearchScope.WHOLE_SUBTREE, 1, ClaimsLookupTestMethod.DEBUG_SEARCH_INDEX) >> []
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=groups,dc=foo', { it.startsWith('(&') }, SearchScope.WHOLE_SUBTREE, ClaimsLookupTestMethod.SAMPLE_USERS, 'member') >> [entry('cn=admins,ou=groups,dc=foo', [member: ['uid=joe,ou=users,dc=foo']])]
+
+        !report.containsUnsuccessfulMessages()
+        report.messages()*.subtype() == ['SUCCESSFUL_TEST', ClaimsLookupTestMethod.LOOKUP_LATENCY]
+        report.messages()[1].message().contains('for 1 users')
+        report.messages()[1].message().contains('The server scans 1 entries for a user lookup.')
+        !report.messages()[1].message().contains('group lookup.')
+    }
+
+    def 'warn about lookups the server reports as unindexed'() {
+        setup:
+        def results = ArrayListMultimap.create()
+        def fast = lookupsOf(100_000)
+
+        when:
+        tester.checkUserLookup(results, NOT_INDEXED, fast, fast)
+        tester.checkGroupLookup(results, NOT_INDEXED, fast, fast)
+
+        then:
+        results.keySet() == [UNINDEXED_USER_LOOKUP.name(), UNINDEXED_GROUP_LOOKUP.name()] as Set
+    }
+
+    def 'warn about lookups much slower than reading by DN'() {
+        setup:
+        def results = ArrayListMultimap.create()
+        def dnReads = lookupsOf(TimeUnit.MILLISECONDS.toNanos(1))
+        def slow = lookupsOf(TimeUnit.MILLISECONDS.toNanos(50))
+        def quick = lookupsOf(TimeUnit.MILLISECONDS.toNanos(4))
+
+        when:
+        tester.checkUserLookup(results, null, quick, dnReads)
+        tester.checkGroupLookup(results, INDEXED, quick, dnReads)
+
+        then:
+        results.isEmpty()
+
+        when:
+        tester.checkUserLookup(results, null, slow, dnReads)
+        tester.checkGroupLookup(results, INDEXED, slow, dnReads)
+
+        then:
+        results.keySet() == [SLOW_USER_LOOKUP.name(), SLOW_GROUP_LOOKUP.name()] as Set
+    }
+
+    def 'warn about groups with very many members'() {
+        setup:
+        def results = ArrayListMultimap.create()
+        def members = (0..ClaimsLookupTestMethod.LARGE_GROUP_MEMBERS).collect { "uid=user$it,ou=users,dc=foo" }
+
+        when:
+        tester.checkGroupSizes(configuration, results, connection, '(&(objectClass=groupOfNames)(member=uid=joe,ou=users,dc=foo))')
+
+        then:
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'ou=groups,dc=foo', _, SearchScope.WHOLE_SUBTREE, ClaimsLookupTestMethod.SAMPLE_USERS, 'member') >> [entry('cn=all,ou=groups,dc=foo', [member: members])]
+        results.keySet() == [LARGE_GROUP_MEMBERSHIP.name()] as Set
+    }
+
+    def 'test reading the search index debug attribute'() {
+        expect:
+        ClaimsLookupTestMethod.entriesScanned(debug) == scanned
+        ClaimsLookupTestMethod.isUnindexed(debug) == unindexed
+
+        where:
+        debug                                                                       | scanned | unindexed
+        INDEXED                                                                     | 1       | false
+        'filter=(member=uid=joe)[INDEX:member.equality][COUNT:12] final=[COUNT:12]' | 12      | false
+        NOT_INDEXED                                                                 | -1      | true
+        null                                                                        | -1      | false
+    }
+
+    def 'test latency percentiles'() {
+        setup:
+        def lookups = new ClaimsLookupTestMethod.LookupTimes()
+        (1..100).each { lookups.add(it, 2) }
+
+        expect:
+        lookups.percentile(0.50) == 50
+        lookups.percentile(0.95) == 95
+        lookups.percentile(0.99) == 99
+        lookups.meanReturned() == 2
+    }
+
+    private lookupsOf(long nanos) {
+        def lookups = new ClaimsLookupTestMethod.LookupTimes()
+        3.times { lookups.add(nanos, 1) }
+        lookups
+    }
+
+    private entry(String dn, Map<String, List<String>> attributes) {
+        def entry = Mock(SearchResultEntry)
+        entry.getName() >> DN.valueOf(dn)
+        attributes.each { name, values ->
+            def attribute = Mock(Attribute)
+            attribute.firstValueAsString() >> values[0]
+            attribute.size() >> values.size()
+            entry.getAttribute(name) >> attribute
+        }
+        entry
+    }
+}
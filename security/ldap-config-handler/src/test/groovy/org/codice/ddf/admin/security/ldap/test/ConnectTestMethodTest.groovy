@@ -30,4 +30,30 @@ class ConnectTestMethodTest extends Specification {
         1 * connectionAttempt.result() >> LdapConnectionResult.CANNOT_CONNECT
         report.containsFailureMessages()
     }
+
+    def 'test each failover server is reported'() {
+        setup:
+        def configuration = Mock(LdapConfiguration)
+        configuration.failoverServers() >> ['ds2.example.com:389', 'ds3.example.com:389']
+        def ldapTestingCommons = Mock(LdapTestingCommons)
+        def tester = new ConnectTestMethod(ldapTestingCommons)
+
+        when:
+        Report report = tester.test(configuration)
+
+        then:
+        0 * ldapTestingCommons.getLdapConnection(_)
+        1 * ldapTestingCommons.getServerConnections(configuration) >> [
+                new LdapTestingCommons.ServerConnectionAttempt('ds1.example.com:389', LdapConnectionResult.SUCCESSFUL_CONNECTION, 12),
+                new LdapTestingCommons.ServerConnectionAttempt('ds2.example.com:389', LdapConnectionResult.SUCCESSFUL_CONNECTION, 40),
+                new LdapTestingCommons.ServerConnectionAttempt('ds3.example.com:389', LdapConnectionResult.CANNOT_CONNECT, 3000)]
+        report.containsFailureMessages()
+        report.messages()*.subtype() == [LdapConnectionResult.SUCCESSFUL_CONNECTION.name(),
+                                         LdapConnectionResult.SUCCESSFUL_CONNECTION.name(),
+                                         LdapConnectionResult.CANNOT_CONNECT.name()]
+        report.messages()*.configFieldId() == [LdapConfiguration.HOST_NAME,
+                                               LdapConfiguration.FAILOVER_SERVERS,
+                                               LdapConfiguration.FAILOVER_SERVERS]
+        report.messages()[1].message().endsWith('(ds2.example.com:389, 40 ms)')
+    }
 }
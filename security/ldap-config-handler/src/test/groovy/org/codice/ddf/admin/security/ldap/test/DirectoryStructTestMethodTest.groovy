@@ -9,7 +9,15 @@ import org.forgerock.opendj.ldap.SearchScope
 import org.forgerock.opendj.ldap.responses.SearchResultEntry
 import spock.lang.Specification
 
+import java.util.concurrent.CompletableFuture
+
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.BASE_GROUP_DN_NOT_FOUND
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.BASE_USER_DN_NOT_FOUND
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.CANNOT_CONNECT
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.NO_GROUPS_IN_BASE_GROUP_DN
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.NO_GROUPS_WITH_MEMBERS
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.NO_REFERENCED_MEMBER
+import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.NO_USERS_IN_BASE_USER_DN
 import static org.codice.ddf.admin.security.ldap.LdapConnectionResult.SUCCESSFUL_BIND
 
 class DirectoryStructTestMethodTest extends Specification {
@@ -41,6 +49,7 @@ class DirectoryStructTestMethodTest extends Specification {
         then: 'fail due to failed connection'
         1 * ldapTestingCommons.bindUserToLdapConnection(configuration) >> connectionAttempt
         _ * connectionAttempt.result() >> CANNOT_CONNECT
+        0 * ldapTestingCommons.getLdapQueryResultsAsync(*_)
         report.containsUnsuccessfulMessages()
     }
 
@@ -53,9 +62,15 @@ class DirectoryStructTestMethodTest extends Specification {
         _ * connectionAttempt.result() >> SUCCESSFUL_BIND
         _ * connectionAttempt.connection() >> connection
 
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> []
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> []
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([])
+        2 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([])
+        0 * ldapTestingCommons.getLdapQueryResults(*_)
+
         report.containsUnsuccessfulMessages()
+        report.messages()*.subtype() as Set ==
+                [BASE_USER_DN_NOT_FOUND.name(), BASE_GROUP_DN_NOT_FOUND.name()] as Set
     }
 
     def 'fail with no users in found user base and group base directory'() {
@@ -67,12 +82,14 @@ class DirectoryStructTestMethodTest extends Specification {
         _ * connectionAttempt.result() >> SUCCESSFUL_BIND
         _ * connectionAttempt.connection() >> connection
 
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> []
-
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> []
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([])
+        2 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([])
 
         report.containsUnsuccessfulMessages()
+        report.messages()*.subtype().contains(NO_USERS_IN_BASE_USER_DN.name())
+        report.messages()*.subtype().contains(BASE_GROUP_DN_NOT_FOUND.name())
     }
 
     def 'fail users in found user base no group in group base directory'() {
@@ -84,13 +101,16 @@ class DirectoryStructTestMethodTest extends Specification {
         _ * connectionAttempt.result() >> SUCCESSFUL_BIND
         _ * connectionAttempt.connection() >> connection
 
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> []
-
-        2 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> []
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', { !it.startsWith('(&') }, SearchScope.SUBORDINATES, 1) >> done([])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', { it.startsWith('(&') }, SearchScope.SUBORDINATES, 1) >> done([])
+        0 * ldapTestingCommons.getLdapQueryResults(*_)
 
         report.containsUnsuccessfulMessages()
+        report.messages()*.subtype() as Set ==
+                [NO_GROUPS_IN_BASE_GROUP_DN.name(), NO_GROUPS_WITH_MEMBERS.name()] as Set
     }
 
     def 'fail users in found user base, group in group base, no referenced user in group'() {
@@ -98,7 +118,6 @@ class DirectoryStructTestMethodTest extends Specification {
         def group = Mock(SearchResultEntry)
         def groupAttrHoldingMember = Mock(Attribute)
         group.getAttribute('groupAttributeHoldingMember') >> groupAttrHoldingMember
-        groupAttrHoldingMember.firstValueAsString() >> 'memberAttributeReferencedInGroup=joe,cn=users,ou=foo'
 
         when:
         Report report = tester.test(configuration)
@@ -108,18 +127,18 @@ class DirectoryStructTestMethodTest extends Specification {
         _ * connectionAttempt.result() >> SUCCESSFUL_BIND
         _ * connectionAttempt.connection() >> connection
 
-        then: 'userdir validation'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-
-        then: 'group dir'
-        2 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
+        then: 'independent checks are all sent before the member lookup'
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', { !it.startsWith('(&') }, SearchScope.SUBORDINATES, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', { it.startsWith('(&') }, SearchScope.SUBORDINATES, 1) >> done([group])
 
-        then: 'check group objectClass, no referenced user'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> [group]
+        then: 'check referenced user, no referenced user'
         1 * groupAttrHoldingMember.firstValueAsString() >> 'memberAttributeReferencedInGroup=joe,cn=users,ou=foo'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> []
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', 'memberAttributeReferencedInGroup=joe', SearchScope.SUBORDINATES, 1) >> []
         report.containsUnsuccessfulMessages()
+        report.messages()*.subtype() == [NO_REFERENCED_MEMBER.name()]
     }
 
     def 'pass users found in group'() {
@@ -127,7 +146,6 @@ class DirectoryStructTestMethodTest extends Specification {
         def group = Mock(SearchResultEntry)
         def groupAttrHoldingMember = Mock(Attribute)
         group.getAttribute('groupAttributeHoldingMember') >> groupAttrHoldingMember
-        groupAttrHoldingMember.firstValueAsString() >> 'memberAttributeReferencedInGroup=joe,cn=users,ou=foo'
 
         when:
         Report report = tester.test(configuration)
@@ -137,17 +155,16 @@ class DirectoryStructTestMethodTest extends Specification {
         _ * connectionAttempt.result() >> SUCCESSFUL_BIND
         _ * connectionAttempt.connection() >> connection
 
-        then: 'userdir validation'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
-
-        then: 'group dir'
-        2 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
+        then: 'independent checks are all sent before the member lookup'
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=users,ou=foo', (String) _, SearchScope.SUBORDINATES, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', (String) _, SearchScope.BASE_OBJECT, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', { !it.startsWith('(&') }, SearchScope.SUBORDINATES, 1) >> done([Mock(SearchResultEntry)])
+        1 * ldapTestingCommons.getLdapQueryResultsAsync(connection, 'cn=groups,ou=foo', { it.startsWith('(&') }, SearchScope.SUBORDINATES, 1) >> done([group])
 
-        then: 'check group objectClass, no referenced user'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> [group]
+        then: 'check referenced user'
         1 * groupAttrHoldingMember.firstValueAsString() >> 'memberAttributeReferencedInGroup=joe,cn=users,ou=foo'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
+        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', 'memberAttributeReferencedInGroup=joe', SearchScope.SUBORDINATES, 1) >> [Mock(SearchResultEntry)]
         !report.containsUnsuccessfulMessages()
     }
 
@@ -155,18 +172,16 @@ class DirectoryStructTestMethodTest extends Specification {
         setup:
         def results = ArrayListMultimap.create()
 
-        when:
-        tester.checkUsersInDir(configuration, results, connection)
+        when: 'find user'
+        tester.checkUsersInDir(results, [Mock(SearchResultEntry)])
 
-        then: 'find user'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
+        then:
         results.isEmpty()
 
-        when:
-        tester.checkUsersInDir(configuration, results, connection)
+        when: 'find no user'
+        tester.checkUsersInDir(results, [])
 
-        then: 'find no user'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> []
+        then:
         !results.isEmpty()
     }
 
@@ -174,21 +189,31 @@ class DirectoryStructTestMethodTest extends Specification {
         setup:
         def results = ArrayListMultimap.create()
 
-        when:
-        tester.checkGroupObjectClass(configuration, results, connection)
+        when: 'find group with objectClass'
+        tester.checkGroupObjectClass(results, [Mock(SearchResultEntry)])
 
-        then: 'find group with objectClass'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
+        then:
         results.isEmpty()
 
-        when:
-        tester.checkGroupObjectClass(configuration, results, connection)
+        when: 'find no group with objectClass'
+        tester.checkGroupObjectClass(results, [])
 
-        then: 'find no group with objectClass'
-        1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=groups,ou=foo', (String) _, (SearchScope) _, 1) >> []
+        then:
         !results.isEmpty()
     }
 
+    def 'test checkGroup'() {
+        setup:
+        def results = ArrayListMultimap.create()
+
+        when: 'no groups with members'
+        tester.checkGroup(configuration, results, connection, [])
+
+        then:
+        0 * ldapTestingCommons.getLdapQueryResults(*_)
+        results.get(NO_GROUPS_WITH_MEMBERS.name()) == ['groupAttributeHoldingMember']
+    }
+
     def 'test checkReferencedUser'() {
         setup:
         def results = ArrayListMultimap.create()
@@ -234,4 +259,8 @@ class DirectoryStructTestMethodTest extends Specification {
         1 * ldapTestingCommons.getLdapQueryResults(connection, 'cn=users,ou=foo', (String) _, (SearchScope) _, 1) >> [Mock(SearchResultEntry)]
         results.isEmpty()
     }
-}
\ No newline at end of file
+
+    private static done(List<SearchResultEntry> results) {
+        CompletableFuture.completedFuture(results)
+    }
+}